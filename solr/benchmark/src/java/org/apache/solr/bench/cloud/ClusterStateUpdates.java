@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.bench.cloud;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.commons.io.file.PathUtils;
+import org.apache.lucene.util.IOUtils;
+import org.apache.solr.bench.BaseBenchState;
+import org.apache.solr.client.solrj.impl.CloudHttp2SolrClient;
+import org.apache.solr.client.solrj.impl.SolrClientCloudManager;
+import org.apache.solr.client.solrj.impl.ZkClientClusterStateProvider;
+import org.apache.solr.cloud.DistributedClusterStateUpdater;
+import org.apache.solr.cloud.Overseer;
+import org.apache.solr.cloud.ZkController;
+import org.apache.solr.cloud.ZkTestServer;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.cloud.SolrZkClient;
+import org.apache.solr.common.cloud.ZkNodeProps;
+import org.apache.solr.common.cloud.ZkStateReader;
+import org.apache.solr.common.util.Utils;
+import org.apache.zookeeper.data.Stat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A JMH benchmark of the throughput of the distributed (Overseer-less) updates of the state of a
+ * collection, in state updates per second, against an in-process ZooKeeper server. The threads
+ * concurrently change the state of random replicas of the same collection, as its cores do when a
+ * node starts, with and without the batching of the updates. The number of state updates per
+ * write of {@code state.json} is reported at the end of the trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Warmup(time = 10, iterations = 2)
+@Measurement(time = 20, iterations = 4)
+@Fork(value = 1)
+public class ClusterStateUpdates {
+
+  static final String COLLECTION = "testCollection";
+
+  @Benchmark
+  public void setReplicaState(BenchState state, ThreadState threadState) throws Exception {
+    state.updater.doSingleStateUpdate(
+        DistributedClusterStateUpdater.MutatingCommand.ReplicaSetState,
+        threadState.nextMessage(state.numReplicas),
+        state.cloudManager,
+        state.zkStateReader);
+    state.updates.increment();
+  }
+
+  @State(Scope.Benchmark)
+  public static class BenchState {
+
+    @Param({"false", "true"})
+    boolean batching;
+
+    @Param("100")
+    int numReplicas;
+
+    private Path zkDir;
+    private ZkTestServer zkServer;
+    private SolrZkClient zkClient;
+    private ZkStateReader zkStateReader;
+    private CloudHttp2SolrClient cloudClient;
+    SolrClientCloudManager cloudManager;
+    DistributedClusterStateUpdater updater;
+
+    final LongAdder updates = new LongAdder();
+    private int initialVersion;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      zkDir = Files.createTempDirectory("clusterstateupdates-zk");
+      zkServer = new ZkTestServer(zkDir);
+      zkServer.run();
+      zkClient =
+          new SolrZkClient.Builder()
+              .withUrl(zkServer.getZkAddress())
+              .withTimeout(30000, TimeUnit.MILLISECONDS)
+              .build();
+      ZkController.createClusterZkNodes(zkClient);
+      zkClient.makePath(DocCollection.getCollectionPath(COLLECTION), createStateJson(), true);
+
+      zkStateReader = new ZkStateReader(zkClient);
+      zkStateReader.createClusterStateWatchersAndUpdate();
+      cloudClient =
+          new CloudHttp2SolrClient.Builder(new ZkClientClusterStateProvider(zkStateReader))
+              .build();
+      cloudManager = new SolrClientCloudManager(cloudClient, null);
+      updater = new DistributedClusterStateUpdater(true, batching);
+      initialVersion = stateJsonVersion();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      final int writes = stateJsonVersion() - initialVersion;
+      if (writes > 0) {
+        BaseBenchState.log(
+            "batching="
+                + batching
+                + ": "
+                + updates.sum()
+                + " state updates in "
+                + writes
+                + " writes of state.json, "
+                + (updates.sum() / writes)
+                + " updates per write");
+      }
+      IOUtils.close(cloudClient, zkStateReader, zkClient);
+      zkServer.shutdown();
+      PathUtils.deleteDirectory(zkDir);
+    }
+
+    private int stateJsonVersion() throws Exception {
+      final Stat stat = new Stat();
+      zkClient.getData(DocCollection.getCollectionPath(COLLECTION), null, stat, true);
+      return stat.getVersion();
+    }
+
+    private byte[] createStateJson() {
+      final Map<String, Object> replicas = new LinkedHashMap<>();
+      for (int i = 0; i < numReplicas; i++) {
+        replicas.put(
+            coreNodeName(i),
+            Map.of(
+                ZkStateReader.CORE_NAME_PROP, coreName(i),
+                ZkStateReader.NODE_NAME_PROP, nodeName(i),
+                ZkStateReader.STATE_PROP, Replica.State.DOWN.toString(),
+                ZkStateReader.REPLICA_TYPE, Replica.Type.NRT.name()));
+      }
+      final Map<String, Object> collection =
+          Map.of(
+              ZkStateReader.CONFIGNAME_PROP,
+              "_default",
+              DocCollection.CollectionStateProps.SHARDS,
+              Map.of(
+                  "shard1",
+                  Map.of(
+                      Slice.SliceStateProps.STATE_PROP,
+                      Slice.State.ACTIVE.toString(),
+                      Slice.SliceStateProps.REPLICAS,
+                      replicas)));
+      return Utils.toJSON(Map.of(COLLECTION, collection));
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class ThreadState {
+    private final SplittableRandom random = new SplittableRandom();
+
+    ZkNodeProps nextMessage(int numReplicas) {
+      final int replica = random.nextInt(numReplicas);
+      final Replica.State state = random.nextBoolean() ? Replica.State.ACTIVE : Replica.State.DOWN;
+      return new ZkNodeProps(
+          Map.of(
+              Overseer.QUEUE_OPERATION, "state",
+              ZkStateReader.COLLECTION_PROP, COLLECTION,
+              ZkStateReader.SHARD_ID_PROP, "shard1",
+              ZkStateReader.CORE_NODE_NAME_PROP, coreNodeName(replica),
+              ZkStateReader.CORE_NAME_PROP, coreName(replica),
+              ZkStateReader.NODE_NAME_PROP, nodeName(replica),
+              ZkStateReader.STATE_PROP, state.toString()));
+    }
+  }
+
+  static String coreNodeName(int replica) {
+    return "core_node" + replica;
+  }
+
+  static String coreName(int replica) {
+    return COLLECTION + "_shard1_replica_n" + replica;
+  }
+
+  static String nodeName(int replica) {
+    return "127.0.0.1:" + (8983 + replica % 10) + "_solr";
+  }
+}
@@ -22,9 +22,11 @@ import java.nio.file.Path;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.io.file.PathUtils;
 import org.apache.lucene.util.IOUtils;
+import org.apache.solr.bench.BaseBenchState;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.request.CoreAdminRequest;
 import org.apache.solr.client.solrj.response.CoreAdminResponse;
+import org.apache.solr.core.CoreLoadTimings;
 import org.apache.solr.embedded.JettyConfig;
 import org.apache.solr.embedded.JettySolrRunner;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -34,6 +36,7 @@ import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -42,7 +45,8 @@ import org.openjdk.jmh.annotations.Threads;
 
 /**
  * A simple JMH benchmark that attempts to measure approximate Solr startup behavior by measuring
- * {@link JettySolrRunner#start()}
+ * {@link JettySolrRunner#start()}. The time spent by the cores in each phase of their load is
+ * reported at the end of the trial, as an average per start.
  */
 @BenchmarkMode(Mode.Throughput)
 @OutputTimeUnit(TimeUnit.SECONDS)
@@ -60,11 +64,15 @@ public class SolrStartup {
   @State(Scope.Thread)
   public static class PerThreadState {
 
-    private static final int NUM_CORES = 10;
+    @Param("10")
+    public int numCores;
 
     public Path tmpSolrHome;
     public JettySolrRunner solrRunner;
 
+    private final long[] phaseTimes = new long[CoreLoadTimings.Phase.values().length];
+    private int starts;
+
     @Setup(Level.Trial)
     public void bootstrapJettyServer() throws Exception {
       tmpSolrHome = Files.createTempDirectory("solrstartup-perthreadstate-jsr").toAbsolutePath();
@@ -79,7 +87,7 @@ public class SolrStartup {
       solrRunner = new JettySolrRunner(tmpSolrHome.toString(), buildJettyConfig());
       solrRunner.start(false);
       try (SolrClient client = solrRunner.newClient()) {
-        for (int i = 0; i < NUM_CORES; i++) {
+        for (int i = 0; i < numCores; i++) {
           createCore(client, "core-prefix-" + i);
         }
       }
@@ -100,6 +108,11 @@ public class SolrStartup {
     @TearDown(Level.Invocation)
     public void stopJettyServerIfNecessary() throws Exception {
       if (solrRunner.isRunning()) {
+        final CoreLoadTimings timings = solrRunner.getCoreContainer().getCoreLoadTimings();
+        for (CoreLoadTimings.Phase phase : CoreLoadTimings.Phase.values()) {
+          phaseTimes[phase.ordinal()] += timings.getTime(phase);
+        }
+        starts++;
         solrRunner.stop();
       }
     }
@@ -110,6 +123,18 @@ public class SolrStartup {
         solrRunner.stop();
       }
 
+      if (starts > 0) {
+        final StringBuilder sb = new StringBuilder("Time spent by the cores per start:");
+        for (CoreLoadTimings.Phase phase : CoreLoadTimings.Phase.values()) {
+          sb.append(' ')
+              .append(phase.getName())
+              .append('=')
+              .append(phaseTimes[phase.ordinal()] / starts)
+              .append("ms");
+        }
+        BaseBenchState.log(sb.toString());
+      }
+
       IOUtils.rm(tmpSolrHome);
     }
 
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.bench.search;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.apache.solr.core.SolrResourceLoader;
+import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.feature.ValueFeature;
+import org.apache.solr.ltr.model.LTRScoringModel;
+import org.apache.solr.ltr.model.MultipleAdditiveTreesModel;
+import org.apache.solr.ltr.norm.IdentityNormalizer;
+import org.apache.solr.ltr.norm.Normalizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares scoring a {@link MultipleAdditiveTreesModel} by walking its trees against scoring its
+ * compiled flat arrays. The model has random, complete trees and scores a fixed set of random
+ * feature vectors, standing in for the documents of a rerank.
+ */
+@Fork(value = 1)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 5, iterations = 3)
+@Measurement(time = 10, iterations = 5)
+@Threads(value = 1)
+public class MultipleAdditiveTreesScoring {
+
+  @State(Scope.Benchmark)
+  public static class BenchState {
+
+    @Param({"false", "true"})
+    boolean compiled;
+
+    @Param({"100", "1000"})
+    int numTrees;
+
+    @Param("6")
+    int depth;
+
+    @Param("50")
+    int numFeatures;
+
+    @Param("500")
+    int numDocs;
+
+    LTRScoringModel model;
+    float[][] featureVectors;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      SplittableRandom random = new SplittableRandom(42);
+      SolrResourceLoader loader = new SolrResourceLoader(Path.of("."));
+      List<Feature> features = new ArrayList<>(numFeatures);
+      for (int i = 0; i < numFeatures; i++) {
+        Feature feature =
+            Feature.getInstance(loader, ValueFeature.class.getName(), "f" + i, Map.of("value", 0));
+        feature.setIndex(i);
+        features.add(feature);
+      }
+      List<Normalizer> norms =
+          new ArrayList<>(Collections.nCopies(numFeatures, IdentityNormalizer.INSTANCE));
+
+      List<Object> trees = new ArrayList<>(numTrees);
+      for (int i = 0; i < numTrees; i++) {
+        Map<String, Object> tree = new HashMap<>();
+        tree.put("weight", String.valueOf(random.nextDouble()));
+        tree.put("root", treeNode(random, depth));
+        trees.add(tree);
+      }
+      Map<String, Object> params = new HashMap<>();
+      params.put("trees", trees);
+      params.put("compiled", compiled);
+      model =
+          LTRScoringModel.getInstance(
+              loader,
+              MultipleAdditiveTreesModel.class.getName(),
+              "bench",
+              features,
+              norms,
+              "bench",
+              features,
+              params);
+
+      featureVectors = new float[numDocs][numFeatures];
+      for (float[] featureVector : featureVectors) {
+        for (int i = 0; i < numFeatures; i++) {
+          featureVector[i] = (float) random.nextDouble();
+        }
+      }
+    }
+
+    private Map<String, Object> treeNode(SplittableRandom random, int depth) {
+      Map<String, Object> node = new HashMap<>();
+      if (depth == 0) {
+        node.put("value", String.valueOf(random.nextDouble(-1, 1)));
+        return node;
+      }
+      node.put("feature", "f" + random.nextInt(numFeatures));
+      node.put("threshold", String.valueOf(random.nextDouble()));
+      node.put("left", treeNode(random, depth - 1));
+      node.put("right", treeNode(random, depth - 1));
+      return node;
+    }
+  }
+
+  @Benchmark
+  public float score(BenchState state) {
+    float sum = 0;
+    for (float[] featureVector : state.featureVectors) {
+      sum += state.model.score(featureVector);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.bench.search;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
+import org.apache.solr.client.solrj.io.comp.StreamComparator;
+import org.apache.solr.client.solrj.io.stream.RollupStream;
+import org.apache.solr.client.solrj.io.stream.SelectStream;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+import org.apache.solr.client.solrj.io.stream.expr.Explanation;
+import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.apache.solr.client.solrj.io.stream.metrics.Bucket;
+import org.apache.solr.client.solrj.io.stream.metrics.CountMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.MaxMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.Metric;
+import org.apache.solr.client.solrj.io.stream.metrics.SumMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares rolling up a stream read one {@link Tuple} at a time (through the {@link
+ * TupleStream#readBatch} adapter) against a source producing columnar {@link TupleBatch}es, as
+ * {@code SolrStream} does for {@code /export} responses. No cluster is involved; the source
+ * simulates the per-record maps produced by the response parser.
+ */
+@Fork(value = 1)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 5, iterations = 3)
+@Measurement(time = 10, iterations = 5)
+@Threads(value = 1)
+public class StreamingRollup {
+
+  @State(Scope.Benchmark)
+  public static class BenchState {
+
+    @Param({"false", "true"})
+    boolean columnar;
+
+    @Param({"100", "10000"})
+    int numBuckets;
+
+    @Param("1000000")
+    int numRecords;
+
+    long[] buckets;
+    long[] longs;
+    double[] doubles;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      SplittableRandom random = new SplittableRandom(42);
+      buckets = new long[numRecords];
+      longs = new long[numRecords];
+      doubles = new double[numRecords];
+      for (int i = 0; i < numRecords; i++) {
+        // the rollup input is sorted by bucket
+        buckets[i] = (long) i * numBuckets / numRecords;
+        longs[i] = random.nextLong(1000);
+        doubles[i] = random.nextDouble();
+      }
+    }
+  }
+
+  @Benchmark
+  public long rollup(BenchState state) throws IOException {
+    Metric[] metrics = {
+      new CountMetric(), new SumMetric("l"), new MaxMetric("l"), new SumMetric("d")
+    };
+    TupleStream source =
+        new SelectStream(
+            new GeneratedStream(state), Map.of("bucket", "bucket", "l", "l", "d", "d"));
+    RollupStream rollup = new RollupStream(source, new Bucket[] {new Bucket("bucket")}, metrics);
+    rollup.setStreamContext(new StreamContext());
+    long count = 0;
+    rollup.open();
+    try {
+      for (Tuple tuple = rollup.read(); !tuple.EOF; tuple = rollup.read()) {
+        count += tuple.getLong("count(*)");
+      }
+    } finally {
+      rollup.close();
+    }
+    return count;
+  }
+
+  private static class GeneratedStream extends TupleStream {
+    private final BenchState state;
+    private int next;
+
+    GeneratedStream(BenchState state) {
+      this.state = state;
+    }
+
+    private Map<String, Object> nextRecord() {
+      // like the export response parser, one map per record
+      Map<String, Object> record = new HashMap<>(8);
+      record.put("bucket", state.buckets[next]);
+      record.put("l", state.longs[next]);
+      record.put("d", state.doubles[next]);
+      next++;
+      return record;
+    }
+
+    @Override
+    public Tuple read() {
+      return next < state.numRecords ? new Tuple(nextRecord()) : Tuple.EOF();
+    }
+
+    @Override
+    public void readBatch(TupleBatch batch) throws IOException {
+      if (!state.columnar) {
+        super.readBatch(batch);
+        return;
+      }
+      while (!batch.isFull()) {
+        if (next == state.numRecords) {
+          batch.setEOF(Tuple.EOF());
+          return;
+        }
+        batch.add(nextRecord());
+      }
+    }
+
+    @Override
+    public void setStreamContext(StreamContext context) {}
+
+    @Override
+    public List<TupleStream> children() {
+      return List.of();
+    }
+
+    @Override
+    public void open() {
+      next = 0;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public StreamComparator getStreamSort() {
+      return null;
+    }
+
+    @Override
+    public Explanation toExplanation(StreamFactory factory) {
+      return null;
+    }
+  }
+}
@@ -21,6 +21,8 @@ import static java.util.Collections.singletonMap;
 import static org.apache.solr.cloud.overseer.ZkStateWriter.NO_OP;
 import static org.apache.solr.common.cloud.ZkStateReader.COLLECTIONS_ZKNODE;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import java.lang.invoke.MethodHandles;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -28,6 +30,9 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 import org.apache.solr.client.solrj.cloud.SolrCloudManager;
 import org.apache.solr.client.solrj.impl.ZkClientClusterStateProvider;
 import org.apache.solr.cloud.overseer.ClusterStateMutator;
@@ -47,6 +52,7 @@ import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZkNodeProps;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.Pair;
 import org.apache.solr.common.util.Utils;
 import org.apache.zookeeper.CreateMode;
@@ -69,6 +75,15 @@ public class DistributedClusterStateUpdater {
    */
   private final boolean useDistributedStateUpdate;
 
+  /**
+   * The system property enabling the batching of the concurrent updates of a collection made by
+   * this node, see {@link CollectionUpdateBatcher}.
+   */
+  public static final String BATCHING_PROP = "solr.cloud.state.update.batching.enabled";
+
+  /** {@code null} when the updates of the collections are not batched. */
+  private final CollectionUpdateBatcher batcher;
+
   /**
    * Builds an instance with the specified behavior regarding distribution of state updates,
    * allowing to know distributed updates are not enabled (parameter {@code
@@ -80,7 +95,26 @@ public class DistributedClusterStateUpdater {
    *     {@code false}.
    */
   public DistributedClusterStateUpdater(boolean useDistributedStateUpdate) {
+    this(useDistributedStateUpdate, EnvUtils.getPropertyAsBool(BATCHING_PROP, false));
+  }
+
+  /**
+   * @param batchUpdates whether the concurrent updates of a collection made by this node are
+   *     written to its {@code state.json} together, see {@link CollectionUpdateBatcher}.
+   */
+  public DistributedClusterStateUpdater(boolean useDistributedStateUpdate, boolean batchUpdates) {
     this.useDistributedStateUpdate = useDistributedStateUpdate;
+    this.batcher = useDistributedStateUpdate && batchUpdates ? new CollectionUpdateBatcher() : null;
+  }
+
+  // For test use only.
+  <T> T callWithCollectionLocked(String collectionName, Callable<T> callable) throws Exception {
+    return batcher.callLocked(collectionName, callable);
+  }
+
+  // For test use only.
+  int getPendingUpdateCount(String collectionName) {
+    return batcher.pendingUpdateCount(collectionName);
   }
 
   /**
@@ -95,7 +129,7 @@ public class DistributedClusterStateUpdater {
       throw new IllegalStateException(
           "Not expecting to create instances of StateChangeRecorder when not using distributed state update");
     }
-    return new StateChangeRecorder(collectionName, isCollectionCreation);
+    return new StateChangeRecorder(collectionName, isCollectionCreation, batcher);
   }
 
   /** Syntactic sugar to allow a single change to the cluster state to be made in a single call. */
@@ -111,7 +145,7 @@ public class DistributedClusterStateUpdater {
     }
     String collectionName = command.getCollectionName(message);
     final StateChangeRecorder scr =
-        new StateChangeRecorder(collectionName, command.isCollectionCreation());
+        new StateChangeRecorder(collectionName, command.isCollectionCreation(), batcher);
     scr.record(command, message);
     scr.executeStateUpdates(scm, zkStateReader);
   }
@@ -132,6 +166,11 @@ public class DistributedClusterStateUpdater {
     return useDistributedStateUpdate;
   }
 
+  /** Whether the concurrent updates of a collection made by this node are batched. */
+  public boolean isBatchingStateUpdates() {
+    return batcher != null;
+  }
+
   /**
    * Naming of enum instances are the mutator object name (e.g. {@code Cluster} for {@link
    * ClusterStateMutator} or {@code Collection} for {@link CollectionMutator}) followed by the
@@ -637,7 +676,11 @@ public class DistributedClusterStateUpdater {
      */
     boolean creationCommandRecorded = false;
 
-    private StateChangeRecorder(String collectionName, boolean isCollectionCreation) {
+    /** {@code null} when the recorded commands are written on their own. */
+    private final CollectionUpdateBatcher batcher;
+
+    private StateChangeRecorder(
+        String collectionName, boolean isCollectionCreation, CollectionUpdateBatcher batcher) {
       if (collectionName == null) {
         final String err =
             "Internal bug. collectionName=null (isCollectionCreation=" + isCollectionCreation + ")";
@@ -647,6 +690,7 @@ public class DistributedClusterStateUpdater {
       mutations = new ArrayList<>();
       this.collectionName = collectionName;
       this.isCollectionCreation = isCollectionCreation;
+      this.batcher = batcher;
     }
 
     /**
@@ -834,9 +878,15 @@ public class DistributedClusterStateUpdater {
         throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, err);
       }
 
-      RecordedMutationsPlayer mutationPlayer =
-          new RecordedMutationsPlayer(scm, collectionName, isCollectionCreation, mutations);
-      ZkUpdateApplicator.applyUpdate(zkStateReader, mutationPlayer);
+      if (batcher != null && !isCollectionCreation) {
+        // The creation of a collection is never batched, nothing else can be written to a
+        // state.json that does not exist yet.
+        batcher.applyUpdate(scm, zkStateReader, collectionName, mutations);
+      } else {
+        RecordedMutationsPlayer mutationPlayer =
+            new RecordedMutationsPlayer(scm, collectionName, isCollectionCreation, mutations);
+        ZkUpdateApplicator.applyUpdate(zkStateReader, mutationPlayer);
+      }
 
       // TODO update stats here for the various commands executed successfully or not?
       // This would replace the stats about cluster state updates that the Collection API currently
@@ -848,6 +898,143 @@ public class DistributedClusterStateUpdater {
     }
   }
 
+  /**
+   * Batches the concurrent updates of a collection made by this node, so that they are written to
+   * its {@code state.json} together rather than each competing for it.
+   *
+   * <p>Without batching, the threads of a node that update the same collection at once (for
+   * example the cores of a collection that register when the node starts) each read {@code
+   * state.json}, apply their changes and attempt a conditional update of it, and all but one of
+   * them fail and start over after a random delay. This is a group commit instead: a thread
+   * enqueues its mutations then takes the lock of the collection. The thread that gets the lock
+   * writes the mutations of all the threads that are waiting with a single conditional update
+   * (retried by {@link ZkUpdateApplicator} as usual if another node updated the collection in the
+   * meantime), and the threads whose mutations were written return without writing anything.
+   *
+   * <p>The mutations are applied in the order they were enqueued, and a mutation that fails is
+   * skipped without failing the others, as when they are applied one by one (see {@link
+   * StateChangeRecorder.RecordedMutationsPlayer#computeUpdates}). If the write fails, all the
+   * threads whose mutations were part of it fail.
+   */
+  private static class CollectionUpdateBatcher {
+    /** The updates pending for each collection, kept as long as a thread updates it. */
+    private final Cache<String, PendingUpdates> pendingUpdates =
+        Caffeine.newBuilder().weakValues().build();
+
+    private static class PendingUpdates {
+      final ReentrantLock lock = new ReentrantLock();
+      final ConcurrentLinkedQueue<PendingUpdate> queue = new ConcurrentLinkedQueue<>();
+    }
+
+    /** The mutations of one thread. The other fields are guarded by the lock of the collection. */
+    private static class PendingUpdate {
+      final List<Pair<MutatingCommand, ZkNodeProps>> mutations;
+      boolean done = false;
+      Exception failure = null;
+
+      PendingUpdate(List<Pair<MutatingCommand, ZkNodeProps>> mutations) {
+        this.mutations = mutations;
+      }
+    }
+
+    void applyUpdate(
+        SolrCloudManager scm,
+        ZkStateReader zkStateReader,
+        String collectionName,
+        List<Pair<MutatingCommand, ZkNodeProps>> mutations)
+        throws KeeperException, InterruptedException {
+      final PendingUpdates updates =
+          pendingUpdates.get(collectionName, k -> new PendingUpdates());
+      final PendingUpdate update = new PendingUpdate(mutations);
+      updates.queue.add(update);
+      try {
+        updates.lock.lockInterruptibly();
+      } catch (InterruptedException e) {
+        if (updates.queue.remove(update)) {
+          // nothing of the update is written, the caller may retry it
+          throw e;
+        }
+        // another thread is already writing the update, wait for its outcome
+        updates.lock.lock();
+        Thread.currentThread().interrupt();
+      }
+      try {
+        if (!update.done) {
+          writeBatch(scm, zkStateReader, collectionName, updates.queue);
+        }
+      } finally {
+        updates.lock.unlock();
+      }
+
+      if (update.failure instanceof KeeperException e) {
+        throw e;
+      } else if (update.failure instanceof RuntimeException e) {
+        throw e;
+      }
+    }
+
+    // For test use only.
+    <T> T callLocked(String collectionName, Callable<T> callable) throws Exception {
+      final PendingUpdates updates =
+          pendingUpdates.get(collectionName, k -> new PendingUpdates());
+      updates.lock.lock();
+      try {
+        return callable.call();
+      } finally {
+        updates.lock.unlock();
+      }
+    }
+
+    // For test use only.
+    int pendingUpdateCount(String collectionName) {
+      final PendingUpdates updates = pendingUpdates.getIfPresent(collectionName);
+      return updates == null ? 0 : updates.queue.size();
+    }
+
+    private void writeBatch(
+        SolrCloudManager scm,
+        ZkStateReader zkStateReader,
+        String collectionName,
+        ConcurrentLinkedQueue<PendingUpdate> queue) {
+      final List<PendingUpdate> batch = new ArrayList<>();
+      final List<Pair<MutatingCommand, ZkNodeProps>> batchMutations = new ArrayList<>();
+      for (PendingUpdate pending = queue.poll(); pending != null; pending = queue.poll()) {
+        batch.add(pending);
+        batchMutations.addAll(pending.mutations);
+      }
+      if (log.isDebugEnabled()) {
+        log.debug(
+            "Writing {} batched updates of collection {}, {} mutations",
+            batch.size(),
+            collectionName,
+            batchMutations.size());
+      }
+
+      Exception failure = null;
+      try {
+        ZkUpdateApplicator.applyUpdate(
+            zkStateReader,
+            new StateChangeRecorder.RecordedMutationsPlayer(
+                scm, collectionName, false, batchMutations));
+      } catch (InterruptedException e) {
+        // Only the writing thread was interrupted, the others fail without being interrupted
+        Thread.currentThread().interrupt();
+        failure =
+            new SolrException(
+                SolrException.ErrorCode.SERVER_ERROR,
+                "Interrupted while writing the updates of collection " + collectionName,
+                e);
+      } catch (KeeperException | RuntimeException e) {
+        failure = e;
+      }
+
+      for (PendingUpdate pending : batch) {
+        pending.done = true;
+        pending.failure = failure;
+      }
+    }
+  }
+
   /**
    * This class handles the changes to be made as a result of a {@link OverseerAction#DOWNNODE}
    * event.
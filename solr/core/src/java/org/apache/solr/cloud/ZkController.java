@@ -1429,10 +1429,7 @@ public class ZkController implements Closeable {
       try (SolrCore core = cc.getCore(desc.getName())) {
 
         // recover from local transaction log and wait for it to complete before
-        // going active
-        // TODO: should this be moved to another thread? To recoveryStrat?
-        // TODO: should this actually be done earlier, before (or as part of)
-        // leader election perhaps?
+        // going active. The replay may have been started already when the core was created.
 
         if (core == null) {
           throw new SolrException(
@@ -1452,8 +1449,7 @@ public class ZkController implements Closeable {
           // disable recovery in case shard is in construction state (for shard splits)
           Slice slice = getClusterState().getCollection(collection).getSlice(shardId);
           if (slice.getState() != Slice.State.CONSTRUCTION || !isLeader) {
-            Future<UpdateLog.RecoveryInfo> recoveryFuture =
-                core.getUpdateHandler().getUpdateLog().recoverFromLog();
+            Future<UpdateLog.RecoveryInfo> recoveryFuture = ulog.recoverFromLogOnStartup();
             if (recoveryFuture != null) {
               log.info(
                   "Replaying tlog for {} during startup... NOTE: This can take a while.", ourUrl);
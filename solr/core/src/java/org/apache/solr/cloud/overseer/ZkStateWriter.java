@@ -31,9 +31,11 @@ import org.apache.solr.cloud.Overseer;
 import org.apache.solr.cloud.Stats;
 import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.DocCollectionDiff;
 import org.apache.solr.common.cloud.PerReplicaStatesOps;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.util.Compressor;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.Utils;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
@@ -50,6 +52,11 @@ import org.slf4j.LoggerFactory;
  * buffered updates are flushed during <code>enqueueUpdate</code> automatically if necessary. The
  * {@link #writePendingUpdates()} can be used to force flush any pending updates.
  *
+ * <p>When {@value #STATE_DIFFS_PROP} is true, the state.json of a collection is written as a {@link
+ * DocCollectionDiff} with the last full snapshot of its state, as long as the diff is small enough,
+ * and in full otherwise. A new snapshot is only written every {@link #MAX_STATE_DIFFS} writes. All
+ * the nodes of the cluster must support this format before it is enabled.
+ *
  * <p>If either {@link #enqueueUpdate(ClusterState, List, ZkWriteCallback)} or {@link
  * #writePendingUpdates()} throws a {@link org.apache.zookeeper.KeeperException.BadVersionException}
  * then the internal buffered state of the class is suspect and the current instance of the class
@@ -60,6 +67,11 @@ public class ZkStateWriter {
       TimeUnit.NANOSECONDS.convert(Overseer.STATE_UPDATE_DELAY, TimeUnit.MILLISECONDS);
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+  public static final String STATE_DIFFS_PROP = "solr.cloud.state.diffs.enabled";
+
+  /** The maximum number of writes of the state.json of a collection between snapshots */
+  public static final int MAX_STATE_DIFFS = 100;
+
   /**
    * Represents a no-op {@link ZkWriteCommand} which will result in no modification to cluster state
    */
@@ -85,6 +97,14 @@ public class ZkStateWriter {
 
   protected Compressor compressor;
 
+  protected final boolean stateDiffsEnabled;
+
+  /** The last snapshots written of the collections, that the diffs are created from */
+  private final Map<String, DocCollection> stateSnapshots = new HashMap<>();
+
+  /** The number of writes of the state.json of the collections since their last snapshot */
+  private final Map<String, Integer> stateWriteCounts = new HashMap<>();
+
   public ZkStateWriter(
       ZkStateReader zkStateReader,
       Stats stats,
@@ -97,6 +117,7 @@ public class ZkStateWriter {
     this.clusterState = zkStateReader.getClusterState();
     this.minStateByteLenForCompression = minStateByteLenForCompression;
     this.compressor = compressor;
+    this.stateDiffsEnabled = EnvUtils.getPropertyAsBool(STATE_DIFFS_PROP, false);
   }
 
   /**
@@ -286,17 +307,31 @@ public class ZkStateWriter {
             // delete collection cmd
             log.debug("going to delete state.json {}", path);
             reader.getZkClient().clean(path);
+            if (stateSnapshots.remove(name) != null) {
+              stateWriteCounts.remove(name);
+              reader.getZkClient().clean(DocCollectionDiff.getSnapshotsPath(name));
+            }
           } else {
             byte[] data = Utils.toJSON(singletonMap(c.getName(), c));
+            boolean snapshot = stateDiffsEnabled && needsStateSnapshot(name);
+            byte[] diff =
+                stateDiffsEnabled && !snapshot ? createStateDiff(c, data.length) : null;
             if (minStateByteLenForCompression > -1 && data.length > minStateByteLenForCompression) {
               // When compressing state.json, we expect at least a 10:1 compression ratio.
               data = compressor.compressBytes(data, data.length / 10);
             }
             if (reader.getZkClient().exists(path, true)) {
               if (log.isDebugEnabled()) {
-                log.debug("going to update_collection {} version: {}", path, c.getZNodeVersion());
+                log.debug(
+                    "going to update_collection {} version: {} diff: {}",
+                    path,
+                    c.getZNodeVersion(),
+                    diff != null);
               }
-              Stat stat = reader.getZkClient().setData(path, data, c.getZNodeVersion(), true);
+              Stat stat =
+                  reader
+                      .getZkClient()
+                      .setData(path, diff != null ? diff : data, c.getZNodeVersion(), true);
               DocCollection newCollection =
                   DocCollection.create(
                       name,
@@ -307,6 +342,12 @@ public class ZkStateWriter {
                       Instant.ofEpochMilli(stat.getCtime()),
                       PerReplicaStatesOps.getZkClientPrsSupplier(reader.getZkClient(), path));
               clusterState = clusterState.copyWith(name, newCollection);
+              if (snapshot) {
+                writeStateSnapshot(newCollection, data);
+              } else if (stateDiffsEnabled) {
+                // a diff, or a full state.json when the diff is too big
+                stateWriteCounts.merge(name, 1, Integer::sum);
+              }
             } else {
               log.debug("going to create_collection {}", path);
               Stat stat = new Stat();
@@ -321,6 +362,9 @@ public class ZkStateWriter {
                       Instant.ofEpochMilli(stat.getCtime()),
                       PerReplicaStatesOps.getZkClientPrsSupplier(reader.getZkClient(), path));
               clusterState = clusterState.copyWith(name, newCollection);
+              if (stateDiffsEnabled) {
+                writeStateSnapshot(newCollection, data);
+              }
             }
           }
 
@@ -361,6 +405,59 @@ public class ZkStateWriter {
     return clusterState;
   }
 
+  /**
+   * Returns whether the state.json of a collection should be written in full as a new snapshot:
+   * when it has none, or when {@link #MAX_STATE_DIFFS} writes were made since the last one. A
+   * collection whose diffs are too big to be used, such as a small one, is then not written a
+   * snapshot on every write.
+   */
+  private boolean needsStateSnapshot(String name) {
+    return !stateSnapshots.containsKey(name)
+        || stateWriteCounts.getOrDefault(name, 0) >= MAX_STATE_DIFFS;
+  }
+
+  /**
+   * Returns the diff of a collection with its last snapshot, or null if the state.json should be
+   * written in full because the diff is too big to be worth it.
+   */
+  private byte[] createStateDiff(DocCollection c, int fullLength) {
+    DocCollection snapshot = stateSnapshots.get(c.getName());
+    byte[] diff = Utils.toJSON(singletonMap(c.getName(), DocCollectionDiff.create(snapshot, c)));
+    return diff.length < fullLength / 2 ? diff : null;
+  }
+
+  /**
+   * Keeps a copy of the state.json that was just written in full, for the readers of the next
+   * diffs that did not see it. The previous snapshot is kept too for the readers of the last diff,
+   * the older ones are deleted.
+   */
+  private void writeStateSnapshot(DocCollection collection, byte[] data)
+      throws KeeperException, InterruptedException {
+    String name = collection.getName();
+    DocCollection previous = stateSnapshots.remove(name);
+    stateWriteCounts.remove(name);
+    // overwrites the snapshot of a collection that was deleted and created again
+    reader
+        .getZkClient()
+        .makePath(
+            DocCollectionDiff.getSnapshotPath(name, collection.getZNodeVersion()),
+            data,
+            CreateMode.PERSISTENT,
+            null,
+            false,
+            true,
+            0);
+    String snapshotsPath = DocCollectionDiff.getSnapshotsPath(name);
+    for (String child : reader.getZkClient().getChildren(snapshotsPath, null, true)) {
+      int version = Integer.parseInt(child);
+      if (version != collection.getZNodeVersion()
+          && (previous == null || version != previous.getZNodeVersion())) {
+        reader.getZkClient().delete(snapshotsPath + "/" + child, -1, true);
+      }
+    }
+    stateSnapshots.put(name, collection);
+  }
+
   public void resetPendingUpdateCounters() {
     lastUpdatedTime = System.nanoTime();
     numUpdates = 0;
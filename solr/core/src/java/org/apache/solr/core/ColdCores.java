@@ -0,0 +1,214 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.solr.common.util.EnvUtils;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Releases the heap of the idle cold cores of a {@link CoreContainer}, by closing their searchers,
+ * with their caches, and their IndexWriter. A cold core stays loaded, and in SolrCloud its replica
+ * stays registered and active: the next request to it opens its searcher and IndexWriter again.
+ *
+ * <p>A cold core is released once it executed no request for {@link #IDLE_TIMEOUT_PROP} seconds,
+ * and right after its load if it executed none. When the estimated heap of the open cold cores,
+ * the heap of the caches of their searchers and of the buffer of their IndexWriter, exceeds {@link
+ * #HEAP_MAX_PROP} megabytes, the least recently used ones are released before they are idle.
+ *
+ * @see CoreDescriptor#isCold()
+ */
+class ColdCores implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  static final String IDLE_TIMEOUT_PROP = "solr.cores.cold.idle.timeout.seconds";
+  static final String HEAP_MAX_PROP = "solr.cores.cold.heap.max.mb";
+
+  /** The longest time between two checks of the cold cores. */
+  private static final long MAX_CHECK_INTERVAL_MS = 10_000;
+
+  private final SolrCores solrCores;
+  private final long idleTimeoutNanos;
+  private final long heapMaxBytes;
+  private ScheduledExecutorService executor;
+
+  private final LongAdder releases = new LongAdder();
+  private volatile int openCores;
+  private volatile int releasedCores;
+  private volatile long openHeapBytes;
+
+  ColdCores(SolrCores solrCores) {
+    this(
+        solrCores,
+        TimeUnit.SECONDS.toNanos(EnvUtils.getPropertyAsLong(IDLE_TIMEOUT_PROP, 600L)),
+        EnvUtils.getPropertyAsLong(HEAP_MAX_PROP, 0L) * 1024 * 1024);
+  }
+
+  /**
+   * @param idleTimeoutNanos the time after which a cold core that executed no request is released
+   * @param heapMaxBytes the maximum estimated heap of the open cold cores, 0 for no maximum
+   */
+  ColdCores(SolrCores solrCores, long idleTimeoutNanos, long heapMaxBytes) {
+    this.solrCores = solrCores;
+    this.idleTimeoutNanos = idleTimeoutNanos;
+    this.heapMaxBytes = heapMaxBytes;
+  }
+
+  /** Starts checking the cold cores periodically. */
+  void start() {
+    final long idleTimeoutMs = TimeUnit.NANOSECONDS.toMillis(idleTimeoutNanos);
+    final long intervalMs = Math.max(1, Math.min(MAX_CHECK_INTERVAL_MS, idleTimeoutMs));
+    executor = Executors.newSingleThreadScheduledExecutor(new SolrNamedThreadFactory("coldCores"));
+    executor.scheduleWithFixedDelay(this::check, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /** Releases the cold cores that are idle, and the least recently used ones over the budget. */
+  void check() {
+    final long now = System.nanoTime();
+    final List<OpenCore> open = new ArrayList<>();
+    int released = 0;
+    for (String name : solrCores.getLoadedCoreNames()) {
+      // not incremented, so that the core is not seen as in use by a request
+      final SolrCore core = solrCores.getLoadedCoreWithoutIncrement(name);
+      if (core == null || core.isClosed() || !core.getCoreDescriptor().isCold()) {
+        continue;
+      }
+      try {
+        final long heapBytes = estimateHeapBytes(core);
+        if (heapBytes < 0) {
+          released++;
+          continue;
+        }
+        final OptionalLong lastRequestNanos = core.getLastRequestNanos();
+        final long idleNanos =
+            lastRequestNanos.isPresent() ? now - lastRequestNanos.getAsLong() : Long.MAX_VALUE;
+        if (idleNanos >= idleTimeoutNanos && release(core)) {
+          released++;
+        } else {
+          open.add(new OpenCore(name, core, idleNanos, heapBytes));
+        }
+      } catch (Exception e) {
+        log.warn("Failed to check the cold core {}", name, e);
+      }
+    }
+
+    long heapBytes = open.stream().mapToLong(OpenCore::heapBytes).sum();
+    if (heapMaxBytes > 0 && heapBytes > heapMaxBytes) {
+      open.sort(Comparator.comparingLong(OpenCore::idleNanos).reversed());
+      for (OpenCore c : new ArrayList<>(open)) {
+        if (heapBytes <= heapMaxBytes) {
+          break;
+        }
+        try {
+          if (release(c.core())) {
+            heapBytes -= c.heapBytes();
+            open.remove(c);
+            released++;
+          }
+        } catch (Exception e) {
+          log.warn("Failed to release the cold core {}", c.name(), e);
+        }
+      }
+    }
+
+    openCores = open.size();
+    releasedCores = released;
+    openHeapBytes = heapBytes;
+  }
+
+  private boolean release(SolrCore core) throws IOException {
+    if (!core.releaseIndexResources()) {
+      return false;
+    }
+    releases.increment();
+    if (log.isDebugEnabled()) {
+      log.debug("Released the searchers and IndexWriter of the cold core {}", core.getName());
+    }
+    return true;
+  }
+
+  /**
+   * Returns the estimated heap of the caches of the searcher of a core and of the buffer of its
+   * IndexWriter, or -1 if neither is open.
+   */
+  private static long estimateHeapBytes(SolrCore core) throws IOException {
+    long heapBytes = -1;
+    final RefCounted<SolrIndexSearcher> searcher = core.getRegisteredSearcher();
+    if (searcher != null) {
+      try {
+        heapBytes = searcher.get().getCachesRamBytesUsed();
+      } finally {
+        searcher.decref();
+      }
+    }
+    // a null core only gets the writer if it is open
+    final RefCounted<IndexWriter> writer = core.getSolrCoreState().getIndexWriter(null);
+    if (writer != null) {
+      try {
+        heapBytes = Math.max(heapBytes, 0) + writer.get().ramBytesUsed();
+      } finally {
+        writer.decref();
+      }
+    }
+    return heapBytes;
+  }
+
+  /** The number of cold cores that were open at the last check. */
+  int getOpenCores() {
+    return openCores;
+  }
+
+  /** The number of cold cores that were released at the last check. */
+  int getReleasedCores() {
+    return releasedCores;
+  }
+
+  /** The estimated heap of the cold cores that were open at the last check. */
+  long getOpenHeapBytes() {
+    return openHeapBytes;
+  }
+
+  /** The number of times a cold core was released. */
+  long getReleases() {
+    return releases.sum();
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      ExecutorUtil.shutdownNowAndAwaitTermination(executor);
+    }
+  }
+
+  private record OpenCore(String name, SolrCore core, long idleNanos, long heapBytes) {}
+}
@@ -26,6 +26,7 @@ import java.nio.file.Path;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import org.apache.solr.cloud.ZkConfigSetService;
 import org.apache.solr.cloud.ZkController;
@@ -277,17 +278,8 @@ public abstract class ConfigSetService {
       String guessSchemaName = indexSchemaFactory.getSchemaResourceName(cdSchemaName);
       Long modVersion = getCurrentSchemaModificationVersion(configSet, solrConfig, guessSchemaName);
       if (modVersion != null) {
-        // note: luceneMatchVersion influences the schema
-        String cacheKey =
-            configSet
-                + "/"
-                + guessSchemaName
-                + "/"
-                + modVersion
-                + "/"
-                + solrConfig.luceneMatchVersion;
         return schemaCache.get(
-            cacheKey,
+            schemaCacheKey(configSet, guessSchemaName, modVersion, solrConfig),
             (key) -> indexSchemaFactory.create(cdSchemaName, solrConfig, ConfigSetService.this));
       } else {
         log.warn(
@@ -301,6 +293,37 @@ public abstract class ConfigSetService {
     return indexSchemaFactory.create(cdSchemaName, solrConfig, this);
   }
 
+  /**
+   * Returns the schema of a config set at a version of its schema file, shared by the cores of the
+   * config set if the schemas are shared. The schema is created only if no core shares it yet.
+   * This lets the cores share the new version of a managed schema once it changed, the schemas
+   * themselves being immutable.
+   *
+   * @param configSet the name of the config set
+   * @param schemaFile the name of the schema file in the config set
+   * @param version the modification version of the schema file
+   * @param solrConfig the config of the core
+   * @param creator creates the schema if it is not shared yet
+   */
+  public IndexSchema getSharedIndexSchema(
+      String configSet,
+      String schemaFile,
+      long version,
+      SolrConfig solrConfig,
+      Supplier<IndexSchema> creator) {
+    if (configSet == null || schemaCache == null) {
+      return creator.get();
+    }
+    return schemaCache.get(
+        schemaCacheKey(configSet, schemaFile, version, solrConfig), (key) -> creator.get());
+  }
+
+  private static String schemaCacheKey(
+      String configSet, String schemaFile, long version, SolrConfig solrConfig) {
+    // note: luceneMatchVersion influences the schema
+    return configSet + "/" + schemaFile + "/" + version + "/" + solrConfig.luceneMatchVersion;
+  }
+
   /**
    * Returns a modification version for the schema file. Null may be returned if not known, and if
    * so it defeats schema caching.
@@ -48,6 +48,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -57,7 +58,9 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -89,6 +92,7 @@ import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
 import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.Replica.State;
+import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.params.ModifiableSolrParams;
@@ -138,6 +142,8 @@ import org.apache.solr.request.LocalSolrQueryRequest;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.request.SolrRequestHandler;
 import org.apache.solr.request.SolrRequestInfo;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.schema.IndexSchemaFactory;
 import org.apache.solr.search.CacheConfig;
 import org.apache.solr.search.CaffeineCache;
 import org.apache.solr.search.SolrCache;
@@ -153,6 +159,7 @@ import org.apache.solr.security.SecurityPluginHolder;
 import org.apache.solr.security.SolrNodeKeyPair;
 import org.apache.solr.update.CommitUpdateCommand;
 import org.apache.solr.update.SolrCoreState;
+import org.apache.solr.update.UpdateLog;
 import org.apache.solr.update.UpdateShardHandler;
 import org.apache.solr.util.OrderedExecutor;
 import org.apache.solr.util.StartupLoggingUtils;
@@ -287,6 +294,10 @@ public class CoreContainer {
 
   private final ObjectCache objectCache = new ObjectCache();
 
+  private final CoreLoadTimings coreLoadTimings = new CoreLoadTimings();
+
+  private volatile ColdCores coldCores;
+
   public final NodeRoles nodeRoles = new NodeRoles(System.getProperty(NodeRoles.NODE_ROLES_PROP));
 
   private final ExecutorService indexSearcherExecutor;
@@ -716,6 +727,11 @@ public class CoreContainer {
     return objectCache;
   }
 
+  /** The time spent by the cores of this container in each phase of their load. */
+  public CoreLoadTimings getCoreLoadTimings() {
+    return coreLoadTimings;
+  }
+
   private void registerV2ApiIfEnabled(Object apiObject) {
     if (apiObject == null || containerHandlers.getApiBag() == null) {
       return;
@@ -934,6 +950,65 @@ public class CoreContainer {
         },
         OtelUnit.BYTES);
 
+    solrMetricsContext.observableLongCounter(
+        "solr_core_load_time",
+        "Time spent by the cores in each phase of their load",
+        measurement -> {
+          for (CoreLoadTimings.Phase phase : CoreLoadTimings.Phase.values()) {
+            measurement.record(
+                coreLoadTimings.getTime(phase),
+                containerAttrs.toBuilder().put(TYPE_ATTR, phase.getName()).build());
+          }
+        },
+        OtelUnit.MILLISECONDS);
+    solrMetricsContext.observableLongCounter(
+        "solr_core_loads",
+        "Number of cores that went through each phase of their load",
+        measurement -> {
+          for (CoreLoadTimings.Phase phase : CoreLoadTimings.Phase.values()) {
+            measurement.record(
+                coreLoadTimings.getCount(phase),
+                containerAttrs.toBuilder().put(TYPE_ATTR, phase.getName()).build());
+          }
+        });
+
+    solrMetricsContext.observableLongGauge(
+        "solr_core_schemas",
+        "Number of loaded cores and of distinct schemas they use, lower with shareSchema",
+        measurement -> {
+          List<SolrCore> cores = getCores();
+          Set<IndexSchema> schemas = Collections.newSetFromMap(new IdentityHashMap<>());
+          for (SolrCore core : cores) {
+            schemas.add(core.getLatestSchema());
+          }
+          measurement.record(
+              cores.size(), containerAttrs.toBuilder().put(TYPE_ATTR, "cores").build());
+          measurement.record(
+              schemas.size(), containerAttrs.toBuilder().put(TYPE_ATTR, "distinct").build());
+        });
+
+    coldCores = new ColdCores(solrCores);
+    solrMetricsContext.observableLongGauge(
+        "solr_cores_cold",
+        "Number of cold cores with their index open, and released, at the last check",
+        measurement -> {
+          measurement.record(
+              coldCores.getOpenCores(), containerAttrs.toBuilder().put(TYPE_ATTR, "open").build());
+          measurement.record(
+              coldCores.getReleasedCores(),
+              containerAttrs.toBuilder().put(TYPE_ATTR, "released").build());
+        });
+    solrMetricsContext.observableLongGauge(
+        "solr_cores_cold_heap_usage",
+        "Estimated heap usage of the cold cores with their index open",
+        measurement -> measurement.record(coldCores.getOpenHeapBytes(), containerAttrs),
+        OtelUnit.BYTES);
+    solrMetricsContext.observableLongCounter(
+        "solr_cores_cold_releases",
+        "Number of times the index of an idle cold core was released",
+        measurement -> measurement.record(coldCores.getReleases(), containerAttrs));
+    coldCores.start();
+
     SolrFieldCacheBean fieldCacheBean = new SolrFieldCacheBean();
     fieldCacheBean.initializeMetrics(
         solrMetricsContext, Attributes.of(CATEGORY_ATTR, SolrInfoBean.Category.CACHE.toString()));
@@ -955,12 +1030,20 @@ public class CoreContainer {
             null,
             new Class<?>[] {CoreContainer.class},
             new Object[] {this});
+    final long loadStartNanos = System.nanoTime();
     try {
       List<CoreDescriptor> cds = coresLocator.discover(this);
       cds = coreSorter.sort(cds);
       checkForDuplicateCoreNames(cds);
       status |= CORE_DISCOVERY_COMPLETE;
 
+      // the files of the config sets are parsed once for all the cores loaded on startup
+      final AtomicInteger pendingStartupCores =
+          new AtomicInteger((int) cds.stream().filter(CoreDescriptor::isLoadOnStartup).count());
+      if (pendingStartupCores.get() > 0) {
+        objectCache.put(IndexSchemaFactory.STARTUP_CONFIG_CACHE, new ConcurrentHashMap<>());
+      }
+
       for (final CoreDescriptor cd : cds) {
         if (!cd.isLoadOnStartup()) {
           solrCores.addCoreDescriptor(cd);
@@ -991,6 +1074,9 @@ public class CoreContainer {
                   if (asyncSolrCoreLoad) {
                     solrCores.markCoreAsNotLoading(cd);
                   }
+                  if (pendingStartupCores.decrementAndGet() == 0) {
+                    objectCache.remove(IndexSchemaFactory.STARTUP_CONFIG_CACHE);
+                  }
                 }
                 try {
                   zkSys.registerInZk(core, true, false);
@@ -1009,6 +1095,12 @@ public class CoreContainer {
         ExecutorUtil.awaitTerminationForever(coreLoadExecutor);
       }
     }
+    if (!asyncSolrCoreLoad && log.isInfoEnabled()) {
+      log.info(
+          "Loaded cores in {} ms, time spent by the cores per phase: {}",
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - loadStartNanos),
+          coreLoadTimings);
+    }
 
     if (isZooKeeperAware()) {
       containerPluginsRegistry.refresh();
@@ -1189,6 +1281,10 @@ public class CoreContainer {
 
       ExecutorUtil.shutdownAndAwaitTermination(coreLoadExecutor); // actually already shutdown
 
+      if (coldCores != null) {
+        coldCores.close();
+      }
+
       // Now clear all the cores that are being operated upon.
       solrCores.close();
 
@@ -1577,26 +1673,35 @@ public class CoreContainer {
     try {
       MDCLoggingContext.setCoreDescriptor(this, dcore);
       SolrIdentifierValidator.validateCoreName(dcore.getName());
+      long startNanos = System.nanoTime();
       if (zkSys.getZkController() != null) {
         zkSys.getZkController().preRegister(dcore, publishState);
+        coreLoadTimings.record(
+            CoreLoadTimings.Phase.ZK_PRE_REGISTER, System.nanoTime() - startNanos);
+        startNanos = System.nanoTime();
       }
 
       ConfigSet coreConfig = coreConfigService.loadConfigSet(dcore);
+      coreLoadTimings.record(CoreLoadTimings.Phase.CONFIG, System.nanoTime() - startNanos);
       if (log.isInfoEnabled()) {
         log.info(
             "Creating SolrCore '{}' using configuration from {}",
             dcore.getName(),
             coreConfig.getName());
       }
+      startNanos = System.nanoTime();
       try {
         core = new SolrCore(this, dcore, coreConfig);
       } catch (SolrException e) {
         core = processCoreCreateException(e, dcore, coreConfig);
       }
+      coreLoadTimings.record(CoreLoadTimings.Phase.OPEN, System.nanoTime() - startNanos);
 
-      // always kick off recovery if we are in non-Cloud mode
-      if (!isZooKeeperAware() && core.getUpdateHandler().getUpdateLog() != null) {
-        core.getUpdateHandler().getUpdateLog().recoverFromLog();
+      // always kick off recovery if we are in non-Cloud mode. In SolrCloud, the registration of the
+      // core waits for the replay, which is started here when it does not depend on the election
+      UpdateLog ulog = core.getUpdateHandler().getUpdateLog();
+      if (ulog != null && (!isZooKeeperAware() || canReplayTlogBeforeRegister(dcore))) {
+        ulog.recoverFromLogOnStartup();
       }
 
       registerCore(dcore, core, publishState, newCollection);
@@ -1643,6 +1748,22 @@ public class CoreContainer {
     }
   }
 
+  /**
+   * Whether the tlog of a core can be replayed before its registration in SolrCloud, where the
+   * replay is skipped for the TLOG replicas that are not the leader, and for the leader of a shard
+   * under construction.
+   */
+  private boolean canReplayTlogBeforeRegister(CoreDescriptor cd) {
+    CloudDescriptor cloudDesc = cd.getCloudDescriptor();
+    if (cloudDesc == null || cloudDesc.getReplicaType() != Replica.Type.NRT) {
+      return false;
+    }
+    DocCollection coll =
+        getZkController().getClusterState().getCollectionOrNull(cloudDesc.getCollectionName());
+    Slice slice = coll == null ? null : coll.getSlice(cloudDesc.getShardId());
+    return slice != null && slice.getState() != Slice.State.CONSTRUCTION;
+  }
+
   public boolean isSharedFs(CoreDescriptor cd) {
     try (SolrCore core = this.getCore(cd.getName())) {
       if (core != null) {
@@ -56,6 +56,7 @@ public class CoreDescriptor {
   public static final String CORE_COLLECTION = "collection";
   public static final String CORE_PROPERTIES = "properties";
   public static final String CORE_LOADONSTARTUP = "loadOnStartup";
+  public static final String CORE_COLD = "cold";
   public static final String CORE_NODE_NAME = "coreNodeName";
   public static final String CORE_CONFIGSET = "configSet";
   public static final String CORE_CONFIGSET_PROPERTIES = "configSetProperties";
@@ -102,6 +103,7 @@ public class CoreDescriptor {
           CORE_PROPERTIES,
           CORE_CONFIGSET_PROPERTIES,
           CORE_LOADONSTARTUP,
+          CORE_COLD,
           CORE_CONFIGSET,
           // cloud props
           CORE_SHARD,
@@ -335,6 +337,16 @@ public class CoreDescriptor {
     return Boolean.parseBoolean(stringValue);
   }
 
+  /**
+   * Whether the core is cold, i.e. rarely queried: its searchers, with their caches, and its
+   * IndexWriter are closed when it is idle, and opened again by the next request to it.
+   *
+   * @see ColdCores
+   */
+  public boolean isCold() {
+    return Boolean.parseBoolean(coreProperties.getProperty(CORE_COLD, "false"));
+  }
+
   public String getUlogDir() {
     return coreProperties.getProperty(CORE_ULOGDIR);
   }
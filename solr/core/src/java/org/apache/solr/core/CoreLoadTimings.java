@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.core;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The time spent by the cores of a {@link CoreContainer} in each phase of their load, summed over
+ * the cores. As the cores are loaded in parallel, the sum of a phase can exceed the wall time of
+ * the load of the container.
+ */
+public class CoreLoadTimings {
+
+  /** The phases of the load of a core, in the order they happen in. */
+  public enum Phase {
+    /** The registration of the core before it is created, in SolrCloud. */
+    ZK_PRE_REGISTER,
+    /** The load of solrconfig.xml and of the schema. */
+    CONFIG,
+    /** The creation of the core, which opens its first searcher. */
+    OPEN,
+    /** The registration of the core in SolrCloud, which waits for the replay of its tlog. */
+    ZK_REGISTER;
+
+    public String getName() {
+      return name().toLowerCase(Locale.ROOT);
+    }
+  }
+
+  private final Map<Phase, LongAdder> times = new EnumMap<>(Phase.class);
+  private final Map<Phase, LongAdder> counts = new EnumMap<>(Phase.class);
+
+  public CoreLoadTimings() {
+    for (Phase phase : Phase.values()) {
+      times.put(phase, new LongAdder());
+      counts.put(phase, new LongAdder());
+    }
+  }
+
+  /** Records that a core went through a phase, which took the given time. */
+  public void record(Phase phase, long elapsedNanos) {
+    times.get(phase).add(elapsedNanos);
+    counts.get(phase).increment();
+  }
+
+  /** Returns the time spent by the cores in a phase, in milliseconds. */
+  public long getTime(Phase phase) {
+    return TimeUnit.NANOSECONDS.toMillis(times.get(phase).sum());
+  }
+
+  /** Returns the number of cores that went through a phase. */
+  public long getCount(Phase phase) {
+    return counts.get(phase).sum();
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (Phase phase : Phase.values()) {
+      if (sb.length() > 0) {
+        sb.append(", ");
+      }
+      sb.append(phase.getName())
+          .append('=')
+          .append(getTime(phase))
+          .append("ms/")
+          .append(getCount(phase));
+    }
+    return sb.toString();
+  }
+}
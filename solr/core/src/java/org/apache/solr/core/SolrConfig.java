@@ -298,6 +298,9 @@ public class SolrConfig implements MapSerializable {
 
       filterCacheConfig =
           CacheConfig.getConfig(this, get("query").get("filterCache"), "query/filterCache");
+      segmentFilterCacheConfig =
+          CacheConfig.getConfig(
+              this, get("query").get("segmentFilterCache"), "query/segmentFilterCache");
       queryResultCacheConfig =
           CacheConfig.getConfig(
               this, get("query").get("queryResultCache"), "query/queryResultCache");
@@ -662,6 +665,7 @@ public class SolrConfig implements MapSerializable {
   //  public final float filtOptThreshold;
   // SolrIndexSearcher - caches configurations
   public final CacheConfig filterCacheConfig;
+  public final CacheConfig segmentFilterCacheConfig;
   public final CacheConfig queryResultCacheConfig;
   public final CacheConfig documentCacheConfig;
   public final CacheConfig fieldValueCacheConfig;
@@ -1004,6 +1008,7 @@ public class SolrConfig implements MapSerializable {
     addCacheConfig(
         m,
         filterCacheConfig,
+        segmentFilterCacheConfig,
         queryResultCacheConfig,
         documentCacheConfig,
         fieldValueCacheConfig,
@@ -55,6 +55,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Spliterator;
@@ -153,6 +154,7 @@ import org.apache.solr.search.QParserPlugin;
 import org.apache.solr.search.SolrFieldCacheBean;
 import org.apache.solr.search.SolrIndexSearcher;
 import org.apache.solr.search.ValueSourceParser;
+import org.apache.solr.search.neural.FilteredKnnQuery;
 import org.apache.solr.search.stats.LocalStatsCache;
 import org.apache.solr.search.stats.StatsCache;
 import org.apache.solr.update.DefaultSolrCoreState;
@@ -230,6 +232,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
 
   private final Date startTime = new Date();
   private final long startNanoTime = System.nanoTime();
+  // the System.nanoTime() of the last request executed by this core, see getLastRequestNanos()
+  private static final long NO_REQUEST = Long.MIN_VALUE;
+  private volatile long lastRequestNanos = NO_REQUEST;
   private final RequestHandlers reqHandlers;
   private final ApplicationHandler jerseyAppHandler;
   private final PluginBag<SearchComponent> searchComponents =
@@ -266,6 +271,7 @@ public class SolrCore implements SolrInfoBean, Closeable {
   private AttributedLongCounter newSearcherOtherErrorsCounter;
   private AttributedLongTimer newSearcherTimer;
   private AttributedLongTimer newSearcherWarmupTimer;
+  private Map<String, AttributedLongCounter> knnFilterStrategyCounters = Map.of();
   private List<AutoCloseable> toClose;
 
   private final String metricTag = SolrMetricProducer.getUniqueMetricTag(this, null);
@@ -285,6 +291,15 @@ public class SolrCore implements SolrInfoBean, Closeable {
     return startNanoTime;
   }
 
+  /**
+   * Returns the {@link System#nanoTime()} of the start of the last request executed by this core,
+   * or empty if it executed none.
+   */
+  public OptionalLong getLastRequestNanos() {
+    long nanos = lastRequestNanos;
+    return nanos == NO_REQUEST ? OptionalLong.empty() : OptionalLong.of(nanos);
+  }
+
   public long getUptimeMs() {
     return TimeUnit.MILLISECONDS.convert(System.nanoTime() - startNanoTime, TimeUnit.NANOSECONDS);
   }
@@ -564,6 +579,11 @@ public class SolrCore implements SolrInfoBean, Closeable {
     return coreAttributes;
   }
 
+  /** The counters of the filter strategies run by the filtered KNN queries, by strategy. */
+  public Map<String, AttributedLongCounter> getKnnFilterStrategyCounters() {
+    return knnFilterStrategyCounters;
+  }
+
   private void initCoreAttributes() {
     this.coreAttributes =
         (coreContainer.isZooKeeperAware())
@@ -1378,6 +1398,9 @@ public class SolrCore implements SolrInfoBean, Closeable {
             baseSearcherTimerMetric,
             Attributes.builder().putAll(baseSearcherAttributes).put(TYPE_ATTR, "warmup").build());
 
+    knnFilterStrategyCounters =
+        FilteredKnnQuery.createStrategyCounters(parentContext, attributes);
+
     observables.add(
         parentContext.observableLongGauge(
             "solr_core_ref_count",
@@ -1429,6 +1452,24 @@ public class SolrCore implements SolrInfoBean, Closeable {
             }),
             OtelUnit.BYTES));
 
+    observables.add(
+        parentContext.observableLongGauge(
+            "solr_core_heap_usage",
+            "Estimated heap usage of a Solr core",
+            (observableLongMeasurement -> {
+              final RefCounted<SolrIndexSearcher> searcher = getRegisteredSearcher();
+              if (searcher != null) {
+                try {
+                  observableLongMeasurement.record(
+                      searcher.get().getCachesRamBytesUsed(),
+                      baseGaugeCoreAttributes.toBuilder().put(TYPE_ATTR, "caches").build());
+                } finally {
+                  searcher.decref();
+                }
+              }
+            }),
+            OtelUnit.BYTES));
+
     parentContext.observableLongGauge(
         "solr_core_segments",
         "Number of segments in a Solr core",
@@ -2924,6 +2965,38 @@ public class SolrCore implements SolrInfoBean, Closeable {
     }
   }
 
+  /**
+   * Closes the searchers of this core, with their caches, and its IndexWriter, to release the heap
+   * of an idle cold core. The next request that needs them opens them again. Nothing is closed
+   * while the core has uncommitted changes, which the next searcher would make visible, while it is
+   * used by a request or a recovery, or while a searcher is warming.
+   *
+   * @return true if the searchers and the IndexWriter were closed
+   * @see CoreDescriptor#isCold()
+   */
+  public boolean releaseIndexResources() throws IOException {
+    // the container holds one reference to the core, the others are held by its users
+    if (isClosed() || getOpenCount() > 1 || !openSearcherLock.tryLock()) {
+      return false;
+    }
+    try {
+      return getSolrCoreState()
+          .closeIndexResourcesIfUnchanged(
+              this,
+              () -> {
+                synchronized (searcherLock) {
+                  if (isClosed() || onDeckSearchers > 0) {
+                    return false;
+                  }
+                  closeSearcher();
+                  return true;
+                }
+              });
+    } finally {
+      openSearcherLock.unlock();
+    }
+  }
+
   public void execute(SolrRequestHandler handler, SolrQueryRequest req, SolrQueryResponse rsp) {
     if (handler == null) {
       String msg = "Null Request Handler '" + req.getParams().get(CommonParams.QT) + "'";
@@ -2933,6 +3006,7 @@ public class SolrCore implements SolrInfoBean, Closeable {
       throw new SolrException(ErrorCode.BAD_REQUEST, msg);
     }
 
+    lastRequestNanos = System.nanoTime();
     preDecorateResponse(req, rsp);
 
     /*
@@ -232,6 +232,22 @@ public class ZkContainer {
                           measurement.record(
                               metricsListener.getCumulativeChildrenFetched(), attributes);
                         }));
+                observables.add(
+                    ctx.observableLongCounter(
+                        "solr_zk_state_fetches",
+                        "Total number of collection states fetched from ZooKeeper",
+                        measurement -> {
+                          measurement.record(metricsListener.getStateFetches(), attributes);
+                        }));
+
+                observables.add(
+                    ctx.observableLongCounter(
+                        "solr_zk_state_fetch_time",
+                        "Cumulative latency of the collection state fetches from ZooKeeper",
+                        measurement -> {
+                          measurement.record(metricsListener.getStateFetchTime(), attributes);
+                        },
+                        OtelUnit.MILLISECONDS));
                 toClose = Collections.unmodifiableList(observables);
               }
 
@@ -280,7 +296,11 @@ public class ZkContainer {
                 }
               }
               if (!core.getCoreContainer().isShutDown()) {
+                final long startNanos = System.nanoTime();
                 zkController.register(core.getName(), cd, skipRecovery);
+                core.getCoreContainer()
+                    .getCoreLoadTimings()
+                    .record(CoreLoadTimings.Phase.ZK_REGISTER, System.nanoTime() - startNanos);
               }
             } catch (InterruptedException e) {
               // Restore the interrupted status
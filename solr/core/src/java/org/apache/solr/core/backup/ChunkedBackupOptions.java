@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.core.backup;
+
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.util.NamedList;
+
+/**
+ * Options for the chunked incremental backup format.
+ *
+ * <p>When enabled, index files are split into content-defined chunks (see {@link
+ * ContentDefinedChunker}) which are stored and deduplicated individually, so that a merged segment
+ * only uploads the chunks not already present in the previous backup point.
+ *
+ * <p>Configured through the {@code <repository>} plugin arguments in solr.xml, e.g.
+ *
+ * <pre>
+ *   &lt;bool name="chunkedBackup"&gt;true&lt;/bool&gt;
+ *   &lt;int name="chunkAvgSizeKB"&gt;1024&lt;/int&gt;
+ *   &lt;bool name="chunkCompression"&gt;true&lt;/bool&gt;
+ * </pre>
+ */
+public class ChunkedBackupOptions {
+
+  /** Plugin argument enabling the chunked backup format. Defaults to {@code false}. */
+  public static final String PARAM_CHUNKED_BACKUP = "chunkedBackup";
+
+  /** Plugin argument for the target (average) chunk size in KB. Defaults to 1024. */
+  public static final String PARAM_CHUNK_AVG_SIZE_KB = "chunkAvgSizeKB";
+
+  /** Plugin argument enabling per-chunk deflate compression. Defaults to {@code false}. */
+  public static final String PARAM_CHUNK_COMPRESSION = "chunkCompression";
+
+  public static final int DEFAULT_CHUNK_AVG_SIZE_KB = 1024;
+
+  private final int avgChunkSize;
+  private final boolean compress;
+
+  public ChunkedBackupOptions(int avgChunkSize, boolean compress) {
+    if (Integer.bitCount(avgChunkSize) != 1 || avgChunkSize < 1024) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR,
+          "Average chunk size must be a power of two of at least 1KB, got: " + avgChunkSize);
+    }
+    this.avgChunkSize = avgChunkSize;
+    this.compress = compress;
+  }
+
+  /**
+   * Parses the chunking options from the repository plugin arguments.
+   *
+   * @return the options, or null if the chunked backup format is not enabled
+   */
+  public static ChunkedBackupOptions from(NamedList<?> args) {
+    if (args == null) {
+      return null;
+    }
+    Object enabled = args.get(PARAM_CHUNKED_BACKUP);
+    if (enabled == null || !Boolean.parseBoolean(enabled.toString())) {
+      return null;
+    }
+    Object avgSizeKB = args.get(PARAM_CHUNK_AVG_SIZE_KB);
+    Object compress = args.get(PARAM_CHUNK_COMPRESSION);
+    return new ChunkedBackupOptions(
+        1024
+            * (avgSizeKB == null
+                ? DEFAULT_CHUNK_AVG_SIZE_KB
+                : Integer.parseInt(avgSizeKB.toString())),
+        compress != null && Boolean.parseBoolean(compress.toString()));
+  }
+
+  public int getAvgChunkSize() {
+    return avgChunkSize;
+  }
+
+  public int getMinChunkSize() {
+    return avgChunkSize / 4;
+  }
+
+  public int getMaxChunkSize() {
+    return avgChunkSize * 4;
+  }
+
+  public boolean isCompress() {
+    return compress;
+  }
+}
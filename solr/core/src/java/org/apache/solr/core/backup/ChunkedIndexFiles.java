@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.core.backup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.IOUtils;
+import org.apache.solr.core.backup.ShardBackupMetadata.BackedChunk;
+import org.apache.solr.core.backup.ShardBackupMetadata.BackedFile;
+import org.apache.solr.core.backup.repository.BackupRepository;
+
+/**
+ * Copies index files to and from a {@link BackupRepository} using the chunked backup format.
+ *
+ * <p>The body of each file (everything but the Lucene codec footer) is split by a {@link
+ * ContentDefinedChunker}. Chunks are named after the SHA-256 of their uncompressed content, so a
+ * chunk already present in the chunk index of the previous backup-point is never uploaded again.
+ * The footer is verified on backup and regenerated on restore, just like {@link
+ * BackupRepository#copyIndexFileFrom(Directory, String, Directory, String)} does.
+ */
+public class ChunkedIndexFiles {
+
+  public static final String CHUNK_PREFIX = "chunk-";
+
+  private final BackupRepository repository;
+  private final URI indexDir;
+  private final ChunkedBackupOptions options;
+
+  /**
+   * @param indexDir URI for the 'index' directory of the backup location
+   * @param options the chunking options; only used when backing up, may be null for restores
+   */
+  public ChunkedIndexFiles(
+      BackupRepository repository, URI indexDir, ChunkedBackupOptions options) {
+    this.repository = repository;
+    this.indexDir = indexDir;
+    this.options = options;
+  }
+
+  /** Result of backing up a single file. */
+  public static class Result {
+    public final BackedFile backedFile;
+
+    /** Bytes written to the repository, i.e. the stored size of all newly uploaded chunks */
+    public final long uploadedBytes;
+
+    Result(BackedFile backedFile, long uploadedBytes) {
+      this.backedFile = backedFile;
+      this.uploadedBytes = uploadedBytes;
+    }
+  }
+
+  /**
+   * Backs up {@code fileName}, only uploading chunks that are missing from {@code chunkIndex}.
+   * Newly uploaded chunks are added to the chunk index, so that later files of the same
+   * backup-point may reuse them.
+   *
+   * @param chunkIndex the chunks known to exist in the repository, keyed by chunk name
+   * @throws CorruptIndexException in case checksum of the file does not match with precomputed
+   *     checksum stored at the end of the file
+   */
+  public Result backup(
+      Directory sourceDir,
+      String fileName,
+      String uniqueFileName,
+      Checksum checksum,
+      Map<String, BackedChunk> chunkIndex)
+      throws IOException {
+    final List<BackedChunk> chunks = new ArrayList<>();
+    final long[] uploadedBytes = new long[1];
+    final MessageDigest digest = newDigest();
+    final Deflater deflater;
+    final byte[] compressBuffer;
+    if (options.isCompress()) {
+      deflater = new Deflater(Deflater.BEST_SPEED);
+      compressBuffer = new byte[options.getMaxChunkSize()];
+    } else {
+      deflater = null;
+      compressBuffer = null;
+    }
+    try (ChecksumIndexInput is = sourceDir.openChecksumInput(fileName)) {
+      ContentDefinedChunker chunker = new ContentDefinedChunker(options);
+      chunker.chunk(
+          is,
+          is.length() - CodecUtil.footerLength(),
+          (buffer, offset, length) -> {
+            digest.update(buffer, offset, length);
+            String name = CHUNK_PREFIX + HexFormat.of().formatHex(digest.digest());
+            BackedChunk chunk = chunkIndex.get(name);
+            if (chunk == null) {
+              chunk = upload(name, buffer, offset, length, deflater, compressBuffer);
+              chunkIndex.put(name, chunk);
+              uploadedBytes[0] += chunk.storedSize;
+            }
+            chunks.add(chunk);
+          });
+      // ensure that index file is not corrupted
+      CodecUtil.checkFooter(is);
+    } finally {
+      if (deflater != null) {
+        deflater.end();
+      }
+    }
+    return new Result(
+        new BackedFile(uniqueFileName, fileName, checksum, chunks), uploadedBytes[0]);
+  }
+
+  private BackedChunk upload(
+      String name,
+      byte[] buffer,
+      int offset,
+      int length,
+      Deflater deflater,
+      byte[] compressBuffer)
+      throws IOException {
+    byte[] stored = buffer;
+    int storedOffset = offset;
+    int storedLength = length;
+    boolean compressed = false;
+    if (deflater != null) {
+      deflater.reset();
+      deflater.setInput(buffer, offset, length);
+      deflater.finish();
+      int compressedLength = deflater.deflate(compressBuffer);
+      // only keep the compressed form if it actually saves space
+      if (deflater.finished() && compressedLength < length) {
+        stored = compressBuffer;
+        storedOffset = 0;
+        storedLength = compressedLength;
+        compressed = true;
+      }
+    }
+    try (OutputStream os = repository.createOutput(repository.resolve(indexDir, name))) {
+      os.write(stored, storedOffset, storedLength);
+    }
+    return new BackedChunk(name, length, storedLength, compressed);
+  }
+
+  /**
+   * Restores a chunked {@code backedFile} into {@code destDir}, verifying the resulting checksum.
+   */
+  public void restore(BackedFile backedFile, Directory destDir, String destFileName)
+      throws IOException {
+    assert backedFile.isChunked();
+    boolean success = false;
+    Inflater inflater = null;
+    try {
+      try (IndexOutput os = destDir.createOutput(destFileName, IOContext.READONCE)) {
+        byte[] storedBuffer = new byte[0];
+        byte[] chunkBuffer = new byte[0];
+        for (BackedChunk chunk : backedFile.chunks) {
+          if (storedBuffer.length < chunk.storedSize) {
+            storedBuffer = new byte[chunk.storedSize];
+          }
+          try (IndexInput in = repository.openInput(indexDir, chunk.name, IOContext.READONCE)) {
+            in.readBytes(storedBuffer, 0, chunk.storedSize);
+          }
+          if (!chunk.compressed) {
+            os.writeBytes(storedBuffer, 0, chunk.size);
+            continue;
+          }
+          if (inflater == null) {
+            inflater = new Inflater();
+          }
+          if (chunkBuffer.length < chunk.size) {
+            chunkBuffer = new byte[chunk.size];
+          }
+          inflater.reset();
+          inflater.setInput(storedBuffer, 0, chunk.storedSize);
+          int inflated = inflater.inflate(chunkBuffer, 0, chunk.size);
+          if (inflated != chunk.size || !inflater.finished()) {
+            throw new CorruptIndexException(
+                "Chunk " + chunk.name + " inflated to an unexpected size: " + inflated,
+                destFileName);
+          }
+          os.writeBytes(chunkBuffer, 0, chunk.size);
+        }
+        CodecUtil.writeFooter(os);
+      }
+      try (ChecksumIndexInput in = destDir.openChecksumInput(destFileName)) {
+        long checksum = CodecUtil.retrieveChecksum(in);
+        if (checksum != backedFile.fileChecksum.checksum
+            || in.length() != backedFile.fileChecksum.size) {
+          throw new CorruptIndexException(
+              "Restored file does not match checksum="
+                  + backedFile.fileChecksum.checksum
+                  + ", size="
+                  + backedFile.fileChecksum.size,
+              destFileName);
+        }
+      }
+      success = true;
+    } catch (DataFormatException e) {
+      throw new CorruptIndexException("Unable to inflate chunk", destFileName, e);
+    } finally {
+      if (inflater != null) {
+        inflater.end();
+      }
+      if (!success) {
+        IOUtils.deleteFilesIgnoringExceptions(destDir, destFileName);
+      }
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
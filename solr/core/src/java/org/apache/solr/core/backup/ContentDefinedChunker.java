@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.core.backup;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import org.apache.lucene.store.DataInput;
+
+/**
+ * Splits a stream of bytes into variable sized chunks whose boundaries are determined by the
+ * content itself, using a "gear" rolling hash.
+ *
+ * <p>Because chunk boundaries only depend on the bytes around them, inserting or removing data in a
+ * file only changes the chunks near the edit. This is what allows a merged segment, which largely
+ * consists of byte ranges already present in the segments it was merged from, to share most of its
+ * chunks with a previous backup.
+ */
+public class ContentDefinedChunker {
+
+  /** Receives each chunk; the buffer is only valid for the duration of the call. */
+  @FunctionalInterface
+  public interface ChunkConsumer {
+    void accept(byte[] buffer, int offset, int length) throws IOException;
+  }
+
+  private static final long[] GEAR = new long[256];
+
+  static {
+    // fixed seed: chunk boundaries must be stable across nodes and versions
+    SplittableRandom random = new SplittableRandom(0x5015BAC4L);
+    for (int i = 0; i < GEAR.length; i++) {
+      GEAR[i] = random.nextLong();
+    }
+  }
+
+  private final int minSize;
+  private final int maxSize;
+  private final long mask;
+
+  public ContentDefinedChunker(int minSize, int avgSize, int maxSize) {
+    assert Integer.bitCount(avgSize) == 1;
+    assert minSize > 0 && minSize <= avgSize && avgSize <= maxSize;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+    // the top bits of the gear hash are the best mixed ones
+    this.mask = (avgSize - 1L) << (Long.SIZE - Integer.numberOfTrailingZeros(avgSize));
+  }
+
+  public ContentDefinedChunker(ChunkedBackupOptions options) {
+    this(options.getMinChunkSize(), options.getAvgChunkSize(), options.getMaxChunkSize());
+  }
+
+  /** Reads {@code length} bytes from {@code in} and passes them as chunks to {@code consumer}. */
+  public void chunk(DataInput in, long length, ChunkConsumer consumer) throws IOException {
+    final byte[] buffer = new byte[maxSize];
+    long remaining = length;
+    int filled = 0;
+    while (remaining > 0 || filled > 0) {
+      int toRead = (int) Math.min(maxSize - filled, remaining);
+      in.readBytes(buffer, filled, toRead);
+      filled += toRead;
+      remaining -= toRead;
+
+      int cut = findBoundary(buffer, filled);
+      consumer.accept(buffer, 0, cut);
+      System.arraycopy(buffer, cut, buffer, 0, filled - cut);
+      filled -= cut;
+    }
+  }
+
+  /**
+   * Returns the length of the first chunk in {@code buffer}. The buffer is either full or holds the
+   * tail of the input, so returning {@code length} when no boundary is found is always valid.
+   */
+  int findBoundary(byte[] buffer, int length) {
+    if (length <= minSize) {
+      return length;
+    }
+    long hash = 0;
+    for (int i = minSize; i < length; i++) {
+      hash = (hash << 1) + GEAR[buffer[i] & 0xFF];
+      if ((hash & mask) == 0) {
+        return i + 1;
+      }
+    }
+    return length;
+  }
+}
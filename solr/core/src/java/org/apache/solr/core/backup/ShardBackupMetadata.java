@@ -25,9 +25,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.solr.common.util.Utils;
@@ -44,18 +46,22 @@ import org.apache.solr.util.PropertiesInputStream;
  * <p>Shard backup metadata files have names derived from an associated {@link ShardBackupId}, to
  * avoid conflicts between shards and backupIds.
  *
+ * <p>Files backed up with the chunked format (see {@link ChunkedBackupOptions}) are not stored as a
+ * single repository file, but as a list of {@link BackedChunk}s which may be shared with other
+ * files and other backup-points.
+ *
  * <p>Not used by the (now deprecated) traditional 'full-snapshot' backup format.
  */
 public class ShardBackupMetadata {
   private Map<String, BackedFile> allFiles = new HashMap<>();
-  private List<String> uniqueFileNames = new ArrayList<>();
+  private Set<String> uniqueFileNames = new LinkedHashSet<>();
 
   public void addBackedFile(String uniqueFileName, String originalFileName, Checksum fileChecksum) {
     addBackedFile(new BackedFile(uniqueFileName, originalFileName, fileChecksum));
   }
 
   public int numFiles() {
-    return uniqueFileNames.size();
+    return allFiles.size();
   }
 
   public long totalSize() {
@@ -64,15 +70,38 @@ public class ShardBackupMetadata {
 
   public void addBackedFile(BackedFile backedFile) {
     allFiles.put(backedFile.originalFileName, backedFile);
-    uniqueFileNames.add(backedFile.uniqueFileName);
+    if (backedFile.isChunked()) {
+      for (BackedChunk chunk : backedFile.chunks) {
+        uniqueFileNames.add(chunk.name);
+      }
+    } else {
+      uniqueFileNames.add(backedFile.uniqueFileName);
+    }
   }
 
   public Optional<BackedFile> getFile(String originalFileName) {
     return Optional.ofNullable(allFiles.get(originalFileName));
   }
 
+  /**
+   * Lists the names of all repository files referenced by this backup-point. For chunked files this
+   * is the name of each chunk, rather than the file's unique name.
+   */
   public List<String> listUniqueFileNames() {
-    return Collections.unmodifiableList(uniqueFileNames);
+    return List.copyOf(uniqueFileNames);
+  }
+
+  /** Returns all chunks referenced by this backup-point, keyed by chunk name. */
+  public Map<String, BackedChunk> getChunkIndex() {
+    Map<String, BackedChunk> chunkIndex = new HashMap<>();
+    for (BackedFile backedFile : allFiles.values()) {
+      if (backedFile.isChunked()) {
+        for (BackedChunk chunk : backedFile.chunks) {
+          chunkIndex.put(chunk.name, chunk);
+        }
+      }
+    }
+    return chunkIndex;
   }
 
   public static ShardBackupMetadata empty() {
@@ -131,6 +160,18 @@ public class ShardBackupMetadata {
       fileMap.put("fileName", backedFile.originalFileName);
       fileMap.put("checksum", backedFile.fileChecksum.checksum);
       fileMap.put("size", backedFile.fileChecksum.size);
+      if (backedFile.isChunked()) {
+        List<Map<String, Object>> chunkList = new ArrayList<>(backedFile.chunks.size());
+        for (BackedChunk chunk : backedFile.chunks) {
+          Map<String, Object> chunkMap = new HashMap<>();
+          chunkMap.put("name", chunk.name);
+          chunkMap.put("size", chunk.size);
+          chunkMap.put("storedSize", chunk.storedSize);
+          chunkMap.put("compressed", chunk.compressed);
+          chunkList.add(chunkMap);
+        }
+        fileMap.put("chunks", chunkList);
+      }
       map.put(backedFile.uniqueFileName, fileMap);
     }
 
@@ -148,8 +189,22 @@ public class ShardBackupMetadata {
       String fileName = (String) fileMap.get("fileName");
       long checksum = (long) fileMap.get("checksum");
       long size = (long) fileMap.get("size");
+      List<BackedChunk> chunks = null;
+      if (fileMap.containsKey("chunks")) {
+        @SuppressWarnings({"unchecked"})
+        List<Map<String, Object>> chunkList = (List<Map<String, Object>>) fileMap.get("chunks");
+        chunks = new ArrayList<>(chunkList.size());
+        for (Map<String, Object> chunkMap : chunkList) {
+          chunks.add(
+              new BackedChunk(
+                  (String) chunkMap.get("name"),
+                  ((Number) chunkMap.get("size")).intValue(),
+                  ((Number) chunkMap.get("storedSize")).intValue(),
+                  (boolean) chunkMap.get("compressed")));
+        }
+      }
       shardBackupMetadata.addBackedFile(
-          new BackedFile(uniqueFileName, fileName, new Checksum(checksum, size)));
+          new BackedFile(uniqueFileName, fileName, new Checksum(checksum, size), chunks));
     }
 
     return shardBackupMetadata;
@@ -160,10 +215,47 @@ public class ShardBackupMetadata {
     public final String originalFileName;
     public final Checksum fileChecksum;
 
+    /** The chunks making up the file (excluding its footer), or null if stored as a whole. */
+    public final List<BackedChunk> chunks;
+
     BackedFile(String uniqueFileName, String originalFileName, Checksum fileChecksum) {
+      this(uniqueFileName, originalFileName, fileChecksum, null);
+    }
+
+    public BackedFile(
+        String uniqueFileName,
+        String originalFileName,
+        Checksum fileChecksum,
+        List<BackedChunk> chunks) {
       this.uniqueFileName = uniqueFileName;
       this.originalFileName = originalFileName;
       this.fileChecksum = fileChecksum;
+      this.chunks = chunks == null ? null : Collections.unmodifiableList(chunks);
+    }
+
+    public boolean isChunked() {
+      return chunks != null;
+    }
+  }
+
+  /** A content-addressed chunk of one or more backed up files. */
+  public static class BackedChunk {
+    /** The name of the chunk in the repository's index directory */
+    public final String name;
+
+    /** The uncompressed size of the chunk */
+    public final int size;
+
+    /** The size of the chunk as stored in the repository */
+    public final int storedSize;
+
+    public final boolean compressed;
+
+    public BackedChunk(String name, int size, int storedSize, boolean compressed) {
+      this.name = name;
+      this.size = size;
+      this.storedSize = storedSize;
+      this.compressed = compressed;
     }
   }
 }
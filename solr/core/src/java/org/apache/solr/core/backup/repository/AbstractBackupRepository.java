@@ -22,6 +22,7 @@ import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.store.Directory;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.backup.ChunkedBackupOptions;
 
 /**
  * Abstract {@link BackupRepository} implementation providing some logic shared between real
@@ -41,11 +42,18 @@ public abstract class AbstractBackupRepository implements BackupRepository {
 
   protected NamedList<?> config;
   protected boolean shouldVerifyChecksum;
+  protected ChunkedBackupOptions chunkedBackupOptions;
 
   @Override
   public void init(NamedList<?> args) {
     config = args;
     shouldVerifyChecksum = getBooleanConfig(args, PARAM_VERIFY_CHECKSUM, true);
+    chunkedBackupOptions = ChunkedBackupOptions.from(args);
+  }
+
+  @Override
+  public ChunkedBackupOptions getChunkedBackupOptions() {
+    return chunkedBackupOptions;
   }
 
   /**
@@ -32,6 +32,7 @@ import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.util.IOUtils;
 import org.apache.solr.common.params.CoreAdminParams;
 import org.apache.solr.core.backup.Checksum;
+import org.apache.solr.core.backup.ChunkedBackupOptions;
 import org.apache.solr.util.plugin.NamedListInitializedPlugin;
 
 /**
@@ -190,6 +191,16 @@ public interface BackupRepository extends NamedListInitializedPlugin, Closeable
     copyIndexFileTo(sourceRepo, fileName, dest, fileName);
   }
 
+  /**
+   * Returns the options of the chunked incremental backup format, or null if index files should be
+   * backed up as whole files.
+   *
+   * @see ChunkedBackupOptions
+   */
+  default ChunkedBackupOptions getChunkedBackupOptions() {
+    return null;
+  }
+
   /**
    * List all files or directories directly under {@code path}.
    *
@@ -25,6 +25,7 @@ import org.apache.lucene.store.IOContext;
 import org.apache.lucene.store.IndexInput;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.core.backup.Checksum;
+import org.apache.solr.core.backup.ChunkedBackupOptions;
 
 /** Delegates to another {@link BackupRepository}. */
 public class DelegatingBackupRepository extends AbstractBackupRepository {
@@ -138,6 +139,11 @@ public class DelegatingBackupRepository extends AbstractBackupRepository {
     return delegate.checksum(dir, fileName);
   }
 
+  @Override
+  public ChunkedBackupOptions getChunkedBackupOptions() {
+    return delegate.getChunkedBackupOptions();
+  }
+
   @Override
   public void copyIndexFileFrom(
       Directory sourceDir, String sourceFileName, URI destDir, String destFileName)
@@ -24,6 +24,7 @@ import java.lang.invoke.MethodHandles;
 import java.net.URI;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.apache.commons.math3.util.Precision;
@@ -37,6 +38,8 @@ import org.apache.solr.core.IndexDeletionPolicyWrapper;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.core.backup.BackupFilePaths;
 import org.apache.solr.core.backup.Checksum;
+import org.apache.solr.core.backup.ChunkedBackupOptions;
+import org.apache.solr.core.backup.ChunkedIndexFiles;
 import org.apache.solr.core.backup.ShardBackupId;
 import org.apache.solr.core.backup.ShardBackupMetadata;
 import org.apache.solr.core.backup.repository.BackupRepository;
@@ -49,6 +52,9 @@ import org.slf4j.LoggerFactory;
  * <p>If this is the first backup for a collection, all files are uploaded. But if previous backups
  * exist, uses the most recent {@link ShardBackupMetadata} file to determine which files already
  * exist in the repository and can be skipped.
+ *
+ * <p>If the repository enables the chunked backup format ({@link ChunkedBackupOptions}), changed
+ * files are uploaded chunk by chunk, skipping chunks already referenced by the previous backup.
  */
 public class IncrementalShardBackup {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
@@ -190,6 +196,13 @@ public class IncrementalShardBackup {
     ShardBackupMetadata currentBackupPoint = ShardBackupMetadata.empty();
     URI indexDir = incBackupFiles.getIndexDir();
     BackupStats backupStats = new BackupStats();
+    ChunkedBackupOptions chunkedBackupOptions = backupRepo.getChunkedBackupOptions();
+    ChunkedIndexFiles chunkedIndexFiles = null;
+    Map<String, ShardBackupMetadata.BackedChunk> chunkIndex = null;
+    if (chunkedBackupOptions != null) {
+      chunkedIndexFiles = new ChunkedIndexFiles(backupRepo, indexDir, chunkedBackupOptions);
+      chunkIndex = oldBackupPoint.getChunkIndex();
+    }
 
     for (String fileName : indexFiles) {
       Optional<ShardBackupMetadata.BackedFile> opBackedFile = oldBackupPoint.getFile(fileName);
@@ -206,6 +219,14 @@ public class IncrementalShardBackup {
       }
 
       String backedFileName = UUID.randomUUID().toString();
+      if (chunkedIndexFiles != null) {
+        ChunkedIndexFiles.Result result =
+            chunkedIndexFiles.backup(dir, fileName, backedFileName, originalFileCS, chunkIndex);
+        currentBackupPoint.addBackedFile(result.backedFile);
+        backupStats.uploadedChunkedFile(originalFileCS, result.uploadedBytes);
+        continue;
+      }
+
       backupRepo.copyIndexFileFrom(dir, fileName, indexDir, backedFileName);
 
       currentBackupPoint.addBackedFile(backedFileName, fileName, originalFileCS);
@@ -229,6 +250,13 @@ public class IncrementalShardBackup {
       totalUploadedBytes += file.size;
     }
 
+    public void uploadedChunkedFile(Checksum file, long uploadedBytes) {
+      fileCount++;
+      uploadedFileCount++;
+      indexSize += file.size;
+      totalUploadedBytes += uploadedBytes;
+    }
+
     public void skippedUploadingFile(Checksum existedFile) {
       fileCount++;
       indexSize += existedFile.size;
@@ -38,6 +38,7 @@ import org.apache.solr.core.DirectoryFactory;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.core.backup.BackupFilePaths;
 import org.apache.solr.core.backup.Checksum;
+import org.apache.solr.core.backup.ChunkedIndexFiles;
 import org.apache.solr.core.backup.ShardBackupId;
 import org.apache.solr.core.backup.ShardBackupMetadata;
 import org.apache.solr.core.backup.repository.BackupRepository;
@@ -207,8 +208,6 @@ public class RestoreCore implements Callable<Boolean> {
   private interface RestoreRepository {
     String[] listAllFiles() throws IOException;
 
-    IndexInput openInput(String filename) throws IOException;
-
     void repoCopy(String filename, Directory dest) throws IOException;
 
     void localCopy(Directory src, String filename, Directory dest) throws IOException;
@@ -231,11 +230,6 @@ public class RestoreCore implements Callable<Boolean> {
       return repository.listAll(backupPath);
     }
 
-    @Override
-    public IndexInput openInput(String filename) throws IOException {
-      return repository.openInput(backupPath, filename, IOContext.READONCE);
-    }
-
     @Override
     public void repoCopy(String filename, Directory dest) throws IOException {
       repository.copyFileTo(backupPath, filename, dest);
@@ -285,16 +279,16 @@ public class RestoreCore implements Callable<Boolean> {
       return shardBackupMetadata.listOriginalFileNames().toArray(new String[0]);
     }
 
-    @Override
-    public IndexInput openInput(String filename) throws IOException {
-      String storedFileName = getStoredFilename(filename);
-      return repository.openInput(indexURI, storedFileName, IOContext.READONCE);
-    }
-
     @Override
     public void repoCopy(String filename, Directory dest) throws IOException {
-      String storedFileName = getStoredFilename(filename);
-      repository.copyIndexFileTo(this.indexURI, storedFileName, dest, filename);
+      ShardBackupMetadata.BackedFile backedFile = shardBackupMetadata.getFile(filename).get();
+      if (backedFile.isChunked()) {
+        ChunkedIndexFiles chunkedIndexFiles =
+            new ChunkedIndexFiles(repository, indexURI, repository.getChunkedBackupOptions());
+        chunkedIndexFiles.restore(backedFile, dest, filename);
+        return;
+      }
+      repository.copyIndexFileTo(this.indexURI, backedFile.uniqueFileName, dest, filename);
     }
 
     @Override
@@ -307,9 +301,5 @@ public class RestoreCore implements Callable<Boolean> {
       Optional<ShardBackupMetadata.BackedFile> backedFile = shardBackupMetadata.getFile(filename);
       return backedFile.map(bf -> bf.fileChecksum).orElse(null);
     }
-
-    private String getStoredFilename(String filename) {
-      return shardBackupMetadata.getFile(filename).get().uniqueFileName;
-    }
   }
 }
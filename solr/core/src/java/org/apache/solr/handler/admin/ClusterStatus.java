@@ -25,6 +25,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.apache.solr.client.api.util.SolrVersion;
 import org.apache.solr.common.MapWriter;
@@ -32,6 +36,7 @@ import org.apache.solr.common.SolrException;
 import org.apache.solr.common.cloud.Aliases;
 import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.DocCollectionWatcher;
 import org.apache.solr.common.cloud.PerReplicaStates;
 import org.apache.solr.common.cloud.Replica;
 import org.apache.solr.common.cloud.ZkStateReader;
@@ -47,6 +52,7 @@ public class ClusterStatus {
   private final ZkStateReader zkStateReader;
   private final SolrParams solrParams;
   private final String collection; // maybe null
+  private final Semaphore stateChangeWaiters;
 
   public static final String INCLUDE_ALL = "includeAll";
   public static final String LIVENODES_PROP = "liveNodes";
@@ -54,6 +60,29 @@ public class ClusterStatus {
   public static final String ROLES_PROP = "roles";
   public static final String ALIASES_PROP = "aliases";
 
+  /**
+   * The versions of the state of collections known to the client, as {@code
+   * name:znodeVersion:childNodesVersion} separated by {@code |}. The current versions of the state
+   * of these collections are returned under the same name, see {@link #WAIT_FOR_STATE_CHANGE}.
+   */
+  public static final String STATE_VERSIONS = "stateVersions";
+
+  /**
+   * The time in milliseconds to wait for the state of one of the collections of {@link
+   * #STATE_VERSIONS} to change before responding, which lets clients subscribe to the changes of
+   * the state of the collections they use with a long poll rather than polling the whole state.
+   */
+  public static final String WAIT_FOR_STATE_CHANGE = "waitForStateChange";
+
+  /** The longest time a request waits for a change of the state of collections. */
+  public static final long MAX_STATE_CHANGE_WAIT_MS = TimeUnit.MINUTES.toMillis(1);
+
+  /**
+   * The property that sets how many requests can wait for a change of the state of collections at
+   * the same time, each of which holds a request thread of the node while it waits.
+   */
+  public static final String STATE_CHANGE_WAITERS_MAX = "solr.admin.clusterstatus.waiters.max";
+
   /** Shard / collection health state. */
   public enum Health {
     /** All replicas up, leader exists. */
@@ -96,9 +125,15 @@ public class ClusterStatus {
     }
   }
 
-  public ClusterStatus(ZkStateReader zkStateReader, SolrParams params) {
+  /**
+   * @param stateChangeWaiters bounds the requests of the node that wait for a change of the state
+   *     of collections at the same time
+   */
+  public ClusterStatus(
+      ZkStateReader zkStateReader, SolrParams params, Semaphore stateChangeWaiters) {
     this.zkStateReader = zkStateReader;
     this.solrParams = params;
+    this.stateChangeWaiters = stateChangeWaiters;
     collection = params.get(ZkStateReader.COLLECTION_PROP);
   }
 
@@ -113,6 +148,16 @@ public class ClusterStatus {
     boolean withCollection = includeAll || (collection != null);
     boolean withAliases = solrParams.getBool(ALIASES_PROP, includeAll);
 
+    String stateVersions = solrParams.get(STATE_VERSIONS);
+    if (stateVersions != null) {
+      // waits first, so that the rest of the status is as fresh as the versions
+      clusterStatus.add(
+          STATE_VERSIONS,
+          waitForStateChange(
+              parseStateVersions(stateVersions),
+              Math.min(solrParams.getLong(WAIT_FOR_STATE_CHANGE, 0L), MAX_STATE_CHANGE_WAIT_MS)));
+    }
+
     List<String> liveNodes = null;
     if (withLiveNodes || collection != null) {
       liveNodes =
@@ -158,6 +203,108 @@ public class ClusterStatus {
     results.add("cluster", clusterStatus);
   }
 
+  private static Map<String, List<Integer>> parseStateVersions(String stateVersions) {
+    Map<String, List<Integer>> versions = new HashMap<>();
+    for (String collectionVersions : stateVersions.split("\\|")) {
+      String[] parts = collectionVersions.split(":");
+      if (parts.length < 2 || parts[0].isEmpty()) {
+        throw new SolrException(
+            SolrException.ErrorCode.BAD_REQUEST,
+            "Invalid " + STATE_VERSIONS + ": " + collectionVersions);
+      }
+      try {
+        versions.put(
+            parts[0],
+            List.of(Integer.parseInt(parts[1]), parts.length > 2 ? Integer.parseInt(parts[2]) : 0));
+      } catch (NumberFormatException e) {
+        throw new SolrException(
+            SolrException.ErrorCode.BAD_REQUEST,
+            "Invalid " + STATE_VERSIONS + ": " + collectionVersions,
+            e);
+      }
+    }
+    return versions;
+  }
+
+  /**
+   * Waits for the version of the state of one of the given collections to be different from the
+   * known one, or for the given time to elapse, and returns the current versions of the state of
+   * the collections: their {@code znodeVersion} and {@code childNodesVersion}, or {@code null} for
+   * the collections that do not exist.
+   *
+   * <p>Only the collections this node already watches, typically because it hosts some of their
+   * replicas, are waited for, so that no request reads or watches ZooKeeper: the others are left
+   * out of the result. A request fails if this node watches none of its collections, and when too
+   * many requests are already waiting.
+   */
+  private NamedList<Object> waitForStateChange(
+      Map<String, List<Integer>> knownVersions, long waitMs) throws InterruptedException {
+    final ClusterState clusterState = zkStateReader.getClusterState();
+    final Map<String, List<Integer>> watchedVersions = new HashMap<>();
+    final NamedList<Object> deleted = new SimpleOrderedMap<>();
+    knownVersions.forEach(
+        (name, known) -> {
+          ClusterState.CollectionRef ref = clusterState.getCollectionRef(name);
+          if (ref == null) {
+            deleted.add(name, null);
+          } else if (!ref.isLazilyLoaded()) {
+            watchedVersions.put(name, known);
+          }
+        });
+    if (deleted.size() > 0) {
+      return deleted;
+    }
+    if (watchedVersions.isEmpty()) {
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST,
+          "This node does not watch the state of any of the collections of " + STATE_VERSIONS);
+    }
+    if (!stateChangeWaiters.tryAcquire()) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVICE_UNAVAILABLE,
+          "Too many requests are waiting for a change of the state of collections");
+    }
+
+    final Map<String, List<Integer>> versions = new ConcurrentHashMap<>();
+    final CountDownLatch changed = new CountDownLatch(1);
+    final Map<String, DocCollectionWatcher> watchers = new HashMap<>();
+    try {
+      watchedVersions.forEach(
+          (name, known) -> {
+            DocCollectionWatcher watcher =
+                state -> {
+                  List<Integer> current =
+                      state == null
+                          ? null
+                          : List.of(state.getZNodeVersion(), state.getChildNodesVersion());
+                  if (current == null) {
+                    versions.remove(name);
+                  } else {
+                    versions.put(name, current);
+                  }
+                  if (!known.equals(current)) {
+                    changed.countDown();
+                  }
+                  return false;
+                };
+            watchers.put(name, watcher);
+            // called at once with the current state; the collection is already watched, so this
+            // only adds a listener to the existing watch
+            zkStateReader.registerDocCollectionWatcher(name, watcher);
+          });
+      changed.await(waitMs, TimeUnit.MILLISECONDS);
+    } finally {
+      watchers.forEach(zkStateReader::removeDocCollectionWatcher);
+      stateChangeWaiters.release();
+    }
+
+    NamedList<Object> result = new SimpleOrderedMap<>();
+    for (String name : watchedVersions.keySet()) {
+      result.add(name, versions.get(name));
+    }
+    return result;
+  }
+
   private void fetchClusterStatusForCollOrAlias(
       NamedList<Object> clusterStatus,
       List<String> liveNodes,
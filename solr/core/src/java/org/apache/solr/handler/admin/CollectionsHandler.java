@@ -113,6 +113,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.apache.solr.api.AnnotatedApi;
@@ -158,6 +159,7 @@ import org.apache.solr.common.params.CoreAdminParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.RequiredSolrParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.EnvUtils;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.Pair;
 import org.apache.solr.common.util.SimpleOrderedMap;
@@ -222,6 +224,10 @@ public class CollectionsHandler extends RequestHandlerBase implements Permission
 
   protected final CoreContainer coreContainer;
 
+  /** The CLUSTERSTATUS requests of this node that wait for a change of the state of collections. */
+  private final Semaphore clusterStatusWaiters =
+      new Semaphore(EnvUtils.getPropertyAsInteger(ClusterStatus.STATE_CHANGE_WAITERS_MAX, 32));
+
   public CollectionsHandler() {
     // Unlike most request handlers, CoreContainer initialization
     // should happen in the constructor...
@@ -958,7 +964,10 @@ public class CollectionsHandler extends RequestHandlerBase implements Permission
     CLUSTERSTATUS_OP(
         CLUSTERSTATUS,
         (req, rsp, h) -> {
-          new ClusterStatus(h.coreContainer.getZkController().getZkStateReader(), req.getParams())
+          new ClusterStatus(
+                  h.coreContainer.getZkController().getZkStateReader(),
+                  req.getParams(),
+                  h.clusterStatusWaiters)
               .getClusterStatus(rsp.getValues(), req.getHttpSolrCall().getUserAgentSolrVersion());
           return null;
         }),
@@ -160,16 +160,22 @@ public class CoreStatus extends CoreAdminAPIBase implements CoreApis.GetStatus {
               info.cloud = cloudInfo;
             }
             if (isIndexInfoNeeded) {
-              RefCounted<SolrIndexSearcher> searcher = core.getSearcher();
-              try {
-                final var indexInfo =
-                    LukeRequestHandler.getIndexInfo(searcher.get().getIndexReader());
-                long size = core.getIndexSize();
-                indexInfo.sizeInBytes = size;
-                indexInfo.size = NumberUtils.readableSize(size);
-                info.index = indexInfo;
-              } finally {
-                searcher.decref();
+              // the index of an idle cold core is not opened again just to get the status
+              RefCounted<SolrIndexSearcher> searcher =
+                  core.getCoreDescriptor().isCold()
+                      ? core.getRegisteredSearcher()
+                      : core.getSearcher();
+              if (searcher != null) {
+                try {
+                  final var indexInfo =
+                      LukeRequestHandler.getIndexInfo(searcher.get().getIndexReader());
+                  long size = core.getIndexSize();
+                  indexInfo.sizeInBytes = size;
+                  indexInfo.size = NumberUtils.readableSize(size);
+                  info.index = indexInfo;
+                } finally {
+                  searcher.decref();
+                }
               }
             }
           }
@@ -48,6 +48,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.hnsw.HnswGraph;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.search.QParser;
+import org.apache.solr.search.neural.ExactKnnVectorQuery;
 import org.apache.solr.search.neural.KnnQParser.EarlyTerminationParams;
 import org.apache.solr.uninverting.UninvertingReader;
 import org.apache.solr.util.vector.ByteDenseVectorParser;
@@ -429,6 +430,23 @@ public class DenseVectorField extends FloatPointField {
     };
   }
 
+  /**
+   * Returns a query for the exact {@code topK} nearest neighbors among the documents matching the
+   * filter, computed without the HNSW graph.
+   */
+  public ExactKnnVectorQuery getExactKnnVectorQuery(
+      String fieldName, String vectorToSearch, int topK, Query filterQuery) {
+    DenseVectorParser vectorBuilder =
+        getVectorBuilder(vectorToSearch, DenseVectorParser.BuilderPhase.QUERY);
+
+    return switch (vectorEncoding) {
+      case FLOAT32 -> new ExactKnnVectorQuery(
+          fieldName, vectorBuilder.getFloatVector(), topK, filterQuery);
+      case BYTE -> new ExactKnnVectorQuery(
+          fieldName, vectorBuilder.getByteVector(), topK, filterQuery);
+    };
+  }
+
   /**
    * Not Supported. Please use the {!knn} query parser to run K nearest neighbors search queries.
    */
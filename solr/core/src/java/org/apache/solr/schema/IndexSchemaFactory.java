@@ -21,6 +21,8 @@ import static org.apache.solr.schema.IndexSchema.SCHEMA;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
@@ -153,6 +155,14 @@ public abstract class IndexSchemaFactory implements NamedListInitializedPlugin {
   // for testing purposes
   public static volatile Consumer<String> CACHE_MISS_LISTENER = null;
 
+  /**
+   * The key in the {@link ObjectCache} of the {@link org.apache.solr.core.CoreContainer} of the
+   * files of the config sets on the file system, parsed once for all the cores loaded on startup.
+   * It is present only while these cores are loaded.
+   */
+  public static final String STARTUP_CONFIG_CACHE =
+      IndexSchemaFactory.class.getName() + ".startupConfigs";
+
   @SuppressWarnings("unchecked")
   public static VersionedConfig getFromCache(
       String name,
@@ -185,12 +195,37 @@ public abstract class IndexSchemaFactory implements NamedListInitializedPlugin {
         confCache.remove(res.first());
         return confCache.computeIfAbsent(res.first(), k -> cfgLoader.get());
       }
+    } else if (loader.getCoreContainer() != null
+        && loader.getCoreContainer().getObjectCache().get(STARTUP_CONFIG_CACHE)
+            instanceof Map<?, ?> startupCache) {
+      // it's a file system loader, the files are only shared by the cores loaded on startup
+      Path configPath = loader.getConfigPath().normalize();
+      Path path = configPath.resolve(name).normalize();
+      if (!path.startsWith(configPath) || !Files.isRegularFile(path)) {
+        return cfgLoader.get();
+      }
+      long lastModified;
+      try {
+        lastModified = Files.getLastModifiedTime(path).toMillis();
+      } catch (IOException e) {
+        return cfgLoader.get();
+      }
+      Map<Path, FileConfig> confCache = (Map<Path, FileConfig>) startupCache;
+      return confCache.compute(
+              path,
+              (k, cached) ->
+                  cached != null && cached.lastModified() == lastModified
+                      ? cached
+                      : new FileConfig(lastModified, cfgLoader.get()))
+          .config();
     } else {
       // it's a file system loader, no caching necessary
       return cfgLoader.get();
     }
   }
 
+  private record FileConfig(long lastModified, VersionedConfig config) {}
+
   public static ConfigNode getParsedSchema(InputStream is, SolrResourceLoader loader, String name)
       throws IOException, SAXException, ParserConfigurationException {
     XmlConfigFile schemaConf = null;
@@ -541,6 +541,15 @@ public class ManagedIndexSchemaFactory extends IndexSchemaFactory implements Sol
   @Override
   public void inform(SolrCore core) {
     this.core = core;
+    if (schema == null && core.getLatestSchema() instanceof ManagedIndexSchema sharedSchema) {
+      // the core shares the schema that another factory created for the same version of the
+      // config set, see ConfigSetService.getSharedIndexSchema
+      this.resourceName = sharedSchema.getResourceName();
+      this.config = core.getSolrConfig();
+      this.loader = core.getResourceLoader();
+      this.schema = sharedSchema;
+      this.schemaUpdateLock = sharedSchema.getSchemaUpdateLock();
+    }
     if (loader instanceof ZkSolrResourceLoader zkLoader) {
       this.zkIndexSchemaReader = new ZkIndexSchemaReader(this, core);
       zkLoader.setZkIndexSchemaReader(this.zkIndexSchemaReader);
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.schema;
+
+import static java.util.Optional.ofNullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.lucene.document.BinaryDocValuesField;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BitUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.response.TextResponseWriter;
+import org.apache.solr.search.QParser;
+import org.apache.solr.search.neural.MaxSimQuery;
+import org.apache.solr.uninverting.UninvertingReader;
+
+/**
+ * Provides a field type for late interaction models, such as ColBERT, that represent a document
+ * with one vector per token. All the vectors of a document are stored contiguously in a single
+ * binary doc value, so they can be read in one go to rerank the top documents of a query by their
+ * MaxSim: the sum, over the query vectors, of the highest similarity with any of the document
+ * vectors. See {@link MaxSimQuery} and the {@code maxsim} query parser.
+ *
+ * <p>It supports a fixed cardinality dimension for the vectors and a fixed similarity function. The
+ * default similarity is EUCLIDEAN. The vectors are neither indexed nor stored: only the {@code
+ * docValues} attribute is supported.
+ */
+public class MultiVectorField extends FieldType {
+
+  private int dimension;
+  private VectorSimilarityFunction similarityFunction;
+
+  public MultiVectorField() {
+    super();
+  }
+
+  public MultiVectorField(int dimension, VectorSimilarityFunction similarityFunction) {
+    super();
+    this.dimension = dimension;
+    this.similarityFunction = similarityFunction;
+  }
+
+  @Override
+  public void init(IndexSchema schema, Map<String, String> args) {
+    this.dimension =
+        ofNullable(args.remove(DenseVectorField.KNN_VECTOR_DIMENSION))
+            .map(Integer::parseInt)
+            .orElseThrow(
+                () ->
+                    new SolrException(
+                        SolrException.ErrorCode.SERVER_ERROR,
+                        "the vector dimension is a mandatory parameter"));
+
+    this.similarityFunction =
+        ofNullable(args.remove(DenseVectorField.KNN_SIMILARITY_FUNCTION))
+            .map(value -> VectorSimilarityFunction.valueOf(value.toUpperCase(Locale.ROOT)))
+            .orElse(DenseVectorField.DEFAULT_SIMILARITY);
+
+    this.properties |= DOC_VALUES;
+    this.properties &= ~(INDEXED | STORED | MULTIVALUED | UNINVERTIBLE | USE_DOCVALUES_AS_STORED);
+
+    super.init(schema, args);
+  }
+
+  public int getDimension() {
+    return dimension;
+  }
+
+  public VectorSimilarityFunction getSimilarityFunction() {
+    return similarityFunction;
+  }
+
+  @Override
+  protected boolean enableDocValuesByDefault() {
+    return true;
+  }
+
+  @Override
+  protected void checkSupportsDocValues() { // we support DocValues
+  }
+
+  @Override
+  public void checkSchemaField(final SchemaField field) throws SolrException {
+    super.checkSchemaField(field);
+    if (field.multiValued()) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR,
+          getClass().getSimpleName() + " fields can not be multiValued: " + field.getName());
+    }
+    if (!field.hasDocValues()) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR,
+          getClass().getSimpleName() + " fields must have docValues: " + field.getName());
+    }
+    if (field.indexed() || field.stored()) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR,
+          getClass().getSimpleName()
+              + " fields can not be indexed or stored, only docValues are supported: "
+              + field.getName());
+    }
+  }
+
+  @Override
+  public List<IndexableField> createFields(SchemaField field, Object value) {
+    return List.of(createField(field, value));
+  }
+
+  @Override
+  public IndexableField createField(SchemaField field, Object value) {
+    try {
+      return new BinaryDocValuesField(field.getName(), encode(parseVectors(value)));
+    } catch (SolrException e) {
+      throw e;
+    } catch (RuntimeException e) {
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST,
+          "Error while creating field '" + field + "' from value '" + value + "'",
+          e);
+    }
+  }
+
+  /**
+   * Parses the vectors of a document, or of a query, into a single array holding the vectors one
+   * after the other. The vectors may be given as a list of lists of numbers, as a list of strings
+   * such as {@code "[1.0, 2.0]"}, or as a single string such as {@code "[[1.0, 2.0], [3.0, 4.0]]"}.
+   *
+   * @return the values of the vectors, whose length is a multiple of the dimension
+   */
+  public float[] parseVectors(Object value) {
+    final VectorValues values = new VectorValues();
+    values.parse(value);
+    if (values.length == 0 || values.length % dimension != 0) {
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST,
+          "incorrect vector format. The expected format is a list of vectors of "
+              + dimension
+              + " numbers each, e.g. [[1.0, 2.0], [3.0, 4.0]], but "
+              + values.length
+              + " numbers were found");
+    }
+    return ArrayUtil.copyOfSubArray(values.values, 0, values.length);
+  }
+
+  /** The values of a list of vectors, flattened into a growing array. */
+  private static final class VectorValues {
+    float[] values = new float[16];
+    int length;
+
+    void parse(Object value) {
+      if (value instanceof Collection<?> collection) {
+        for (Object element : collection) {
+          parse(element);
+        }
+      } else if (value instanceof Number number) {
+        add(number.floatValue());
+      } else if (value instanceof CharSequence text) {
+        for (String token : text.toString().split("[\\[\\],\\s]+")) {
+          if (!token.isEmpty()) {
+            add(Float.parseFloat(token));
+          }
+        }
+      } else if (value != null) {
+        throw new SolrException(
+            SolrException.ErrorCode.BAD_REQUEST,
+            "incorrect vector element: '" + value + "'. Only numbers and lists are supported");
+      }
+    }
+
+    void add(float value) {
+      values = ArrayUtil.grow(values, length + 1);
+      values[length++] = value;
+    }
+  }
+
+  /**
+   * Encodes the vectors of a document, one after the other, as little endian floats.
+   *
+   * @param vectors the values of the vectors, whose length is a multiple of the dimension
+   */
+  public BytesRef encode(float[] vectors) {
+    final byte[] bytes = new byte[vectors.length * Float.BYTES];
+    for (int i = 0; i < vectors.length; i++) {
+      BitUtil.VH_LE_FLOAT.set(bytes, i * Float.BYTES, vectors[i]);
+    }
+    return new BytesRef(bytes);
+  }
+
+  /** Returns the number of vectors encoded in the doc value of a document. */
+  public int vectorCount(BytesRef encoded) {
+    return encoded.length / (dimension * Float.BYTES);
+  }
+
+  /**
+   * Decodes one of the vectors encoded in the doc value of a document.
+   *
+   * @param encoded the doc value of the document
+   * @param ord the position of the vector in the document, less than {@link #vectorCount}
+   * @param vector the array of {@link #getDimension()} floats to decode the vector into
+   */
+  public void decode(BytesRef encoded, int ord, float[] vector) {
+    final int offset = encoded.offset + ord * dimension * Float.BYTES;
+    for (int i = 0; i < dimension; i++) {
+      vector[i] = (float) BitUtil.VH_LE_FLOAT.get(encoded.bytes, offset + i * Float.BYTES);
+    }
+  }
+
+  /**
+   * Returns a query matching the documents that have vectors in the field, scored by their MaxSim
+   * with the query vectors. The vectors are read from the doc values of each matching document, so
+   * the query is meant to rerank a few top documents rather than to run against the whole index.
+   *
+   * @param queryVectors the values of the query vectors, whose length is a multiple of the
+   *     dimension
+   */
+  public Query getMaxSimQuery(String fieldName, float[] queryVectors) {
+    final float[][] vectors = new float[queryVectors.length / dimension][];
+    for (int i = 0; i < vectors.length; i++) {
+      vectors[i] = ArrayUtil.copyOfSubArray(queryVectors, i * dimension, (i + 1) * dimension);
+    }
+    return new MaxSimQuery(fieldName, this, vectors);
+  }
+
+  @Override
+  public Object toObject(IndexableField f) {
+    final BytesRef encoded = f.binaryValue();
+    if (encoded == null) {
+      return null;
+    }
+    final List<List<Float>> vectors = new ArrayList<>(vectorCount(encoded));
+    final float[] vector = new float[dimension];
+    for (int ord = 0; ord < vectorCount(encoded); ord++) {
+      decode(encoded, ord, vector);
+      final List<Float> values = new ArrayList<>(dimension);
+      for (float value : vector) {
+        values.add(value);
+      }
+      vectors.add(values);
+    }
+    return vectors;
+  }
+
+  @Override
+  public void write(TextResponseWriter writer, String name, IndexableField f) throws IOException {
+    writer.writeVal(name, toObject(f));
+  }
+
+  @Override
+  public UninvertingReader.Type getUninversionType(SchemaField sf) {
+    return null;
+  }
+
+  /** Not Supported. Please use the {!maxsim} query parser to rerank documents by MaxSim. */
+  @Override
+  public Query getFieldQuery(QParser parser, SchemaField field, String externalVal) {
+    throw new SolrException(
+        SolrException.ErrorCode.BAD_REQUEST,
+        "Field Queries are not supported for Multi Vector fields. "
+            + "Please use the {!maxsim} query parser to rerank documents by MaxSim.");
+  }
+
+  /** Not Supported */
+  @Override
+  public Query getRangeQuery(
+      QParser parser,
+      SchemaField field,
+      String part1,
+      String part2,
+      boolean minInclusive,
+      boolean maxInclusive) {
+    throw new SolrException(
+        SolrException.ErrorCode.BAD_REQUEST,
+        "Range Queries are not supported for Multi Vector fields. "
+            + "Please use the {!maxsim} query parser to rerank documents by MaxSim.");
+  }
+
+  /** Not Supported */
+  @Override
+  public SortField getSortField(SchemaField field, boolean top) {
+    throw new SolrException(
+        SolrException.ErrorCode.BAD_REQUEST, "Cannot sort on a Multi Vector field");
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.schema;
+
+import static java.util.Optional.ofNullable;
+
+import java.util.Arrays;
+import java.util.Map;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.util.BitUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.SolrException;
+
+/**
+ * A {@link MultiVectorField} storing the vectors of each document scalar quantized, with the same
+ * options as {@link ScalarQuantizedDenseVectorField}. Each document is quantized on its own: its
+ * doc value starts with the lower and upper quantiles of its values, followed by the quantized
+ * values of its vectors, one after the other.
+ */
+public class ScalarQuantizedMultiVectorField extends MultiVectorField {
+  public static final String BITS_PARAM = ScalarQuantizedDenseVectorField.BITS_PARAM;
+  public static final String CONFIDENCE_INTERVAL_PARAM =
+      ScalarQuantizedDenseVectorField.CONFIDENCE_INTERVAL_PARAM;
+  public static final String COMPRESS_PARAM =
+      ScalarQuantizedDenseVectorField.COMPRESS_PARAM; // can only be enabled when bits = 4
+
+  static final int DEFAULT_BITS = ScalarQuantizedDenseVectorField.DEFAULT_BITS;
+  static final Float DEFAULT_CONFIDENCE_INTERVAL = null; // use dimension scaled confidence interval
+
+  private static final int HEADER_BYTES = 2 * Float.BYTES;
+
+  /** Number of bits to use for storage Must be 4 (half-byte) or 7 (signed-byte) */
+  private int bits;
+
+  /**
+   * Confidence interval to use for scalar quantization Default is calculated as
+   * `1-1/(vector_dimensions + 1)`
+   */
+  private Float confidenceInterval;
+
+  /**
+   * When enabled, in conjunction with 4 bit size, will pair values into single bytes for 50%
+   * reduction in storage (comes at the cost of some decode speed penalty)
+   */
+  private boolean compress;
+
+  public ScalarQuantizedMultiVectorField() {
+    super();
+  }
+
+  public ScalarQuantizedMultiVectorField(
+      int dimension,
+      VectorSimilarityFunction similarityFunction,
+      int bits,
+      Float confidenceInterval,
+      boolean compress) {
+    super(dimension, similarityFunction);
+    this.bits = bits;
+    this.confidenceInterval = confidenceInterval;
+    this.compress = compress;
+  }
+
+  @Override
+  public void init(IndexSchema schema, Map<String, String> args) {
+    this.bits = ofNullable(args.remove(BITS_PARAM)).map(Integer::parseInt).orElse(DEFAULT_BITS);
+
+    this.compress =
+        ofNullable(args.remove(COMPRESS_PARAM)).map(Boolean::parseBoolean).orElse(false);
+
+    this.confidenceInterval =
+        ofNullable(args.remove(CONFIDENCE_INTERVAL_PARAM))
+            .map(Float::parseFloat)
+            .orElse(DEFAULT_CONFIDENCE_INTERVAL);
+
+    super.init(schema, args);
+  }
+
+  @Override
+  public void checkSchemaField(final SchemaField field) throws SolrException {
+    super.checkSchemaField(field);
+
+    String error = null;
+    if (bits != 4 && bits != 7) {
+      error = "bits must be 4 or 7; got: " + bits;
+    } else if (compress && bits != 4) {
+      error = "compress can only be enabled when bits = 4";
+    } else if (confidenceInterval != null
+        && (confidenceInterval < 0.9f || confidenceInterval > 1f)) {
+      error = "confidenceInterval must be between 0.9 and 1.0; got: " + confidenceInterval;
+    }
+    if (error != null) {
+      throw new SolrException(
+          SolrException.ErrorCode.SERVER_ERROR,
+          getClass().getSimpleName() + " " + error + ": " + field.getName());
+    }
+  }
+
+  public int getBits() {
+    return bits;
+  }
+
+  public boolean useCompression() {
+    return compress;
+  }
+
+  public Float getConfidenceInterval() {
+    return confidenceInterval;
+  }
+
+  private float effectiveConfidenceInterval() {
+    return confidenceInterval != null ? confidenceInterval : 1f - 1f / (getDimension() + 1);
+  }
+
+  private int bytesPerVector() {
+    return compress ? (getDimension() + 1) / 2 : getDimension();
+  }
+
+  private int maxQuantizedValue() {
+    return (1 << bits) - 1;
+  }
+
+  @Override
+  public BytesRef encode(float[] vectors) {
+    // the values out of the confidence interval are clamped to its bounds
+    final float[] sorted = vectors.clone();
+    Arrays.sort(sorted);
+    final int lowerIndex = (int) ((sorted.length - 1) * (1f - effectiveConfidenceInterval()) / 2f);
+    final float lower = sorted[lowerIndex];
+    final float upper = sorted[sorted.length - 1 - lowerIndex];
+    final float scale = upper > lower ? maxQuantizedValue() / (upper - lower) : 0f;
+
+    final int dimension = getDimension();
+    final int vectorCount = vectors.length / dimension;
+    final byte[] bytes = new byte[HEADER_BYTES + vectorCount * bytesPerVector()];
+    BitUtil.VH_LE_FLOAT.set(bytes, 0, lower);
+    BitUtil.VH_LE_FLOAT.set(bytes, Float.BYTES, upper);
+    for (int ord = 0; ord < vectorCount; ord++) {
+      final int offset = HEADER_BYTES + ord * bytesPerVector();
+      for (int i = 0; i < dimension; i++) {
+        final float value = Math.min(upper, Math.max(lower, vectors[ord * dimension + i]));
+        final int quantized = Math.round((value - lower) * scale);
+        if (compress) {
+          bytes[offset + i / 2] |= (byte) (quantized << ((i & 1) * 4));
+        } else {
+          bytes[offset + i] = (byte) quantized;
+        }
+      }
+    }
+    return new BytesRef(bytes);
+  }
+
+  @Override
+  public int vectorCount(BytesRef encoded) {
+    return (encoded.length - HEADER_BYTES) / bytesPerVector();
+  }
+
+  @Override
+  public void decode(BytesRef encoded, int ord, float[] vector) {
+    final float lower = (float) BitUtil.VH_LE_FLOAT.get(encoded.bytes, encoded.offset);
+    final float upper =
+        (float) BitUtil.VH_LE_FLOAT.get(encoded.bytes, encoded.offset + Float.BYTES);
+    final float step = (upper - lower) / maxQuantizedValue();
+    final int offset = encoded.offset + HEADER_BYTES + ord * bytesPerVector();
+    for (int i = 0; i < getDimension(); i++) {
+      final int quantized =
+          compress
+              ? (encoded.bytes[offset + i / 2] >> ((i & 1) * 4)) & 0x0F
+              : encoded.bytes[offset + i];
+      vector[i] = lower + quantized * step;
+    }
+  }
+}
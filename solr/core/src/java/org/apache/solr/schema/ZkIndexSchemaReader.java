@@ -19,6 +19,7 @@ package org.apache.solr.schema;
 import java.io.ByteArrayInputStream;
 import java.lang.invoke.MethodHandles;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import org.apache.solr.cloud.ZkSolrResourceLoader;
 import org.apache.solr.common.SolrException.ErrorCode;
 import org.apache.solr.common.cloud.OnReconnect;
@@ -47,6 +48,8 @@ public class ZkIndexSchemaReader implements OnReconnect {
       uniqueCoreId; // used in equals impl to uniquely identify the core that we're dependent on
   private SchemaWatcher schemaWatcher;
   private final ZkSolrResourceLoader zkLoader;
+  private final CoreContainer coreContainer;
+  private final String configSet;
 
   public ZkIndexSchemaReader(
       ManagedIndexSchemaFactory managedIndexSchemaFactory, SolrCore solrCore) {
@@ -55,6 +58,8 @@ public class ZkIndexSchemaReader implements OnReconnect {
     this.zkClient = zkLoader.getZkController().getZkClient();
     this.managedSchemaPath = managedIndexSchemaFactory.lookupZKManagedSchemaPath();
     this.uniqueCoreId = solrCore.getName() + ":" + solrCore.getStartNanoTime();
+    this.coreContainer = solrCore.getCoreContainer();
+    this.configSet = solrCore.getCoreDescriptor().getConfigSet();
 
     // register a CloseHook for the core this reader is linked to, so that we can de-register the
     // listener
@@ -197,17 +202,32 @@ public class ZkIndexSchemaReader implements OnReconnect {
           }
           long start = System.nanoTime();
           String resourceName = managedIndexSchemaFactory.getManagedSchemaResourceName();
+          Supplier<IndexSchema> creator =
+              () ->
+                  new ManagedIndexSchema(
+                      managedIndexSchemaFactory.getConfig(),
+                      resourceName,
+                      () ->
+                          IndexSchemaFactory.getParsedSchema(
+                              new ByteArrayInputStream(data), zkLoader, resourceName),
+                      managedIndexSchemaFactory.isMutable(),
+                      resourceName,
+                      stat.getVersion(),
+                      oldSchema.getSchemaUpdateLock());
+          // the cores of the config set share the new version of the schema, if they share schemas
+          IndexSchema sharedSchema =
+              coreContainer
+                  .getConfigSetService()
+                  .getSharedIndexSchema(
+                      configSet,
+                      resourceName,
+                      stat.getVersion(),
+                      managedIndexSchemaFactory.getConfig(),
+                      creator);
           ManagedIndexSchema newSchema =
-              new ManagedIndexSchema(
-                  managedIndexSchemaFactory.getConfig(),
-                  resourceName,
-                  () ->
-                      IndexSchemaFactory.getParsedSchema(
-                          new ByteArrayInputStream(data), zkLoader, resourceName),
-                  managedIndexSchemaFactory.isMutable(),
-                  resourceName,
-                  stat.getVersion(),
-                  oldSchema.getSchemaUpdateLock());
+              sharedSchema instanceof ManagedIndexSchema managedSchema
+                  ? managedSchema
+                  : (ManagedIndexSchema) creator.get();
           managedIndexSchemaFactory.setSchema(newSchema);
           long stop = System.nanoTime();
           log.info(
@@ -24,7 +24,8 @@ import java.io.IOException;
  * inserted into the new cache.
  *
  * <p>Implementations should have a noarg constructor and be thread safe (a single instance will be
- * used for all cache autowarmings).
+ * used for all cache autowarmings). The items of a cache may also be regenerated concurrently, on
+ * the executor of the new searcher.
  */
 public interface CacheRegenerator {
   /**
@@ -24,23 +24,30 @@ import com.github.benmanes.caffeine.cache.RemovalCause;
 import com.github.benmanes.caffeine.cache.RemovalListener;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.ObservableDoubleMeasurement;
 import io.opentelemetry.api.metrics.ObservableLongMeasurement;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandles;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.LongAdder;
+import org.apache.lucene.search.TaskExecutor;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.common.util.IOUtils;
@@ -64,6 +71,14 @@ import org.slf4j.LoggerFactory;
  * cache is able to outperform classic policies like LRU and LFU, as well as modern policies like
  * ARC and LIRS. This policy performed particularly well in search workloads.
  *
+ * <p>The cost of computing the entries may be taken into account, as measured by {@link
+ * #computeIfAbsent} or given to {@link #put(Object, Object, long)}. Entries that took less than
+ * {@code minCostMs} milliseconds to compute are not admitted, so that e.g. a flood of cheap one-off
+ * filters doesn't push out the entries that are worth caching. With {@code costAware}, the cache
+ * evicts the entries itself to stay within its limits: among a few of its coldest entries, it
+ * evicts the one that is the cheapest to compute again, relative to its size when the cache is
+ * limited by RAM.
+ *
  * <p>[1] https://github.com/ben-manes/caffeine [2] http://arxiv.org/pdf/1512.00727.pdf [3]
  * http://highscalability.com/blog/2016/1/25/design-of-a-modern-cache.html
  */
@@ -79,12 +94,23 @@ public class CaffeineCache<K, V> extends SolrCacheBase
   private static final long RAM_BYTES_PER_FUTURE =
       RamUsageEstimator.shallowSizeOfInstance(CompletableFuture.class);
 
+  // the number of coldest entries among which cost aware eviction picks the entry to evict
+  private static final int EVICTION_SAMPLE_SIZE = 8;
+  // the number of coldest entries that cost aware eviction reads at once to pick several victims
+  private static final int EVICTION_BATCH_SIZE = 64;
+  // the fraction of the limits that cost aware eviction frees at once, so that it only reads the
+  // coldest entries again after a batch of insertions
+  private static final int EVICTION_SLACK_DIVISOR = 64;
+
   private Executor executor;
 
   private CacheStats priorStats;
   private long priorHits;
   private long priorInserts;
   private long priorLookups;
+  private long priorCostSavedNanos;
+  private long priorRejections;
+  private long priorCostEvictions;
 
   private String description = "Caffeine Cache";
   private LongAdder hits;
@@ -99,6 +125,13 @@ public class CaffeineCache<K, V> extends SolrCacheBase
   private int maxIdleTimeSec;
   private boolean cleanupThread;
   private boolean async;
+  private long minCostNanos;
+  private boolean costAware;
+  // the time it took to compute each entry, if costs are taken into account
+  private Map<K, Long> costs;
+  private LongAdder costSavedNanos;
+  private LongAdder rejections;
+  private LongAdder costEvictions;
 
   private SolrMetricsContext solrMetricsContext;
   private AutoCloseable toClose;
@@ -128,6 +161,10 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     maxRamBytes = maxRamMB < 0 ? Long.MAX_VALUE : maxRamMB * 1024L * 1024L;
     cleanupThread = Boolean.parseBoolean(args.get(CLEANUP_THREAD_PARAM));
     async = Boolean.parseBoolean(args.getOrDefault(ASYNC_PARAM, "true"));
+    str = args.get(MIN_COST_MS_PARAM);
+    minCostNanos = str == null ? 0 : (long) (Double.parseDouble(str) * 1_000_000);
+    costAware = Boolean.parseBoolean(args.get(COST_AWARE_PARAM));
+    costs = minCostNanos > 0 || costAware ? new ConcurrentHashMap<>() : null;
     if (async) {
       // We record futures in the map to decrease bucket-lock contention, but need computation
       // handled in same thread
@@ -144,6 +181,9 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     hits = new LongAdder();
     inserts = new LongAdder();
     lookups = new LongAdder();
+    costSavedNanos = new LongAdder();
+    rejections = new LongAdder();
+    costEvictions = new LongAdder();
 
     initialRamBytes =
         RamUsageEstimator.shallowSizeOfInstance(cache.getClass())
@@ -164,11 +204,11 @@ public class CaffeineCache<K, V> extends SolrCacheBase
       builder.expireAfterAccess(Duration.ofSeconds(maxIdleTimeSec));
     }
     if (maxRamBytes != Long.MAX_VALUE) {
-      builder.maximumWeight(maxRamBytes);
+      builder.maximumWeight(caffeineMaximum(maxRamBytes));
       builder.weigher(
           (k, v) -> (int) (RamUsageEstimator.sizeOfObject(k) + RamUsageEstimator.sizeOfObject(v)));
     } else {
-      builder.maximumSize(maxSize);
+      builder.maximumSize(caffeineMaximum(maxSize));
     }
     Cache<K, V> newCache;
     if (async) {
@@ -183,8 +223,20 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     return newCache;
   }
 
+  /**
+   * Returns the limit to give to Caffeine. With cost aware eviction, the cache evicts the entries
+   * itself to stay within its limits, and Caffeine only evicts entries when concurrent insertions
+   * exceed them by far.
+   */
+  private long caffeineMaximum(long limit) {
+    return costAware && limit < Long.MAX_VALUE / 2 ? 2 * limit : limit;
+  }
+
   @Override
   public void onRemoval(K key, V value, RemovalCause cause) {
+    if (costs != null && cause != RemovalCause.REPLACED) {
+      costs.remove(key);
+    }
     ramBytes.add(
         -(RamUsageEstimator.sizeOfObject(key, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED)
             + RamUsageEstimator.sizeOfObject(value, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED)
@@ -201,7 +253,18 @@ public class CaffeineCache<K, V> extends SolrCacheBase
 
   @Override
   public V get(K key) {
-    return cache.getIfPresent(key);
+    V value = cache.getIfPresent(key);
+    if (value != null && costs != null) {
+      recordCostSaved(key);
+    }
+    return value;
+  }
+
+  private void recordCostSaved(K key) {
+    Long cost = costs.get(key);
+    if (cost != null) {
+      costSavedNanos.add(cost);
+    }
   }
 
   private V computeAsync(K key, IOFunction<? super K, ? extends V> mappingFunction)
@@ -214,6 +277,9 @@ public class CaffeineCache<K, V> extends SolrCacheBase
         // Another thread is already working on this computation, wait for them to finish
         V value = result.join();
         hits.increment();
+        if (costs != null) {
+          recordCostSaved(key);
+        }
         return value;
       } catch (CompletionException e) {
         Throwable cause = e.getCause();
@@ -232,10 +298,30 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     }
     try {
       // We reserved the slot, so we do the work
+      long startTime = System.nanoTime();
       V value = mappingFunction.apply(key);
+      long costNanos = System.nanoTime() - startTime;
+      boolean admitted = costNanos >= minCostNanos;
+      if (costs != null && admitted) {
+        // recorded before the value is visible, so that its removal always drops the cost
+        costs.put(key, costNanos);
+      }
       future.complete(value); // This will update the weight and expiration
       recordRamBytes(key, value);
+      if (!admitted) {
+        // too cheap to be worth caching; the threads waiting for the value still get it
+        asyncCache.asMap().remove(key, future);
+        rejections.increment();
+        return value;
+      }
       inserts.increment();
+      if (costs != null) {
+        if (asyncCache.asMap().get(key) != future) {
+          // removed, e.g. by a clear, before its cost was recorded
+          costs.remove(key, costNanos);
+        }
+        evictCheapEntries();
+      }
       return value;
     } catch (Error | RuntimeException | IOException e) {
       // TimeExceeded exception is runtime and will bubble up from here
@@ -250,6 +336,9 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     if (async) {
       return computeAsync(key, mappingFunction);
     }
+    if (costs != null) {
+      return computeWithCost(key, mappingFunction);
+    }
 
     try {
       return cache.get(
@@ -273,6 +362,25 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     }
   }
 
+  /**
+   * Computes a missing value outside of the cache, so that its cost is known before it is
+   * admitted. Unlike the default, concurrent lookups of the same missing key may compute it more
+   * than once.
+   */
+  private V computeWithCost(K key, IOFunction<? super K, ? extends V> mappingFunction)
+      throws IOException {
+    V value = get(key);
+    if (value != null) {
+      return value;
+    }
+    long startTime = System.nanoTime();
+    value = mappingFunction.apply(key);
+    if (value != null) {
+      put(key, value, System.nanoTime() - startTime);
+    }
+    return value;
+  }
+
   @Override
   public V put(K key, V val) {
     inserts.increment();
@@ -286,9 +394,91 @@ public class CaffeineCache<K, V> extends SolrCacheBase
       //  don't need to increment ram bytes for the entry either).
       recordRamBytes(key, val);
     }
+    evictCheapEntries();
     return old;
   }
 
+  @Override
+  public V put(K key, V val, long costNanos) {
+    if (costs == null) {
+      return put(key, val);
+    }
+    if (costNanos < minCostNanos) {
+      // too cheap to be worth caching
+      rejections.increment();
+      return cache.asMap().get(key);
+    }
+    costs.put(key, costNanos);
+    return put(key, val);
+  }
+
+  /**
+   * With cost aware eviction, evicts entries once the cache exceeds its limits, until it is a bit
+   * below them, so that the coldest entries are only read once per batch of insertions. Each
+   * evicted entry is the one, among the {@link #EVICTION_SAMPLE_SIZE} coldest entries, that has the
+   * lowest cost weighted by its rank, so that a cold entry is only kept when it is much more
+   * expensive to compute than the entries that are a bit warmer. When the cache is limited by RAM,
+   * the cost of the entries is relative to their size.
+   */
+  private void evictCheapEntries() {
+    if (!costAware) {
+      return;
+    }
+    Optional<Eviction<K, V>> evictionOpt = cache.policy().eviction();
+    if (evictionOpt.isEmpty()) {
+      return;
+    }
+    Eviction<K, V> eviction = evictionOpt.get();
+    if (!isOverLimit(eviction, 0)) {
+      return;
+    }
+    long slack =
+        maxRamBytes != Long.MAX_VALUE
+            ? maxRamBytes / EVICTION_SLACK_DIVISOR
+            : maxSize / EVICTION_SLACK_DIVISOR;
+    while (isOverLimit(eviction, slack)) {
+      List<Entry<K, V>> coldest =
+          new ArrayList<>(
+              eviction.coldest(EVICTION_BATCH_SIZE + EVICTION_SAMPLE_SIZE).entrySet());
+      if (coldest.isEmpty()) {
+        return;
+      }
+      // the remaining entries of the batch stand in for the coldest entries of the cache
+      do {
+        int victim = 0;
+        double victimScore = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < Math.min(EVICTION_SAMPLE_SIZE, coldest.size()); i++) {
+          Entry<K, V> entry = coldest.get(i);
+          double score = (i + 1) * (double) costs.getOrDefault(entry.getKey(), 0L);
+          if (maxRamBytes != Long.MAX_VALUE) {
+            score /=
+                Math.max(
+                    1L,
+                    RamUsageEstimator.sizeOfObject(entry.getKey())
+                        + RamUsageEstimator.sizeOfObject(entry.getValue()));
+          }
+          if (score < victimScore) {
+            victim = i;
+            victimScore = score;
+          }
+        }
+        Entry<K, V> entry = coldest.remove(victim);
+        // ramBytes and costs adjustments happen via #onRemoval
+        if (cache.asMap().remove(entry.getKey(), entry.getValue())) {
+          costEvictions.increment();
+        }
+      } while (coldest.size() >= EVICTION_SAMPLE_SIZE && isOverLimit(eviction, slack));
+    }
+  }
+
+  /** Whether the cache exceeds its limits minus the given slack, in bytes or entries. */
+  private boolean isOverLimit(Eviction<K, V> eviction, long slack) {
+    if (maxRamBytes != Long.MAX_VALUE) {
+      return eviction.weightedSize().orElse(0L) > maxRamBytes - slack;
+    }
+    return cache.estimatedSize() > maxSize - slack;
+  }
+
   /**
    * Update the estimate of used memory.
    *
@@ -349,8 +539,9 @@ public class CaffeineCache<K, V> extends SolrCacheBase
     Optional<Eviction<K, V>> evictionOpt = cache.policy().eviction();
     if (evictionOpt.isPresent()) {
       Eviction<K, V> eviction = evictionOpt.get();
-      eviction.setMaximum(maxSize);
       this.maxSize = maxSize;
+      eviction.setMaximum(caffeineMaximum(maxSize));
+      evictCheapEntries();
       initialSize = Math.min(1024, this.maxSize);
       description = generateDescription(this.maxSize, initialSize);
       cache.cleanUp();
@@ -379,7 +570,8 @@ public class CaffeineCache<K, V> extends SolrCacheBase
           cache = buildCache(cache);
           return;
         }
-        eviction.setMaximum(newMaxRamBytes);
+        eviction.setMaximum(caffeineMaximum(newMaxRamBytes));
+        evictCheapEntries();
         description = generateDescription(this.maxSize, initialSize);
         cache.cleanUp();
       }
@@ -409,26 +601,56 @@ public class CaffeineCache<K, V> extends SolrCacheBase
           other.cache.policy().eviction().map(p -> p.hottest(size)).orElse(Collections.emptyMap());
     }
 
+    // regenerate the entries concurrently on the executor of the searcher, if it has one
+    final AtomicBoolean continueRegen = new AtomicBoolean(true);
+    final List<Callable<Void>> regenerations = new ArrayList<>(hottest.size());
     for (Entry<K, V> entry : hottest.entrySet()) {
-      try {
-        boolean continueRegen =
-            regenerator.regenerateItem(searcher, this, old, entry.getKey(), entry.getValue());
-        if (!continueRegen) {
-          break;
+      regenerations.add(
+          () -> {
+            if (continueRegen.get()) {
+              try {
+                if (!regenerator.regenerateItem(
+                    searcher, this, old, entry.getKey(), entry.getValue())) {
+                  continueRegen.set(false);
+                }
+              } catch (Exception e) {
+                log.error("Error during auto-warming of key: {}", entry.getKey(), e);
+              }
+            }
+            return null;
+          });
+    }
+    final TaskExecutor taskExecutor =
+        searcher == null ? new TaskExecutor(Runnable::run) : searcher.getTaskExecutor();
+    try {
+      taskExecutor.invokeAll(regenerations);
+    } catch (IOException e) {
+      log.error("Error during auto-warming", e);
+    }
+    if (costs != null && other.costs != null) {
+      // keep the cost of the entries regenerated without computing them again
+      for (K key : hottest.keySet()) {
+        Long cost = other.costs.get(key);
+        if (cost != null && cache.asMap().containsKey(key)) {
+          costs.putIfAbsent(key, cost);
         }
-      } catch (Exception e) {
-        log.error("Error during auto-warming of key: {}", entry.getKey(), e);
       }
     }
 
     hits.reset();
     inserts.reset();
     lookups.reset();
+    costSavedNanos.reset();
+    rejections.reset();
+    costEvictions.reset();
     CacheStats oldStats = other.cache.stats();
     priorStats = oldStats.plus(other.priorStats);
     priorHits = oldStats.hitCount() + other.hits.sum() + other.priorHits;
     priorInserts = other.inserts.sum() + other.priorInserts;
     priorLookups = oldStats.requestCount() + other.lookups.sum() + other.priorLookups;
+    priorCostSavedNanos = other.costSavedNanos.sum() + other.priorCostSavedNanos;
+    priorRejections = other.rejections.sum() + other.priorRejections;
+    priorCostEvictions = other.costEvictions.sum() + other.priorCostEvictions;
     warmupTime =
         TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
   }
@@ -501,6 +723,17 @@ public class CaffeineCache<K, V> extends SolrCacheBase
         solrMetricsContext.longGaugeMeasurement(
             metricName + "_warmup_time", "Cache warmup time (most recent)", OtelUnit.MILLISECONDS);
 
+    ObservableDoubleMeasurement hitRatioMetric =
+        solrMetricsContext.doubleGaugeMeasurement(
+            metricName + "_hit_ratio", "Ratio of cumulative cache lookups that were hits");
+
+    ObservableLongMeasurement costSavedMetric =
+        solrMetricsContext.longCounterMeasurement(
+            metricName + "_cost_saved",
+            "Cumulative time it took to compute the entries of the cache hits, when costs are"
+                + " taken into account",
+            OtelUnit.MILLISECONDS);
+
     this.toClose =
         solrMetricsContext.batchCallback(
             () -> {
@@ -525,18 +758,28 @@ public class CaffeineCache<K, V> extends SolrCacheBase
               cacheLookupsMetric.record(
                   cumLookups - cumHits,
                   cacheAttributes.toBuilder().put(RESULT_ATTR, "miss").build());
+              hitRatioMetric.record(
+                  cumLookups == 0 ? 0.0 : (double) cumHits / cumLookups, cacheAttributes);
+              costSavedMetric.record(
+                  TimeUnit.NANOSECONDS.toMillis(priorCostSavedNanos + costSavedNanos.sum()),
+                  cacheAttributes);
 
               cacheOperationMetric.record(
                   priorInserts + insertCount,
                   cacheAttributes.toBuilder().put(OPERATION_ATTR, "inserts").build());
               cacheOperationMetric.record(
-                  cumulativeStats.evictionCount(),
+                  cumulativeStats.evictionCount() + priorCostEvictions + costEvictions.sum(),
                   cacheAttributes.toBuilder().put(OPERATION_ATTR, "evictions").build());
+              cacheOperationMetric.record(
+                  priorRejections + rejections.sum(),
+                  cacheAttributes.toBuilder().put(OPERATION_ATTR, "rejections").build());
             },
             cacheLookupsMetric,
             cacheOperationMetric,
             sizeMetric,
             ramBytesUsedMetric,
-            warmupTimeMetric);
+            warmupTimeMetric,
+            hitRatioMetric,
+            costSavedMetric);
   }
 }
@@ -17,8 +17,11 @@
 package org.apache.solr.search;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
@@ -27,15 +30,39 @@ import org.apache.lucene.index.PostingsEnum;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.Terms;
 import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.DocValuesRewriteMethod;
+import org.apache.lucene.search.FieldExistsQuery;
+import org.apache.lucene.search.IndexOrDocValuesQuery;
 import org.apache.lucene.search.LeafCollector;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.MultiPhraseQuery;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.PointInSetQuery;
+import org.apache.lucene.search.PointRangeQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SynonymQuery;
+import org.apache.lucene.search.TermInSetQuery;
 import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.BitDocIdSet;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
+import org.apache.lucene.util.RoaringDocIdSet;
+import org.apache.lucene.util.automaton.ByteRunAutomaton;
 
 /**
  * @lucene.experimental
@@ -156,6 +183,199 @@ public class DocSetUtil {
     return getDocSet(collector, searcher);
   }
 
+  /**
+   * Returns whether the documents a query matches in a segment only depend on that segment, so that
+   * they stay the same as long as the segment is part of the index, apart from the documents
+   * deleted since. This is the case for term, point and boolean combinations of such queries,
+   * unlike e.g. joins or nearest neighbors queries, and for multi term queries with a constant
+   * score rewrite, unlike fuzzy queries which only match the top terms of the index. Unknown
+   * queries are conservatively assumed not to be segment local.
+   *
+   * <p>The matches of a segment local query in a segment also change with the in-place updates of
+   * its doc values: they can only be reused when {@link Weight#isCacheable} is true for the
+   * segment, as with Lucene's query cache.
+   */
+  public static boolean isSegmentLocal(Query query) {
+    final boolean[] segmentLocal = {true};
+    query.visit(
+        new QueryVisitor() {
+          @Override
+          public void consumeTerms(Query query, Term... terms) {}
+
+          @Override
+          public void consumeTermsMatching(
+              Query query, String field, Supplier<ByteRunAutomaton> automaton) {
+            // a top terms rewrite, as the default of a FuzzyQuery, or a scoring one, selects the
+            // terms of the whole index, which change with the other segments
+            if (!(query instanceof MultiTermQuery)
+                || !isConstantScoreRewrite(((MultiTermQuery) query).getRewriteMethod())) {
+              segmentLocal[0] = false;
+            }
+          }
+
+          @Override
+          public void visitLeaf(Query query) {
+            if (!(query instanceof MatchAllDocsQuery
+                || query instanceof MatchNoDocsQuery
+                || query instanceof FieldExistsQuery
+                || query instanceof PointRangeQuery
+                || query instanceof PointInSetQuery)) {
+              segmentLocal[0] = false;
+            }
+          }
+
+          @Override
+          public QueryVisitor getSubVisitor(BooleanClause.Occur occur, Query parent) {
+            if (!(parent instanceof BooleanQuery
+                || parent instanceof BoostQuery
+                || parent instanceof ConstantScoreQuery
+                || parent instanceof DisjunctionMaxQuery
+                || parent instanceof IndexOrDocValuesQuery
+                || parent instanceof TermInSetQuery
+                || parent instanceof PhraseQuery
+                || parent instanceof MultiPhraseQuery
+                || parent instanceof SynonymQuery)) {
+              segmentLocal[0] = false;
+            }
+            // unlike the default, also visits the MUST_NOT clauses
+            return this;
+          }
+        });
+    return segmentLocal[0];
+  }
+
+  private static boolean isConstantScoreRewrite(MultiTermQuery.RewriteMethod rewriteMethod) {
+    return rewriteMethod == MultiTermQuery.CONSTANT_SCORE_BLENDED_REWRITE
+        || rewriteMethod == MultiTermQuery.CONSTANT_SCORE_REWRITE
+        || rewriteMethod == MultiTermQuery.CONSTANT_SCORE_BOOLEAN_REWRITE
+        || rewriteMethod instanceof DocValuesRewriteMethod;
+  }
+
+  /**
+   * Creates the DocSet of a {@link #isSegmentLocal segment local} query from its DocSet for a
+   * previous searcher over the same index, typically while autowarming. The matches in the segments
+   * that both searchers share are copied from the previous DocSet, minus the documents deleted
+   * since, and the query only runs on the new segments and on those its weight cannot cache.
+   *
+   * @param previousSearcher the searcher the previous DocSet was created for
+   * @param previous the DocSet of the query for the previous searcher
+   */
+  public static DocSet createDocSet(
+      SolrIndexSearcher searcher, Query query, SolrIndexSearcher previousSearcher, DocSet previous)
+      throws IOException {
+    final Map<Object, LeafReaderContext> previousLeaves = new HashMap<>();
+    for (LeafReaderContext leaf : previousSearcher.getTopReaderContext().leaves()) {
+      final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+      if (cacheHelper != null) {
+        previousLeaves.put(cacheHelper.getKey(), leaf);
+      }
+    }
+
+    final FixedBitSet bits = new FixedBitSet(searcher.maxDoc());
+    final Weight weight = createFilterWeight(searcher, query);
+    for (LeafReaderContext leaf : searcher.getTopReaderContext().leaves()) {
+      final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+      final LeafReaderContext previousLeaf =
+          cacheHelper == null ? null : previousLeaves.get(cacheHelper.getKey());
+      final DocIdSetIterator it;
+      if (previousLeaf != null && weight.isCacheable(leaf)) {
+        it = previous.iterator(previousLeaf);
+      } else {
+        final Scorer scorer = weight.scorer(leaf);
+        it = scorer == null ? null : scorer.iterator();
+      }
+      addLiveDocs(it, leaf, bits);
+    }
+    return toDocSet(bits, searcher);
+  }
+
+  /**
+   * Creates the DocSet of a {@link #isSegmentLocal segment local} query from its matches in each
+   * segment, which are looked up in a cache keyed by the query and the core of the segment, or
+   * else computed and added to it. Unlike a DocSet, these matches stay valid across searchers for
+   * as long as their segment is part of the index, so that only the new segments need to be
+   * searched after a commit. The matches in a segment are neither looked up nor cached when {@link
+   * Weight#isCacheable} is false for it.
+   *
+   * @param segmentCache the cache of the matches of the queries in each segment, including the
+   *     deleted documents
+   */
+  public static DocSet createDocSet(
+      SolrIndexSearcher searcher, Query query, SolrCache<SegmentFilterKey, DocIdSet> segmentCache)
+      throws IOException {
+    final FixedBitSet bits = new FixedBitSet(searcher.maxDoc());
+    final Weight weight = createFilterWeight(searcher, query);
+    for (LeafReaderContext leaf : searcher.getTopReaderContext().leaves()) {
+      final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+      // the key of a segment with in-place doc values updates stays the same, but not its matches
+      final SegmentFilterKey key =
+          cacheHelper == null || !weight.isCacheable(leaf)
+              ? null
+              : new SegmentFilterKey(query, cacheHelper.getKey());
+      DocIdSet matches = key == null ? null : segmentCache.get(key);
+      if (matches == null) {
+        final long startTime = System.nanoTime();
+        matches = getSegmentMatches(weight, leaf);
+        if (key != null) {
+          segmentCache.put(key, matches, System.nanoTime() - startTime);
+        }
+      }
+      addLiveDocs(matches.iterator(), leaf, bits);
+    }
+    return toDocSet(bits, searcher);
+  }
+
+  private static Weight createFilterWeight(SolrIndexSearcher searcher, Query query)
+      throws IOException {
+    return searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+  }
+
+  /**
+   * Returns the matches of a query in a segment, whether deleted or not, as a bit set when they are
+   * dense and as a {@link RoaringDocIdSet} otherwise, like Lucene's query cache does.
+   */
+  private static DocIdSet getSegmentMatches(Weight weight, LeafReaderContext leaf)
+      throws IOException {
+    final Scorer scorer = weight.scorer(leaf);
+    if (scorer == null) {
+      return DocIdSet.EMPTY;
+    }
+    final DocIdSetIterator it = scorer.iterator();
+    final int maxDoc = leaf.reader().maxDoc();
+    if (it.cost() * 100 >= maxDoc) {
+      final FixedBitSet bits = new FixedBitSet(maxDoc);
+      bits.or(it);
+      return new BitDocIdSet(bits);
+    }
+    final RoaringDocIdSet.Builder builder = new RoaringDocIdSet.Builder(maxDoc);
+    for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+      builder.add(doc);
+    }
+    return builder.build();
+  }
+
+  /** Sets the bits of the live documents of a segment matched by an iterator, which may be null. */
+  private static void addLiveDocs(DocIdSetIterator it, LeafReaderContext leaf, FixedBitSet bits)
+      throws IOException {
+    if (it == null) {
+      return;
+    }
+    final Bits liveDocs = leaf.reader().getLiveDocs();
+    for (int doc = it.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = it.nextDoc()) {
+      if (liveDocs == null || liveDocs.get(doc)) {
+        bits.set(leaf.docBase + doc);
+      }
+    }
+  }
+
+  private static DocSet toDocSet(FixedBitSet bits, SolrIndexSearcher searcher) {
+    final BitDocSet docSet = new BitDocSet(bits, bits.cardinality());
+    if (docSet.size() < smallSetSize(searcher.maxDoc())) {
+      return toSmallSet(docSet);
+    }
+    return getDocSet(docSet, searcher);
+  }
+
   public static DocSet createDocSet(SolrIndexSearcher searcher, Term term) throws IOException {
     DirectoryReader reader = searcher.getRawReader(); // raw reader to avoid extra wrapping overhead
     int maxDoc = searcher.getIndexReader().maxDoc();
@@ -29,6 +29,7 @@ import org.apache.solr.search.join.HashRangeQParserPlugin;
 import org.apache.solr.search.mlt.MLTContentQParserPlugin;
 import org.apache.solr.search.mlt.MLTQParserPlugin;
 import org.apache.solr.search.neural.KnnQParserPlugin;
+import org.apache.solr.search.neural.MaxSimQParserPlugin;
 import org.apache.solr.search.neural.VectorSimilarityQParserPlugin;
 import org.apache.solr.util.plugin.NamedListInitializedPlugin;
 
@@ -89,6 +90,7 @@ public abstract class QParserPlugin implements NamedListInitializedPlugin {
     map.put(RankQParserPlugin.NAME, new RankQParserPlugin());
     map.put(KnnQParserPlugin.NAME, new KnnQParserPlugin());
     map.put(VectorSimilarityQParserPlugin.NAME, new VectorSimilarityQParserPlugin());
+    map.put(MaxSimQParserPlugin.NAME, new MaxSimQParserPlugin());
     map.put(FuzzyQParserPlugin.NAME, new FuzzyQParserPlugin());
 
     standardPlugins = Collections.unmodifiableMap(map);
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+
+/**
+ * The key of the matches of a filter query in one segment, in the {@code segmentFilterCache}. A
+ * segment is identified by the {@link IndexReader.CacheKey} of its core, which stays the same as
+ * long as the segment is part of the index, whatever the deletions and the searchers opened since.
+ *
+ * @lucene.internal
+ */
+public final class SegmentFilterKey implements Accountable {
+  private static final long BASE_RAM_BYTES_USED =
+      RamUsageEstimator.shallowSizeOfInstance(SegmentFilterKey.class);
+
+  private final Query query;
+  private final IndexReader.CacheKey segment;
+  private final int hc; // cached hashCode
+
+  public SegmentFilterKey(Query query, IndexReader.CacheKey segment) {
+    this.query = query;
+    this.segment = segment;
+    this.hc = 31 * query.hashCode() + segment.hashCode();
+  }
+
+  public Query getQuery() {
+    return query;
+  }
+
+  public IndexReader.CacheKey getSegment() {
+    return segment;
+  }
+
+  @Override
+  public int hashCode() {
+    return hc;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) return true;
+    if (!(o instanceof SegmentFilterKey other)) return false;
+    return hc == other.hc && segment == other.segment && query.equals(other.query);
+  }
+
+  @Override
+  public long ramBytesUsed() {
+    // the segment key is shared by all the entries of the segment
+    return BASE_RAM_BYTES_USED
+        + RamUsageEstimator.sizeOfObject(query, RamUsageEstimator.QUERY_DEFAULT_RAM_BYTES_USED);
+  }
+
+  @Override
+  public String toString() {
+    return query + " in " + segment;
+  }
+}
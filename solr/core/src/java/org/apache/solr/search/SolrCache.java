@@ -38,6 +38,8 @@ public interface SolrCache<K, V> extends SolrInfoBean {
   String INITIAL_SIZE_PARAM = "initialSize";
   String CLEANUP_THREAD_PARAM = "cleanupThread";
   String ASYNC_PARAM = "async";
+  String MIN_COST_MS_PARAM = "minCostMs";
+  String COST_AWARE_PARAM = "costAware";
 
   /**
    * The initialization routine. Instance specific arguments are passed in the <code>args</code>
@@ -85,6 +87,17 @@ public interface SolrCache<K, V> extends SolrInfoBean {
   /** :TODO: copy from Map */
   public V put(K key, V value);
 
+  /**
+   * Inserts a value along with the time it took to compute it. Caches may use this cost to decide
+   * whether to admit the value, and which entries to evict first. By default the cost is ignored.
+   *
+   * @param costNanos the time spent computing the value, in nanoseconds
+   * @return the previous value for the key, if any
+   */
+  default V put(K key, V value, long costNanos) {
+    return put(key, value);
+  }
+
   /** :TODO: copy from Map */
   public V get(K key);
 
@@ -20,6 +20,7 @@ import static org.apache.solr.common.params.CommonParams.NAME;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Collections;
 import java.util.Map;
 import org.apache.solr.core.SolrCore;
 import org.apache.solr.core.SolrInfoBean.Category;
@@ -34,6 +35,8 @@ public abstract class SolrCacheBase {
 
   private String name;
 
+  private Map<String, String> initArgs = Map.of();
+
   protected AutoWarmCountRef autowarm;
 
   /** Decides how many things to autowarm based on the size of another cache */
@@ -106,9 +109,15 @@ public abstract class SolrCacheBase {
     this.regenerator = regenerator;
     state = State.CREATED;
     name = args.get(NAME);
+    initArgs = Collections.unmodifiableMap(args);
     autowarm = new AutoWarmCountRef(args.get("autowarmCount"));
   }
 
+  /** The arguments the cache was initialized with, including those only its users read. */
+  public Map<String, String> getInitArgs() {
+    return initArgs;
+  }
+
   protected String getAutowarmDescription() {
     return "autowarmCount=" + autowarm + ", regenerator=" + regenerator;
   }
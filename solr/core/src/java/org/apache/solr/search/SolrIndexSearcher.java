@@ -44,6 +44,7 @@ import org.apache.lucene.document.Document;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.ExitableDirectoryReader;
 import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.MultiPostingsEnum;
@@ -56,6 +57,7 @@ import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.CollectionStatistics;
 import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.FieldDoc;
@@ -83,6 +85,7 @@ import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.search.TotalHits;
 import org.apache.lucene.search.TotalHits.Relation;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Bits;
 import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.FixedBitSet;
@@ -152,6 +155,8 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
   private final long openNanoTime = System.nanoTime();
   private Date registerTime;
   private long warmupTime = 0;
+  // the searcher this one is autowarmed from, while it is warming
+  private volatile SolrIndexSearcher warmingFrom;
   private final DirectoryReader reader;
   private final boolean closeReader;
 
@@ -161,6 +166,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
   private final boolean cachingEnabled;
   private final SolrCache<Query, DocSet> filterCache;
+  private final SolrCache<SegmentFilterKey, DocIdSet> segmentFilterCache;
   private final SolrCache<QueryResultKey, DocList> queryResultCache;
   private final SolrCache<String, UnInvertedField> fieldValueCache;
   private final SolrCache<Integer, float[]> featureVectorCache;
@@ -441,6 +447,12 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
               ? null
               : solrConfig.fieldValueCacheConfig.newInstance();
       if (fieldValueCache != null) clist.add(fieldValueCache);
+      // before the filterCache, which is autowarmed from it
+      segmentFilterCache =
+          solrConfig.segmentFilterCacheConfig == null
+              ? null
+              : solrConfig.segmentFilterCacheConfig.newInstance();
+      if (segmentFilterCache != null) clist.add(segmentFilterCache);
       filterCache =
           solrConfig.filterCacheConfig == null ? null : solrConfig.filterCacheConfig.newInstance();
       if (filterCache != null) clist.add(filterCache);
@@ -473,6 +485,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
       cacheList = clist.toArray(new SolrCache[0]);
     } else {
       this.filterCache = null;
+      this.segmentFilterCache = null;
       this.queryResultCache = null;
       this.fieldValueCache = null;
       this.featureVectorCache = null;
@@ -595,6 +608,17 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return reader;
   }
 
+  /** Returns the heap used by the caches of this searcher, for the caches that estimate it. */
+  public long getCachesRamBytesUsed() {
+    long ramBytesUsed = 0;
+    for (SolrCache<?, ?> cache : cacheList) {
+      if (cache instanceof Accountable accountable) {
+        ramBytesUsed += accountable.ramBytesUsed();
+      }
+    }
+    return ramBytesUsed;
+  }
+
   /** Register sub-objects such as caches and our own metrics */
   public void register() {
     final Map<String, SolrInfoBean> infoRegistry = core.getInfoRegistry();
@@ -696,6 +720,10 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     return filterCache;
   }
 
+  public SolrCache<SegmentFilterKey, DocIdSet> getSegmentFilterCache() {
+    return segmentFilterCache;
+  }
+
   public SolrCache<Integer, float[]> getFeatureVectorCache() {
     return featureVectorCache;
   }
@@ -736,7 +764,40 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
                 K oldKey,
                 V oldVal)
                 throws IOException {
-              newSearcher.cacheDocSet((Query) oldKey, null, false);
+              final Query query = (Query) oldKey;
+              final SolrIndexSearcher oldSearcher = newSearcher.warmingFrom;
+              if (newSearcher.segmentFilterCache == null
+                  && oldSearcher != null
+                  && oldVal instanceof DocSet oldDocSet
+                  && DocSetUtil.isSegmentLocal(query)) {
+                // only run the query on the segments that are new to this searcher
+                final DocSet docSet =
+                    DocSetUtil.createDocSet(newSearcher, query, oldSearcher, oldDocSet);
+                newSearcher.cacheDocSet(query, docSet, true);
+              } else {
+                newSearcher.cacheDocSet(query, null, false);
+              }
+              return true;
+            }
+          });
+    }
+
+    if (solrConfig.segmentFilterCacheConfig != null
+        && solrConfig.segmentFilterCacheConfig.getRegenerator() == null) {
+      solrConfig.segmentFilterCacheConfig.setRegenerator(
+          new CacheRegenerator() {
+            @Override
+            public <K, V> boolean regenerateItem(
+                SolrIndexSearcher newSearcher,
+                SolrCache<K, V> newCache,
+                SolrCache<K, V> oldCache,
+                K oldKey,
+                V oldVal)
+                throws IOException {
+              // the matches in a segment stay valid as long as the segment is part of the index
+              if (newSearcher.hasSegment(((SegmentFilterKey) oldKey).getSegment())) {
+                newCache.put(oldKey, oldVal);
+              }
               return true;
             }
           });
@@ -1065,17 +1126,41 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
 
       // Not found in the cache so compute and put in the cache
       if (answer == null) {
+        final long startTime = System.nanoTime();
         answer = getDocSetNC(query, null);
-        filterCache.put(query, answer);
+        filterCache.put(query, answer, System.nanoTime() - startTime);
       }
     } else {
-      answer = filterCache.computeIfAbsent(query, q -> getDocSetNC(q, null));
+      answer = filterCache.computeIfAbsent(query, this::getDocSetToCache);
     }
 
     assert !(answer instanceof MutableBitDocSet) : "should not be mutable";
     return answer;
   }
 
+  /**
+   * Computes the DocSet of a query for the filterCache. If there is a segmentFilterCache, the
+   * DocSet of a segment local query is built from its matches in each segment, so that only the
+   * segments that are new since a previous searcher need to be searched.
+   */
+  private DocSet getDocSetToCache(Query query) throws IOException {
+    if (segmentFilterCache != null && DocSetUtil.isSegmentLocal(query)) {
+      return DocSetUtil.createDocSet(this, query, segmentFilterCache);
+    }
+    return getDocSetNC(query, null);
+  }
+
+  /** Returns whether the segment with this core cache key is part of the index of this searcher. */
+  private boolean hasSegment(IndexReader.CacheKey segment) {
+    for (LeafReaderContext leaf : leafContexts) {
+      final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+      if (cacheHelper != null && cacheHelper.getKey() == segment) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   private static final MatchAllDocsQuery MATCH_ALL_DOCS_QUERY = new MatchAllDocsQuery();
 
   /** Used as a synchronization point to handle the lazy-init of {@link #liveDocs}. */
@@ -1621,6 +1706,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
    * cache is not populated.
    */
   private QueryResult getDocListC(QueryResult qr, QueryCommand cmd) throws IOException {
+    final long startTime = System.nanoTime();
     // TODO don't take QueryResult as arg; create one here
     if (cmd.getSegmentTerminateEarly()) {
       qr.setSegmentTerminatedEarly(Boolean.FALSE);
@@ -1815,7 +1901,7 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     // lastly, put the superset in the cache if the size is less than or equal
     // to queryResultMaxDocsCached
     if (key != null && superset.size() <= queryResultMaxDocsCached && !qr.isPartialResults()) {
-      queryResultCache.put(key, superset);
+      queryResultCache.put(key, superset, System.nanoTime() - startTime);
     }
     return qr;
   }
@@ -2512,6 +2598,18 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
     // warm the caches in order...
     ModifiableSolrParams params = new ModifiableSolrParams();
     params.add("warming", "true");
+    warmingFrom = old;
+    try {
+      warmCaches(old, params);
+    } finally {
+      warmingFrom = null;
+    }
+    this.warmupTime =
+        TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
+    if (warmupTimer != null) warmupTimer.record(warmupTime);
+  }
+
+  private void warmCaches(SolrIndexSearcher old, ModifiableSolrParams params) {
     for (int i = 0; i < cacheList.length; i++) {
       if (log.isDebugEnabled()) {
         log.debug("autowarming [{}] from [{}]\n\t{}", this, old, old.cacheList[i]);
@@ -2534,9 +2632,6 @@ public class SolrIndexSearcher extends IndexSearcher implements Closeable, SolrI
         log.debug("autowarming result for [{}]\n\t{}", this, cacheList[i]);
       }
     }
-    this.warmupTime =
-        TimeUnit.MILLISECONDS.convert(System.nanoTime() - warmingStartTime, TimeUnit.NANOSECONDS);
-    if (warmupTimer != null) warmupTimer.record(warmupTime);
   }
 
   /** return the named generic cache */
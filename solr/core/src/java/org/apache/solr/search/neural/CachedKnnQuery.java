@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.io.IOException;
+import java.util.Objects;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.solr.search.QueryLimits;
+import org.apache.solr.search.SolrCache;
+import org.apache.solr.search.SolrIndexSearcher;
+
+/**
+ * A KNN query whose nearest neighbors are cached in the {@link KnnQParser#KNN_RESULT_CACHE} of the
+ * searcher. The nearest neighbors are found when the query is rewritten, so the cache maps the key
+ * of the query to its rewritten form, which is only valid for the searcher that owns the cache.
+ *
+ * <p>The key is the same query built with the vector rounded to the tolerance of the cache, so that
+ * near-identical vectors share their nearest neighbors.
+ */
+final class CachedKnnQuery extends Query {
+
+  private final Query query;
+  private final Query cacheKey;
+
+  CachedKnnQuery(Query query, Query cacheKey) {
+    this.query = Objects.requireNonNull(query);
+    this.cacheKey = Objects.requireNonNull(cacheKey);
+  }
+
+  @Override
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    if (!(searcher instanceof SolrIndexSearcher solrIndexSearcher)) {
+      return query;
+    }
+    @SuppressWarnings("unchecked")
+    final SolrCache<Query, Query> cache = solrIndexSearcher.getCache(KnnQParser.KNN_RESULT_CACHE);
+    if (cache == null) {
+      return query;
+    }
+    Query results = cache.get(cacheKey);
+    if (results == null) {
+      results = searcher.rewrite(query);
+      // a search cut short by the query limits may have missed some neighbors
+      if (!QueryLimits.getCurrentLimits().shouldExit()) {
+        cache.put(cacheKey, results);
+      }
+    }
+    return results;
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    query.visit(visitor);
+  }
+
+  @Override
+  public String toString(String field) {
+    return query.toString(field);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return sameClassAs(other)
+        && query.equals(((CachedKnnQuery) other).query)
+        && cacheKey.equals(((CachedKnnQuery) other).cacheKey);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * classHash() + query.hashCode()) + cacheKey.hashCode();
+  }
+}
@@ -0,0 +1,271 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.lucene.index.ByteVectorValues;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.ConjunctionUtils;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.HitQueue;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnByteVectorQuery;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.VectorScorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+
+/**
+ * Finds the exact K nearest neighbors of a vector, by computing the similarity of every document
+ * that has a vector and matches the filter. Unlike the HNSW based {@link KnnFloatVectorQuery} and
+ * {@link KnnByteVectorQuery}, the cost is linear in the number of candidate documents, which makes
+ * it the better choice when a selective filter leaves few candidates.
+ *
+ * <p>Like the HNSW queries, the segments are searched concurrently with the {@link
+ * IndexSearcher#getTaskExecutor() executor} of the searcher. The segment searches share the
+ * similarity a hit needs to make it to the top k, so that they skip the hits that can't.
+ */
+public class ExactKnnVectorQuery extends Query {
+
+  private static final TopDocs EMPTY_TOP_DOCS =
+      new TopDocs(new TotalHits(0, TotalHits.Relation.EQUAL_TO), new ScoreDoc[0]);
+
+  // how often a segment search reads the similarity shared by the other segment searches
+  private static final int MIN_COMPETITIVE_REFRESH_MASK = 0x3FF;
+
+  private final String field;
+  private final float[] floatTarget;
+  private final byte[] byteTarget;
+  private final int k;
+  private final Query filter;
+
+  public ExactKnnVectorQuery(String field, float[] target, int k, Query filter) {
+    this(field, Objects.requireNonNull(target), null, k, filter);
+  }
+
+  public ExactKnnVectorQuery(String field, byte[] target, int k, Query filter) {
+    this(field, null, Objects.requireNonNull(target), k, filter);
+  }
+
+  private ExactKnnVectorQuery(
+      String field, float[] floatTarget, byte[] byteTarget, int k, Query filter) {
+    if (k < 1) {
+      throw new IllegalArgumentException("k must be at least 1, got: " + k);
+    }
+    this.field = Objects.requireNonNull(field);
+    this.floatTarget = floatTarget;
+    this.byteTarget = byteTarget;
+    this.k = k;
+    this.filter = filter;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public int getK() {
+    return k;
+  }
+
+  public Query getFilter() {
+    return filter;
+  }
+
+  /** Returns an unfiltered HNSW query for the {@code k} approximate nearest neighbors. */
+  Query approximateQuery(int k) {
+    return floatTarget != null
+        ? new KnnFloatVectorQuery(field, floatTarget, k)
+        : new KnnByteVectorQuery(field, byteTarget, k);
+  }
+
+  @Override
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    final Weight filterWeight =
+        filter == null
+            ? null
+            : searcher.createWeight(searcher.rewrite(filter), ScoreMode.COMPLETE_NO_SCORES, 1f);
+    // the segments are searched concurrently when the searcher has an executor
+    final MinCompetitiveSimilarity minCompetitiveSimilarity = new MinCompetitiveSimilarity();
+    final List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+    final List<Callable<TopDocs>> tasks = new ArrayList<>(leaves.size());
+    for (LeafReaderContext context : leaves) {
+      tasks.add(() -> searchLeaf(context, filterWeight, minCompetitiveSimilarity));
+    }
+    final TopDocs topDocs =
+        TopDocs.merge(k, searcher.getTaskExecutor().invokeAll(tasks).toArray(new TopDocs[0]));
+    return new KnnResultsQuery(searcher.getIndexReader(), topDocs.scoreDocs);
+  }
+
+  private TopDocs searchLeaf(
+      LeafReaderContext context,
+      Weight filterWeight,
+      MinCompetitiveSimilarity minCompetitiveSimilarity)
+      throws IOException {
+    final VectorScorer vectorScorer = vectorScorer(context.reader());
+    if (vectorScorer == null) {
+      return EMPTY_TOP_DOCS;
+    }
+    DocIdSetIterator iterator = vectorScorer.iterator();
+    if (filterWeight != null) {
+      final Scorer filterScorer = filterWeight.scorer(context);
+      if (filterScorer == null) {
+        return EMPTY_TOP_DOCS;
+      }
+      iterator = ConjunctionUtils.intersectIterators(List.of(filterScorer.iterator(), iterator));
+    }
+    final Bits liveDocs = context.reader().getLiveDocs();
+    final HitQueue queue = new HitQueue(k, false);
+    float minCompetitive = minCompetitiveSimilarity.get();
+    int visited = 0;
+    for (int doc = iterator.nextDoc();
+        doc != DocIdSetIterator.NO_MORE_DOCS;
+        doc = iterator.nextDoc()) {
+      if (liveDocs != null && !liveDocs.get(doc)) {
+        continue;
+      }
+      if ((++visited & MIN_COMPETITIVE_REFRESH_MASK) == 0) {
+        minCompetitive = Math.max(minCompetitive, minCompetitiveSimilarity.get());
+      }
+      final float score = vectorScorer.score();
+      if (score < minCompetitive) {
+        // another segment already has k better hits
+        continue;
+      }
+      if (queue.size() < k) {
+        queue.add(new ScoreDoc(context.docBase + doc, score));
+      } else if (score > queue.top().score) {
+        // docs come in order, so an equal score never beats the least competitive hit
+        final ScoreDoc top = queue.top();
+        top.doc = context.docBase + doc;
+        top.score = score;
+        queue.updateTop();
+      } else {
+        continue;
+      }
+      if (queue.size() == k && queue.top().score > minCompetitive) {
+        minCompetitive = minCompetitiveSimilarity.raise(queue.top().score);
+      }
+    }
+    final ScoreDoc[] scoreDocs = new ScoreDoc[queue.size()];
+    for (int i = scoreDocs.length - 1; i >= 0; i--) {
+      scoreDocs[i] = queue.pop();
+    }
+    return new TopDocs(new TotalHits(visited, TotalHits.Relation.EQUAL_TO), scoreDocs);
+  }
+
+  private VectorScorer vectorScorer(LeafReader reader) throws IOException {
+    final FieldInfo fieldInfo = reader.getFieldInfos().fieldInfo(field);
+    if (fieldInfo == null || fieldInfo.getVectorDimension() == 0) {
+      return null;
+    }
+    if (floatTarget != null) {
+      final FloatVectorValues values = reader.getFloatVectorValues(field);
+      return values == null ? null : values.scorer(floatTarget);
+    } else {
+      final ByteVectorValues values = reader.getByteVectorValues(field);
+      return values == null ? null : values.scorer(byteTarget);
+    }
+  }
+
+  /**
+   * The highest similarity that the k-th best hit of any segment reached: a hit with a lower
+   * similarity can't make it to the top k.
+   */
+  private static final class MinCompetitiveSimilarity {
+    private final AtomicInteger bits =
+        new AtomicInteger(Float.floatToIntBits(Float.NEGATIVE_INFINITY));
+
+    float get() {
+      return Float.intBitsToFloat(bits.get());
+    }
+
+    /** Raises the similarity to {@code similarity} if it is higher, and returns the new value. */
+    float raise(float similarity) {
+      int current = bits.get();
+      while (similarity > Float.intBitsToFloat(current)) {
+        if (bits.compareAndSet(current, Float.floatToIntBits(similarity))) {
+          return similarity;
+        }
+        current = bits.get();
+      }
+      return Float.intBitsToFloat(current);
+    }
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    if (visitor.acceptField(field)) {
+      visitor.visitLeaf(this);
+    }
+  }
+
+  @Override
+  public String toString(String field) {
+    final StringBuilder buffer = new StringBuilder();
+    buffer.append(getClass().getSimpleName()).append(":").append(this.field).append("[");
+    if (floatTarget != null) {
+      buffer.append(floatTarget[0]).append(",...");
+    } else {
+      buffer.append(byteTarget[0]).append(",...");
+    }
+    buffer.append("][").append(k).append("]");
+    if (filter != null) {
+      buffer.append("[").append(filter).append("]");
+    }
+    return buffer.toString();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!sameClassAs(other)) {
+      return false;
+    }
+    final ExactKnnVectorQuery that = (ExactKnnVectorQuery) other;
+    return k == that.k
+        && field.equals(that.field)
+        && Arrays.equals(floatTarget, that.floatTarget)
+        && Arrays.equals(byteTarget, that.byteTarget)
+        && Objects.equals(filter, that.filter);
+  }
+
+  @Override
+  public int hashCode() {
+    int result = classHash();
+    result = 31 * result + field.hashCode();
+    result = 31 * result + Arrays.hashCode(floatTarget);
+    result = 31 * result + Arrays.hashCode(byteTarget);
+    result = 31 * result + k;
+    result = 31 * result + Objects.hashCode(filter);
+    return result;
+  }
+}
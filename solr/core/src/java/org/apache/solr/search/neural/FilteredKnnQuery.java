@@ -0,0 +1,284 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import static org.apache.solr.metrics.SolrMetricProducer.CATEGORY_ATTR;
+import static org.apache.solr.metrics.SolrMetricProducer.TYPE_ATTR;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.TopDocs;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.core.SolrInfoBean;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.metrics.otel.instruments.AttributedLongCounter;
+import org.apache.solr.search.SolrIndexSearcher;
+
+/**
+ * A filtered K nearest neighbors query that picks, when it is rewritten, how the filter is applied:
+ *
+ * <ul>
+ *   <li>{@link Strategy#EXACT}: the similarity of every document matching the filter is computed.
+ *       Cheapest when the filter matches few documents, where a filtered HNSW search would explore
+ *       most of the graph anyway.
+ *   <li>{@link Strategy#PRE_FILTER}: the HNSW graph is searched for documents matching the filter,
+ *       the default behavior of the knn query parser.
+ *   <li>{@link Strategy#POST_FILTER}: the HNSW graph is searched without the filter for more than
+ *       {@code topK} neighbors, which are then filtered. Cheapest when the filter matches almost
+ *       every document. If too few neighbors match the filter, the pre-filtered search is run.
+ * </ul>
+ *
+ * With {@link Strategy#AUTO} the strategy is chosen according to the number of documents matching
+ * the filter. The number of times each strategy is run is counted by the {@code
+ * solr_core_knn_filter_strategy} metric of the core.
+ */
+public class FilteredKnnQuery extends Query {
+
+  /** How the filter of a KNN query is applied. */
+  public enum Strategy {
+    AUTO,
+    EXACT,
+    PRE_FILTER,
+    POST_FILTER;
+
+    public static Strategy get(String name) {
+      for (Strategy strategy : values()) {
+        if (strategy.toParam().equals(name)) {
+          return strategy;
+        }
+      }
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST, "Unknown KNN filter strategy: " + name);
+    }
+
+    /** Returns the name of the strategy in request parameters, such as {@code preFilter}. */
+    public String toParam() {
+      final String[] words = name().toLowerCase(Locale.ROOT).split("_");
+      final StringBuilder param = new StringBuilder(words[0]);
+      for (int i = 1; i < words.length; i++) {
+        param.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+      }
+      return param.toString();
+    }
+  }
+
+  /** Default fraction of the documents the filter must match to be applied after the search. */
+  public static final float DEFAULT_POST_FILTER_THRESHOLD = 0.9f;
+
+  // the values of the type attribute of the strategy metric
+  private static final List<String> RECORDED_STRATEGIES =
+      List.of("exact", "pre_filter", "post_filter", "post_filter_fallback");
+
+  // how many more neighbors than topK / selectivity a post-filtered search fetches
+  private static final float POST_FILTER_OVER_FETCH = 1.5f;
+
+  private final Query preFilteredQuery;
+  private final ExactKnnVectorQuery exactQuery;
+  private final Strategy strategy;
+  private final Integer exactSearchThreshold;
+  private final float postFilterThreshold;
+
+  /**
+   * @param preFilteredQuery the HNSW query, with the filter
+   * @param exactQuery the exact query for the same vector, topK and filter
+   * @param strategy the strategy to use, or {@link Strategy#AUTO} to choose it
+   * @param exactSearchThreshold the maximum number of documents matching the filter to run an
+   *     exact search, or null to estimate it from the size of the index and topK
+   * @param postFilterThreshold the minimum fraction of the documents matching the filter to apply
+   *     it after the search
+   */
+  public FilteredKnnQuery(
+      Query preFilteredQuery,
+      ExactKnnVectorQuery exactQuery,
+      Strategy strategy,
+      Integer exactSearchThreshold,
+      float postFilterThreshold) {
+    this.preFilteredQuery = Objects.requireNonNull(preFilteredQuery);
+    this.exactQuery = Objects.requireNonNull(exactQuery);
+    this.strategy = Objects.requireNonNull(strategy);
+    this.exactSearchThreshold = exactSearchThreshold;
+    this.postFilterThreshold = postFilterThreshold;
+    if (exactQuery.getFilter() == null) {
+      throw new IllegalArgumentException("a filter is required");
+    }
+  }
+
+  @Override
+  public Query rewrite(IndexSearcher searcher) throws IOException {
+    final int numDocs = searcher.getIndexReader().numDocs();
+    final int topK = exactQuery.getK();
+    int filterCount = -1;
+    Strategy chosen = strategy;
+    if (chosen == Strategy.AUTO) {
+      filterCount = searcher.count(exactQuery.getFilter());
+      chosen = chooseStrategy(filterCount, numDocs, topK);
+    }
+
+    switch (chosen) {
+      case EXACT:
+        recordStrategy(searcher, "exact");
+        return exactQuery;
+      case POST_FILTER:
+        if (filterCount < 0) {
+          filterCount = searcher.count(exactQuery.getFilter());
+        }
+        final Query postFiltered = postFilteredQuery(searcher, filterCount, numDocs, topK);
+        if (postFiltered != null) {
+          recordStrategy(searcher, "post_filter");
+          return postFiltered;
+        }
+        recordStrategy(searcher, "post_filter_fallback");
+        return preFilteredQuery;
+      default:
+        recordStrategy(searcher, "pre_filter");
+        return preFilteredQuery;
+    }
+  }
+
+  private Strategy chooseStrategy(int filterCount, int numDocs, int topK) {
+    if (filterCount <= getExactSearchThreshold(numDocs, topK)) {
+      return Strategy.EXACT;
+    }
+    if (filterCount >= postFilterThreshold * numDocs) {
+      return Strategy.POST_FILTER;
+    }
+    return Strategy.PRE_FILTER;
+  }
+
+  /**
+   * A filtered HNSW search visits in the order of {@code topK * log2(numDocs) / selectivity}
+   * documents, so it visits more documents than an exact search while {@code filterCount^2 <=
+   * topK * log2(numDocs) * numDocs}.
+   */
+  private int getExactSearchThreshold(int numDocs, int topK) {
+    if (exactSearchThreshold != null) {
+      return exactSearchThreshold;
+    }
+    final double log2NumDocs = Math.max(1, 31 - Integer.numberOfLeadingZeros(numDocs));
+    return (int) Math.min(numDocs, Math.sqrt((double) topK * log2NumDocs * numDocs));
+  }
+
+  /**
+   * Searches the topK neighbors matching the filter among the unfiltered approximate neighbors,
+   * over-fetched according to the selectivity of the filter.
+   *
+   * @return the neighbors, or null if fewer than topK of them match the filter
+   */
+  private Query postFilteredQuery(IndexSearcher searcher, int filterCount, int numDocs, int topK)
+      throws IOException {
+    if (filterCount == 0) {
+      return null;
+    }
+    final double selectivity = (double) filterCount / numDocs;
+    final int fetchK =
+        (int) Math.min(numDocs, Math.ceil(topK * POST_FILTER_OVER_FETCH / selectivity));
+    final Query postFiltered =
+        new BooleanQuery.Builder()
+            .add(exactQuery.approximateQuery(fetchK), BooleanClause.Occur.MUST)
+            .add(exactQuery.getFilter(), BooleanClause.Occur.FILTER)
+            .build();
+    final TopDocs topDocs = searcher.search(postFiltered, topK);
+    if (topDocs.scoreDocs.length < Math.min(topK, filterCount)) {
+      return null;
+    }
+    return new KnnResultsQuery(searcher.getIndexReader(), topDocs.scoreDocs);
+  }
+
+  /**
+   * Creates the counters of the filter strategies run by the filtered KNN queries on a core, once
+   * when the metrics of the core are initialized.
+   *
+   * @return the counters by strategy, as recorded in the {@code type} attribute
+   */
+  public static Map<String, AttributedLongCounter> createStrategyCounters(
+      SolrMetricsContext solrMetricsContext, Attributes coreAttributes) {
+    final LongCounter counter =
+        solrMetricsContext.longCounter(
+            "solr_core_knn_filter_strategy", "Number of filtered KNN searches per filter strategy");
+    final Map<String, AttributedLongCounter> counters = new HashMap<>();
+    for (String strategy : RECORDED_STRATEGIES) {
+      final Attributes attributes =
+          Attributes.builder()
+              .putAll(coreAttributes)
+              .put(CATEGORY_ATTR, SolrInfoBean.Category.QUERY.toString())
+              .put(TYPE_ATTR, strategy)
+              .build();
+      counters.put(strategy, new AttributedLongCounter(counter, attributes));
+    }
+    return Map.copyOf(counters);
+  }
+
+  private static void recordStrategy(IndexSearcher searcher, String strategy) {
+    if (searcher instanceof SolrIndexSearcher solrIndexSearcher) {
+      final AttributedLongCounter counter =
+          solrIndexSearcher.getCore().getKnnFilterStrategyCounters().get(strategy);
+      if (counter != null) {
+        counter.inc();
+      }
+    }
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    preFilteredQuery.visit(visitor);
+  }
+
+  @Override
+  public String toString(String field) {
+    return getClass().getSimpleName()
+        + "("
+        + strategy.toParam()
+        + ":"
+        + preFilteredQuery.toString(field)
+        + ")";
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!sameClassAs(other)) {
+      return false;
+    }
+    final FilteredKnnQuery that = (FilteredKnnQuery) other;
+    return strategy == that.strategy
+        && postFilterThreshold == that.postFilterThreshold
+        && Objects.equals(exactSearchThreshold, that.exactSearchThreshold)
+        && preFilteredQuery.equals(that.preFilteredQuery)
+        && exactQuery.equals(that.exactQuery);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        classHash(),
+        preFilteredQuery,
+        exactQuery,
+        strategy,
+        exactSearchThreshold,
+        postFilterThreshold);
+  }
+}
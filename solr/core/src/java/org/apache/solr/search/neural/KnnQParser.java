@@ -16,15 +16,21 @@
  */
 package org.apache.solr.search.neural;
 
+import java.util.Arrays;
 import java.util.Optional;
+import org.apache.lucene.index.VectorEncoding;
 import org.apache.lucene.search.Query;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.DenseVectorField;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.search.QParser;
+import org.apache.solr.search.SolrCache;
+import org.apache.solr.search.SolrCacheBase;
 import org.apache.solr.search.SyntaxError;
+import org.apache.solr.util.vector.DenseVectorParser;
 
 public class KnnQParser extends AbstractVectorQParserBase {
 
@@ -34,6 +40,23 @@ public class KnnQParser extends AbstractVectorQParserBase {
   protected static final String SEED_QUERY = "seedQuery";
   protected static final String FILTERED_SEARCH_THRESHOLD = "filteredSearchThreshold";
 
+  // computes the similarity of every document instead of searching the HNSW graph
+  protected static final String EXACT = "exact";
+
+  // how the filter is applied, see FilteredKnnQuery
+  protected static final String FILTER_STRATEGY = "filterStrategy";
+  protected static final String EXACT_SEARCH_THRESHOLD = "exactSearchThreshold";
+  protected static final String POST_FILTER_THRESHOLD = "postFilterThreshold";
+
+  /**
+   * Name of the user cache of the nearest neighbors found by KNN queries. The {@link
+   * #VECTOR_TOLERANCE} attribute of the cache is the precision the query vectors are rounded to in
+   * the cache keys.
+   */
+  public static final String KNN_RESULT_CACHE = "knnResultCache";
+
+  public static final String VECTOR_TOLERANCE = "vectorTolerance";
+
   // parameters for PatienceKnnVectorQuery, a version of knn vector query that exits early when HNSW
   // queue saturates over a {@code #saturationThreshold} for more than {@code #patience} times.
   protected static final String EARLY_TERMINATION = "earlyTermination";
@@ -107,16 +130,86 @@ public class KnnQParser extends AbstractVectorQParserBase {
     final SchemaField schemaField = req.getCore().getLatestSchema().getField(getFieldName());
     final DenseVectorField denseVectorType = getCheckedFieldType(schemaField);
     final String vectorToSearch = getVectorToSearch();
+    final Query filterQuery = getFilterQuery();
+    final Query seedQuery = getSeedQuery();
+
+    final Query knnQuery =
+        getKnnQuery(schemaField, denseVectorType, vectorToSearch, filterQuery, seedQuery);
+    if (!localParams.getBool(CommonParams.CACHE, true)
+        || req.getSearcher().getCache(KNN_RESULT_CACHE) == null) {
+      return knnQuery;
+    }
+    final String cacheKeyVector = roundVector(denseVectorType, vectorToSearch);
+    final Query cacheKey =
+        cacheKeyVector.equals(vectorToSearch)
+            ? knnQuery
+            : getKnnQuery(schemaField, denseVectorType, cacheKeyVector, filterQuery, seedQuery);
+    return new CachedKnnQuery(knnQuery, cacheKey);
+  }
+
+  private Query getKnnQuery(
+      SchemaField schemaField,
+      DenseVectorField denseVectorType,
+      String vectorToSearch,
+      Query filterQuery,
+      Query seedQuery) {
     final int topK = localParams.getInt(TOP_K, DEFAULT_TOP_K);
+    if (localParams.getBool(EXACT, false)) {
+      return denseVectorType.getExactKnnVectorQuery(
+          schemaField.getName(), vectorToSearch, topK, filterQuery);
+    }
     final Integer filteredSearchThreshold = localParams.getInt(FILTERED_SEARCH_THRESHOLD);
+    final FilteredKnnQuery.Strategy filterStrategy =
+        FilteredKnnQuery.Strategy.get(
+            localParams.get(FILTER_STRATEGY, FilteredKnnQuery.Strategy.PRE_FILTER.toParam()));
+    final float postFilterThreshold =
+        localParams.getFloat(POST_FILTER_THRESHOLD, FilteredKnnQuery.DEFAULT_POST_FILTER_THRESHOLD);
+
+    final Query knnQuery =
+        denseVectorType.getKnnVectorQuery(
+            schemaField.getName(),
+            vectorToSearch,
+            topK,
+            filterQuery,
+            seedQuery,
+            getEarlyTerminationParams(),
+            filteredSearchThreshold);
+    if (filterQuery == null || filterStrategy == FilteredKnnQuery.Strategy.PRE_FILTER) {
+      return knnQuery;
+    }
+    return new FilteredKnnQuery(
+        knnQuery,
+        denseVectorType.getExactKnnVectorQuery(
+            schemaField.getName(), vectorToSearch, topK, filterQuery),
+        filterStrategy,
+        localParams.getInt(EXACT_SEARCH_THRESHOLD),
+        postFilterThreshold);
+  }
 
-    return denseVectorType.getKnnVectorQuery(
-        schemaField.getName(),
-        vectorToSearch,
-        topK,
-        getFilterQuery(),
-        getSeedQuery(),
-        getEarlyTerminationParams(),
-        filteredSearchThreshold);
+  /**
+   * Rounds each dimension of a float vector to a multiple of the {@link #VECTOR_TOLERANCE} of the
+   * KNN result cache, so that near-identical vectors share their cache entry.
+   */
+  private String roundVector(DenseVectorField denseVectorType, String vectorToSearch) {
+    final SolrCache<?, ?> cache = req.getSearcher().getCache(KNN_RESULT_CACHE);
+    final String tolerance =
+        cache instanceof SolrCacheBase solrCache
+            ? solrCache.getInitArgs().get(VECTOR_TOLERANCE)
+            : null;
+    if (tolerance == null || denseVectorType.getVectorEncoding() != VectorEncoding.FLOAT32) {
+      return vectorToSearch;
+    }
+    final double step = Double.parseDouble(tolerance);
+    if (step <= 0) {
+      return vectorToSearch;
+    }
+    final float[] vector =
+        denseVectorType
+            .getVectorBuilder(vectorToSearch, DenseVectorParser.BuilderPhase.QUERY)
+            .getFloatVector();
+    for (int i = 0; i < vector.length; i++) {
+      vector[i] = (float) (Math.rint(vector[i] / step) * step);
+    }
+    return Arrays.toString(vector);
   }
 }
@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
+import org.apache.solr.util.SolrDefaultScorerSupplier;
+
+/**
+ * The resolved results of a nearest neighbors search: matches a fixed set of documents, each with
+ * its similarity as score. Only valid for the reader the search ran on.
+ */
+final class KnnResultsQuery extends Query {
+
+  // top level doc ids, sorted
+  private final int[] docs;
+  private final float[] scores;
+  private final float maxScore;
+  private final Object contextIdentity;
+
+  KnnResultsQuery(IndexReader reader, ScoreDoc[] scoreDocs) {
+    final ScoreDoc[] sorted = scoreDocs.clone();
+    Arrays.sort(sorted, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+    this.docs = new int[sorted.length];
+    this.scores = new float[sorted.length];
+    float max = Float.NEGATIVE_INFINITY;
+    for (int i = 0; i < sorted.length; i++) {
+      docs[i] = sorted[i].doc;
+      scores[i] = sorted[i].score;
+      max = Math.max(max, scores[i]);
+    }
+    this.maxScore = max;
+    this.contextIdentity = reader.getContext().id();
+  }
+
+  @Override
+  public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost)
+      throws IOException {
+    if (searcher.getIndexReader().getContext().id() != contextIdentity) {
+      throw new IllegalStateException(
+          "This query was created for a different reader than the one it is executed on");
+    }
+    return new Weight(this) {
+      @Override
+      public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+        final int index = Arrays.binarySearch(docs, context.docBase + doc);
+        if (index < 0) {
+          return Explanation.noMatch("not in the nearest neighbors");
+        }
+        return Explanation.match(boost * scores[index], "within the nearest neighbors");
+      }
+
+      @Override
+      public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+        final int from = lowerBound(context.docBase);
+        final int to = lowerBound(context.docBase + context.reader().maxDoc());
+        if (from == to) {
+          return null;
+        }
+        return new SolrDefaultScorerSupplier(new ResultsScorer(context.docBase, from, to, boost));
+      }
+
+      @Override
+      public boolean isCacheable(LeafReaderContext ctx) {
+        return true;
+      }
+    };
+  }
+
+  /** Returns the index of the first doc that is not less than {@code doc}. */
+  private int lowerBound(int doc) {
+    final int index = Arrays.binarySearch(docs, doc);
+    return index < 0 ? -1 - index : index;
+  }
+
+  private class ResultsScorer extends Scorer {
+    private final int docBase;
+    private final int from;
+    private final int to;
+    private final float boost;
+    private int upTo;
+
+    ResultsScorer(int docBase, int from, int to, float boost) {
+      this.docBase = docBase;
+      this.from = from;
+      this.to = to;
+      this.boost = boost;
+      this.upTo = from - 1;
+    }
+
+    @Override
+    public int docID() {
+      if (upTo < from) {
+        return -1;
+      }
+      return upTo < to ? docs[upTo] - docBase : DocIdSetIterator.NO_MORE_DOCS;
+    }
+
+    @Override
+    public float score() {
+      return boost * scores[upTo];
+    }
+
+    @Override
+    public float getMaxScore(int upToDoc) {
+      return boost * maxScore;
+    }
+
+    @Override
+    public DocIdSetIterator iterator() {
+      return new DocIdSetIterator() {
+        @Override
+        public int docID() {
+          return ResultsScorer.this.docID();
+        }
+
+        @Override
+        public int nextDoc() {
+          upTo = Math.min(upTo + 1, to);
+          return docID();
+        }
+
+        @Override
+        public int advance(int target) {
+          upTo = Math.max(upTo + 1, lowerBound(docBase + target));
+          upTo = Math.min(upTo, to);
+          return docID();
+        }
+
+        @Override
+        public long cost() {
+          return to - from;
+        }
+      };
+    }
+  }
+
+  @Override
+  public String toString(String field) {
+    return "KnnResultsQuery[" + docs.length + " docs]";
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    visitor.visitLeaf(this);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return sameClassAs(other)
+        && contextIdentity == ((KnnResultsQuery) other).contextIdentity
+        && Arrays.equals(docs, ((KnnResultsQuery) other).docs)
+        && Arrays.equals(scores, ((KnnResultsQuery) other).scores);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * classHash() + Arrays.hashCode(docs)) + Arrays.hashCode(scores);
+  }
+}
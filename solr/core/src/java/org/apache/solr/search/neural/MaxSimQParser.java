@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import org.apache.lucene.search.Query;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.schema.MultiVectorField;
+import org.apache.solr.schema.SchemaField;
+import org.apache.solr.search.QParser;
+import org.apache.solr.search.QueryParsing;
+import org.apache.solr.search.SyntaxError;
+
+/**
+ * Parses {@code {!maxsim f=field}[[1.0, 2.0], [3.0, 4.0]]} into a {@link MaxSimQuery} on a {@link
+ * MultiVectorField}.
+ */
+public class MaxSimQParser extends QParser {
+
+  public MaxSimQParser(
+      String qstr, SolrParams localParams, SolrParams params, SolrQueryRequest req) {
+    super(qstr, localParams, params, req);
+  }
+
+  @Override
+  public Query parse() throws SyntaxError {
+    final String fieldName = localParams.get(QueryParsing.F);
+    if (fieldName == null || fieldName.isEmpty()) {
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST, "the Multi Vector field 'f' is missing");
+    }
+    final String vectorsToSearch = localParams.get(QueryParsing.V);
+    if (vectorsToSearch == null || vectorsToSearch.isEmpty()) {
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST, "the Multi Vector value 'v' to search is missing");
+    }
+    final SchemaField schemaField = req.getCore().getLatestSchema().getField(fieldName);
+    if (!(schemaField.getType() instanceof MultiVectorField multiVectorType)) {
+      throw new SolrException(
+          SolrException.ErrorCode.BAD_REQUEST,
+          "only MultiVectorField is compatible with the MaxSim Query Parser");
+    }
+    return multiVectorType.getMaxSimQuery(fieldName, multiVectorType.parseVectors(vectorsToSearch));
+  }
+}
@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.schema.MultiVectorField;
+import org.apache.solr.util.SolrDefaultScorerSupplier;
+
+/**
+ * Matches the documents that have vectors in a {@link MultiVectorField}, scored by their MaxSim
+ * with the query vectors: the sum, over the query vectors, of the highest similarity with any of
+ * the document vectors.
+ *
+ * <p>All the vectors of a document are read from its doc value and decoded once, so the cost of
+ * scoring a document grows with the number of its vectors times the number of query vectors. The
+ * query is meant to rerank the top documents of a first stage query, e.g. with the {@code rerank}
+ * query parser, rather than to run against the whole index.
+ */
+public final class MaxSimQuery extends Query {
+
+  private final String field;
+  private final MultiVectorField fieldType;
+  private final float[][] queryVectors;
+
+  public MaxSimQuery(String field, MultiVectorField fieldType, float[][] queryVectors) {
+    this.field = Objects.requireNonNull(field);
+    this.fieldType = Objects.requireNonNull(fieldType);
+    this.queryVectors = Objects.requireNonNull(queryVectors);
+  }
+
+  @Override
+  public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) {
+    return new Weight(this) {
+      @Override
+      public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+        final BinaryDocValues values = DocValues.getBinary(context.reader(), field);
+        if (!values.advanceExact(doc)) {
+          return Explanation.noMatch("no vectors in " + field);
+        }
+        return Explanation.match(
+            boost * maxSim(values.binaryValue(), new float[fieldType.getDimension()]),
+            "MaxSim of " + queryVectors.length + " query vectors with the vectors of " + field);
+      }
+
+      @Override
+      public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+        final BinaryDocValues values = context.reader().getBinaryDocValues(field);
+        if (values == null) {
+          return null;
+        }
+        return new SolrDefaultScorerSupplier(new MaxSimScorer(values, boost));
+      }
+
+      @Override
+      public boolean isCacheable(LeafReaderContext ctx) {
+        return DocValues.isCacheable(ctx, field);
+      }
+    };
+  }
+
+  /** Computes the MaxSim of the query vectors with the vectors encoded in a doc value. */
+  private float maxSim(BytesRef encoded, float[] docVector) {
+    final VectorSimilarityFunction similarityFunction = fieldType.getSimilarityFunction();
+    final float[] maxSimilarities = new float[queryVectors.length];
+    Arrays.fill(maxSimilarities, Float.NEGATIVE_INFINITY);
+    final int vectorCount = fieldType.vectorCount(encoded);
+    // each document vector is decoded once, and compared with all the query vectors
+    for (int ord = 0; ord < vectorCount; ord++) {
+      fieldType.decode(encoded, ord, docVector);
+      for (int i = 0; i < queryVectors.length; i++) {
+        maxSimilarities[i] =
+            Math.max(maxSimilarities[i], similarityFunction.compare(queryVectors[i], docVector));
+      }
+    }
+    float score = 0;
+    for (float maxSimilarity : maxSimilarities) {
+      score += maxSimilarity;
+    }
+    return score;
+  }
+
+  private class MaxSimScorer extends Scorer {
+    private final BinaryDocValues values;
+    private final float boost;
+    private final float[] docVector;
+
+    MaxSimScorer(BinaryDocValues values, float boost) {
+      this.values = values;
+      this.boost = boost;
+      this.docVector = new float[fieldType.getDimension()];
+    }
+
+    @Override
+    public int docID() {
+      return values.docID();
+    }
+
+    @Override
+    public float score() throws IOException {
+      return boost * maxSim(values.binaryValue(), docVector);
+    }
+
+    @Override
+    public float getMaxScore(int upTo) {
+      return Float.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public DocIdSetIterator iterator() {
+      return values;
+    }
+  }
+
+  @Override
+  public String toString(String field) {
+    return getClass().getSimpleName()
+        + "["
+        + this.field
+        + "]["
+        + queryVectors.length
+        + " query vectors]";
+  }
+
+  @Override
+  public void visit(QueryVisitor visitor) {
+    if (visitor.acceptField(field)) {
+      visitor.visitLeaf(this);
+    }
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return sameClassAs(other)
+        && field.equals(((MaxSimQuery) other).field)
+        && fieldType == ((MaxSimQuery) other).fieldType
+        && Arrays.deepEquals(queryVectors, ((MaxSimQuery) other).queryVectors);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * (31 * classHash() + field.hashCode()) + Arrays.deepHashCode(queryVectors);
+  }
+}
@@ -29,6 +29,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.util.IOSupplier;
 import org.apache.solr.cloud.ActionThrottle;
 import org.apache.solr.cloud.RecoveryStrategy;
 import org.apache.solr.common.SolrException;
@@ -249,6 +250,36 @@ public final class DefaultSolrCoreState extends SolrCoreState
     }
   }
 
+  @Override
+  public boolean closeIndexResourcesIfUnchanged(
+      SolrCore core, IOSupplier<Boolean> closeSearchers) throws IOException {
+    // the read lock is held by the users of the writer, the updates in particular
+    if (!iwLock.writeLock().tryLock()) {
+      return false;
+    }
+    try {
+      synchronized (this) {
+        if (closed || (indexWriter != null && indexWriter.hasUncommittedChanges())) {
+          return false;
+        }
+        UpdateLog ulog = core.getUpdateHandler().getUpdateLog();
+        if (ulog != null
+            && (ulog.getState() != UpdateLog.State.ACTIVE || ulog.hasUncommittedChanges())) {
+          return false;
+        }
+      }
+      if (!closeSearchers.get()) {
+        return false;
+      }
+      synchronized (this) {
+        changeWriter(core, false, false);
+      }
+      return true;
+    } finally {
+      iwLock.writeLock().unlock();
+    }
+  }
+
   @Override
   public void rollbackIndexWriter(SolrCore core) throws IOException {
     changeWriter(core, true, true);
@@ -33,6 +33,7 @@ import org.apache.solr.schema.CopyField;
 import org.apache.solr.schema.DenseVectorField;
 import org.apache.solr.schema.FieldType;
 import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.schema.MultiVectorField;
 import org.apache.solr.schema.SchemaField;
 
 /** Builds a Lucene {@link Document} from a {@link SolrInputDocument}. */
@@ -161,7 +162,8 @@ public class DocumentBuilder {
       if (sfield != null
           && !sfield.multiValued()
           && field.getValueCount() > 1
-          && !(sfield.getType() instanceof DenseVectorField)) {
+          && !(sfield.getType() instanceof DenseVectorField)
+          && !(sfield.getType() instanceof MultiVectorField)) {
 
         // Ensure we do not flood the logs with extremely long values
         String fieldValue = field.getValue().toString();
@@ -186,7 +188,9 @@ public class DocumentBuilder {
       // load each field value
       boolean hasField = false;
       try {
-        if (sfield != null && sfield.getType() instanceof DenseVectorField) {
+        if (sfield != null
+            && (sfield.getType() instanceof DenseVectorField
+                || sfield.getType() instanceof MultiVectorField)) {
           Object vectorValue = field.getValue();
           if (vectorValue != null) {
             hasField = true;
@@ -335,6 +339,19 @@ public class DocumentBuilder {
         }
       }
 
+      // Multi Vector Fields can only be copied to same field type
+      if (originalFieldType instanceof MultiVectorField
+          && !(destinationField.getType() instanceof MultiVectorField)) {
+        if (schema.getCopySources(destinationField.getName()).contains("*")) {
+          continue;
+        } else {
+          throw new SolrException(
+              SolrException.ErrorCode.BAD_REQUEST,
+              "The copy field destination must be a MultiVectorField: "
+                  + destinationField.getName());
+        }
+      }
+
       // check if the copy field is a multivalued or not
       if (!destinationField.multiValued() && destHasValues) {
         throw new SolrException(
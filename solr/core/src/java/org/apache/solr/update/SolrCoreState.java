@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.Sort;
+import org.apache.lucene.util.IOSupplier;
 import org.apache.solr.cloud.ActionThrottle;
 import org.apache.solr.cloud.RecoveryStrategy;
 import org.apache.solr.common.AlreadyClosedException;
@@ -172,6 +173,24 @@ public abstract class SolrCoreState {
    */
   public abstract void openIndexWriter(SolrCore core) throws IOException;
 
+  /**
+   * Closes the searchers of a core and its IndexWriter, if the IndexWriter is not in use and
+   * neither it nor the update log has uncommitted changes: the next searcher is opened from the
+   * IndexWriter, and would make such changes visible. No update can start while the searchers are
+   * closed. The next call to {@link #getIndexWriter(SolrCore)} with a core opens the IndexWriter
+   * again. Used to release the heap of an idle cold core.
+   *
+   * @param core that the IW belongs to
+   * @param closeSearchers closes the searchers of the core, and returns false if they could not be
+   *     closed, in which case the IndexWriter is kept open
+   * @return true if the searchers and the IndexWriter were closed
+   * @throws IOException If there is a low-level I/O error.
+   */
+  public boolean closeIndexResourcesIfUnchanged(SolrCore core, IOSupplier<Boolean> closeSearchers)
+      throws IOException {
+    return false;
+  }
+
   /**
    * Get the current IndexWriter. If a new IndexWriter must be created, use the settings from the
    * given {@link SolrCore}.
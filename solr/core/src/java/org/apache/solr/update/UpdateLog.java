@@ -211,6 +211,10 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
   // list of recent logs, newest first
   protected final Deque<TransactionLog> logs = new ArrayDeque<>();
   protected Deque<TransactionLog> newestLogsOnStartup = new ArrayDeque<>();
+  // the replay of newestLogsOnStartup, once started by recoverFromLogOnStartup
+  private Future<RecoveryInfo> startupRecoveryFuture;
+  private boolean startupRecoveryStarted;
+  private final Object startupRecoveryLock = new Object();
   protected int numOldRecords; // number of records in the recent logs
 
   protected Map<BytesRef, LogPtr> map = new HashMap<>();
@@ -1451,6 +1455,24 @@ public class UpdateLog implements PluginInfoInitialized, SolrMetricProducer {
     return cs.submit(replayer, recoveryInfo);
   }
 
+  /**
+   * Replays the logs left by the previous run of the core, like {@link #recoverFromLog()}, but only
+   * once: the replay is started by the first call, and the later calls return its future. This
+   * lets the replay start as soon as the core is created, while the registration of the core in
+   * SolrCloud waits for it.
+   *
+   * @return the future of the replay, or null if there was nothing to replay
+   */
+  public Future<RecoveryInfo> recoverFromLogOnStartup() {
+    synchronized (startupRecoveryLock) {
+      if (!startupRecoveryStarted) {
+        startupRecoveryFuture = recoverFromLog();
+        startupRecoveryStarted = true;
+      }
+      return startupRecoveryFuture;
+    }
+  }
+
   /**
    * Replay current tlog, so all updates will be written to index. This is must do task for a tlog
    * replica become a new leader.
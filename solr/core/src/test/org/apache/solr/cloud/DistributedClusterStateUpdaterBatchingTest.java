@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.cloud;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.lucene.util.IOUtils;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.impl.CloudHttp2SolrClient;
+import org.apache.solr.client.solrj.impl.SolrClientCloudManager;
+import org.apache.solr.client.solrj.impl.ZkClientClusterStateProvider;
+import org.apache.solr.common.cloud.ClusterState;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Replica;
+import org.apache.solr.common.cloud.Slice;
+import org.apache.solr.common.cloud.SolrZkClient;
+import org.apache.solr.common.cloud.ZkNodeProps;
+import org.apache.solr.common.cloud.ZkStateReader;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.apache.solr.common.util.Utils;
+import org.apache.solr.handler.admin.ConfigSetsHandler;
+import org.apache.zookeeper.data.Stat;
+import org.junit.Test;
+
+public class DistributedClusterStateUpdaterBatchingTest extends SolrTestCaseJ4 {
+
+  private static final String COLLECTION = "c1";
+
+  @Test
+  public void testConcurrentUpdatesAreBatched() throws Exception {
+    final int numReplicas = 30;
+    final ZkTestServer server = new ZkTestServer(createTempDir("zkData"));
+    SolrZkClient zkClient = null;
+    ExecutorService executor = null;
+    try {
+      server.run();
+      zkClient =
+          new SolrZkClient.Builder()
+              .withUrl(server.getZkAddress())
+              .withTimeout(OverseerTest.DEFAULT_CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+              .build();
+      ZkController.createClusterZkNodes(zkClient);
+      zkClient.makePath(
+          DocCollection.getCollectionPath(COLLECTION), createStateJson(numReplicas), true);
+
+      try (ZkStateReader reader = new ZkStateReader(zkClient);
+          CloudHttp2SolrClient cloudClient =
+              new CloudHttp2SolrClient.Builder(new ZkClientClusterStateProvider(reader)).build()) {
+        reader.createClusterStateWatchersAndUpdate();
+        final SolrClientCloudManager cloudManager = new SolrClientCloudManager(cloudClient, null);
+        final DistributedClusterStateUpdater updater =
+            new DistributedClusterStateUpdater(true, true);
+        assertTrue(updater.isBatchingStateUpdates());
+
+        executor =
+            ExecutorUtil.newMDCAwareFixedThreadPool(
+                numReplicas, new SolrNamedThreadFactory("stateUpdates"));
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numReplicas; i++) {
+          final ZkNodeProps message = setStateMessage(i, Replica.State.ACTIVE);
+          futures.add(
+              executor.submit(
+                  () -> {
+                    start.await();
+                    updater.doSingleStateUpdate(
+                        DistributedClusterStateUpdater.MutatingCommand.ReplicaSetState,
+                        message,
+                        cloudManager,
+                        reader);
+                    return null;
+                  }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+          future.get(30, TimeUnit.SECONDS);
+        }
+
+        final Stat stat = new Stat();
+        final byte[] data =
+            zkClient.getData(DocCollection.getCollectionPath(COLLECTION), null, stat, true);
+        final DocCollection collection =
+            ClusterState.createFromJson(stat.getVersion(), data, Set.of())
+                .getCollection(COLLECTION);
+        for (Replica replica : collection.getReplicas()) {
+          assertEquals(replica.getName(), Replica.State.ACTIVE, replica.getState());
+        }
+        assertEquals(numReplicas, collection.getReplicas().size());
+        // each write applies at least one update
+        assertTrue(stat.getVersion() <= numReplicas);
+      }
+    } finally {
+      if (executor != null) {
+        ExecutorUtil.shutdownAndAwaitTermination(executor);
+      }
+      IOUtils.close(zkClient);
+      server.shutdown();
+    }
+  }
+
+  @Test
+  public void testInterruptedUpdateIsNotWritten() throws Exception {
+    final ZkTestServer server = new ZkTestServer(createTempDir("zkData"));
+    SolrZkClient zkClient = null;
+    try {
+      server.run();
+      zkClient =
+          new SolrZkClient.Builder()
+              .withUrl(server.getZkAddress())
+              .withTimeout(OverseerTest.DEFAULT_CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+              .build();
+      ZkController.createClusterZkNodes(zkClient);
+      zkClient.makePath(DocCollection.getCollectionPath(COLLECTION), createStateJson(2), true);
+
+      try (ZkStateReader reader = new ZkStateReader(zkClient);
+          CloudHttp2SolrClient cloudClient =
+              new CloudHttp2SolrClient.Builder(new ZkClientClusterStateProvider(reader)).build()) {
+        reader.createClusterStateWatchersAndUpdate();
+        final SolrClientCloudManager cloudManager = new SolrClientCloudManager(cloudClient, null);
+        final DistributedClusterStateUpdater updater =
+            new DistributedClusterStateUpdater(true, true);
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Thread thread =
+            new Thread(
+                () -> {
+                  try {
+                    updater.doSingleStateUpdate(
+                        DistributedClusterStateUpdater.MutatingCommand.ReplicaSetState,
+                        setStateMessage(0, Replica.State.ACTIVE),
+                        cloudManager,
+                        reader);
+                  } catch (Throwable t) {
+                    failure.set(t);
+                  }
+                });
+        updater.callWithCollectionLocked(
+            COLLECTION,
+            () -> {
+              thread.start();
+              // the update is queued, and waits for the lock of the collection
+              final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+              while (updater.getPendingUpdateCount(COLLECTION) == 0
+                  || thread.getState() != Thread.State.WAITING) {
+                assertTrue("update not queued", System.nanoTime() < deadline);
+                Thread.sleep(10);
+              }
+              thread.interrupt();
+              thread.join(TimeUnit.SECONDS.toMillis(30));
+              assertFalse(thread.isAlive());
+              return null;
+            });
+        assertTrue(String.valueOf(failure.get()), failure.get() instanceof InterruptedException);
+        assertEquals(0, updater.getPendingUpdateCount(COLLECTION));
+
+        // the next update of the collection only writes its own mutations
+        updater.doSingleStateUpdate(
+            DistributedClusterStateUpdater.MutatingCommand.ReplicaSetState,
+            setStateMessage(1, Replica.State.ACTIVE),
+            cloudManager,
+            reader);
+        final Stat stat = new Stat();
+        final byte[] data =
+            zkClient.getData(DocCollection.getCollectionPath(COLLECTION), null, stat, true);
+        final DocCollection collection =
+            ClusterState.createFromJson(stat.getVersion(), data, Set.of())
+                .getCollection(COLLECTION);
+        assertEquals(Replica.State.DOWN, collection.getReplica("core_node0").getState());
+        assertEquals(Replica.State.ACTIVE, collection.getReplica("core_node1").getState());
+        assertEquals(1, stat.getVersion());
+      }
+    } finally {
+      IOUtils.close(zkClient);
+      server.shutdown();
+    }
+  }
+
+  private static byte[] createStateJson(int numReplicas) {
+    final Map<String, Object> replicas = new LinkedHashMap<>();
+    for (int i = 0; i < numReplicas; i++) {
+      replicas.put(
+          "core_node" + i,
+          Map.of(
+              ZkStateReader.CORE_NAME_PROP, COLLECTION + "_shard1_replica_n" + i,
+              ZkStateReader.NODE_NAME_PROP, "127.0.0.1:" + (8983 + i) + "_solr",
+              ZkStateReader.STATE_PROP, Replica.State.DOWN.toString(),
+              ZkStateReader.REPLICA_TYPE, Replica.Type.NRT.name()));
+    }
+    final Map<String, Object> collection =
+        Map.of(
+            ZkStateReader.CONFIGNAME_PROP,
+            ConfigSetsHandler.DEFAULT_CONFIGSET_NAME,
+            DocCollection.CollectionStateProps.SHARDS,
+            Map.of(
+                "shard1",
+                Map.of(
+                    ZkStateReader.STATE_PROP, "active",
+                    Slice.SliceStateProps.REPLICAS, replicas)));
+    return Utils.toJSON(Map.of(COLLECTION, collection));
+  }
+
+  private static ZkNodeProps setStateMessage(int replica, Replica.State state) {
+    return new ZkNodeProps(
+        Map.of(
+            Overseer.QUEUE_OPERATION, "state",
+            ZkStateReader.COLLECTION_PROP, COLLECTION,
+            ZkStateReader.SHARD_ID_PROP, "shard1",
+            ZkStateReader.CORE_NODE_NAME_PROP, "core_node" + replica,
+            ZkStateReader.CORE_NAME_PROP, COLLECTION + "_shard1_replica_n" + replica,
+            ZkStateReader.NODE_NAME_PROP, "127.0.0.1:" + (8983 + replica) + "_solr",
+            ZkStateReader.STATE_PROP, state.toString()));
+  }
+}
@@ -16,11 +16,17 @@
  */
 package org.apache.solr.cloud;
 
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import org.apache.solr.client.solrj.request.CollectionAdminRequest;
 import org.apache.solr.client.solrj.request.ConfigSetAdminRequest;
+import org.apache.solr.client.solrj.request.schema.SchemaRequest;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.core.CoreContainer;
+import org.apache.solr.common.util.TimeSource;
 import org.apache.solr.core.SolrCore;
+import org.apache.solr.schema.IndexSchema;
+import org.apache.solr.util.TimeOut;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
@@ -31,12 +37,15 @@ public class TestConfigSetsAPIShareSchema extends SolrCloudTestCase {
   @BeforeClass
   public static void setupCluster() throws Exception {
     System.setProperty("shareSchema", "true"); // see testSharedSchema
+    System.setProperty("managed.schema.mutable", "true");
 
     configureCluster(1) // some tests here assume 1 node
         .addConfig(
             "conf1", TEST_PATH().resolve("configsets").resolve("cloud-minimal").resolve("conf"))
         .addConfig(
             "cShare", TEST_PATH().resolve("configsets").resolve("cloud-minimal").resolve("conf"))
+        .addConfig(
+            "cManaged", TEST_PATH().resolve("configsets").resolve("cloud-managed").resolve("conf"))
         .configure();
   }
 
@@ -48,6 +57,7 @@ public class TestConfigSetsAPIShareSchema extends SolrCloudTestCase {
   @AfterClass
   public static void doAfterClass() {
     System.clearProperty("shareSchema");
+    System.clearProperty("managed.schema.mutable");
   }
 
   @Test
@@ -94,4 +104,35 @@ public class TestConfigSetsAPIShareSchema extends SolrCloudTestCase {
       assertNotSame(coreCol1.getLatestSchema(), coreCol2.getLatestSchema());
     }
   }
+
+  @Test
+  public void testSharedManagedSchemaUpdate() throws Exception {
+    CollectionAdminRequest.createCollection("managed1", "cManaged", 1, 1)
+        .processAndWait(cluster.getSolrClient(), DEFAULT_TIMEOUT);
+    CollectionAdminRequest.createCollection("managed2", "cManaged", 1, 1)
+        .processAndWait(cluster.getSolrClient(), DEFAULT_TIMEOUT);
+
+    CoreContainer coreContainer = cluster.getJettySolrRunner(0).getCoreContainer();
+    final IndexSchema schema;
+    try (SolrCore core1 = coreContainer.getCore("managed1_shard1_replica_n1");
+        SolrCore core2 = coreContainer.getCore("managed2_shard1_replica_n1")) {
+      schema = core1.getLatestSchema();
+      assertSame(schema, core2.getLatestSchema());
+    }
+
+    // the schema is copied on write, and the cores share the new version of it
+    new SchemaRequest.AddField(Map.of("name", "shared_field_s", "type", "string"))
+        .process(cluster.getSolrClient(), "managed1");
+    new TimeOut(DEFAULT_TIMEOUT, TimeUnit.SECONDS, TimeSource.NANO_TIME)
+        .waitFor(
+            "The cores do not share the updated schema",
+            () -> {
+              try (SolrCore core1 = coreContainer.getCore("managed1_shard1_replica_n1");
+                  SolrCore core2 = coreContainer.getCore("managed2_shard1_replica_n1")) {
+                return core1.getLatestSchema().hasExplicitField("shared_field_s")
+                    && core1.getLatestSchema() == core2.getLatestSchema();
+              }
+            });
+    assertFalse(schema.hasExplicitField("shared_field_s"));
+  }
 }
@@ -24,6 +24,7 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -38,6 +39,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.util.IOUtils;
@@ -66,8 +68,10 @@ import org.apache.solr.common.util.ZLibCompressor;
 import org.apache.solr.handler.admin.ConfigSetsHandler;
 import org.apache.solr.util.LogLevel;
 import org.apache.solr.util.TimeOut;
+import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.Watcher;
 import org.apache.zookeeper.data.Stat;
 import org.junit.After;
 import org.junit.Before;
@@ -996,4 +1000,108 @@ public class ZkStateReaderTest extends SolrTestCaseJ4 {
     var lowestVersion = reader.fetchLowestSolrVersion();
     assertFalse("Expected no lowest version when no live nodes exist", lowestVersion.isPresent());
   }
+
+  public void testFetchManyCollectionStates() throws Exception {
+    ZkStateWriter writer = fixture.writer;
+    ZkStateReader reader = fixture.reader;
+
+    final int numCollections = 100;
+    List<ZkWriteCommand> commands = new ArrayList<>();
+    for (int i = 0; i < numCollections; i++) {
+      String coll = "c" + i;
+      fixture.zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/" + coll, true);
+      commands.add(
+          new ZkWriteCommand(
+              coll,
+              DocCollection.create(
+                  coll,
+                  new HashMap<>(),
+                  Map.of(
+                      ZkStateReader.CONFIGNAME_PROP,
+                      ConfigSetsHandler.DEFAULT_CONFIGSET_NAME,
+                      "x",
+                      coll),
+                  DocRouter.DEFAULT,
+                  0,
+                  Instant.now(),
+                  PerReplicaStatesOps.getZkClientPrsSupplier(
+                      fixture.zkClient, DocCollection.getCollectionPath(coll)))));
+    }
+    writer.enqueueUpdate(reader.getClusterState(), commands, null);
+    writer.writePendingUpdates();
+    reader.registerCore("c0");
+    reader.registerCore("c1");
+    reader.forciblyRefreshAllClusterStateSlow();
+
+    List<String> collections = new ArrayList<>();
+    for (int i = 0; i < numCollections; i++) {
+      collections.add("c" + i);
+    }
+    collections.add("missing");
+    long stateFetches = fixture.zkClient.getMetrics().getStateFetches();
+    Map<String, DocCollection> states = reader.getCollectionsLive(collections);
+    assertEquals(numCollections, states.size());
+    for (int i = 0; i < numCollections; i++) {
+      assertEquals("c" + i, states.get("c" + i).getStr("x"));
+    }
+    // the lazily loaded collections were fetched, the metrics are shared by all the ZK clients
+    assertTrue(
+        fixture.zkClient.getMetrics().getStateFetches() - stateFetches >= numCollections - 2);
+    assertFalse(reader.getClusterState().getCollectionRef("c0").isLazilyLoaded());
+    assertTrue(reader.getClusterState().getCollectionRef("c2").isLazilyLoaded());
+  }
+
+  public void testFailedChildrenWatchFallsBackToSynchronousFetch() throws Exception {
+    fixture.zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/c1", true);
+    ZkWriteCommand c1 =
+        new ZkWriteCommand(
+            "c1",
+            DocCollection.create(
+                "c1",
+                new HashMap<>(),
+                Map.of(ZkStateReader.CONFIGNAME_PROP, ConfigSetsHandler.DEFAULT_CONFIGSET_NAME),
+                DocRouter.DEFAULT,
+                0,
+                Instant.now(),
+                PerReplicaStatesOps.getZkClientPrsSupplier(
+                    fixture.zkClient, DocCollection.getCollectionPath("c1"))));
+    fixture.writer.enqueueUpdate(fixture.reader.getClusterState(), List.of(c1), null);
+    fixture.writer.writePendingUpdates();
+
+    final String collectionPath = DocCollection.getCollectionPath("c1");
+    final AtomicInteger childrenWatches = new AtomicInteger();
+    try (SolrZkClient zkClient =
+            new SolrZkClient(
+                new SolrZkClient.Builder()
+                    .withUrl(fixture.server.getZkAddress())
+                    .withTimeout(OverseerTest.DEFAULT_CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+              @Override
+              public void getChildrenAsync(
+                  String path, Watcher watcher, AsyncCallback.Children2Callback callback) {
+                // as if the connection was lost while the children were read
+                callback.processResult(
+                    KeeperException.Code.CONNECTIONLOSS.intValue(), path, null, null, null);
+              }
+
+              @Override
+              public List<String> getChildren(
+                  String path, Watcher watcher, boolean retryOnConnLoss)
+                  throws KeeperException, InterruptedException {
+                if (collectionPath.equals(path) && watcher != null) {
+                  childrenWatches.incrementAndGet();
+                }
+                return super.getChildren(path, watcher, retryOnConnLoss);
+              }
+            };
+        ZkStateReader reader = new ZkStateReader(zkClient)) {
+      reader.createClusterStateWatchersAndUpdate();
+      reader.registerCore("c1");
+      assertEquals(0, childrenWatches.get());
+
+      // refreshes the watched collections all at once, as on a reconnect
+      reader.createClusterStateWatchersAndUpdate();
+      assertTrue(childrenWatches.get() > 0);
+      assertEquals("c1", reader.getClusterState().getCollection("c1").getName());
+    }
+  }
 }
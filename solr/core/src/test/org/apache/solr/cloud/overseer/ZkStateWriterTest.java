@@ -21,11 +21,15 @@ import java.nio.file.Path;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.lucene.util.IOUtils;
 import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.client.solrj.impl.ZkClientClusterStateProvider;
 import org.apache.solr.cloud.Overseer;
 import org.apache.solr.cloud.OverseerTest;
 import org.apache.solr.cloud.Stats;
@@ -33,6 +37,7 @@ import org.apache.solr.cloud.ZkController;
 import org.apache.solr.cloud.ZkTestServer;
 import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.DocCollectionDiff;
 import org.apache.solr.common.cloud.DocRouter;
 import org.apache.solr.common.cloud.PerReplicaStatesOps;
 import org.apache.solr.common.cloud.Replica;
@@ -533,6 +538,139 @@ public class ZkStateWriterTest extends SolrTestCaseJ4 {
     }
   }
 
+  public void testStateDiffs() throws Exception {
+    Path zkDir = createTempDir("testStateDiffs");
+
+    ZkTestServer server = new ZkTestServer(zkDir);
+
+    SolrZkClient zkClient = null;
+
+    System.setProperty(ZkStateWriter.STATE_DIFFS_PROP, "true");
+    try {
+      server.run();
+
+      zkClient =
+          new SolrZkClient.Builder()
+              .withUrl(server.getZkAddress())
+              .withTimeout(OverseerTest.DEFAULT_CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+              .build();
+      ZkController.createClusterZkNodes(zkClient);
+
+      try (ZkStateReader reader = new ZkStateReader(zkClient)) {
+        reader.createClusterStateWatchersAndUpdate();
+
+        ZkStateWriter writer =
+            new ZkStateWriter(reader, new Stats(), -1, STATE_COMPRESSION_PROVIDER);
+
+        zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/c1", true);
+
+        Map<String, Slice> slices = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+          Map<String, Object> replicaProps = new HashMap<>();
+          replicaProps.put(ZkStateReader.NODE_NAME_PROP, "node1:8983_solr");
+          replicaProps.put(ZkStateReader.BASE_URL_PROP, "http://localhost:8983/solr");
+          replicaProps.put(ZkStateReader.CORE_NAME_PROP, "core" + i);
+          replicaProps.put(ZkStateReader.REPLICA_TYPE, "NRT");
+          replicaProps.put(ZkStateReader.STATE_PROP, Replica.State.DOWN.toString());
+          Map<String, Replica> replicas = new HashMap<>();
+          replicas.put("core_node" + i, new Replica("core_node" + i, replicaProps, "c1", "s" + i));
+          slices.put("s" + i, new Slice("s" + i, replicas, new HashMap<>(), "c1"));
+        }
+        Map<String, Object> props =
+            Collections.singletonMap(
+                ZkStateReader.CONFIGNAME_PROP, ConfigSetsHandler.DEFAULT_CONFIGSET_NAME);
+        DocCollection c1 =
+            DocCollection.create("c1", slices, props, DocRouter.DEFAULT, 0, Instant.now(), null);
+        ClusterState clusterState =
+            writer.enqueueUpdate(
+                reader.getClusterState(), List.of(new ZkWriteCommand("c1", c1)), null);
+        clusterState = writer.writePendingUpdates();
+        assertTrue(zkClient.exists(DocCollectionDiff.getSnapshotPath("c1", 0), true));
+
+        // one replica becomes active, and one shard is removed
+        c1 = clusterState.getCollection("c1");
+        Map<String, Slice> newSlices = new LinkedHashMap<>(c1.getSlicesMap());
+        Replica replica = c1.getSlice("s3").getReplica("core_node3");
+        Map<String, Object> replicaProps = new HashMap<>(replica.getProperties());
+        replicaProps.put(ZkStateReader.STATE_PROP, Replica.State.ACTIVE.toString());
+        newSlices.put(
+            "s3", c1.getSlice("s3").copyWith(new Replica("core_node3", replicaProps, "c1", "s3")));
+        newSlices.remove("s9");
+        writer.enqueueUpdate(
+            clusterState, List.of(new ZkWriteCommand("c1", c1.copyWithSlices(newSlices))), null);
+        writer.writePendingUpdates();
+
+        byte[] data = zkClient.getData(DocCollection.getCollectionPath("c1"), null, null, true);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> diff =
+            (Map<String, Object>) ((Map<String, Object>) Utils.fromJSON(data)).get("c1");
+        assertTrue(DocCollectionDiff.isDiff(diff));
+        assertEquals(0, DocCollectionDiff.getSnapshotVersion(diff));
+        Map<?, ?> changedShards = (Map<?, ?>) diff.get(DocCollection.CollectionStateProps.SHARDS);
+        assertEquals(Set.of("s3", "s9"), changedShards.keySet());
+
+        DocCollection live = reader.getCollectionLive("c1");
+        assertEquals(1, live.getZNodeVersion());
+        assertEquals(9, live.getSlices().size());
+        assertNull(live.getSlice("s9"));
+        assertEquals(Replica.State.ACTIVE, live.getReplica("core_node3").getState());
+        assertEquals(Replica.State.DOWN, live.getReplica("core_node4").getState());
+        assertEquals(ConfigSetsHandler.DEFAULT_CONFIGSET_NAME, live.getConfigName());
+
+        // the diff that was read is read again once its snapshot is gone
+        String snapshotPath = DocCollectionDiff.getSnapshotPath("c1", 0);
+        byte[] snapshotData = zkClient.getData(snapshotPath, null, null, true);
+        zkClient.delete(snapshotPath, -1, true);
+        zkClient.setData(DocCollection.getCollectionPath("c1"), snapshotData, -1, true);
+        DocCollection reread =
+            ZkClientClusterStateProvider.createFromJsonSupportingLegacyConfigName(
+                    1, data, Set.of(), "c1", zkClient, Instant.now(), new HashMap<>())
+                .getCollection("c1");
+        assertEquals(2, reread.getZNodeVersion());
+        assertEquals(10, reread.getSlices().size());
+
+        // the diffs of a collection with a single shard are too big to be used, and every write
+        // is a full one, without a new snapshot each time
+        zkClient.makePath(ZkStateReader.COLLECTIONS_ZKNODE + "/c2", true);
+        Map<String, Object> c2ReplicaProps =
+            new HashMap<>(c1.getReplica("core_node0").getProperties());
+        Slice slice =
+            new Slice(
+                "s0",
+                Map.of("core_node0", new Replica("core_node0", c2ReplicaProps, "c2", "s0")),
+                new HashMap<>(),
+                "c2");
+        DocCollection c2 =
+            DocCollection.create(
+                "c2", Map.of("s0", slice), props, DocRouter.DEFAULT, 0, Instant.now(), null);
+        clusterState =
+            writer.enqueueUpdate(clusterState, List.of(new ZkWriteCommand("c2", c2)), null);
+        clusterState = writer.writePendingUpdates();
+        for (Replica.State state : List.of(Replica.State.ACTIVE, Replica.State.DOWN)) {
+          c2 = clusterState.getCollection("c2");
+          Replica r = c2.getSlice("s0").getReplica("core_node0");
+          Map<String, Object> rProps = new HashMap<>(r.getProperties());
+          rProps.put(ZkStateReader.STATE_PROP, state.toString());
+          Slice s0 = c2.getSlice("s0").copyWith(new Replica("core_node0", rProps, "c2", "s0"));
+          writer.enqueueUpdate(
+              clusterState,
+              List.of(new ZkWriteCommand("c2", c2.copyWithSlices(Map.of("s0", s0)))),
+              null);
+          clusterState = writer.writePendingUpdates();
+        }
+        assertEquals(2, clusterState.getCollection("c2").getZNodeVersion());
+        assertEquals(
+            List.of("0"),
+            zkClient.getChildren(DocCollectionDiff.getSnapshotsPath("c2"), null, true));
+      }
+
+    } finally {
+      System.clearProperty(ZkStateWriter.STATE_DIFFS_PROP);
+      IOUtils.close(zkClient);
+      server.shutdown();
+    }
+  }
+
   private DocCollection createDocCollection(String name, Map<String, Object> props) {
     return DocCollection.create(
         name, new HashMap<>(), props, DocRouter.DEFAULT, 0, Instant.now(), null);
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.core;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.search.SolrIndexSearcher;
+import org.apache.solr.util.RefCounted;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestColdCores extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig.xml", "schema.xml");
+  }
+
+  @Override
+  public void setUp() throws Exception {
+    super.setUp();
+    assertU(delQ("*:*"));
+    assertU(adoc("id", "1"));
+    assertU(commit());
+  }
+
+  @After
+  public void resetCold() {
+    h.getCore().getCoreDescriptor().setProperty(CoreDescriptor.CORE_COLD, "false");
+  }
+
+  @Test
+  public void testIdleColdCoreIsReleased() throws Exception {
+    final ColdCores coldCores = new ColdCores(h.getCoreContainer().solrCores, 0, 0);
+
+    // only cold cores are released
+    coldCores.check();
+    assertTrue(hasSearcher());
+    assertTrue(hasIndexWriter());
+
+    setCold();
+    coldCores.check();
+    assertFalse(hasSearcher());
+    assertFalse(hasIndexWriter());
+    assertEquals(0, coldCores.getOpenCores());
+    assertEquals(1, coldCores.getReleasedCores());
+    assertEquals(1, coldCores.getReleases());
+
+    // the next request opens the index again
+    assertQ(req("q", "id:1"), "//result[@numFound='1']");
+    assertTrue(hasSearcher());
+    assertU(adoc("id", "2"));
+    assertTrue(hasIndexWriter());
+    assertU(commit());
+    assertQ(req("q", "*:*"), "//result[@numFound='2']");
+  }
+
+  @Test
+  public void testUncommittedChangesKeepIndexOpen() throws Exception {
+    final ColdCores coldCores = new ColdCores(h.getCoreContainer().solrCores, 0, 0);
+    setCold();
+    assertU(adoc("id", "2"));
+    coldCores.check();
+    assertTrue(hasSearcher());
+    assertTrue(hasIndexWriter());
+    assertEquals(1, coldCores.getOpenCores());
+    assertEquals(0, coldCores.getReleases());
+    // a searcher opened from the IndexWriter would see the pending add
+    assertQ(req("q", "*:*"), "//result[@numFound='1']");
+
+    assertU(commit());
+    coldCores.check();
+    assertFalse(hasIndexWriter());
+    assertQ(req("q", "*:*"), "//result[@numFound='2']");
+  }
+
+  @Test
+  public void testHeapBudget() throws Exception {
+    setCold();
+    assertQ(req("q", "id:1"), "//result[@numFound='1']");
+
+    final ColdCores idleCores =
+        new ColdCores(h.getCoreContainer().solrCores, TimeUnit.HOURS.toNanos(1), 0);
+    idleCores.check();
+    assertTrue(hasSearcher());
+    assertEquals(1, idleCores.getOpenCores());
+
+    final ColdCores budgetedCores =
+        new ColdCores(h.getCoreContainer().solrCores, TimeUnit.HOURS.toNanos(1), 1);
+    budgetedCores.check();
+    assertFalse(hasSearcher());
+    assertEquals(0, budgetedCores.getOpenCores());
+    assertEquals(0, budgetedCores.getOpenHeapBytes());
+  }
+
+  private void setCold() {
+    h.getCore().getCoreDescriptor().setProperty(CoreDescriptor.CORE_COLD, "true");
+  }
+
+  private boolean hasSearcher() {
+    final RefCounted<SolrIndexSearcher> searcher = h.getCore().getRegisteredSearcher();
+    if (searcher == null) {
+      return false;
+    }
+    searcher.decref();
+    return true;
+  }
+
+  private boolean hasIndexWriter() throws IOException {
+    final RefCounted<IndexWriter> writer = h.getCore().getSolrCoreState().getIndexWriter(null);
+    if (writer == null) {
+      return false;
+    }
+    writer.decref();
+    return true;
+  }
+}
@@ -38,6 +38,7 @@ import java.util.Set;
 import org.apache.lucene.util.IOUtils;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.SolrException;
+import org.apache.solr.schema.IndexSchemaFactory;
 import org.junit.After;
 import org.junit.AssumptionViolatedException;
 import org.junit.BeforeClass;
@@ -218,6 +219,32 @@ public class TestCoreDiscovery extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testCoreLoadTimings() throws Exception {
+    setMeUp();
+    addCoreWithProps("core1", makeCoreProperties("core1", true, "dataDir=core1"));
+    addCoreWithProps("core2", makeCoreProperties("core2", true, "dataDir=core2"));
+    addCoreWithProps("core3", makeCoreProperties("core3", false, "dataDir=core3"));
+
+    CoreContainer cc = init();
+    try {
+      TestLazyCores.checkLoadedCores(cc, "core1", "core2");
+      CoreLoadTimings timings = cc.getCoreLoadTimings();
+      assertEquals(2, timings.getCount(CoreLoadTimings.Phase.CONFIG));
+      assertEquals(2, timings.getCount(CoreLoadTimings.Phase.OPEN));
+      assertEquals(0, timings.getCount(CoreLoadTimings.Phase.ZK_REGISTER));
+      // the parsed config files are only shared while the cores are loaded on startup
+      assertNull(cc.getObjectCache().get(IndexSchemaFactory.STARTUP_CONFIG_CACHE));
+
+      try (SolrCore core3 = cc.getCore("core3")) {
+        assertNotNull(core3);
+      }
+      assertEquals(3, timings.getCount(CoreLoadTimings.Phase.OPEN));
+    } finally {
+      cc.shutdown();
+    }
+  }
+
   @Test
   public void testPropFilePersistence() throws Exception {
     setMeUp();
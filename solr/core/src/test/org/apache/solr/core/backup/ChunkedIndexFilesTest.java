@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.core.backup;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.backup.ShardBackupMetadata.BackedChunk;
+import org.apache.solr.core.backup.repository.LocalFileSystemRepository;
+import org.junit.Test;
+
+public class ChunkedIndexFilesTest extends SolrTestCaseJ4 {
+
+  @Test
+  public void testParseOptions() {
+    assertNull(ChunkedBackupOptions.from(new NamedList<>()));
+
+    NamedList<Object> args = new NamedList<>();
+    args.add(ChunkedBackupOptions.PARAM_CHUNKED_BACKUP, true);
+    args.add(ChunkedBackupOptions.PARAM_CHUNK_AVG_SIZE_KB, 64);
+    args.add(ChunkedBackupOptions.PARAM_CHUNK_COMPRESSION, "true");
+    ChunkedBackupOptions options = ChunkedBackupOptions.from(args);
+    assertEquals(64 * 1024, options.getAvgChunkSize());
+    assertTrue(options.isCompress());
+  }
+
+  @Test
+  public void testModifiedFileOnlyUploadsNewChunks() throws Exception {
+    boolean compress = random().nextBoolean();
+    ChunkedBackupOptions options = new ChunkedBackupOptions(4096, compress);
+    byte[] original = randomContent(256 * 1024);
+    // insert some bytes in the middle, shifting all following content
+    byte[] modified = new byte[original.length + 100];
+    System.arraycopy(original, 0, modified, 0, 100_000);
+    System.arraycopy(original, 100_000, modified, 100_100, original.length - 100_000);
+
+    try (LocalFileSystemRepository repo = new LocalFileSystemRepository();
+        Directory dir = new ByteBuffersDirectory()) {
+      repo.init(new NamedList<>());
+      URI indexDir = repo.createDirectoryURI(createTempDir().toString());
+      ChunkedIndexFiles chunkedIndexFiles = new ChunkedIndexFiles(repo, indexDir, options);
+      Map<String, BackedChunk> chunkIndex = new HashMap<>();
+
+      writeIndexFile(dir, "_0.fdt", original);
+      ChunkedIndexFiles.Result first =
+          chunkedIndexFiles.backup(
+              dir, "_0.fdt", "first", repo.checksum(dir, "_0.fdt"), chunkIndex);
+      assertTrue(first.backedFile.chunks.size() > 1);
+
+      writeIndexFile(dir, "_1.fdt", modified);
+      ChunkedIndexFiles.Result second =
+          chunkedIndexFiles.backup(
+              dir, "_1.fdt", "second", repo.checksum(dir, "_1.fdt"), chunkIndex);
+      assertTrue(
+          "uploaded " + second.uploadedBytes + " bytes for a 100 byte insert",
+          second.uploadedBytes < modified.length / 4);
+
+      try (Directory restoreDir = new ByteBuffersDirectory()) {
+        chunkedIndexFiles.restore(second.backedFile, restoreDir, "_1.fdt");
+        assertEquals(repo.checksum(dir, "_1.fdt"), repo.checksum(restoreDir, "_1.fdt"));
+        try (IndexInput in = restoreDir.openInput("_1.fdt", IOContext.READONCE)) {
+          byte[] restored = new byte[modified.length];
+          in.readBytes(restored, 0, restored.length);
+          assertArrayEquals(modified, restored);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testMetadataRoundTrip() throws Exception {
+    ShardBackupMetadata metadata = ShardBackupMetadata.empty();
+    metadata.addBackedFile("uuid1", "_0.si", new Checksum(1L, 10L));
+    BackedChunk chunk = new BackedChunk("chunk-abc", 100, 40, true);
+    metadata.addBackedFile(
+        new ShardBackupMetadata.BackedFile(
+            "uuid2", "_0.fdt", new Checksum(2L, 116L), List.of(chunk, chunk)));
+
+    try (LocalFileSystemRepository repo = new LocalFileSystemRepository()) {
+      repo.init(new NamedList<>());
+      URI dir = repo.createDirectoryURI(createTempDir().toString());
+      ShardBackupId shardBackupId = new ShardBackupId("shard1", new BackupId(0));
+      metadata.store(repo, dir, shardBackupId);
+
+      ShardBackupMetadata read = ShardBackupMetadata.from(repo, dir, shardBackupId);
+      assertEquals(2, read.numFiles());
+      assertEquals(Set.of("uuid1", "chunk-abc"), Set.copyOf(read.listUniqueFileNames()));
+      assertFalse(read.getFile("_0.si").get().isChunked());
+      BackedChunk readChunk = read.getFile("_0.fdt").get().chunks.get(1);
+      assertEquals(chunk.name, readChunk.name);
+      assertEquals(chunk.size, readChunk.size);
+      assertEquals(chunk.storedSize, readChunk.storedSize);
+      assertTrue(readChunk.compressed);
+      assertEquals(1, read.getChunkIndex().size());
+    }
+  }
+
+  private byte[] randomContent(int length) {
+    byte[] content = new byte[length];
+    // mix random and repetitive data, so compression has something to do
+    for (int i = 0; i < length; i++) {
+      content[i] = (i / 512) % 2 == 0 ? (byte) random().nextInt() : (byte) (i % 7);
+    }
+    return content;
+  }
+
+  private static void writeIndexFile(Directory dir, String name, byte[] content) throws Exception {
+    try (IndexOutput out = dir.createOutput(name, IOContext.DEFAULT)) {
+      out.writeBytes(content, content.length);
+      CodecUtil.writeFooter(out);
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.schema;
+
+import static org.hamcrest.core.Is.is;
+
+import java.util.List;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.util.BytesRef;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.core.AbstractBadConfigTestBase;
+import org.junit.Test;
+
+public class MultiVectorFieldTest extends AbstractBadConfigTestBase {
+
+  @Test
+  public void fieldTypeDefinition_invalidBitSize_shouldThrowException() throws Exception {
+    assertConfigs(
+        "solrconfig-basic.xml",
+        "bad-schema-multivector-quantized-bits.xml",
+        "ScalarQuantizedMultiVectorField bits must be 4 or 7; got: 6: mv_scalar_bits");
+  }
+
+  @Test
+  public void fieldDefinition_default_shouldLoadSchemaField() throws Exception {
+    try {
+      initCore("solrconfig-basic.xml", "schema-multivector.xml");
+
+      IndexSchema schema = h.getCore().getLatestSchema();
+
+      SchemaField vectorField = schema.getField("multi_vector_default_similarity");
+      assertTrue(vectorField.hasDocValues());
+      assertFalse(vectorField.indexed());
+      assertFalse(vectorField.stored());
+      assertFalse(vectorField.multiValued());
+
+      MultiVectorField vectorType = (MultiVectorField) vectorField.getType();
+      assertThat(vectorType.getDimension(), is(4));
+      assertThat(vectorType.getSimilarityFunction(), is(DenseVectorField.DEFAULT_SIMILARITY));
+
+      ScalarQuantizedMultiVectorField quantizedType =
+          (ScalarQuantizedMultiVectorField) schema.getField("mv_scalar_default").getType();
+      assertThat(quantizedType.getSimilarityFunction(), is(VectorSimilarityFunction.COSINE));
+      assertThat(quantizedType.getBits(), is(ScalarQuantizedMultiVectorField.DEFAULT_BITS));
+      assertThat(
+          quantizedType.getConfidenceInterval(),
+          is(ScalarQuantizedMultiVectorField.DEFAULT_CONFIDENCE_INTERVAL));
+      assertThat(quantizedType.useCompression(), is(false));
+
+      ScalarQuantizedMultiVectorField compressedType =
+          (ScalarQuantizedMultiVectorField) schema.getField("mv_scalar_compressed").getType();
+      assertThat(compressedType.getBits(), is(4));
+      assertThat(compressedType.getConfidenceInterval(), is(1.0F));
+      assertThat(compressedType.useCompression(), is(true));
+    } finally {
+      deleteCore();
+    }
+  }
+
+  @Test
+  public void parseVectors_shouldAcceptNestedListsAndStrings() {
+    MultiVectorField type = new MultiVectorField(2, VectorSimilarityFunction.COSINE);
+    float[] expected = new float[] {1f, 2f, 3f, 4f};
+
+    assertArrayEquals(expected, type.parseVectors(List.of(List.of(1, 2), List.of(3.0, 4.0))), 0f);
+    assertArrayEquals(expected, type.parseVectors(List.of("[1, 2]", "[3.0, 4.0]")), 0f);
+    assertArrayEquals(expected, type.parseVectors("[[1,2],[3,4]]"), 0f);
+
+    SolrException e = expectThrows(SolrException.class, () -> type.parseVectors("[[1,2],[3]]"));
+    assertEquals(SolrException.ErrorCode.BAD_REQUEST.code, e.code());
+  }
+
+  @Test
+  public void encode_float_shouldDecodeTheSameVectors() {
+    assertRoundTrip(new MultiVectorField(4, VectorSimilarityFunction.COSINE), 0f);
+  }
+
+  @Test
+  public void encode_scalarQuantized_shouldDecodeCloseVectors() {
+    // values in [-1, 1], quantized with steps of 2/127 and 2/15
+    assertRoundTrip(
+        new ScalarQuantizedMultiVectorField(4, VectorSimilarityFunction.COSINE, 7, 1f, false),
+        1f / 127 + 1e-6f);
+    assertRoundTrip(
+        new ScalarQuantizedMultiVectorField(4, VectorSimilarityFunction.COSINE, 4, 1f, false),
+        1f / 15 + 1e-6f);
+    assertRoundTrip(
+        new ScalarQuantizedMultiVectorField(4, VectorSimilarityFunction.COSINE, 4, 1f, true),
+        1f / 15 + 1e-6f);
+  }
+
+  private static void assertRoundTrip(MultiVectorField type, float delta) {
+    final int vectorCount = random().nextInt(20) + 1;
+    final float[] vectors = new float[vectorCount * type.getDimension()];
+    for (int i = 0; i < vectors.length; i++) {
+      vectors[i] = random().nextFloat() * 2 - 1;
+    }
+    // the values span the whole [-1, 1] range, so the quantization steps are known
+    vectors[0] = -1f;
+    vectors[1] = 1f;
+
+    final BytesRef encoded = type.encode(vectors);
+    assertEquals(vectorCount, type.vectorCount(encoded));
+    final float[] vector = new float[type.getDimension()];
+    for (int ord = 0; ord < vectorCount; ord++) {
+      type.decode(encoded, ord, vector);
+      for (int i = 0; i < vector.length; i++) {
+        assertEquals(vectors[ord * type.getDimension() + i], vector[i], delta);
+      }
+    }
+  }
+}
@@ -1587,6 +1587,14 @@ public class QueryEqualityTest extends SolrTestCaseJ4 {
     }
   }
 
+  public void testQueryMaxSim() throws Exception {
+    assertQueryEquals(
+        "maxsim",
+        "{!maxsim f=multi_vector}[[1,2,3,4],[5,6,7,8]]",
+        "{!maxsim f=multi_vector}[[1.0, 2.0, 3.0, 4.0], [5.0, 6.0, 7.0, 8.0]]",
+        "{!maxsim f=multi_vector v='[[1,2,3,4],[5,6,7,8]]'}");
+  }
+
   /**
    * NOTE: defType is not only used to pick the parser, but also to record the parser being tested
    * for coverage sanity checking
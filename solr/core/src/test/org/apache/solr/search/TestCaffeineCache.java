@@ -383,6 +383,113 @@ public class TestCaffeineCache extends SolrTestCase {
     assertEquals(emptySize, cache.ramBytesUsed());
   }
 
+  @Test
+  public void testMinCost() throws IOException {
+    CaffeineCache<Integer, String> cache = new CaffeineCache<>();
+    String cacheName = scope + "-minCost";
+    cache.initializeMetrics(
+        new SolrMetricsContext(metricManager, registry),
+        Attributes.of(NAME_ATTR, cacheName),
+        "solr_cache");
+    Map<String, String> params =
+        Map.of(
+            SolrCache.SIZE_PARAM, "100",
+            SolrCache.MIN_COST_MS_PARAM, "100",
+            SolrCache.ASYNC_PARAM, Boolean.toString(random().nextBoolean()));
+    cache.init(params, null, new NoOpRegenerator());
+
+    cache.put(1, "cheap", TimeUnit.MILLISECONDS.toNanos(1));
+    assertNull(cache.get(1));
+    cache.put(2, "expensive", TimeUnit.MILLISECONDS.toNanos(500));
+    assertEquals("expensive", cache.get(2));
+    // without a cost, the value is admitted
+    cache.put(3, "unknown");
+    assertEquals("unknown", cache.get(3));
+
+    assertEquals("fast", cache.computeIfAbsent(4, k -> "fast"));
+    assertNull(cache.get(4));
+    assertEquals(
+        "slow",
+        cache.computeIfAbsent(
+            5,
+            k -> {
+              try {
+                Thread.sleep(150);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return "slow";
+            }));
+    assertEquals("slow", cache.get(5));
+    assertEquals("slow", cache.computeIfAbsent(5, k -> "recomputed"));
+
+    var prometheusReader = metricManager.getPrometheusMetricReader(registry);
+    assertEquals(
+        2.0, getCacheOperation(prometheusReader, cacheName, "rejections").getValue(), 0.001);
+    // the hits on the expensive entry, and on the slow one at least 150ms each
+    var costSaved =
+        SolrMetricTestUtils.getCounterDatapoint(
+                prometheusReader,
+                "solr_cache_cost_saved_milliseconds",
+                Labels.builder()
+                    .label("category", "CACHE")
+                    .label("name", cacheName)
+                    .label("otel_scope_name", "org.apache.solr")
+                    .build())
+            .getValue();
+    assertTrue("cost saved: " + costSaved, costSaved >= 500 + 2 * 150);
+    cache.close();
+  }
+
+  @Test
+  public void testCostAwareEviction() throws IOException {
+    CaffeineCache<Integer, String> cache = new CaffeineCache<>();
+    Map<String, String> params =
+        Map.of(
+            SolrCache.SIZE_PARAM, "10",
+            SolrCache.COST_AWARE_PARAM, "true",
+            SolrCache.ASYNC_PARAM, Boolean.toString(random().nextBoolean()));
+    cache.init(params, null, new NoOpRegenerator());
+
+    long cheap = TimeUnit.MILLISECONDS.toNanos(1);
+    long expensive = TimeUnit.SECONDS.toNanos(1);
+    for (int i = 0; i < 10; i++) {
+      cache.put(i, Integer.toString(i), i % 2 == 0 ? expensive : cheap);
+    }
+    // a flood of cheap entries doesn't push out the expensive ones
+    for (int i = 10; i < 100; i++) {
+      cache.put(i, Integer.toString(i), cheap);
+      assertTrue(cache.size() <= 10);
+    }
+    for (int i = 0; i < 10; i += 2) {
+      assertEquals(Integer.toString(i), cache.get(i));
+    }
+    cache.close();
+  }
+
+  @Test
+  public void testCostAwareEvictionInBatches() throws IOException {
+    CaffeineCache<Integer, String> cache = new CaffeineCache<>();
+    Map<String, String> params =
+        Map.of(
+            SolrCache.SIZE_PARAM, "128",
+            SolrCache.COST_AWARE_PARAM, "true",
+            SolrCache.ASYNC_PARAM, Boolean.toString(random().nextBoolean()));
+    cache.init(params, null, new NoOpRegenerator());
+
+    long cost = TimeUnit.MILLISECONDS.toNanos(1);
+    for (int i = 0; i < 128; i++) {
+      cache.put(i, Integer.toString(i), cost);
+    }
+    assertEquals(128, cache.size());
+    // exceeding the limit frees a few more entries, so that the next insertions evict nothing
+    cache.put(128, "128", cost);
+    assertEquals(126, cache.size());
+    cache.put(129, "129", cost);
+    assertEquals(127, cache.size());
+    cache.close();
+  }
+
   private CounterSnapshot.CounterDataPointSnapshot getCacheOperation(
       org.apache.solr.metrics.otel.FilterablePrometheusMetricReader prometheusReader,
       String cacheName,
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiTermQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.util.RefCounted;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestIncrementalDocSetWarming extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig.xml", "schema.xml");
+  }
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    clearIndex();
+    assertU(commit());
+  }
+
+  private static void addDocs(int from, int to) {
+    for (int i = from; i < to; i++) {
+      assertU(adoc("id", String.valueOf(i), "val_s", i % 3 == 0 ? "a" : "b"));
+    }
+  }
+
+  @Test
+  public void testIsSegmentLocal() throws Exception {
+    final Query term = new TermQuery(new Term("val_s", "a"));
+    assertTrue(DocSetUtil.isSegmentLocal(term));
+    assertTrue(DocSetUtil.isSegmentLocal(new MatchAllDocsQuery()));
+    assertTrue(DocSetUtil.isSegmentLocal(IntPoint.newRangeQuery("val_i", 0, 5)));
+    assertTrue(
+        DocSetUtil.isSegmentLocal(
+            new BooleanQuery.Builder()
+                .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                .add(term, BooleanClause.Occur.MUST_NOT)
+                .build()));
+
+    final Term prefix = new Term("val_s", "a");
+    assertTrue(
+        DocSetUtil.isSegmentLocal(
+            new PrefixQuery(prefix, MultiTermQuery.CONSTANT_SCORE_BLENDED_REWRITE)));
+    assertFalse(DocSetUtil.isSegmentLocal(new FuzzyQuery(new Term("val_s", "a"))));
+    assertFalse(
+        DocSetUtil.isSegmentLocal(
+            new PrefixQuery(prefix, MultiTermQuery.SCORING_BOOLEAN_REWRITE)));
+
+    try (SolrQueryRequest req = req()) {
+      final Query join = QParser.getParser("{!join from=id to=val_s}val_s:a", req).getQuery();
+      assertFalse(DocSetUtil.isSegmentLocal(join));
+      assertFalse(
+          DocSetUtil.isSegmentLocal(
+              new BooleanQuery.Builder()
+                  .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                  .add(join, BooleanClause.Occur.MUST_NOT)
+                  .build()));
+    }
+  }
+
+  @Test
+  public void testCreateDocSetFromPreviousSearcher() throws Exception {
+    addDocs(0, 100);
+    assertU(commit());
+
+    final Query query = new TermQuery(new Term("val_s", "a"));
+    final RefCounted<SolrIndexSearcher> previousRef = h.getCore().getSearcher();
+    try {
+      final SolrIndexSearcher previousSearcher = previousRef.get();
+      final DocSet previous = previousSearcher.getDocSet(query);
+
+      // documents in a new segment, and deletions in the shared one
+      addDocs(100, 150);
+      assertU(delI("3"));
+      assertU(delI("4"));
+      assertU(delQ("id:6 OR id:120"));
+      assertU(commit());
+
+      h.getCore()
+          .withSearcher(
+              searcher -> {
+                assertNotSame(previousSearcher, searcher);
+                final DocSet docSet =
+                    DocSetUtil.createDocSet(searcher, query, previousSearcher, previous);
+                final DocSet expected = DocSetUtil.createDocSetGeneric(searcher, query);
+                assertTrue(DocSetUtil.equals(expected, docSet));
+                assertEquals(47, docSet.size());
+                return null;
+              });
+    } finally {
+      previousRef.decref();
+    }
+  }
+
+  @Test
+  public void testAutowarmedFuzzyFilter() throws Exception {
+    for (int i = 0; i < 10; i++) {
+      assertU(adoc("id", String.valueOf(i), "val_s", "abce"));
+    }
+    assertU(commit());
+
+    // only the closest term is expanded, which the new segment changes
+    final Query query = new FuzzyQuery(new Term("val_s", "abcd"), 1, 0, 1, false);
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              assertEquals(10, searcher.getDocSet(query).size());
+              return null;
+            });
+
+    assertU(adoc("id", "10", "val_s", "abcd"));
+    assertU(commit());
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              final DocSet cached = searcher.getFilterCache().get(query);
+              assertNotNull("filter was not autowarmed", cached);
+              final DocSet expected = DocSetUtil.createDocSetGeneric(searcher, query);
+              assertEquals(1, expected.size());
+              assertTrue(DocSetUtil.equals(expected, cached));
+              return null;
+            });
+  }
+
+  @Test
+  public void testAutowarmedFilters() throws Exception {
+    addDocs(0, 100);
+    assertU(commit());
+
+    final List<String> filters = List.of("val_s:a", "{!join from=id to=id}val_s:b");
+    for (String filter : filters) {
+      assertJQ(req("q", "*:*", "fq", filter, "rows", "0"));
+    }
+
+    addDocs(100, 130);
+    assertU(delQ("id:9 OR id:10"));
+    assertU(commit());
+
+    final List<Query> queries = new ArrayList<>();
+    try (SolrQueryRequest req = req()) {
+      for (String filter : filters) {
+        queries.add(QParser.getParser(filter, req).getQuery());
+      }
+    }
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              for (Query query : queries) {
+                final DocSet cached = searcher.getFilterCache().get(query);
+                assertNotNull("filter was not autowarmed: " + query, cached);
+                assertTrue(
+                    query.toString(),
+                    DocSetUtil.equals(DocSetUtil.createDocSetGeneric(searcher, query), cached));
+              }
+              return null;
+            });
+  }
+}
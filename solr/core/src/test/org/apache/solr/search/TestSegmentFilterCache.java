@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search;
+
+import java.util.HashSet;
+import java.util.Set;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.util.RefCounted;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TestSegmentFilterCache extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    initCore("solrconfig-segment-filtercache.xml", "schema.xml");
+  }
+
+  @Override
+  @Before
+  public void setUp() throws Exception {
+    super.setUp();
+    clearIndex();
+    assertU(commit());
+  }
+
+  private static void addDocs(int from, int to) {
+    for (int i = from; i < to; i++) {
+      assertU(adoc("id", String.valueOf(i), "val_s", i % 3 == 0 ? "a" : "b"));
+    }
+  }
+
+  private static Set<IndexReader.CacheKey> segments(SolrIndexSearcher searcher) {
+    final Set<IndexReader.CacheKey> segments = new HashSet<>();
+    for (LeafReaderContext leaf : searcher.getTopReaderContext().leaves()) {
+      segments.add(leaf.reader().getCoreCacheHelper().getKey());
+    }
+    return segments;
+  }
+
+  @Test
+  public void testMatchesOfUnchangedSegmentsSurviveCommits() throws Exception {
+    addDocs(0, 100);
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "val_s:a"), "//*[@numFound='34']");
+
+    final Query query = new TermQuery(new Term("val_s", "a"));
+    final Set<IndexReader.CacheKey> previousSegments;
+    final RefCounted<SolrIndexSearcher> previousRef = h.getCore().getSearcher();
+    try {
+      previousSegments = segments(previousRef.get());
+      for (IndexReader.CacheKey segment : previousSegments) {
+        assertNotNull(
+            previousRef.get().getSegmentFilterCache().get(new SegmentFilterKey(query, segment)));
+      }
+    } finally {
+      previousRef.decref();
+    }
+
+    // documents in a new segment, and deletions in the previous ones
+    addDocs(100, 150);
+    assertU(delI("3"));
+    assertU(delI("4"));
+    assertU(delQ("id:6 OR id:120"));
+    assertU(commit());
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              final SolrCache<SegmentFilterKey, ?> segmentFilterCache =
+                  searcher.getSegmentFilterCache();
+              final Set<IndexReader.CacheKey> segments = segments(searcher);
+              for (IndexReader.CacheKey segment : segments) {
+                // autowarmed only for the segments that are still part of the index
+                assertEquals(
+                    previousSegments.contains(segment),
+                    segmentFilterCache.get(new SegmentFilterKey(query, segment)) != null);
+              }
+              for (IndexReader.CacheKey segment : previousSegments) {
+                if (!segments.contains(segment)) {
+                  assertNull(segmentFilterCache.get(new SegmentFilterKey(query, segment)));
+                }
+              }
+              return null;
+            });
+
+    assertQ(req("q", "*:*", "fq", "val_s:a"), "//*[@numFound='47']");
+    assertQ(req("q", "*:*", "fq", "-val_s:a"), "//*[@numFound='99']");
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              for (IndexReader.CacheKey segment : segments(searcher)) {
+                assertNotNull(
+                    searcher.getSegmentFilterCache().get(new SegmentFilterKey(query, segment)));
+              }
+              assertTrue(
+                  DocSetUtil.equals(
+                      DocSetUtil.createDocSetGeneric(searcher, query),
+                      searcher.getFilterCache().get(query)));
+              return null;
+            });
+  }
+
+  @Test
+  public void testQueriesThatAreNotSegmentLocal() throws Exception {
+    addDocs(0, 30);
+    assertU(commit());
+    assertQ(req("q", "*:*", "fq", "{!join from=id to=id}val_s:a"), "//*[@numFound='10']");
+    // the top terms rewrite of a fuzzy query depends on the terms of the other segments
+    assertQ(req("q", "*:*", "fq", "val_s:a~1"));
+
+    h.getCore()
+        .withSearcher(
+            searcher -> {
+              assertEquals(2, searcher.getFilterCache().size());
+              assertEquals(0, searcher.getSegmentFilterCache().size());
+              return null;
+            });
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.tests.index.RandomIndexWriter;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.junit.Test;
+
+public class ExactKnnVectorQueryTest extends SolrTestCase {
+
+  private static final int NUM_DOCS = 500;
+
+  @Test
+  public void testConcurrentSearchMatchesBruteForce() throws Exception {
+    final Map<String, float[]> vectors = new HashMap<>();
+    final List<String> deleted = new ArrayList<>();
+    ExecutorService executor =
+        ExecutorUtil.newMDCAwareFixedThreadPool(4, new SolrNamedThreadFactory("exactKnn"));
+    try (Directory dir = newDirectory();
+        RandomIndexWriter iw = new RandomIndexWriter(random(), dir)) {
+      for (int i = 0; i < NUM_DOCS; i++) {
+        final String id = Integer.toString(i);
+        Document doc = new Document();
+        doc.add(newStringField("id", id, Field.Store.YES));
+        doc.add(newStringField("even", Boolean.toString(i % 2 == 0), Field.Store.NO));
+        if (i % 10 != 0) {
+          final float[] vector = randomVector();
+          vectors.put(id, vector);
+          doc.add(new KnnFloatVectorField("vector", vector, VectorSimilarityFunction.EUCLIDEAN));
+        }
+        iw.addDocument(doc);
+        if (random().nextInt(50) == 0) {
+          iw.commit();
+        }
+      }
+      for (int i = 0; i < NUM_DOCS; i += 7) {
+        iw.deleteDocuments(new Term("id", Integer.toString(i)));
+        deleted.add(Integer.toString(i));
+      }
+
+      try (IndexReader reader = iw.getReader()) {
+        final IndexSearcher sequential = new IndexSearcher(reader);
+        final IndexSearcher concurrent = new IndexSearcher(reader, executor);
+        for (int iter = 0; iter < 10; iter++) {
+          final float[] target = randomVector();
+          final int k = random().nextInt(50) + 1;
+          final Query filter =
+              random().nextBoolean() ? null : new TermQuery(new Term("even", "true"));
+          final List<String> expected = bruteForce(vectors, deleted, target, k, filter != null);
+          final Query query = new ExactKnnVectorQuery("vector", target, k, filter);
+
+          assertEquals(expected, ids(sequential, sequential.search(query, k)));
+          assertEquals(expected, ids(concurrent, concurrent.search(query, k)));
+        }
+      }
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
+  private static float[] randomVector() {
+    final float[] vector = new float[4];
+    for (int i = 0; i < vector.length; i++) {
+      vector[i] = random().nextFloat();
+    }
+    return vector;
+  }
+
+  private static List<String> bruteForce(
+      Map<String, float[]> vectors,
+      List<String> deleted,
+      float[] target,
+      int k,
+      boolean evenOnly) {
+    final List<Map.Entry<String, Float>> candidates = new ArrayList<>();
+    for (Map.Entry<String, float[]> entry : vectors.entrySet()) {
+      final String id = entry.getKey();
+      if (deleted.contains(id) || (evenOnly && Integer.parseInt(id) % 2 != 0)) {
+        continue;
+      }
+      candidates.add(
+          Map.entry(id, VectorSimilarityFunction.EUCLIDEAN.compare(target, entry.getValue())));
+    }
+    candidates.sort(Map.Entry.<String, Float>comparingByValue(Comparator.reverseOrder()));
+    final List<String> ids = new ArrayList<>();
+    for (int i = 0; i < Math.min(k, candidates.size()); i++) {
+      ids.add(candidates.get(i).getKey());
+    }
+    return ids;
+  }
+
+  private static List<String> ids(IndexSearcher searcher, TopDocs topDocs) throws Exception {
+    final List<String> ids = new ArrayList<>();
+    for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+      ids.add(searcher.storedFields().document(scoreDoc.doc).get("id"));
+    }
+    return ids;
+  }
+}
@@ -1919,4 +1919,101 @@ public class KnnQParserTest extends SolrTestCaseJ4 {
       req.close();
     }
   }
+
+  @Test
+  public void filterStrategies_shouldReturnTheSameResults() {
+    final String vectorToSearch = "[1.0, 2.0, 3.0, 4.0]";
+    final SolrParams common = params("fl", "id");
+
+    for (String strategy : new String[] {"auto", "exact", "preFilter", "postFilter"}) {
+      // selective filter
+      assertQ(
+          req(
+              common,
+              "q",
+              "{!knn f=vector topK=10 filterStrategy=" + strategy + "}" + vectorToSearch,
+              "fq",
+              "id:(1 2 7 20)"),
+          "//result[@numFound='3']",
+          "//result/doc[1]/str[@name='id'][.='1']",
+          "//result/doc[2]/str[@name='id'][.='2']",
+          "//result/doc[3]/str[@name='id'][.='7']");
+
+      // filter matching most documents
+      assertQ(
+          req(
+              common,
+              "q",
+              "{!knn f=vector topK=3 filterStrategy=" + strategy + "}" + vectorToSearch,
+              "fq",
+              "-id:5"),
+          "//result[@numFound='3']",
+          "//result/doc[1]/str[@name='id'][.='1']",
+          "//result/doc[2]/str[@name='id'][.='4']",
+          "//result/doc[3]/str[@name='id'][.='2']");
+    }
+  }
+
+  @Test
+  public void filterStrategy_shouldOnlyWrapFilteredQueries() throws Exception {
+    final String vectorToSearch = "[1.0, 2.0, 3.0, 4.0]";
+    final SolrParams localParams =
+        params("type", "knn", "f", vectorField, "topK", "4", "filterStrategy", "auto");
+
+    try (SolrQueryRequest req = req("fq", "id:(1 2 7 20)")) {
+      final KnnQParser qparser = new KnnQParser(vectorToSearch, localParams, params(), req);
+      assertTrue(qparser.parse() instanceof FilteredKnnQuery);
+    }
+    try (SolrQueryRequest req = req()) {
+      final KnnQParser qparser = new KnnQParser(vectorToSearch, localParams, params(), req);
+      assertTrue(qparser.parse() instanceof KnnFloatVectorQuery);
+    }
+    try (SolrQueryRequest req = req("fq", "id:(1 2 7 20)")) {
+      final KnnQParser qparser =
+          new KnnQParser(
+              vectorToSearch,
+              params("type", "knn", "f", vectorField, "filterStrategy", "bogus"),
+              params(),
+              req);
+      final SolrException e = expectThrows(SolrException.class, qparser::parse);
+      assertEquals(SolrException.ErrorCode.BAD_REQUEST.code, e.code());
+    }
+  }
+
+  @Test
+  public void exactQuery_shouldRankBySimilarityFunction() throws Exception {
+    String vectorToSearch = "[1.0, 2.0, 3.0, 4.0]";
+
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=10 exact=true}" + vectorToSearch, "fl", "id"),
+        "//result[@numFound='10']",
+        "//result/doc[1]/str[@name='id'][.='1']",
+        "//result/doc[2]/str[@name='id'][.='4']",
+        "//result/doc[3]/str[@name='id'][.='2']",
+        "//result/doc[4]/str[@name='id'][.='10']",
+        "//result/doc[5]/str[@name='id'][.='3']",
+        "//result/doc[6]/str[@name='id'][.='7']",
+        "//result/doc[7]/str[@name='id'][.='5']",
+        "//result/doc[8]/str[@name='id'][.='6']",
+        "//result/doc[9]/str[@name='id'][.='9']",
+        "//result/doc[10]/str[@name='id'][.='8']");
+    assertQ(
+        req(
+            CommonParams.Q,
+            "{!knn f=vector_byte_encoding topK=2 exact=true}[2, 2, 1, 4]",
+            "fl",
+            "id"),
+        "//result[@numFound='2']",
+        "//result/doc[1]/str[@name='id'][.='2']");
+
+    try (SolrQueryRequest req = req()) {
+      final KnnQParser qparser =
+          new KnnQParser(
+              vectorToSearch,
+              params("type", "knn", "f", vectorField, "topK", "4", "exact", "true"),
+              params(),
+              req);
+      assertTrue(qparser.parse() instanceof ExactKnnVectorQuery);
+    }
+  }
 }
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.util.List;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.params.CommonParams;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class KnnResultCacheTest extends SolrTestCaseJ4 {
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    System.setProperty("tests.knnResultCache.enabled", "true");
+    /* vectorDimension="4" similarityFunction="cosine", vectorTolerance="0.01" */
+    initCore("solrconfig_codec.xml", "schema-densevector.xml");
+
+    assertU(adoc(sdoc("id", "1", "vector", List.of(1f, 2f, 3f, 4f))));
+    assertU(adoc(sdoc("id", "2", "vector", List.of(1.5f, 2.5f, 3.5f, 4.5f))));
+    assertU(adoc(sdoc("id", "3", "vector", List.of(30f, 22f, 35f, 20f))));
+    assertU(adoc(sdoc("id", "4", "vector", List.of(120f, 60f, 30f, 15f))));
+    assertU(commit());
+  }
+
+  @AfterClass
+  public static void afterClass() {
+    System.clearProperty("tests.knnResultCache.enabled");
+  }
+
+  @Test
+  public void nearIdenticalVectors_shouldShareTheirCacheEntry() throws Exception {
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=2}[1.0, 2.0, 3.0, 4.0]", "fl", "id"),
+        "//result[@numFound='2']",
+        "//result/doc[1]/str[@name='id'][.='1']",
+        "//result/doc[2]/str[@name='id'][.='2']");
+    assertEquals(1, knnResultCacheSize());
+
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=2}[1.001, 2.0, 3.0, 3.999]", "fl", "id"),
+        "//result[@numFound='2']",
+        "//result/doc[1]/str[@name='id'][.='1']",
+        "//result/doc[2]/str[@name='id'][.='2']");
+    assertEquals(1, knnResultCacheSize());
+
+    // a different topK, a different vector or a filter are different entries
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=3}[1.0, 2.0, 3.0, 4.0]", "fl", "id"),
+        "//result[@numFound='3']");
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=2}[120.0, 60.0, 30.0, 15.0]", "fl", "id"),
+        "//result[@numFound='2']",
+        "//result/doc[1]/str[@name='id'][.='4']");
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=2}[1.0, 2.0, 3.0, 4.0]", "fq", "-id:1"),
+        "//result[@numFound='2']",
+        "//result/doc[1]/str[@name='id'][.='2']");
+    assertEquals(4, knnResultCacheSize());
+
+    assertQ(
+        req(CommonParams.Q, "{!knn f=vector topK=2 cache=false}[0.0, 2.0, 3.0, 4.0]"),
+        "//result[@numFound='2']");
+    assertEquals(4, knnResultCacheSize());
+  }
+
+  private static int knnResultCacheSize() throws Exception {
+    return h.getCore()
+        .withSearcher(searcher -> searcher.getCache(KnnQParser.KNN_RESULT_CACHE).size());
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.search.neural;
+
+import java.util.List;
+import org.apache.solr.SolrTestCaseJ4;
+import org.apache.solr.common.SolrException;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CommonParams;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MaxSimQParserTest extends SolrTestCaseJ4 {
+
+  private static final String[] MULTI_VECTOR_FIELDS =
+      new String[] {"multi_vector", "mv_scalar_default", "mv_scalar_compressed"};
+
+  @BeforeClass
+  public static void beforeClass() throws Exception {
+    /* vectorDimension="4" similarityFunction="cosine" */
+    initCore("solrconfig_codec.xml", "schema-multivector.xml");
+
+    // MaxSim with [[1, 0, 0, 0], [0, 1, 0, 0]]: 0.5
+    assertU(adoc(doc("4", List.of(List.of(-1f, 0f, 0f, 0f)))));
+    // MaxSim: 1.0
+    assertU(adoc(doc("3", List.of(List.of(0f, 0f, 1f, 0f), List.of(0f, 0f, 0f, 1f)))));
+    // MaxSim: 1.5
+    assertU(adoc(doc("2", List.of(List.of(1f, 0f, 0f, 0f), List.of(0f, 0f, 1f, 0f)))));
+    // MaxSim: 2.0
+    List<List<Float>> vectors =
+        List.of(List.of(1f, 0f, 0f, 0f), List.of(0f, 1f, 0f, 0f), List.of(0f, 0f, 1f, 0f));
+    assertU(adoc(doc("1", vectors)));
+    assertU(adoc(sdoc("id", "5")));
+    assertU(commit());
+  }
+
+  private static SolrInputDocument doc(String id, List<List<Float>> vectors) {
+    SolrInputDocument doc = sdoc("id", id);
+    for (String field : MULTI_VECTOR_FIELDS) {
+      doc.addField(field, vectors);
+    }
+    return doc;
+  }
+
+  @Test
+  public void maxSimQuery_shouldScoreDocumentsWithVectorsByMaxSim() {
+    assertQ(
+        req(
+            CommonParams.Q,
+            "{!maxsim f=multi_vector}[[1.0, 0.0, 0.0, 0.0], [0.0, 1.0, 0.0, 0.0]]",
+            "fl",
+            "id,score"),
+        "//result[@numFound='4']",
+        "//result/doc[1]/str[@name='id'][.='1']",
+        "//result/doc[1]/float[@name='score'][.='2.0']",
+        "//result/doc[2]/str[@name='id'][.='2']",
+        "//result/doc[2]/float[@name='score'][.='1.5']",
+        "//result/doc[3]/str[@name='id'][.='3']",
+        "//result/doc[3]/float[@name='score'][.='1.0']",
+        "//result/doc[4]/str[@name='id'][.='4']",
+        "//result/doc[4]/float[@name='score'][.='0.5']");
+  }
+
+  @Test
+  public void maxSimQuery_scalarQuantized_shouldRankDocumentsByMaxSim() {
+    for (String field : List.of("mv_scalar_default", "mv_scalar_compressed")) {
+      assertQ(
+          req(
+              CommonParams.Q,
+              "{!maxsim f=" + field + "}[[1.0, 0.0, 0.0, 0.0], [0.0, 1.0, 0.0, 0.0]]",
+              "fl",
+              "id"),
+          "//result[@numFound='4']",
+          "//result/doc[1]/str[@name='id'][.='1']",
+          "//result/doc[2]/str[@name='id'][.='2']",
+          "//result/doc[3]/str[@name='id'][.='3']",
+          "//result/doc[4]/str[@name='id'][.='4']");
+    }
+  }
+
+  @Test
+  public void rerankQuery_shouldRerankTheTopDocumentsByMaxSim() {
+    // the documents are indexed from 4 to 1: only 4, 3 and 2 are reranked
+    assertQ(
+        req(
+            CommonParams.Q,
+            "*:*",
+            "rq",
+            "{!rerank reRankQuery=$rqq reRankDocs=3 reRankWeight=1}",
+            "rqq",
+            "{!maxsim f=multi_vector}[[1.0, 0.0, 0.0, 0.0], [0.0, 1.0, 0.0, 0.0]]",
+            "fl",
+            "id"),
+        "//result[@numFound='5']",
+        "//result/doc[1]/str[@name='id'][.='2']",
+        "//result/doc[2]/str[@name='id'][.='3']",
+        "//result/doc[3]/str[@name='id'][.='4']",
+        "//result/doc[4]/str[@name='id'][.='1']",
+        "//result/doc[5]/str[@name='id'][.='5']");
+  }
+
+  @Test
+  public void incorrectVectors_shouldThrowException() {
+    assertQEx(
+        "Incorrect number of values",
+        "incorrect vector format",
+        req(CommonParams.Q, "{!maxsim f=multi_vector}[[1.0, 0.0, 0.0, 0.0], [0.0, 1.0]]"),
+        SolrException.ErrorCode.BAD_REQUEST);
+    assertQEx(
+        "Not a Multi Vector field",
+        "only MultiVectorField is compatible with the MaxSim Query Parser",
+        req(CommonParams.Q, "{!maxsim f=id}[[1.0, 0.0, 0.0, 0.0]]"),
+        SolrException.ErrorCode.BAD_REQUEST);
+  }
+}
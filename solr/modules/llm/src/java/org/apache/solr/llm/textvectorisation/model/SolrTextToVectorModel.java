@@ -17,11 +17,13 @@
 package org.apache.solr.llm.textvectorisation.model;
 
 import dev.langchain4j.data.embedding.Embedding;
+import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import org.apache.lucene.util.Accountable;
@@ -142,6 +144,20 @@ public class SolrTextToVectorModel implements Accountable {
     return vector.vector();
   }
 
+  /** Encodes several texts in a single call to the model, the vectors are in the same order. */
+  public List<float[]> vectoriseAll(List<String> texts) {
+    List<TextSegment> segments = new ArrayList<>(texts.size());
+    for (String text : texts) {
+      segments.add(TextSegment.from(text));
+    }
+    List<Embedding> embeddings = textToVector.embedAll(segments).content();
+    List<float[]> vectors = new ArrayList<>(embeddings.size());
+    for (Embedding embedding : embeddings) {
+      vectors.add(embedding.vector());
+    }
+    return vectors;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName() + "(name=" + getName() + ")";
@@ -16,8 +16,10 @@
  */
 package org.apache.solr.llm.textvectorisation.search;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Map;
 import org.apache.lucene.index.VectorEncoding;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.ResourceLoader;
@@ -31,8 +33,10 @@ import org.apache.solr.llm.textvectorisation.store.rest.ManagedTextToVectorModel
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.rest.ManagedResource;
 import org.apache.solr.rest.ManagedResourceObserver;
+import org.apache.solr.search.CaffeineCache;
 import org.apache.solr.search.QParser;
 import org.apache.solr.search.QParserPlugin;
+import org.apache.solr.search.SolrCache;
 import org.apache.solr.search.SyntaxError;
 import org.apache.solr.search.neural.KnnQParser;
 
@@ -42,9 +46,30 @@ import org.apache.solr.search.neural.KnnQParser;
  * https://solr.apache.org/guide/solr/latest/query-guide/dense-vector-search.html
  */
 public class TextToVectorQParserPlugin extends QParserPlugin
-    implements ResourceLoaderAware, ManagedResourceObserver {
+    implements ResourceLoaderAware, ManagedResourceObserver, Closeable {
   public static final String EMBEDDING_MODEL_PARAM = "model";
+
+  /** Number of query vectors cached per model and query text, 0 disables the cache. */
+  public static final String VECTOR_CACHE_SIZE_PARAM = "vectorCacheSize";
+
+  public static final int DEFAULT_VECTOR_CACHE_SIZE = 1024;
+
   private ManagedTextToVectorModelStore modelStore = null;
+  private SolrCache<VectorCacheKey, float[]> vectorCache = null;
+
+  private record VectorCacheKey(SolrTextToVectorModel model, String text) {}
+
+  @Override
+  public void init(NamedList<?> args) {
+    final Object cacheSize = args == null ? null : args.get(VECTOR_CACHE_SIZE_PARAM);
+    final int size =
+        cacheSize == null ? DEFAULT_VECTOR_CACHE_SIZE : Integer.parseInt(cacheSize.toString());
+    if (size > 0) {
+      final CaffeineCache<VectorCacheKey, float[]> cache = new CaffeineCache<>();
+      cache.init(Map.of(SolrCache.SIZE_PARAM, Integer.toString(size)), null, null);
+      vectorCache = cache;
+    }
+  }
 
   @Override
   public QParser createParser(
@@ -97,7 +122,7 @@ public class TextToVectorQParserPlugin extends QParserPlugin
 
       if (textToVector != null) {
         checkVectorEncoding();
-        super.vectorToSearch = Arrays.toString(textToVector.vectorise(qstr));
+        super.vectorToSearch = Arrays.toString(vectorise(textToVector, qstr));
         return super.parse();
       } else {
         throw new SolrException(
@@ -110,6 +135,29 @@ public class TextToVectorQParserPlugin extends QParserPlugin
     }
   }
 
+  /**
+   * Encodes the text with the model, unless the same text was already encoded by the same model:
+   * the model is typically a remote service, far slower than the search itself.
+   */
+  private float[] vectorise(SolrTextToVectorModel textToVector, String text) {
+    if (vectorCache == null) {
+      return textToVector.vectorise(text);
+    }
+    try {
+      return vectorCache.computeIfAbsent(
+          new VectorCacheKey(textToVector, text), key -> key.model().vectorise(key.text()));
+    } catch (IOException e) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (vectorCache != null) {
+      vectorCache.close();
+    }
+  }
+
   private void checkParam(String value, String message) {
     if (value == null || value.isBlank()) {
       throw new SolrException(SolrException.ErrorCode.BAD_REQUEST, message);
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.llm.textvectorisation.update.processor;
+
+import io.opentelemetry.api.common.Attributes;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.metrics.otel.OtelUnit;
+import org.apache.solr.metrics.otel.instruments.AttributedLongHistogram;
+
+/** Records the number of texts vectorised per call to the model, and how long the calls take. */
+class TextToVectorMetrics {
+
+  private final AttributedLongHistogram batchSize;
+  private final AttributedLongHistogram embeddingTime;
+
+  TextToVectorMetrics(SolrMetricsContext solrMetricsContext, Attributes attributes) {
+    this.batchSize =
+        new AttributedLongHistogram(
+            solrMetricsContext.longHistogram(
+                "solr_llm_text_to_vector_batch_size",
+                "Number of texts vectorised per call to the model at indexing time"),
+            attributes);
+    this.embeddingTime =
+        new AttributedLongHistogram(
+            solrMetricsContext.longHistogram(
+                "solr_llm_text_to_vector_embedding_time",
+                "Time spent per call to the model at indexing time",
+                OtelUnit.MILLISECONDS),
+            attributes);
+  }
+
+  void record(int texts, long elapsedNanos) {
+    batchSize.record((long) texts);
+    embeddingTime.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+  }
+}
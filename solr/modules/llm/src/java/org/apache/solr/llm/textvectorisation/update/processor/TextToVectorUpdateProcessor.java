@@ -14,13 +14,17 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.solr.llm.textvectorisation.update.processor;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.SolrInputField;
 import org.apache.solr.llm.textvectorisation.model.SolrTextToVectorModel;
@@ -28,10 +32,26 @@ import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.update.AddUpdateCommand;
+import org.apache.solr.update.CommitUpdateCommand;
+import org.apache.solr.update.DeleteUpdateCommand;
+import org.apache.solr.update.MergeIndexesCommand;
+import org.apache.solr.update.RollbackUpdateCommand;
 import org.apache.solr.update.processor.UpdateRequestProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Vectorises the input field of the documents, one document at a time, or in batches of documents
+ * when the batch size is greater than 1.
+ *
+ * <p>In batch mode the added documents are buffered until the batch is full, or until the first
+ * one has waited for the batch timeout, and the texts of the batch are vectorised in a single call
+ * to the model. The batch is vectorised on the executor, when there is one, while the next batch
+ * is buffered, and its documents are sent to the next processor before the next batch is
+ * vectorised. Any other update command, and the end of the request, first sends the buffered
+ * documents, so the order of the updates is preserved. A failure indexing a buffered document is
+ * reported by the update command that sent it.
+ */
 class TextToVectorUpdateProcessor extends UpdateRequestProcessor {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
@@ -39,6 +59,14 @@ class TextToVectorUpdateProcessor extends UpdateRequestProcessor {
   private final String inputField;
   private final String outputField;
   private SolrTextToVectorModel textToVector;
+  private final int batchSize;
+  private final long batchTimeoutNanos;
+  private final ExecutorService executor;
+  private final TextToVectorMetrics metrics;
+
+  private final List<AddUpdateCommand> batch = new ArrayList<>();
+  private long batchStartNanos;
+  private Future<List<AddUpdateCommand>> vectorisedBatch;
 
   public TextToVectorUpdateProcessor(
       String inputField,
@@ -46,11 +74,35 @@ class TextToVectorUpdateProcessor extends UpdateRequestProcessor {
       SolrTextToVectorModel textToVector,
       SolrQueryRequest req,
       UpdateRequestProcessor next) {
+    this(inputField, outputField, textToVector, 1, 0, null, null, req, next);
+  }
+
+  /**
+   * @param batchSize the number of documents vectorised in a single call to the model
+   * @param batchTimeoutMillis the maximum time a document waits for its batch to be full, or 0
+   * @param executor the executor the batches are vectorised on, or null to vectorise them in the
+   *     calling thread
+   * @param metrics the metrics of the vectorisation, or null
+   */
+  public TextToVectorUpdateProcessor(
+      String inputField,
+      String outputField,
+      SolrTextToVectorModel textToVector,
+      int batchSize,
+      long batchTimeoutMillis,
+      ExecutorService executor,
+      TextToVectorMetrics metrics,
+      SolrQueryRequest req,
+      UpdateRequestProcessor next) {
     super(next);
     this.schema = req.getSchema();
     this.inputField = inputField;
     this.outputField = outputField;
     this.textToVector = textToVector;
+    this.batchSize = batchSize;
+    this.batchTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(batchTimeoutMillis);
+    this.executor = executor;
+    this.metrics = metrics;
   }
 
   /**
@@ -59,31 +111,175 @@ class TextToVectorUpdateProcessor extends UpdateRequestProcessor {
    */
   @Override
   public void processAdd(AddUpdateCommand cmd) throws IOException {
-    SolrInputDocument doc = cmd.getSolrInputDocument();
+    if (batchSize <= 1) {
+      vectorise(cmd.getSolrInputDocument());
+      super.processAdd(cmd);
+      return;
+    }
+    if (batch.isEmpty()) {
+      batchStartNanos = System.nanoTime();
+    }
+    // the command may be reused by the caller for the next document
+    batch.add((AddUpdateCommand) cmd.clone());
+    if (batch.size() >= batchSize
+        || (batchTimeoutNanos > 0 && System.nanoTime() - batchStartNanos >= batchTimeoutNanos)) {
+      sendBatch();
+    }
+  }
+
+  @Override
+  public void processDelete(DeleteUpdateCommand cmd) throws IOException {
+    flush();
+    super.processDelete(cmd);
+  }
+
+  @Override
+  public void processMergeIndexes(MergeIndexesCommand cmd) throws IOException {
+    flush();
+    super.processMergeIndexes(cmd);
+  }
+
+  @Override
+  public void processCommit(CommitUpdateCommand cmd) throws IOException {
+    flush();
+    super.processCommit(cmd);
+  }
+
+  @Override
+  public void processRollback(RollbackUpdateCommand cmd) throws IOException {
+    flush();
+    super.processRollback(cmd);
+  }
+
+  @Override
+  public void finish() throws IOException {
+    flush();
+    super.finish();
+  }
+
+  @Override
+  protected void doClose() {
+    if (vectorisedBatch != null) {
+      vectorisedBatch.cancel(true);
+      vectorisedBatch = null;
+    }
+  }
+
+  private void flush() throws IOException {
+    if (!batch.isEmpty()) {
+      sendBatch();
+    }
+    sendVectorisedBatch();
+  }
+
+  /** Vectorises the buffered documents, after sending the previous batch to the next processor. */
+  private void sendBatch() throws IOException {
+    final List<AddUpdateCommand> commands = new ArrayList<>(batch);
+    batch.clear();
+    sendVectorisedBatch();
+    if (executor == null) {
+      vectorise(commands);
+      processAdds(commands);
+    } else {
+      vectorisedBatch =
+          executor.submit(
+              () -> {
+                vectorise(commands);
+                return commands;
+              });
+    }
+  }
+
+  private void sendVectorisedBatch() throws IOException {
+    if (vectorisedBatch == null) {
+      return;
+    }
+    final List<AddUpdateCommand> commands;
+    try {
+      commands = vectorisedBatch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e);
+    } catch (ExecutionException e) {
+      throw new SolrException(SolrException.ErrorCode.SERVER_ERROR, e.getCause());
+    } finally {
+      vectorisedBatch = null;
+    }
+    processAdds(commands);
+  }
+
+  private void processAdds(List<AddUpdateCommand> commands) throws IOException {
+    for (AddUpdateCommand command : commands) {
+      super.processAdd(command);
+    }
+  }
+
+  private void vectorise(SolrInputDocument doc) {
     SolrInputField inputFieldContent = doc.get(inputField);
-    if (!isNullOrEmpty(inputFieldContent)) {
-      try {
-        String textToVectorise = inputFieldContent.getValue().toString();
-        float[] vector = textToVector.vectorise(textToVectorise);
-        List<Float> vectorAsList = new ArrayList<Float>(vector.length);
-        for (float f : vector) {
-          vectorAsList.add(f);
-        }
-        doc.addField(outputField, vectorAsList);
-      } catch (RuntimeException vectorisationFailure) {
-        if (log.isErrorEnabled()) {
-          SchemaField uniqueKeyField = schema.getUniqueKeyField();
-          String uniqueKeyFieldName = uniqueKeyField.getName();
-          log.error(
-              "Could not vectorise: {} for the document with {}: {}",
-              inputField,
-              uniqueKeyFieldName,
-              doc.getFieldValue(uniqueKeyFieldName),
-              vectorisationFailure);
-        }
+    if (isNullOrEmpty(inputFieldContent)) {
+      return;
+    }
+    final long startNanos = System.nanoTime();
+    try {
+      String textToVectorise = inputFieldContent.getValue().toString();
+      addVector(doc, textToVector.vectorise(textToVectorise));
+    } catch (RuntimeException vectorisationFailure) {
+      logFailure(doc, vectorisationFailure);
+    }
+    if (metrics != null) {
+      metrics.record(1, System.nanoTime() - startNanos);
+    }
+  }
+
+  private void vectorise(List<AddUpdateCommand> commands) {
+    final List<SolrInputDocument> docs = new ArrayList<>(commands.size());
+    final List<String> textsToVectorise = new ArrayList<>(commands.size());
+    for (AddUpdateCommand command : commands) {
+      SolrInputDocument doc = command.getSolrInputDocument();
+      SolrInputField inputFieldContent = doc.get(inputField);
+      if (!isNullOrEmpty(inputFieldContent)) {
+        docs.add(doc);
+        textsToVectorise.add(inputFieldContent.getValue().toString());
+      }
+    }
+    if (docs.isEmpty()) {
+      return;
+    }
+    final long startNanos = System.nanoTime();
+    try {
+      List<float[]> vectors = textToVector.vectoriseAll(textsToVectorise);
+      for (int i = 0; i < docs.size(); i++) {
+        addVector(docs.get(i), vectors.get(i));
       }
+    } catch (RuntimeException vectorisationFailure) {
+      for (SolrInputDocument doc : docs) {
+        logFailure(doc, vectorisationFailure);
+      }
+    }
+    if (metrics != null) {
+      metrics.record(docs.size(), System.nanoTime() - startNanos);
+    }
+  }
+
+  private void addVector(SolrInputDocument doc, float[] vector) {
+    List<Float> vectorAsList = new ArrayList<Float>(vector.length);
+    for (float f : vector) {
+      vectorAsList.add(f);
+    }
+    doc.addField(outputField, vectorAsList);
+  }
+
+  private void logFailure(SolrInputDocument doc, RuntimeException vectorisationFailure) {
+    if (log.isErrorEnabled()) {
+      SchemaField uniqueKeyField = schema.getUniqueKeyField();
+      String uniqueKeyFieldName = uniqueKeyField.getName();
+      log.error(
+          "Could not vectorise: {} for the document with {}: {}",
+          inputField,
+          uniqueKeyFieldName,
+          doc.getFieldValue(uniqueKeyFieldName),
+          vectorisationFailure);
     }
-    super.processAdd(cmd);
   }
 
   protected boolean isNullOrEmpty(SolrInputField inputFieldContent) {
@@ -17,12 +17,21 @@
 
 package org.apache.solr.llm.textvectorisation.update.processor;
 
+import static org.apache.solr.metrics.SolrMetricProducer.CATEGORY_ATTR;
+
+import io.opentelemetry.api.common.Attributes;
+import java.util.concurrent.ExecutorService;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.RequiredSolrParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.CloseHook;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.core.SolrInfoBean;
 import org.apache.solr.llm.textvectorisation.model.SolrTextToVectorModel;
 import org.apache.solr.llm.textvectorisation.store.rest.ManagedTextToVectorModelStore;
+import org.apache.solr.metrics.SolrMetricsContext;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.response.SolrQueryResponse;
 import org.apache.solr.schema.DenseVectorField;
@@ -31,6 +40,7 @@ import org.apache.solr.schema.IndexSchema;
 import org.apache.solr.schema.SchemaField;
 import org.apache.solr.update.processor.UpdateRequestProcessor;
 import org.apache.solr.update.processor.UpdateRequestProcessorFactory;
+import org.apache.solr.util.plugin.SolrCoreAware;
 
 /**
  * Vectorises a textual field value and add the resulting vector to another field.
@@ -42,20 +52,32 @@ import org.apache.solr.update.processor.UpdateRequestProcessorFactory;
  *   &lt;str name=&quot;inputField&quot;&gt;textualField&lt;/str&gt;
  *   &lt;str name=&quot;outputField&quot;&gt;vectorField&lt;/str&gt;
  *   &lt;str name=&quot;model&quot;&gt;textToVectorModel&lt;/str&gt;
+ *   &lt;int name=&quot;batchSize&quot;&gt;32&lt;/int&gt;
+ *   &lt;long name=&quot;batchTimeout&quot;&gt;1000&lt;/long&gt;
  * &lt;/processor&gt;
  * </pre>
  *
- * *
+ * <p>By default each document is vectorised on its own. With a {@code batchSize} greater than 1,
+ * the texts of that many documents are vectorised in a single call to the model, while the next
+ * documents are read. A batch is also vectorised when its first document has waited for {@code
+ * batchTimeout} milliseconds, checked when the next document is added.
  */
-public class TextToVectorUpdateProcessorFactory extends UpdateRequestProcessorFactory {
+public class TextToVectorUpdateProcessorFactory extends UpdateRequestProcessorFactory
+    implements SolrCoreAware {
   private static final String INPUT_FIELD_PARAM = "inputField";
   private static final String OUTPUT_FIELD_PARAM = "outputField";
   private static final String MODEL_NAME = "model";
+  private static final String BATCH_SIZE_PARAM = "batchSize";
+  private static final String BATCH_TIMEOUT_PARAM = "batchTimeout";
 
   private String inputField;
   private String outputField;
   private String modelName;
+  private int batchSize;
+  private long batchTimeout;
   private SolrParams params;
+  private ExecutorService executor;
+  private TextToVectorMetrics metrics;
 
   @Override
   public void init(final NamedList<?> args) {
@@ -64,6 +86,32 @@ public class TextToVectorUpdateProcessorFactory extends UpdateRequestProcessorFa
     inputField = required.get(INPUT_FIELD_PARAM);
     outputField = required.get(OUTPUT_FIELD_PARAM);
     modelName = required.get(MODEL_NAME);
+    batchSize = params.getInt(BATCH_SIZE_PARAM, 1);
+    batchTimeout = params.getLong(BATCH_TIMEOUT_PARAM, 0L);
+  }
+
+  @Override
+  public void inform(SolrCore core) {
+    final SolrMetricsContext solrMetricsContext = core.getSolrMetricsContext();
+    if (solrMetricsContext != null) {
+      metrics =
+          new TextToVectorMetrics(
+              solrMetricsContext,
+              Attributes.builder()
+                  .putAll(core.getCoreAttributes())
+                  .put(CATEGORY_ATTR, SolrInfoBean.Category.UPDATE.toString())
+                  .build());
+    }
+    if (batchSize > 1) {
+      executor = ExecutorUtil.newMDCAwareCachedThreadPool("textToVectorBatch");
+      core.addCloseHook(
+          new CloseHook() {
+            @Override
+            public void preClose(SolrCore core) {
+              ExecutorUtil.shutdownAndAwaitTermination(executor);
+            }
+          });
+    }
   }
 
   @Override
@@ -91,7 +139,16 @@ public class TextToVectorUpdateProcessorFactory extends UpdateRequestProcessorFa
               + ManagedTextToVectorModelStore.REST_END_POINT);
     }
 
-    return new TextToVectorUpdateProcessor(inputField, outputField, textToVector, req, next);
+    return new TextToVectorUpdateProcessor(
+        inputField,
+        outputField,
+        textToVector,
+        batchSize,
+        batchTimeout,
+        executor,
+        metrics,
+        req,
+        next);
   }
 
   protected void assertIsDenseVectorField(SchemaField schemaField) {
@@ -115,4 +172,12 @@ public class TextToVectorUpdateProcessorFactory extends UpdateRequestProcessorFa
   public String getModelName() {
     return modelName;
   }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public long getBatchTimeout() {
+    return batchTimeout;
+  }
 }
@@ -22,8 +22,15 @@ import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class DummyEmbeddingModel implements EmbeddingModel {
+  /** Number of single texts embedded by all the instances. */
+  public static final AtomicInteger EMBED_CALLS = new AtomicInteger();
+
+  /** Number of batches of texts embedded by all the instances. */
+  public static final AtomicInteger EMBED_ALL_CALLS = new AtomicInteger();
+
   final float[] embedding;
 
   public DummyEmbeddingModel(float[] embedding) {
@@ -32,19 +39,26 @@ public class DummyEmbeddingModel implements EmbeddingModel {
 
   @Override
   public Response<Embedding> embed(String text) {
+    EMBED_CALLS.incrementAndGet();
     Embedding dummy = new Embedding(embedding);
     return new Response<Embedding>(dummy);
   }
 
   @Override
   public Response<Embedding> embed(TextSegment textSegment) {
+    EMBED_CALLS.incrementAndGet();
     Embedding dummy = new Embedding(embedding);
     return new Response<Embedding>(dummy);
   }
 
   @Override
   public Response<List<Embedding>> embedAll(List<TextSegment> textSegments) {
-    return null;
+    EMBED_ALL_CALLS.incrementAndGet();
+    List<Embedding> embeddings = new ArrayList<>(textSegments.size());
+    for (int i = 0; i < textSegments.size(); i++) {
+      embeddings.add(new Embedding(embedding));
+    }
+    return new Response<List<Embedding>>(embeddings);
   }
 
   @Override
@@ -20,6 +20,7 @@ import java.util.Arrays;
 import java.util.Locale;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.llm.TestLlmBase;
+import org.apache.solr.llm.textvectorisation.model.DummyEmbeddingModel;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -159,6 +160,24 @@ public class TextToVectorQParserTest extends TestLlmBase {
         "/response/docs/[4]/id=='3'");
   }
 
+  @Test
+  public void repeatedQueryText_shouldBeEmbeddedOnce() throws Exception {
+    final String solrQuery =
+        "{!knn_text_to_vector model=dummy-1 f=vector topK=5}a query text to embed once";
+    final SolrQuery query = new SolrQuery();
+    query.setQuery(solrQuery);
+    query.add("fl", "id");
+
+    final int embedCalls = DummyEmbeddingModel.EMBED_CALLS.get();
+    for (int i = 0; i < 3; i++) {
+      assertJQ(
+          "/query" + query.toQueryString(),
+          "/response/numFound==5]",
+          "/response/docs/[0]/id=='1'");
+    }
+    assertEquals(embedCalls + 1, DummyEmbeddingModel.EMBED_CALLS.get());
+  }
+
   @Test
   public void vectorFieldParam_shouldSearchOnThatField() throws Exception {
     final String solrQuery = "{!knn_text_to_vector model=dummy-1 f=vector2 topK=5}hello world";
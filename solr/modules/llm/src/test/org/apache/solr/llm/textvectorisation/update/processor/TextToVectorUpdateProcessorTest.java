@@ -23,6 +23,7 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.llm.TestLlmBase;
+import org.apache.solr.llm.textvectorisation.model.DummyEmbeddingModel;
 import org.apache.solr.llm.textvectorisation.store.rest.ManagedTextToVectorModelStore;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -162,6 +163,46 @@ public class TextToVectorUpdateProcessorTest extends TestLlmBase {
         ManagedTextToVectorModelStore.REST_END_POINT + "/exception-throwing-model"); // clean up
   }
 
+  @Test
+  public void processAdd_batchSize_shouldVectoriseBatchesOfDocuments() throws Exception {
+    loadModel("dummy-model.json"); // preparation
+    final int embedAllCalls = DummyEmbeddingModel.EMBED_ALL_CALLS.get();
+
+    try {
+      UpdateRequest req = new UpdateRequest();
+      req.add(sdoc("id", "99", "_text_", "Vegeta is the saiyan prince."));
+      req.add(sdoc("id", "98", "_text_", "Kakaroth is a saiyan grown up on planet Earth."));
+      req.add(sdoc("id", "97", "_text_", "Gohan is the son of Kakaroth."));
+      req.add(sdoc("id", "96", "_text_", "Trunks is the son of Vegeta."));
+      req.add(sdoc("id", "95", "_text_", "Piccolo is a namekian."));
+      req.add(sdoc("id", "94"));
+      req.setParam("update.chain", "batchedTextToVector");
+      solrClientTestRule.getSolrClient("collection1").request(req);
+      assertU(commit());
+
+      // batches of 2 documents, the last one with a single text
+      assertEquals(embedAllCalls + 3, DummyEmbeddingModel.EMBED_ALL_CALLS.get());
+
+      final SolrQuery query = getSolrQuery();
+      query.add("sort", "id desc");
+
+      assertJQ(
+          "/query" + query.toQueryString(),
+          "/response/numFound==6]",
+          "/response/docs/[0]/id=='99'",
+          "/response/docs/[0]/vector==[1.0, 2.0, 3.0, 4.0]",
+          "/response/docs/[2]/id=='97'",
+          "/response/docs/[2]/vector==[1.0, 2.0, 3.0, 4.0]",
+          "/response/docs/[4]/id=='95'",
+          "/response/docs/[4]/vector==[1.0, 2.0, 3.0, 4.0]",
+          "/response/docs/[5]/id=='94'",
+          "!/response/docs/[5]/vector==");
+    } finally {
+      assertU(delQ("*:*"));
+      assertU(commit());
+    }
+  }
+
   void addWithChain(SolrInputDocument document, String updateChain)
       throws SolrServerException, IOException {
     UpdateRequest req = new UpdateRequest();
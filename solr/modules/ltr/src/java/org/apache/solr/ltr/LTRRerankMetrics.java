@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.ltr;
+
+import static org.apache.solr.metrics.SolrMetricProducer.TYPE_ATTR;
+
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongHistogram;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.metrics.SolrMetricsContext;
+import org.apache.solr.metrics.otel.OtelUnit;
+import org.apache.solr.metrics.otel.instruments.AttributedLongHistogram;
+
+/**
+ * Records how long the reranking of a request spent extracting features and evaluating the model.
+ * When the reranked documents are scored on several threads, the times of all the threads are
+ * added up.
+ */
+public class LTRRerankMetrics {
+
+  private final AttributedLongHistogram featureExtraction;
+  private final AttributedLongHistogram modelEvaluation;
+
+  public LTRRerankMetrics(SolrMetricsContext solrMetricsContext, Attributes attributes) {
+    final LongHistogram rerankTimes =
+        solrMetricsContext.longHistogram(
+            "solr_ltr_rerank_times",
+            "Time spent per request reranking documents with a model",
+            OtelUnit.MICROSECONDS);
+    this.featureExtraction =
+        new AttributedLongHistogram(
+            rerankTimes, attributes.toBuilder().put(TYPE_ATTR, "feature_extraction").build());
+    this.modelEvaluation =
+        new AttributedLongHistogram(
+            rerankTimes, attributes.toBuilder().put(TYPE_ATTR, "model_evaluation").build());
+  }
+
+  public void record(LTRScoringQuery.ModelWeight modelWeight) {
+    featureExtraction.record(
+        TimeUnit.NANOSECONDS.toMicros(modelWeight.getFeatureExtractionNanos()));
+    modelEvaluation.record(TimeUnit.NANOSECONDS.toMicros(modelWeight.getModelEvaluationNanos()));
+  }
+}
@@ -17,9 +17,11 @@
 package org.apache.solr.ltr;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Callable;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.ReaderUtil;
 import org.apache.lucene.search.Explanation;
@@ -138,6 +140,9 @@ public class LTRRescorer extends Rescorer {
             searcher.createWeight(searcher.rewrite(scoringQuery), ScoreMode.COMPLETE, 1);
 
     scoreFeatures(docsToRerank, modelWeight, firstPassResults, leaves, reranked);
+    if (scoringQuery.getRerankMetrics() != null) {
+      scoringQuery.getRerankMetrics().record(modelWeight);
+    }
     // Must sort all documents that we reranked, and then select the top
     Arrays.sort(reranked, scoreComparator);
     return reranked;
@@ -151,6 +156,15 @@ public class LTRRescorer extends Rescorer {
     return hits;
   }
 
+  // slices smaller than this are not worth handing over to another thread
+  private static final int MIN_PARALLEL_SLICE_SIZE = 16;
+
+  /**
+   * Scores the hits, which must be sorted by doc id, one slice at a time: the hits of a slice are
+   * all in the same segment and are scored as a batch with {@link
+   * LTRScoringQuery.ModelWeight#scoreBatch}. When the scoring query may use several threads, large
+   * segments are split into several slices and the slices are scored concurrently.
+   */
   public void scoreFeatures(
       int docsToRerank,
       LTRScoringQuery.ModelWeight modelWeight,
@@ -158,29 +172,73 @@ public class LTRRescorer extends Rescorer {
       List<LeafReaderContext> leaves,
       ScoreDoc[] reranked)
       throws IOException {
+    final LTRScoringQuery scoringQuery = (LTRScoringQuery) modelWeight.getQuery();
+    final int numThreads = scoringQuery.getNumThreadsPerRequest();
+    final int maxSliceSize =
+        numThreads > 1
+            ? Math.max(MIN_PARALLEL_SLICE_SIZE, (hits.length + numThreads - 1) / numThreads)
+            : Integer.MAX_VALUE;
+    final List<int[]> slices = sliceHits(hits, leaves, maxSliceSize);
+
+    if (numThreads == 1 || slices.size() == 1) {
+      for (final int[] slice : slices) {
+        final float[] scores =
+            modelWeight.scoreBatch(leaves.get(slice[0]), hits, slice[1], slice[2]);
+        checkQueryLimits();
+        addRerankedHits(docsToRerank, hits, slice[1], slice[2], scores, reranked);
+      }
+      return;
+    }
 
+    final List<Callable<float[]>> tasks = new ArrayList<>(slices.size());
+    for (final int[] slice : slices) {
+      final LeafReaderContext context = leaves.get(slice[0]);
+      tasks.add(() -> modelWeight.scoreBatch(context, hits, slice[1], slice[2]));
+    }
+    final List<float[]> scores = scoringQuery.invokeAll(tasks);
+    checkQueryLimits();
+    for (int i = 0; i < slices.size(); i++) {
+      final int[] slice = slices.get(i);
+      addRerankedHits(docsToRerank, hits, slice[1], slice[2], scores.get(i), reranked);
+    }
+  }
+
+  /**
+   * Splits the hits, which must be sorted by doc id, into slices of at most {@code maxSliceSize}
+   * hits of the same segment.
+   *
+   * @return the leaf index, first hit and end hit (exclusive) of each slice
+   */
+  private static List<int[]> sliceHits(
+      ScoreDoc[] hits, List<LeafReaderContext> leaves, int maxSliceSize) {
+    final List<int[]> slices = new ArrayList<>();
     int readerUpto = -1;
     int endDoc = 0;
-    int docBase = 0;
-
-    LTRScoringQuery.ModelWeight.ModelScorer scorer = null;
     int hitPosition = 0;
-
     while (hitPosition < hits.length) {
-      final ScoreDoc hit = hits[hitPosition];
-      LeafReaderContext readerContext = null;
-      while (hit.doc >= endDoc) {
+      while (hits[hitPosition].doc >= endDoc) {
         readerUpto++;
-        readerContext = leaves.get(readerUpto);
+        final LeafReaderContext readerContext = leaves.get(readerUpto);
         endDoc = readerContext.docBase + readerContext.reader().maxDoc();
       }
-      // We advanced to another segment
-      if (readerContext != null) {
-        docBase = readerContext.docBase;
-        scorer = modelWeight.modelScorer(readerContext);
+      int sliceEnd = hitPosition + 1;
+      while (sliceEnd < hits.length
+          && sliceEnd - hitPosition < maxSliceSize
+          && hits[sliceEnd].doc < endDoc) {
+        sliceEnd++;
       }
-      scoreSingleHit(docsToRerank, docBase, hitPosition, hit, scorer, reranked);
-      hitPosition++;
+      slices.add(new int[] {readerUpto, hitPosition, sliceEnd});
+      hitPosition = sliceEnd;
+    }
+    return slices;
+  }
+
+  private static void addRerankedHits(
+      int docsToRerank, ScoreDoc[] hits, int from, int to, float[] scores, ScoreDoc[] reranked) {
+    for (int hitPosition = from; hitPosition < to; hitPosition++) {
+      final ScoreDoc hit = hits[hitPosition];
+      hit.score = scores[hitPosition - from];
+      addRerankedHit(docsToRerank, hitPosition, hit, reranked);
     }
   }
 
@@ -208,6 +266,11 @@ public class LTRRescorer extends Rescorer {
     scorer.getDocInfo().setOriginalDocScore(hit.score);
     scorer.getDocInfo().setOriginalDocId(hit.doc);
     hit.score = scorer.score();
+    checkQueryLimits();
+    addRerankedHit(docsToRerank, hitPosition, hit, reranked);
+  }
+
+  private static void checkQueryLimits() {
     if (QueryLimits.getCurrentLimits()
         .maybeExitWithPartialResults(
             "Learning To Rank rescoring -"
@@ -215,6 +278,11 @@ public class LTRRescorer extends Rescorer {
                 + " If partial results are tolerated the reranking got reverted and all documents preserved their original score and ranking.")) {
       throw new IncompleteRerankingException();
     }
+  }
+
+  /** Adds a rescored hit to the top {@code docsToRerank} hits kept in {@code reranked}. */
+  protected static void addRerankedHit(
+      int docsToRerank, int hitPosition, ScoreDoc hit, ScoreDoc[] reranked) {
     if (hitPosition < docsToRerank) {
       reranked[hitPosition] = hit;
     } else if (hitPosition == docsToRerank) {
@@ -25,16 +25,20 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
 import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.search.DocIdSetIterator;
 import org.apache.lucene.search.Explanation;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.Scorer;
 import org.apache.lucene.search.ScorerSupplier;
@@ -42,6 +46,7 @@ import org.apache.lucene.search.Weight;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.RamUsageEstimator;
 import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.feature.extraction.BatchFeatureExtractor;
 import org.apache.solr.ltr.model.LTRScoringModel;
 import org.apache.solr.ltr.scoring.FeatureTraversalScorer;
 import org.apache.solr.ltr.scoring.MultiFeaturesScorer;
@@ -76,6 +81,8 @@ public class LTRScoringQuery extends Query implements Accountable {
   private Query originalQuery;
   // Original solr request
   private SolrQueryRequest request;
+  // records the time spent reranking, may be null
+  private LTRRerankMetrics rerankMetrics;
 
   private Feature.FeatureWeight[] extractedFeatureWeights;
 
@@ -141,6 +148,22 @@ public class LTRScoringQuery extends Query implements Accountable {
     return extractedFeatureWeights;
   }
 
+  public void setRerankMetrics(LTRRerankMetrics rerankMetrics) {
+    this.rerankMetrics = rerankMetrics;
+  }
+
+  public LTRRerankMetrics getRerankMetrics() {
+    return rerankMetrics;
+  }
+
+  /**
+   * Returns the number of threads this query may use at the same time, 1 if it has no {@link
+   * LTRThreadModule}.
+   */
+  public int getNumThreadsPerRequest() {
+    return querySemaphore == null ? 1 : ltrThreadMgr.getNumThreadsPerRequest();
+  }
+
   @Override
   public int hashCode() {
     final int prime = 31;
@@ -325,6 +348,97 @@ public class LTRScoringQuery extends Query implements Accountable {
     }
   }
 
+  /**
+   * Runs the tasks on the threads of the {@link LTRThreadModule}, with no more than {@link
+   * #getNumThreadsPerRequest()} of them running at the same time, and returns their results in the
+   * order of the tasks. Without a thread module the tasks are run by the calling thread.
+   */
+  public <T> List<T> invokeAll(List<Callable<T>> tasks) throws IOException {
+    final List<T> results = new ArrayList<>(tasks.size());
+    if (querySemaphore == null || tasks.size() == 1) {
+      for (final Callable<T> task : tasks) {
+        try {
+          results.add(task.call());
+        } catch (IOException | RuntimeException e) {
+          throw e;
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+      return results;
+    }
+    final List<RunnableFuture<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      for (final Callable<T> task : tasks) {
+        // The permits are released once the task body returned, so that a running task that is
+        // cancelled keeps them until it stops. A task cancelled before it ran never runs its body,
+        // its permits are released by done() instead: whichever claims the task first releases.
+        final AtomicBoolean claimed = new AtomicBoolean();
+        final RunnableFuture<T> runnableFuture =
+            new FutureTask<>(
+                () -> {
+                  if (!claimed.compareAndSet(false, true)) {
+                    return null; // cancelled, and its permits released already
+                  }
+                  try {
+                    return task.call();
+                  } finally {
+                    querySemaphore.release();
+                    ltrThreadMgr.releaseLTRSemaphore();
+                  }
+                }) {
+              @Override
+              protected void done() {
+                if (claimed.compareAndSet(false, true)) {
+                  querySemaphore.release();
+                  ltrThreadMgr.releaseLTRSemaphore();
+                }
+              }
+            };
+        // same order as in createWeightsParallel: the per query limit comes first
+        querySemaphore.acquire();
+        try {
+          ltrThreadMgr.acquireLTRSemaphore(); // may block and/or interrupt
+        } catch (InterruptedException e) {
+          querySemaphore.release();
+          throw e;
+        }
+        try {
+          ltrThreadMgr.execute(runnableFuture); // releases semaphores when done
+        } catch (RuntimeException e) {
+          runnableFuture.cancel(false);
+          throw e;
+        }
+        futures.add(runnableFuture);
+      }
+      for (final Future<T> future : futures) {
+        results.add(future.get()); // future.get() will block if the job is still running
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      for (final Future<T> future : futures) {
+        future.cancel(true);
+      }
+      throw new RuntimeException("Interrupted while scoring in LTR", e);
+    } catch (ExecutionException e) {
+      for (final Future<T> future : futures) {
+        future.cancel(true);
+      }
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException("Error while scoring in LTR: " + e.getMessage(), e);
+    }
+  }
+
+  // For test use only.
+  Semaphore getQuerySemaphore() {
+    return querySemaphore;
+  }
+
   @Override
   public String toString(String field) {
     return field;
@@ -381,6 +495,10 @@ public class LTRScoringQuery extends Query implements Accountable {
     // Array of all the features in the feature store of reference
     private final FeatureInfo[] allFeaturesInStore;
 
+    // time spent by scoreBatch, summed over the threads that called it
+    private final LongAdder featureExtractionNanos = new LongAdder();
+    private final LongAdder modelEvaluationNanos = new LongAdder();
+
     /*
      * @param modelFeatureWeights
      *     - should be the same size as the number of features used by the model
@@ -412,6 +530,16 @@ public class LTRScoringQuery extends Query implements Accountable {
       return allFeaturesInStore;
     }
 
+    /** Returns the time {@link #scoreBatch} spent extracting features, in nanoseconds. */
+    public long getFeatureExtractionNanos() {
+      return featureExtractionNanos.sum();
+    }
+
+    /** Returns the time {@link #scoreBatch} spent evaluating the model, in nanoseconds. */
+    public long getModelEvaluationNanos() {
+      return modelEvaluationNanos.sum();
+    }
+
     // for test use
     Feature.FeatureWeight[] getModelFeatureWeights() {
       return modelFeatureWeights;
@@ -465,6 +593,18 @@ public class LTRScoringQuery extends Query implements Accountable {
 
     public ModelScorer modelScorer(LeafReaderContext context) throws IOException {
 
+      final List<Feature.FeatureWeight.FeatureScorer> featureScorers = featureScorers(context);
+      // Always return a ModelScorer, even if no features match, because we
+      // always need to call
+      // score on the model for every document, since 0 features matching could
+      // return a
+      // non 0 score for a given model.
+      ModelScorer mscorer = new ModelScorer(featureScorers);
+      return mscorer;
+    }
+
+    private List<Feature.FeatureWeight.FeatureScorer> featureScorers(LeafReaderContext context)
+        throws IOException {
       final List<Feature.FeatureWeight.FeatureScorer> featureScorers =
           new ArrayList<Feature.FeatureWeight.FeatureScorer>(extractedFeatureWeights.length);
       for (final Feature.FeatureWeight featureWeight : extractedFeatureWeights) {
@@ -473,13 +613,50 @@ public class LTRScoringQuery extends Query implements Accountable {
           featureScorers.add(scorer);
         }
       }
-      // Always return a ModelScorer, even if no features match, because we
-      // always need to call
-      // score on the model for every document, since 0 features matching could
-      // return a
-      // non 0 score for a given model.
-      ModelScorer mscorer = new ModelScorer(featureScorers);
-      return mscorer;
+      return featureScorers;
+    }
+
+    /**
+     * Scores {@code hits[from]} to {@code hits[to - 1]}, which must all be in the segment of {@code
+     * context} and sorted by doc id. The features of all the hits are extracted first, one feature
+     * at a time, and the model then scores them with {@link LTRScoringModel#scoreBatch}. The
+     * original score of each hit is read from {@link ScoreDoc#score}.
+     *
+     * <p>This method can be called concurrently for distinct ranges of hits.
+     *
+     * @return the new score of each hit
+     */
+    public float[] scoreBatch(LeafReaderContext context, ScoreDoc[] hits, int from, int to)
+        throws IOException {
+      final long startNanos = System.nanoTime();
+      final List<Feature.FeatureWeight.FeatureScorer> featureScorers = featureScorers(context);
+      final DocInfo docInfo = new DocInfo();
+      for (final Feature.FeatureWeight.FeatureScorer scorer : featureScorers) {
+        scorer.setDocInfo(docInfo);
+      }
+      final BatchFeatureExtractor extractor =
+          new BatchFeatureExtractor(
+              request, extractedFeatureWeights, allFeaturesInStore.length, ltrScoringModel, efi);
+      final float[][] featureVectors =
+          extractor.extractFeatureVectors(featureScorers, docInfo, context.docBase, hits, from, to);
+
+      final int numDocs = to - from;
+      final float[][] modelFeatureValues = new float[numDocs][modelFeatureWeights.length];
+      for (int i = 0; i < numDocs; i++) {
+        // same as normalizeFeatures(), missing values fall back to the feature default
+        for (int pos = 0; pos < modelFeatureWeights.length; pos++) {
+          final Feature.FeatureWeight feature = modelFeatureWeights[pos];
+          final float value = featureVectors[i][feature.getIndex()];
+          modelFeatureValues[i][pos] = Float.isNaN(value) ? feature.getDefaultValue() : value;
+        }
+        ltrScoringModel.normalizeFeaturesInPlace(modelFeatureValues[i]);
+      }
+      final long extractedNanos = System.nanoTime();
+      featureExtractionNanos.add(extractedNanos - startNanos);
+      final float[] scores = new float[numDocs];
+      ltrScoringModel.scoreBatch(modelFeatureValues, numDocs, scores);
+      modelEvaluationNanos.add(System.nanoTime() - extractedNanos);
+      return scores;
     }
 
     @Override
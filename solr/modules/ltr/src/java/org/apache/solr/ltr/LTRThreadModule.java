@@ -27,7 +27,9 @@ import org.apache.solr.util.plugin.NamedListInitializedPlugin;
  * The LTRThreadModule is optionally used by the {@link org.apache.solr.ltr.search.LTRQParserPlugin}
  * and {@link org.apache.solr.ltr.response.transform.LTRFeatureLoggerTransformerFactory
  * LTRFeatureLoggerTransformerFactory} classes to parallelize the creation of {@link
- * org.apache.solr.ltr.feature.Feature.FeatureWeight Feature.FeatureWeight} objects.
+ * org.apache.solr.ltr.feature.Feature.FeatureWeight Feature.FeatureWeight} objects, and by the
+ * {@link LTRRescorer} to extract the features of, and score, the reranked documents on several
+ * threads. The reranked documents are split into slices that never span segments.
  *
  * <p>Example configuration:
  *
@@ -50,6 +52,9 @@ import org.apache.solr.util.plugin.NamedListInitializedPlugin;
  * <p>If multiple queries need to be serviced simultaneously then <code>totalPoolThreads</code> and
  * <code>numThreadsPerRequest</code> can be adjusted based on the expected response times.
  *
+ * <p><code>numThreadsPerRequest</code> is the thread budget of a single request: the weight
+ * creation and the reranking of a request never use more threads at the same time.
+ *
  * <p>If the value of <code>numThreadsPerRequest</code> is higher, the response time for a single
  * query will be improved up to a point. If multiple queries are serviced simultaneously, the value
  * of <code>totalPoolThreads</code> imposes a contention between the queries if <code>
@@ -146,6 +151,10 @@ public final class LTRThreadModule implements NamedListInitializedPlugin {
     this.numThreadsPerRequest = numThreadsPerRequest;
   }
 
+  public int getNumThreadsPerRequest() {
+    return numThreadsPerRequest;
+  }
+
   public Semaphore createQuerySemaphore() {
     return (numThreadsPerRequest > 1 ? new Semaphore(numThreadsPerRequest) : null);
   }
@@ -154,10 +163,15 @@ public final class LTRThreadModule implements NamedListInitializedPlugin {
     ltrSemaphore.acquire();
   }
 
-  public void releaseLTRSemaphore() throws InterruptedException {
+  public void releaseLTRSemaphore() {
     ltrSemaphore.release();
   }
 
+  // For test use only.
+  int availableLTRPermits() {
+    return ltrSemaphore.availablePermits();
+  }
+
   public void execute(Runnable command) {
     createWeightScoreExecutor.execute(command);
   }
@@ -16,6 +16,7 @@
  */
 package org.apache.solr.ltr;
 
+import org.apache.solr.ltr.feature.extraction.RequestFeatureVectorCache;
 import org.apache.solr.request.SolrQueryRequest;
 
 public class SolrQueryRequestContextUtils {
@@ -35,6 +36,9 @@ public class SolrQueryRequestContextUtils {
   /** key of the feature vector store name in the request context */
   private static final String STORE = LTR_PREFIX + "store";
 
+  /** key of the feature vectors extracted for the request in the request context */
+  private static final String FEATURE_VECTORS = LTR_PREFIX + "feature_vectors";
+
   /** feature logger accessors */
   public static void setFeatureLogger(SolrQueryRequest req, FeatureLogger featureLogger) {
     req.getContext().put(FEATURE_LOGGER, featureLogger);
@@ -70,4 +74,13 @@ public class SolrQueryRequestContextUtils {
   public static String getFvStoreName(SolrQueryRequest req) {
     return (String) req.getContext().get(STORE);
   }
+
+  /** request feature vector cache accessors */
+  public static void enableRequestFeatureVectorCache(SolrQueryRequest req) {
+    req.getContext().putIfAbsent(FEATURE_VECTORS, new RequestFeatureVectorCache());
+  }
+
+  public static RequestFeatureVectorCache getRequestFeatureVectorCache(SolrQueryRequest req) {
+    return (RequestFeatureVectorCache) req.getContext().get(FEATURE_VECTORS);
+  }
 }
@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.ltr.feature.extraction;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.solr.ltr.DocInfo;
+import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.model.LTRScoringModel;
+import org.apache.solr.request.SolrQueryRequest;
+import org.apache.solr.search.SolrCache;
+
+/**
+ * The class used to extract the features of a batch of documents of one segment. Each feature
+ * scorer is advanced over all the documents of the batch before the next one is used, instead of
+ * advancing all feature scorers together one document at a time.
+ *
+ * <p>The feature vectors are the same as the ones extracted by {@link FeatureExtractor}, and are
+ * looked up in and added to the feature vector cache, or the {@link RequestFeatureVectorCache},
+ * in the same way.
+ */
+public class BatchFeatureExtractor {
+  private final SolrQueryRequest request;
+  private final Feature.FeatureWeight[] extractedFeatureWeights;
+  private final int numFeaturesInStore;
+  private final LTRScoringModel ltrScoringModel;
+  private final Map<String, String[]> efi;
+
+  public BatchFeatureExtractor(
+      SolrQueryRequest request,
+      Feature.FeatureWeight[] extractedFeatureWeights,
+      int numFeaturesInStore,
+      LTRScoringModel ltrScoringModel,
+      Map<String, String[]> efi) {
+    this.request = request;
+    this.extractedFeatureWeights = extractedFeatureWeights;
+    this.numFeaturesInStore = numFeaturesInStore;
+    this.ltrScoringModel = ltrScoringModel;
+    this.efi = efi;
+  }
+
+  /**
+   * Extracts the feature vectors of {@code hits[from]} to {@code hits[to - 1]}, indexed by feature
+   * id.
+   *
+   * @param featureScorers the feature scorers of the segment, positioned before the first hit
+   * @param docInfo the {@link DocInfo} shared by the feature scorers
+   * @param docBase the doc base of the segment
+   * @param hits the hits, which must all be in the segment and sorted by doc id
+   */
+  public float[][] extractFeatureVectors(
+      List<Feature.FeatureWeight.FeatureScorer> featureScorers,
+      DocInfo docInfo,
+      int docBase,
+      ScoreDoc[] hits,
+      int from,
+      int to)
+      throws IOException {
+    final int numDocs = to - from;
+    final float[][] featureVectors = new float[numDocs][];
+    final int[] toExtract = new int[numDocs];
+    int numToExtract = 0;
+
+    SolrCache<Integer, float[]> featureVectorCache = null;
+    RequestFeatureVectorCache.FeatureVectors requestFeatureVectors = null;
+    int[] cacheKeys = null;
+    if (request != null) {
+      featureVectorCache = request.getSearcher().getFeatureVectorCache();
+      if (featureVectorCache == null) {
+        requestFeatureVectors =
+            FeatureExtractor.getRequestFeatureVectors(
+                request, ltrScoringModel.getFeatureStoreName(), efi);
+      }
+    }
+    if (featureVectorCache != null) {
+      cacheKeys = new int[numDocs];
+      for (int i = 0; i < numDocs; i++) {
+        cacheKeys[i] =
+            FeatureExtractor.computeFeatureVectorCacheKey(
+                hits[from + i].doc, ltrScoringModel, null, efi);
+        featureVectors[i] = featureVectorCache.get(cacheKeys[i]);
+      }
+    } else if (requestFeatureVectors != null) {
+      for (int i = 0; i < numDocs; i++) {
+        featureVectors[i] = requestFeatureVectors.get(hits[from + i].doc, extractedFeatureWeights);
+      }
+    }
+    for (int i = 0; i < numDocs; i++) {
+      if (featureVectors[i] == null) {
+        featureVectors[i] = defaultFeatureVector();
+        toExtract[numToExtract++] = i;
+      }
+    }
+
+    for (final Feature.FeatureWeight.FeatureScorer scorer : featureScorers) {
+      final int featureId = scorer.getWeight().getIndex();
+      final DocIdSetIterator iterator = scorer.iterator();
+      for (int j = 0; j < numToExtract; j++) {
+        final ScoreDoc hit = hits[from + toExtract[j]];
+        final int targetDoc = hit.doc - docBase;
+        int doc = iterator.docID();
+        if (doc < targetDoc) {
+          doc = iterator.advance(targetDoc);
+        }
+        if (doc == DocIdSetIterator.NO_MORE_DOCS) {
+          break;
+        }
+        if (doc == targetDoc) {
+          docInfo.setOriginalDocScore(hit.score);
+          docInfo.setOriginalDocId(hit.doc);
+          featureVectors[toExtract[j]][featureId] = scorer.score();
+        }
+      }
+    }
+
+    for (int j = 0; j < numToExtract; j++) {
+      final int i = toExtract[j];
+      if (featureVectorCache != null) {
+        featureVectorCache.put(cacheKeys[i], featureVectors[i]);
+      } else if (requestFeatureVectors != null) {
+        requestFeatureVectors.put(hits[from + i].doc, extractedFeatureWeights, featureVectors[i]);
+      }
+    }
+    return featureVectors;
+  }
+
+  private float[] defaultFeatureVector() {
+    final float[] featureVector = new float[numFeaturesInStore];
+    for (final Feature.FeatureWeight featureWeight : extractedFeatureWeights) {
+      featureVector[featureWeight.getIndex()] = featureWeight.getDefaultValue();
+    }
+    return featureVector;
+  }
+}
@@ -23,6 +23,7 @@ import java.util.Objects;
 import java.util.TreeMap;
 import org.apache.solr.ltr.FeatureLogger;
 import org.apache.solr.ltr.LTRScoringQuery;
+import org.apache.solr.ltr.SolrQueryRequestContextUtils;
 import org.apache.solr.ltr.feature.Feature;
 import org.apache.solr.ltr.model.LTRScoringModel;
 import org.apache.solr.ltr.response.transform.LTRFeatureLoggerTransformerFactory;
@@ -39,6 +40,7 @@ public abstract class FeatureExtractor {
   LTRScoringModel ltrScoringModel;
   FeatureLogger logger;
   Map<String, String[]> efi;
+  private RequestFeatureVectorCache.FeatureVectors requestFeatureVectors;
 
   FeatureExtractor(
       FeatureTraversalScorer traversalScorer,
@@ -83,6 +85,13 @@ public abstract class FeatureExtractor {
           featureVector = extractFeatureVector();
           featureVectorCache.put(fvCacheKey, featureVector);
         }
+      } else if (getRequestFeatureVectors() != null) {
+        int docId = traversalScorer.getDocInfo().getOriginalDocId();
+        featureVector = requestFeatureVectors.get(docId, extractedFeatureWeights);
+        if (featureVector == null) {
+          featureVector = extractFeatureVector();
+          requestFeatureVectors.put(docId, extractedFeatureWeights, featureVector);
+        }
       } else {
         featureVector = extractFeatureVector();
       }
@@ -99,7 +108,34 @@ public abstract class FeatureExtractor {
     }
   }
 
+  private RequestFeatureVectorCache.FeatureVectors getRequestFeatureVectors() {
+    if (requestFeatureVectors == null) {
+      requestFeatureVectors =
+          getRequestFeatureVectors(request, ltrScoringModel.getFeatureStoreName(), efi);
+    }
+    return requestFeatureVectors;
+  }
+
+  /**
+   * Returns the feature vectors of the request for a feature store and efi, or null if the request
+   * does not keep feature vectors.
+   */
+  static RequestFeatureVectorCache.FeatureVectors getRequestFeatureVectors(
+      SolrQueryRequest request, String featureStoreName, Map<String, String[]> efi) {
+    if (request == null) {
+      return null;
+    }
+    final RequestFeatureVectorCache cache =
+        SolrQueryRequestContextUtils.getRequestFeatureVectorCache(request);
+    return cache == null ? null : cache.getFeatureVectors(featureStoreName, efi);
+  }
+
   private int computeFeatureVectorCacheKey(int docId) {
+    return computeFeatureVectorCacheKey(docId, ltrScoringModel, logger, efi);
+  }
+
+  static int computeFeatureVectorCacheKey(
+      int docId, LTRScoringModel ltrScoringModel, FeatureLogger logger, Map<String, String[]> efi) {
     int prime = 31;
     int result = docId;
     if (Objects.equals(
@@ -114,7 +150,7 @@ public abstract class FeatureExtractor {
     return result;
   }
 
-  private int addEfisHash(int result, int prime, Map<String, String[]> efi) {
+  private static int addEfisHash(int result, int prime, Map<String, String[]> efi) {
     if (efi != null) {
       TreeMap<String, String[]> sorted = new TreeMap<>(efi);
       for (final Map.Entry<String, String[]> entry : sorted.entrySet()) {
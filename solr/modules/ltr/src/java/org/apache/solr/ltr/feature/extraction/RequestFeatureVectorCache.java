@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.ltr.feature.extraction;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.lucene.util.FixedBitSet;
+import org.apache.solr.ltr.feature.Feature;
+
+/**
+ * The feature vectors extracted while handling a single request. It lets the features of a
+ * document be extracted once when they are needed more than once in the request, for example to
+ * rerank and then to log the features of a document, or to rerank it with both models of an
+ * interleaving request.
+ *
+ * <p>Vectors are kept per feature store, efi and document, together with the features that were
+ * extracted into them. A vector is only reused for features that were all extracted into it.
+ *
+ * <p>Unlike the searcher's {@code featureVectorCache}, this needs no configuration and does not
+ * outlive the request. It is only used when no {@code featureVectorCache} is configured.
+ */
+public class RequestFeatureVectorCache {
+
+  private final Map<List<Object>, FeatureVectors> featureVectors = new ConcurrentHashMap<>();
+
+  /** Returns the feature vectors extracted for a feature store with the given efi. */
+  public FeatureVectors getFeatureVectors(String featureStoreName, Map<String, String[]> efi) {
+    final Map<String, List<String>> efiKey = new TreeMap<>();
+    if (efi != null) {
+      for (final Map.Entry<String, String[]> entry : efi.entrySet()) {
+        efiKey.put(entry.getKey(), Arrays.asList(entry.getValue()));
+      }
+    }
+    return featureVectors.computeIfAbsent(
+        Arrays.asList(featureStoreName, efiKey), k -> new FeatureVectors());
+  }
+
+  /** The feature vectors of the documents for one feature store and efi. */
+  public static class FeatureVectors {
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the feature vector of a document if all the given features were extracted into it,
+     * null otherwise. The returned vector must not be modified.
+     */
+    public float[] get(int docId, Feature.FeatureWeight[] extractedFeatureWeights) {
+      final Entry entry = entries.get(docId);
+      if (entry == null) {
+        return null;
+      }
+      for (final Feature.FeatureWeight featureWeight : extractedFeatureWeights) {
+        if (!entry.extracted.get(featureWeight.getIndex())) {
+          return null;
+        }
+      }
+      return entry.featureVector;
+    }
+
+    /**
+     * Adds the feature vector of a document, holding the values of the given features. Values
+     * already known for other features of the document are kept.
+     */
+    public void put(
+        int docId, Feature.FeatureWeight[] extractedFeatureWeights, float[] featureVector) {
+      final FixedBitSet extracted = new FixedBitSet(featureVector.length);
+      for (final Feature.FeatureWeight featureWeight : extractedFeatureWeights) {
+        extracted.set(featureWeight.getIndex());
+      }
+      entries.merge(docId, new Entry(featureVector, extracted), Entry::merge);
+    }
+  }
+
+  private static class Entry {
+    final float[] featureVector;
+    final FixedBitSet extracted;
+
+    Entry(float[] featureVector, FixedBitSet extracted) {
+      this.featureVector = featureVector;
+      this.extracted = extracted;
+    }
+
+    /** Returns an entry with the values of both entries, preferring the ones of {@code newer}. */
+    static Entry merge(Entry older, Entry newer) {
+      final float[] featureVector = newer.featureVector.clone();
+      final FixedBitSet extracted = newer.extracted.clone();
+      for (int i = 0; i < featureVector.length; i++) {
+        if (older.extracted.get(i) && !extracted.get(i)) {
+          featureVector[i] = older.featureVector[i];
+          extracted.set(i);
+        }
+      }
+      return new Entry(featureVector, extracted);
+    }
+  }
+}
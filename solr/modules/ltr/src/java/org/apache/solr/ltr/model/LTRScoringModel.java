@@ -253,6 +253,21 @@ public abstract class LTRScoringModel implements Accountable {
    */
   public abstract float score(float[] modelFeatureValuesNormalized);
 
+  /**
+   * Scores a batch of documents. Models can override this to score all the documents in one tight
+   * loop, the default implementation calls {@link #score(float[])} for each document.
+   *
+   * @param modelFeatureValuesNormalized normalized feature values of each document, as they would
+   *     be passed to {@link #score(float[])}
+   * @param numDocs number of documents to score
+   * @param scores receives the final score of each document
+   */
+  public void scoreBatch(float[][] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    for (int i = 0; i < numDocs; i++) {
+      scores[i] = score(modelFeatureValuesNormalized[i]);
+    }
+  }
+
   /**
    * Similar to the score() function, except it returns an explanation of how the features were used
    * to calculate the score.
@@ -132,6 +132,23 @@ public class LinearModel extends LTRScoringModel {
     return score;
   }
 
+  @Override
+  public void scoreBatch(float[][] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    // unbox the weights once for the whole batch
+    final float[] weights = new float[featureToWeight.length];
+    for (int i = 0; i < weights.length; ++i) {
+      weights[i] = featureToWeight[i];
+    }
+    for (int doc = 0; doc < numDocs; ++doc) {
+      final float[] featureValues = modelFeatureValuesNormalized[doc];
+      float score = 0;
+      for (int i = 0; i < featureValues.length; ++i) {
+        score += featureValues[i] * weights[i];
+      }
+      scores[doc] = score;
+    }
+  }
+
   @Override
   public Explanation explain(
       LeafReaderContext context, int doc, float finalScore, List<Explanation> featureExplanations) {
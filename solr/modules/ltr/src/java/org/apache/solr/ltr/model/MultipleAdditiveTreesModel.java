@@ -18,6 +18,7 @@ package org.apache.solr.ltr.model;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
@@ -98,6 +99,10 @@ import org.apache.solr.util.SolrPluginUtils;
  *       its Application to Learning Ranking Functions for Web Search. Advances in Neural
  *       Information Processing Systems (NIPS), 2007.</a>
  * </ul>
+ *
+ * <p>When the model is loaded its trees are compiled into flat arrays, which are scored instead of
+ * walking the tree nodes. The optional {@code compiled} parameter can be set to {@code false} to
+ * score by walking the trees.
  */
 public class MultipleAdditiveTreesModel extends LTRScoringModel {
 
@@ -116,6 +121,11 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
 
   private boolean isNullSameAsZero = true;
 
+  private boolean compiled = true;
+
+  /** The trees flattened into arrays by {@link #validate()}, or null if not compiled. */
+  private CompiledTrees compiledTrees;
+
   private RegressionTree createRegressionTree(Map<String, Object> map) {
     final RegressionTree rt = new RegressionTree();
     if (map != null) {
@@ -136,6 +146,10 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     isNullSameAsZero = nullSameAsZero;
   }
 
+  public void setCompiled(boolean compiled) {
+    this.compiled = compiled;
+  }
+
   public class RegressionTreeNode {
     private static final float NODE_SPLIT_SLACK = 1E-6f;
 
@@ -294,6 +308,7 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     for (RegressionTree tree : trees) {
       tree.validate();
     }
+    compiledTrees = compiled ? new CompiledTrees(trees) : null;
   }
 
   @Override
@@ -323,6 +338,12 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
 
   @Override
   public float score(float[] modelFeatureValuesNormalized) {
+    if (compiledTrees != null
+        && compiledTrees.maxFeatureIndex < modelFeatureValuesNormalized.length) {
+      return isNullSameAsZero
+          ? compiledTrees.score(modelFeatureValuesNormalized)
+          : compiledTrees.scoreWithNullSupport(modelFeatureValuesNormalized);
+    }
     float score = 0;
     for (final RegressionTree t : trees) {
       score += t.score(modelFeatureValuesNormalized);
@@ -330,6 +351,153 @@ public class MultipleAdditiveTreesModel extends LTRScoringModel {
     return score;
   }
 
+  @Override
+  public void scoreBatch(float[][] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    if (compiledTrees == null || compiledTrees.maxFeatureIndex >= features.size()) {
+      super.scoreBatch(modelFeatureValuesNormalized, numDocs, scores);
+      return;
+    }
+    compiledTrees.scoreBatch(modelFeatureValuesNormalized, numDocs, scores, isNullSameAsZero);
+  }
+
+  /**
+   * All trees of the model in a struct-of-arrays layout. Internal nodes are numbered in the order
+   * they are compiled, with a node's split stored at its number in {@link #featureIndexes}, {@link
+   * #thresholds}, {@link #missingLefts} and its children in {@link #lefts} and {@link #rights}. A
+   * child, or a root, that is a leaf is stored as the bitwise complement of its index in {@link
+   * #leafValues}, so a negative value ends the walk. Leaf values are pre-multiplied by the tree
+   * weight. A node that splits on a feature the model does not have is compiled into a leaf of
+   * value 0, since scoring a tree stops there.
+   */
+  private static final class CompiledTrees {
+    private final int[] roots;
+    private final int[] featureIndexes;
+    private final float[] thresholds;
+    private final boolean[] missingLefts;
+    private final int[] lefts;
+    private final int[] rights;
+    private final float[] leafValues;
+    private int numNodes;
+    private int numLeaves;
+    private int maxFeatureIndex = -1;
+
+    CompiledTrees(List<RegressionTree> trees) {
+      roots = new int[trees.size()];
+      Deque<RegressionTreeNode> nodes = new ArrayDeque<>();
+      for (RegressionTree tree : trees) {
+        nodes.push(tree.root);
+      }
+      while (!nodes.isEmpty()) {
+        final RegressionTreeNode node = nodes.pop();
+        if (isCompiledLeaf(node)) {
+          numLeaves++;
+        } else {
+          numNodes++;
+          nodes.push(node.left);
+          nodes.push(node.right);
+        }
+      }
+      featureIndexes = new int[numNodes];
+      thresholds = new float[numNodes];
+      missingLefts = new boolean[numNodes];
+      lefts = new int[numNodes];
+      rights = new int[numNodes];
+      leafValues = new float[numLeaves];
+      numNodes = 0;
+      numLeaves = 0;
+
+      Deque<Integer> nodeNumbers = new ArrayDeque<>();
+      for (int t = 0; t < roots.length; t++) {
+        final float weight = trees.get(t).weight;
+        roots[t] = compile(trees.get(t).root, weight, nodes, nodeNumbers);
+        while (!nodes.isEmpty()) {
+          final RegressionTreeNode node = nodes.pop();
+          final int number = nodeNumbers.pop();
+          featureIndexes[number] = node.featureIndex;
+          thresholds[number] = node.threshold;
+          missingLefts[number] = Objects.equals(node.missing, "left");
+          lefts[number] = compile(node.left, weight, nodes, nodeNumbers);
+          rights[number] = compile(node.right, weight, nodes, nodeNumbers);
+          maxFeatureIndex = Math.max(maxFeatureIndex, node.featureIndex);
+        }
+      }
+    }
+
+    /**
+     * Returns the leaf for {@code node}, or reserves a number for it and queues it to be filled in.
+     */
+    private int compile(
+        RegressionTreeNode node,
+        float weight,
+        Deque<RegressionTreeNode> nodes,
+        Deque<Integer> nodeNumbers) {
+      if (isCompiledLeaf(node)) {
+        // same as weight * scoreNode(...) of the tree walk
+        leafValues[numLeaves] = weight * (node.isLeaf() ? node.value : 0f);
+        return ~numLeaves++;
+      }
+      final int number = numNodes++;
+      nodes.push(node);
+      nodeNumbers.push(number);
+      return number;
+    }
+
+    private static boolean isCompiledLeaf(RegressionTreeNode node) {
+      return node.isLeaf() || node.featureIndex < 0;
+    }
+
+    float score(float[] featureVector) {
+      float score = 0;
+      for (int node : roots) {
+        while (node >= 0) {
+          final float value = featureVector[featureIndexes[node]];
+          node = value <= thresholds[node] ? lefts[node] : rights[node];
+        }
+        score += leafValues[~node];
+      }
+      return score;
+    }
+
+    /**
+     * Scores all documents one tree at a time, so that the nodes of a tree stay in the CPU caches.
+     * The trees are added up in the same order as by {@link #score(float[])}.
+     */
+    void scoreBatch(float[][] featureVectors, int numDocs, float[] scores, boolean nullSameAsZero) {
+      Arrays.fill(scores, 0, numDocs, 0f);
+      for (int root : roots) {
+        for (int doc = 0; doc < numDocs; doc++) {
+          final float[] featureVector = featureVectors[doc];
+          int node = root;
+          while (node >= 0) {
+            final float value = featureVector[featureIndexes[node]];
+            if (!nullSameAsZero && Float.isNaN(value)) {
+              node = missingLefts[node] ? lefts[node] : rights[node];
+            } else {
+              node = value <= thresholds[node] ? lefts[node] : rights[node];
+            }
+          }
+          scores[doc] += leafValues[~node];
+        }
+      }
+    }
+
+    float scoreWithNullSupport(float[] featureVector) {
+      float score = 0;
+      for (int node : roots) {
+        while (node >= 0) {
+          final float value = featureVector[featureIndexes[node]];
+          if (Float.isNaN(value)) {
+            node = missingLefts[node] ? lefts[node] : rights[node];
+          } else {
+            node = value <= thresholds[node] ? lefts[node] : rights[node];
+          }
+        }
+        score += leafValues[~node];
+      }
+      return score;
+    }
+  }
+
   private static float scoreNode(float[] featureVector, RegressionTreeNode regressionTreeNode) {
     while (true) {
       if (regressionTreeNode.isLeaf()) {
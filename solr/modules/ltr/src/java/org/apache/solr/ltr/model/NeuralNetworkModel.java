@@ -17,6 +17,7 @@
 package org.apache.solr.ltr.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import org.apache.lucene.index.LeafReaderContext;
@@ -355,6 +356,20 @@ public class NeuralNetworkModel extends LTRScoringModel {
     return outputVec[0];
   }
 
+  @Override
+  public void scoreBatch(float[][] inputFeatures, int numDocs, float[] scores) {
+    // run the whole batch through one layer at a time, so its weights stay in the CPU caches
+    final float[][] outputVecs = Arrays.copyOf(inputFeatures, numDocs);
+    for (Layer layer : layers) {
+      for (int i = 0; i < numDocs; i++) {
+        outputVecs[i] = layer.calculateOutput(outputVecs[i]);
+      }
+    }
+    for (int i = 0; i < numDocs; i++) {
+      scores[i] = outputVecs[i][0];
+    }
+  }
+
   @Override
   public Explanation explain(
       LeafReaderContext context, int doc, float finalScore, List<Explanation> featureExplanations) {
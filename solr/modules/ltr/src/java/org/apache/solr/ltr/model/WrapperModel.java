@@ -147,6 +147,11 @@ public abstract class WrapperModel extends AdapterModel {
     return model.score(modelFeatureValuesNormalized);
   }
 
+  @Override
+  public void scoreBatch(float[][] modelFeatureValuesNormalized, int numDocs, float[] scores) {
+    model.scoreBatch(modelFeatureValuesNormalized, numDocs, scores);
+  }
+
   @Override
   public Explanation explain(
       LeafReaderContext context, int doc, float finalScore, List<Explanation> featureExplanations) {
@@ -16,6 +16,7 @@
  */
 package org.apache.solr.ltr.search;
 
+import io.opentelemetry.api.common.Attributes;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -26,8 +27,10 @@ import org.apache.lucene.util.ResourceLoaderAware;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.params.SolrParams;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.core.SolrInfoBean;
 import org.apache.solr.core.SolrResourceLoader;
 import org.apache.solr.ltr.FeatureLogger;
+import org.apache.solr.ltr.LTRRerankMetrics;
 import org.apache.solr.ltr.LTRScoringQuery;
 import org.apache.solr.ltr.LTRThreadModule;
 import org.apache.solr.ltr.SolrQueryRequestContextUtils;
@@ -38,6 +41,7 @@ import org.apache.solr.ltr.interleaving.OriginalRankingLTRScoringQuery;
 import org.apache.solr.ltr.model.LTRScoringModel;
 import org.apache.solr.ltr.store.rest.ManagedFeatureStore;
 import org.apache.solr.ltr.store.rest.ManagedModelStore;
+import org.apache.solr.metrics.SolrMetricsContext;
 import org.apache.solr.request.SolrQueryRequest;
 import org.apache.solr.rest.ManagedResource;
 import org.apache.solr.rest.ManagedResourceObserver;
@@ -53,7 +57,7 @@ import org.apache.solr.util.SolrPluginUtils;
  * efi.myCompanyQueryIntent=0.98}
  */
 public class LTRQParserPlugin extends QParserPlugin
-    implements ResourceLoaderAware, ManagedResourceObserver {
+    implements ResourceLoaderAware, ManagedResourceObserver, SolrInfoBean {
   public static final String NAME = "ltr";
   private static final String ORIGINAL_RANKING = "_OriginalRanking_";
 
@@ -66,6 +70,9 @@ public class LTRQParserPlugin extends QParserPlugin
 
   private LTRThreadModule threadManager = null;
 
+  private SolrMetricsContext solrMetricsContext;
+  private LTRRerankMetrics rerankMetrics;
+
   /** query parser plugin: the name of the attribute for setting the model */
   public static final String MODEL = "model";
 
@@ -88,6 +95,32 @@ public class LTRQParserPlugin extends QParserPlugin
     SolrPluginUtils.invokeSetters(this, args);
   }
 
+  @Override
+  public String getName() {
+    return getClass().getName();
+  }
+
+  @Override
+  public String getDescription() {
+    return "Learning to Rank query parser";
+  }
+
+  @Override
+  public Category getCategory() {
+    return Category.QUERY;
+  }
+
+  @Override
+  public void initializeMetrics(SolrMetricsContext parentContext, Attributes attributes) {
+    this.solrMetricsContext = parentContext.getChildContext(this);
+    this.rerankMetrics = new LTRRerankMetrics(solrMetricsContext, attributes);
+  }
+
+  @Override
+  public SolrMetricsContext getSolrMetricsContext() {
+    return solrMetricsContext;
+  }
+
   @Override
   public QParser createParser(
       String qstr, SolrParams localParams, SolrParams params, SolrQueryRequest req) {
@@ -157,6 +190,10 @@ public class LTRQParserPlugin extends QParserPlugin
       }
       final boolean isInterleaving = (modelNames.length > 1);
       final boolean isLoggingFeatures = SolrQueryRequestContextUtils.isLoggingFeatures(req);
+      if (isInterleaving || isLoggingFeatures) {
+        // the features of the reranked documents will be extracted more than once
+        SolrQueryRequestContextUtils.enableRequestFeatureVectorCache(req);
+      }
 
       final Map<String, String[]> externalFeatureInfo = extractEFIParams(localParams);
 
@@ -185,6 +222,7 @@ public class LTRQParserPlugin extends QParserPlugin
           } else {
             rerankingQuery =
                 new LTRScoringQuery(ltrScoringModel, externalFeatureInfo, threadManager);
+            rerankingQuery.setRerankMetrics(rerankMetrics);
             rerankingQueries[i] = null;
           }
 
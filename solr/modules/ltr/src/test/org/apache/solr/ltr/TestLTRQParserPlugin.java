@@ -16,7 +16,12 @@
  */
 package org.apache.solr.ltr;
 
+import static org.apache.solr.metrics.SolrMetricProducer.TYPE_ATTR;
+
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
 import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.core.SolrCore;
+import org.apache.solr.util.SolrMetricTestUtils;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -131,6 +136,35 @@ public class TestLTRQParserPlugin extends TestRerankBase {
         );
   }
 
+  @Test
+  public void ltrRerankTimesMetricTest() throws Exception {
+    final long featureExtractions = getRerankTimesCount("feature_extraction");
+    final long modelEvaluations = getRerankTimesCount("model_evaluation");
+
+    final SolrQuery query = new SolrQuery();
+    query.setQuery("_query_:{!edismax qf='title' mm=100% v='bloomberg' tie=0.1}");
+    query.add("fl", "*, score");
+    query.add("rows", "4");
+    query.add("rq", "{!ltr model=6029760550880411648 reRankDocs=3}");
+    assertJQ("/query" + query.toQueryString(), "/response/docs/[0]/id=='7'");
+
+    // each reranked request records one time of each type
+    assertEquals(featureExtractions + 1, getRerankTimesCount("feature_extraction"));
+    assertEquals(modelEvaluations + 1, getRerankTimesCount("model_evaluation"));
+  }
+
+  private static long getRerankTimesCount(String type) {
+    try (SolrCore core = solrClientTestRule.getCoreContainer().getCore(DEFAULT_TEST_CORENAME)) {
+      return SolrMetricTestUtils.getPrometheusMetricReader(core).collect().stream()
+          .filter(m -> m.getMetadata().getPrometheusName().startsWith("solr_ltr_rerank_times"))
+          .map(HistogramSnapshot.class::cast)
+          .flatMap(m -> m.getDataPoints().stream())
+          .filter(data -> type.equals(data.getLabels().get(TYPE_ATTR.toString())))
+          .mapToLong(HistogramSnapshot.HistogramDataPointSnapshot::getCount)
+          .sum();
+    }
+  }
+
   @Test
   public void ltrNoResultsTest() throws Exception {
     final SolrQuery query = new SolrQuery();
@@ -20,10 +20,13 @@ import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import org.apache.lucene.index.LeafReaderContext;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.BooleanClause;
@@ -36,6 +39,7 @@ import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopDocs;
 import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.ExecutorUtil;
 import org.apache.solr.core.SolrResourceLoader;
 import org.apache.solr.ltr.feature.Feature;
 import org.apache.solr.ltr.feature.FieldValueFeature;
@@ -232,6 +236,130 @@ public class TestLTRReRankingPipeline extends SolrTestCaseJ4 {
     }
   }
 
+  @Test
+  public void testScoreBatchMatchesSingleHitScoring() throws Exception {
+    assertU(delQ("*:*"));
+    for (int i = 0; i < 20; i++) {
+      if (i % 3 == 0) {
+        assertU(adoc("id", Integer.toString(i), "field", "wizard"));
+      } else {
+        assertU(
+            adoc("id", Integer.toString(i), "field", "wizard", "finalScoreFloat", i / 2f + ""));
+      }
+      if (i % 7 == 6) {
+        // spread the hits over several segments
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    try (SolrQueryRequest solrQueryRequest =
+        new LocalSolrQueryRequest(h.getCore(), new ModifiableSolrParams())) {
+      final SolrIndexSearcher searcher = solrQueryRequest.getSearcher();
+      final ScoreDoc[] hits =
+          searcher.search(new TermQuery(new Term("field", "wizard")), 20).scoreDocs;
+      Arrays.sort(hits, Comparator.comparingInt(hit -> hit.doc));
+
+      final List<Feature> features = makeFieldValueFeatures(new int[] {0, 1, 2}, "finalScoreFloat");
+      final List<Normalizer> norms =
+          new ArrayList<>(Collections.nCopies(features.size(), IdentityNormalizer.INSTANCE));
+      final LTRScoringModel ltrScoringModel =
+          TestLinearModel.createLinearModel(
+              "test",
+              features,
+              norms,
+              "test",
+              features,
+              TestLinearModel.makeFeatureWeights(features, 0.3));
+      final LTRScoringQuery scoringQuery = new LTRScoringQuery(ltrScoringModel);
+      scoringQuery.setRequest(solrQueryRequest);
+      final LTRScoringQuery.ModelWeight modelWeight =
+          (LTRScoringQuery.ModelWeight)
+              searcher.createWeight(searcher.rewrite(scoringQuery), ScoreMode.COMPLETE, 1);
+
+      int from = 0;
+      for (final LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+        int to = from;
+        while (to < hits.length && hits[to].doc < leaf.docBase + leaf.reader().maxDoc()) {
+          to++;
+        }
+        if (from == to) {
+          continue;
+        }
+        final float[] scores = modelWeight.scoreBatch(leaf, hits, from, to);
+        final LTRScoringQuery.ModelWeight.ModelScorer scorer = modelWeight.modelScorer(leaf);
+        for (int i = from; i < to; i++) {
+          scorer.iterator().advance(hits[i].doc - leaf.docBase);
+          scorer.getDocInfo().setOriginalDocScore(hits[i].score);
+          scorer.getDocInfo().setOriginalDocId(hits[i].doc);
+          assertEquals(scorer.score(), scores[i - from], 0f);
+        }
+        from = to;
+      }
+      assertEquals(hits.length, from);
+    }
+  }
+
+  @Test
+  public void testParallelRescoringMatchesSequential() throws Exception {
+    assertU(delQ("*:*"));
+    final int numDocs = 100;
+    for (int i = 0; i < numDocs; i++) {
+      assertU(adoc("id", Integer.toString(i), "field", "wizard", "finalScoreFloat", i % 17 + ""));
+      if (i % 30 == 29) {
+        // spread the hits over several segments
+        assertU(commit());
+      }
+    }
+    assertU(commit());
+
+    final ExecutorService executor = ExecutorUtil.newMDCAwareCachedThreadPool("ltrRescoring");
+    try (SolrQueryRequest solrQueryRequest =
+        new LocalSolrQueryRequest(h.getCore(), new ModifiableSolrParams())) {
+      final SolrIndexSearcher searcher = solrQueryRequest.getSearcher();
+      final List<Feature> features = makeFieldValueFeatures(new int[] {0, 1, 2}, "finalScoreFloat");
+      final List<Normalizer> norms =
+          new ArrayList<>(Collections.nCopies(features.size(), IdentityNormalizer.INSTANCE));
+      final LTRScoringModel ltrScoringModel =
+          TestLinearModel.createLinearModel(
+              "test",
+              features,
+              norms,
+              "test",
+              features,
+              TestLinearModel.makeFeatureWeights(features, 0.3));
+
+      final LTRThreadModule threadModule = new LTRThreadModule(4, 4);
+      threadModule.setExecutor(executor);
+      final LTRScoringQuery parallelQuery =
+          new LTRScoringQuery(ltrScoringModel, Collections.emptyMap(), threadModule);
+      parallelQuery.setRequest(solrQueryRequest);
+      assertEquals(4, parallelQuery.getNumThreadsPerRequest());
+      final LTRScoringQuery sequentialQuery = new LTRScoringQuery(ltrScoringModel);
+      sequentialQuery.setRequest(solrQueryRequest);
+      assertEquals(1, sequentialQuery.getNumThreadsPerRequest());
+
+      final TermQuery query = new TermQuery(new Term("field", "wizard"));
+      for (int topN : new int[] {1, 10, numDocs}) {
+        final ScoreDoc[] sequential =
+            new LTRRescorer(sequentialQuery)
+                .rescore(searcher, searcher.search(query, numDocs), topN)
+                .scoreDocs;
+        final ScoreDoc[] parallel =
+            new LTRRescorer(parallelQuery)
+                .rescore(searcher, searcher.search(query, numDocs), topN)
+                .scoreDocs;
+        assertEquals(topN, parallel.length);
+        for (int i = 0; i < topN; i++) {
+          assertEquals(sequential[i].doc, parallel[i].doc);
+          assertEquals(sequential[i].score, parallel[i].score, 0f);
+        }
+      }
+    } finally {
+      ExecutorUtil.shutdownAndAwaitTermination(executor);
+    }
+  }
+
   @Test
   public void testDocParam() throws Exception {
     try (SolrQueryRequest solrQueryRequest =
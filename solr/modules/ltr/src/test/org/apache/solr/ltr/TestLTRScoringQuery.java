@@ -24,6 +24,12 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.FloatDocValuesField;
@@ -42,6 +48,8 @@ import org.apache.lucene.search.Weight;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.tests.index.RandomIndexWriter;
 import org.apache.solr.SolrTestCase;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.core.SolrResourceLoader;
 import org.apache.solr.ltr.feature.Feature;
 import org.apache.solr.ltr.feature.ValueFeature;
@@ -312,4 +320,86 @@ public class TestLTRScoringQuery extends SolrTestCase {
     r.close();
     dir.close();
   }
+
+  @Test
+  public void testInterruptedInvokeAllReleasesPermits() throws Exception {
+    final List<Feature> features = makeFeatures(new int[] {0, 1, 2});
+    final List<Normalizer> norms =
+        new ArrayList<>(Collections.nCopies(features.size(), IdentityNormalizer.INSTANCE));
+    final LTRScoringModel ltrScoringModel =
+        TestLinearModel.createLinearModel(
+            "test",
+            features,
+            norms,
+            "test",
+            features,
+            TestLinearModel.makeFeatureWeights(features));
+
+    final ExecutorService executor =
+        ExecutorUtil.newMDCAwareSingleThreadExecutor(new SolrNamedThreadFactory("ltrScoring"));
+    try {
+      final LTRThreadModule threadModule = new LTRThreadModule(2, 2);
+      threadModule.setExecutor(executor);
+      final LTRScoringQuery query =
+          new LTRScoringQuery(ltrScoringModel, Collections.emptyMap(), threadModule);
+      final Semaphore querySemaphore = query.getQuerySemaphore();
+
+      // the first task holds the only thread of the executor, the second one waits in its queue
+      // and the third one for a permit, so that the second one is cancelled before it runs
+      final CountDownLatch started = new CountDownLatch(1);
+      final CountDownLatch interrupted = new CountDownLatch(1);
+      final CountDownLatch stop = new CountDownLatch(1);
+      final List<Callable<Integer>> tasks = new ArrayList<>();
+      tasks.add(
+          () -> {
+            started.countDown();
+            try {
+              new CountDownLatch(1).await();
+            } catch (InterruptedException e) {
+              // keeps running for a while once cancelled
+              interrupted.countDown();
+              stop.await();
+            }
+            return 0;
+          });
+      tasks.add(() -> 1);
+      tasks.add(() -> 2);
+
+      final AtomicReference<Throwable> error = new AtomicReference<>();
+      final Thread caller =
+          new Thread(
+              () -> {
+                try {
+                  query.invokeAll(tasks);
+                } catch (Throwable t) {
+                  error.set(t);
+                }
+              });
+      caller.start();
+      started.await();
+      while (querySemaphore.availablePermits() > 0) {
+        Thread.sleep(10);
+      }
+      caller.interrupt();
+      caller.join();
+
+      assertTrue(error.get() instanceof RuntimeException);
+      assertEquals("Interrupted while scoring in LTR", error.get().getMessage());
+      // the cancelled task that still runs keeps its permits, the one that never ran does not
+      assertTrue(interrupted.await(30, TimeUnit.SECONDS));
+      assertEquals(1, querySemaphore.availablePermits());
+      assertEquals(1, threadModule.availableLTRPermits());
+
+      stop.countDown();
+      final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+      while (querySemaphore.availablePermits() < 2 || threadModule.availableLTRPermits() < 2) {
+        assertTrue("permits not released", System.nanoTime() < deadline);
+        Thread.sleep(10);
+      }
+      assertEquals(2, querySemaphore.availablePermits());
+      assertEquals(2, threadModule.availableLTRPermits());
+    } finally {
+      ExecutorUtil.shutdownNowAndAwaitTermination(executor);
+    }
+  }
 }
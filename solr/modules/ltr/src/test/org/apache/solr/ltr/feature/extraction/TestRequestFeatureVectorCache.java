@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.ltr.feature.extraction;
+
+import java.nio.file.Path;
+import java.util.Map;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.core.SolrResourceLoader;
+import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.feature.ValueFeature;
+import org.junit.Test;
+
+public class TestRequestFeatureVectorCache extends SolrTestCase {
+
+  private static final SolrResourceLoader solrResourceLoader =
+      new SolrResourceLoader(Path.of("").toAbsolutePath());
+
+  private static Feature.FeatureWeight[] makeFeatureWeights(int... featureIds) throws Exception {
+    final Feature.FeatureWeight[] featureWeights = new Feature.FeatureWeight[featureIds.length];
+    for (int i = 0; i < featureIds.length; i++) {
+      final Feature feature =
+          Feature.getInstance(
+              solrResourceLoader,
+              ValueFeature.class.getName(),
+              "f" + featureIds[i],
+              Map.of("value", featureIds[i]));
+      feature.setIndex(featureIds[i]);
+      featureWeights[i] = feature.createWeight(null, false, null, null, Map.of());
+    }
+    return featureWeights;
+  }
+
+  @Test
+  public void testVectorsAreReusedForExtractedFeaturesOnly() throws Exception {
+    final RequestFeatureVectorCache cache = new RequestFeatureVectorCache();
+    final Map<String, String[]> efi = Map.of("user_query", new String[] {"w1"});
+    final RequestFeatureVectorCache.FeatureVectors featureVectors =
+        cache.getFeatureVectors("store", efi);
+    // equal efi share the vectors, other stores or efi do not
+    final Map<String, String[]> sameEfi = Map.of("user_query", new String[] {"w1"});
+    final Map<String, String[]> otherEfi = Map.of("user_query", new String[] {"w2"});
+    assertSame(featureVectors, cache.getFeatureVectors("store", sameEfi));
+    assertNotSame(featureVectors, cache.getFeatureVectors("other", efi));
+    assertNotSame(featureVectors, cache.getFeatureVectors("store", otherEfi));
+
+    final Feature.FeatureWeight[] modelA = makeFeatureWeights(0, 1);
+    final Feature.FeatureWeight[] modelB = makeFeatureWeights(1, 2);
+    final Feature.FeatureWeight[] modelC = makeFeatureWeights(1);
+    assertNull(featureVectors.get(7, modelA));
+
+    final float[] vectorA = {10f, 11f, 0f};
+    featureVectors.put(7, modelA, vectorA);
+    assertSame(vectorA, featureVectors.get(7, modelA));
+    assertSame(vectorA, featureVectors.get(7, modelC));
+    assertNull(featureVectors.get(7, modelB));
+    assertNull(featureVectors.get(8, modelA));
+
+    // the values of both models are kept, without changing the vector of model A
+    featureVectors.put(7, modelB, new float[] {0f, 21f, 22f});
+    assertArrayEquals(new float[] {10f, 21f, 22f}, featureVectors.get(7, modelA), 0f);
+    assertArrayEquals(new float[] {10f, 21f, 22f}, featureVectors.get(7, modelB), 0f);
+    assertArrayEquals(new float[] {10f, 11f, 0f}, vectorA, 0f);
+  }
+}
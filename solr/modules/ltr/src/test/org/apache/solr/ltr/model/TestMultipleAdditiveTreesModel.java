@@ -18,8 +18,16 @@ package org.apache.solr.ltr.model;
 
 import static org.hamcrest.core.StringContains.containsString;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.ltr.TestRerankBase;
+import org.apache.solr.ltr.feature.Feature;
+import org.apache.solr.ltr.norm.IdentityNormalizer;
+import org.apache.solr.ltr.norm.Normalizer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -354,4 +362,71 @@ public class TestMultipleAdditiveTreesModel extends TestRerankBase {
     assertThat(qryResult, containsString(" Go Right "));
     assertThat(qryResult, containsString(" Go Left "));
   }
+
+  @Test
+  public void testCompiledTreesScoreSameAsTreeWalk() throws Exception {
+    final List<Feature> features = getFeatures(new String[] {"f0", "f1", "f2", "f3", "f4"});
+    final List<Normalizer> norms =
+        new ArrayList<>(Collections.nCopies(features.size(), IdentityNormalizer.INSTANCE));
+    final List<Object> trees = new ArrayList<>();
+    final int numTrees = atLeast(10);
+    for (int i = 0; i < numTrees; i++) {
+      final Map<String, Object> tree = new HashMap<>();
+      tree.put("weight", String.valueOf(random().nextFloat()));
+      tree.put("root", randomTreeNode(random().nextInt(6)));
+      trees.add(tree);
+    }
+
+    for (boolean nullSameAsZero : new boolean[] {true, false}) {
+      final LTRScoringModel compiled =
+          createTreesModel(features, norms, trees, nullSameAsZero, true);
+      final LTRScoringModel treeWalk =
+          createTreesModel(features, norms, trees, nullSameAsZero, false);
+      for (int i = 0; i < 100; i++) {
+        final float[] featureVector = new float[features.size()];
+        for (int f = 0; f < featureVector.length; f++) {
+          featureVector[f] =
+              !nullSameAsZero && random().nextInt(5) == 0 ? Float.NaN : random().nextFloat();
+        }
+        assertEquals(treeWalk.score(featureVector), compiled.score(featureVector), 0f);
+      }
+    }
+  }
+
+  private LTRScoringModel createTreesModel(
+      List<Feature> features,
+      List<Normalizer> norms,
+      List<Object> trees,
+      boolean nullSameAsZero,
+      boolean compiled)
+      throws ModelException {
+    final Map<String, Object> params = new HashMap<>();
+    params.put("trees", trees);
+    params.put("isNullSameAsZero", nullSameAsZero);
+    params.put("compiled", compiled);
+    return LTRScoringModel.getInstance(
+        solrResourceLoader,
+        MultipleAdditiveTreesModel.class.getName(),
+        "compiled_" + compiled,
+        features,
+        norms,
+        "test",
+        features,
+        params);
+  }
+
+  private static Map<String, Object> randomTreeNode(int depth) {
+    final Map<String, Object> node = new HashMap<>();
+    if (depth == 0 || random().nextInt(4) == 0) {
+      node.put("value", String.valueOf(random().nextFloat() * 100 - 50));
+      return node;
+    }
+    // sometimes split on a feature the model does not have
+    node.put("feature", random().nextInt(20) == 0 ? "unknown" : "f" + random().nextInt(5));
+    node.put("threshold", String.valueOf(random().nextFloat()));
+    node.put("missing", random().nextBoolean() ? "left" : "right");
+    node.put("left", randomTreeNode(depth - 1));
+    node.put("right", randomTreeNode(depth - 1));
+    return node;
+  }
 }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.stream.StreamContext;
 import org.apache.solr.client.solrj.io.stream.TupleStream;
@@ -104,4 +105,16 @@ class LimitStream extends TupleStream {
 
     return stream.read();
   }
+
+  @Override
+  public void readBatch(TupleBatch batch) throws IOException {
+    // pass whole batches through until the limit could cut one short
+    if ((count == 0 && offset > 0) || limit + offset - count < batch.capacity() - batch.size()) {
+      super.readBatch(batch);
+      return;
+    }
+    int size = batch.size();
+    stream.readBatch(batch);
+    count += batch.size() - size;
+  }
 }
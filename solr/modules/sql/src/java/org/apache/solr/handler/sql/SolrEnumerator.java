@@ -18,23 +18,32 @@ package org.apache.solr.handler.sql;
 
 import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.time.Instant;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import org.apache.calcite.linq4j.Enumerator;
-import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.stream.TupleStream;
 import org.apache.solr.common.util.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Enumerator that reads from a Solr collection. */
+/**
+ * Enumerator that reads from a Solr collection.
+ *
+ * <p>Records are read a {@link TupleBatch} at a time and rows are built straight from the columns
+ * of the batch, so streams that produce columnar batches, like a single shard {@code /export}
+ * stream, don't allocate a {@link org.apache.solr.client.solrj.io.Tuple} per row.
+ */
 class SolrEnumerator implements Enumerator<Object> {
   private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
   private final TupleStream tupleStream;
   private final List<Map.Entry<String, Class<?>>> fields;
-  private Tuple current;
+  private final TupleBatch batch = new TupleBatch();
+  private final TupleBatch.Column[] columns;
+  private int row;
 
   /**
    * Creates a SolrEnumerator.
@@ -51,7 +60,8 @@ class SolrEnumerator implements Enumerator<Object> {
       throw new RuntimeException(e);
     }
     this.fields = fields;
-    this.current = null;
+    this.columns = new TupleBatch.Column[fields.size()];
+    this.row = -1;
   }
 
   /**
@@ -62,37 +72,37 @@ class SolrEnumerator implements Enumerator<Object> {
   @Override
   public Object current() {
     if (fields.size() == 1) {
-      return this.getter(current, fields.get(0));
+      return this.getter(0);
     } else {
       // Build an array with all fields in this row
-      Object[] row = new Object[fields.size()];
+      Object[] values = new Object[fields.size()];
       for (int i = 0; i < fields.size(); i++) {
-        row[i] = this.getter(current, fields.get(i));
+        values[i] = this.getter(i);
       }
 
-      return row;
+      return values;
     }
   }
 
-  private Object getter(Tuple tuple, Map.Entry<String, Class<?>> field) {
-    Object val = tuple.get(field.getKey());
-
-    if (val == null) {
+  private Object getter(int field) {
+    TupleBatch.Column column = columns[field];
+    if (!column.isPresent(row)) {
       return null;
     }
 
-    Class<?> clazz = field.getValue();
+    Class<?> clazz = fields.get(field).getValue();
     if (clazz.equals(Long.class)) {
-      if (val instanceof Double) {
-        return this.getRealVal(val);
+      if (column.isLong()) {
+        return column.getLong(row);
       }
-      return val;
+      return this.getRealVal(column.get(row));
     }
 
-    if (clazz.equals(Date.class)) {
+    Object val = column.get(row);
+    if (clazz.equals(Date.class) && !(val instanceof Date)) {
       // make sure the val returned is a Date as Avatica cannot deal with string values for
       // Timestamp fields
-      val = tuple.getDate(field.getKey());
+      val = new Date(Instant.parse(val.toString()).toEpochMilli());
     }
 
     return val;
@@ -115,18 +125,28 @@ class SolrEnumerator implements Enumerator<Object> {
 
   @Override
   public boolean moveNext() {
+    if (++row < batch.size()) {
+      return true;
+    }
+    if (batch.isEOF()) {
+      return false;
+    }
     try {
-      Tuple tuple = this.tupleStream.read();
-      if (tuple.EOF) {
-        return false;
-      } else {
-        current = tuple;
-        return true;
-      }
+      batch.clear();
+      this.tupleStream.readBatch(batch);
     } catch (IOException e) {
       log.error("IOException", e);
       return false;
     }
+    row = 0;
+    if (batch.size() == 0) {
+      return false;
+    }
+    // look up the columns once per batch rather than the fields once per row
+    for (int i = 0; i < fields.size(); i++) {
+      columns[i] = batch.getColumn(fields.get(i).getKey());
+    }
+    return true;
   }
 
   @Override
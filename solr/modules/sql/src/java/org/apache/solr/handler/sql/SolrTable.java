@@ -22,12 +22,14 @@ import static org.apache.solr.common.params.CommonParams.SORT;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -47,6 +49,8 @@ import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.schema.impl.AbstractTableQueryable;
 import org.apache.calcite.util.Pair;
+import org.apache.solr.client.solrj.impl.CloudSolrClient;
+import org.apache.solr.client.solrj.impl.ClusterStateProvider;
 import org.apache.solr.client.solrj.io.comp.ComparatorOrder;
 import org.apache.solr.client.solrj.io.comp.FieldComparator;
 import org.apache.solr.client.solrj.io.comp.MultipleFieldComparator;
@@ -66,10 +70,14 @@ import org.apache.solr.client.solrj.io.eval.RawValueEvaluator;
 import org.apache.solr.client.solrj.io.eval.RecursiveBooleanEvaluator;
 import org.apache.solr.client.solrj.io.stream.CloudSolrStream;
 import org.apache.solr.client.solrj.io.stream.FacetStream;
+import org.apache.solr.client.solrj.io.stream.HashRollupStream;
 import org.apache.solr.client.solrj.io.stream.HavingStream;
+import org.apache.solr.client.solrj.io.stream.ParallelListStream;
+import org.apache.solr.client.solrj.io.stream.ParallelMetricsRollup;
 import org.apache.solr.client.solrj.io.stream.ParallelStream;
 import org.apache.solr.client.solrj.io.stream.RankStream;
 import org.apache.solr.client.solrj.io.stream.RollupStream;
+import org.apache.solr.client.solrj.io.stream.SelectStream;
 import org.apache.solr.client.solrj.io.stream.SortStream;
 import org.apache.solr.client.solrj.io.stream.StatsStream;
 import org.apache.solr.client.solrj.io.stream.StreamContext;
@@ -85,8 +93,11 @@ import org.apache.solr.client.solrj.io.stream.metrics.MeanMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.Metric;
 import org.apache.solr.client.solrj.io.stream.metrics.MinMetric;
 import org.apache.solr.client.solrj.io.stream.metrics.SumMetric;
+import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.Slice;
 import org.apache.solr.common.params.CommonParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.ShardParams;
 
 /** Table based on a Solr collection */
 class SolrTable extends AbstractQueryableTable implements TranslatableTable {
@@ -149,7 +160,9 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
       final String havingPredicate,
       final String offset) {
     // SolrParams should be a ModifiableParams instead of a map
-    boolean mapReduce = "map_reduce".equals(properties.getProperty("aggregationMode"));
+    String aggregationMode = properties.getProperty("aggregationMode");
+    boolean mapReduce = "map_reduce".equals(aggregationMode);
+    boolean partial = "partial".equals(aggregationMode);
     boolean negative = Boolean.parseBoolean(negativeQuery);
 
     String q = null;
@@ -186,6 +199,19 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
                     metricPairs,
                     limit,
                     havingPredicate);
+          } else if (partial) {
+            tupleStream =
+                handleGroupByPartial(
+                    zk,
+                    collection,
+                    properties,
+                    fields,
+                    q,
+                    orders,
+                    buckets,
+                    metricPairs,
+                    limit,
+                    havingPredicate);
           } else {
             tupleStream =
                 handleGroupByFacet(
@@ -736,6 +762,154 @@ class SolrTable extends AbstractQueryableTable implements TranslatableTable {
     return tupleStream;
   }
 
+  /**
+   * Computes the GROUP BY with partial aggregation: every shard computes the aggregates of all of
+   * its groups with the JSON Facet API, the shards are queried in parallel and their partial
+   * aggregates are merged into the final groups. Unlike {@link #handleGroupByFacet} no group is
+   * cut off by a facet limit, and unlike {@link #handleGroupByMapReduce} only groups are sent over
+   * the network, never the matching documents. AVG is rolled up weighted by the count of each
+   * partial group. COUNT(DISTINCT) cannot be merged from partial results, such queries fall back to
+   * map_reduce.
+   */
+  private TupleStream handleGroupByPartial(
+      final String zkHost,
+      final String collection,
+      final Properties properties,
+      final List<Map.Entry<String, Class<?>>> fields,
+      final String query,
+      final List<Pair<String, String>> orders,
+      final List<String> bucketFields,
+      final List<Pair<String, String>> metricPairs,
+      final String lim,
+      final String havingPredicate)
+      throws IOException {
+
+    Map<String, Class<?>> fmap = new HashMap<>();
+    for (Map.Entry<String, Class<?>> f : fields) {
+      fmap.put(f.getKey(), f.getValue());
+    }
+
+    Bucket[] buckets = buildBuckets(bucketFields, fields);
+    List<Metric> metricList = buildMetrics(metricPairs, true);
+    boolean hasCount = false;
+    boolean hasMean = false;
+    for (Metric metric : metricList) {
+      if (metric instanceof CountDistinctMetric) {
+        return handleGroupByMapReduce(
+            zkHost,
+            collection,
+            properties,
+            fields,
+            query,
+            orders,
+            bucketFields,
+            metricPairs,
+            lim,
+            havingPredicate);
+      }
+      hasCount |= "count(*)".equals(metric.getIdentifier());
+      hasMean |= metric instanceof MeanMetric;
+      Class<?> c = fmap.get(metric.getIdentifier());
+      if (!metric.outputLong && Long.class.equals(c)) {
+        metric.outputLong = true;
+      }
+    }
+    if (hasMean && !hasCount) {
+      // the partial averages are weighted by the count of their group
+      metricList.add(new CountMetric());
+    }
+    Metric[] metrics = metricList.toArray(new Metric[0]);
+
+    FieldComparator[] indexSorts = new FieldComparator[buckets.length];
+    for (int i = 0; i < indexSorts.length; i++) {
+      indexSorts[i] = new FieldComparator("index", ComparatorOrder.ASCENDING);
+    }
+
+    CloudSolrClient cloudSolrClient = schema.getSolrClientCache().getCloudSolrClient(zkHost);
+    ClusterStateProvider clusterStateProvider = cloudSolrClient.getClusterStateProvider();
+    List<FacetStream> shardStreams = new ArrayList<>();
+    for (String resolved : clusterStateProvider.resolveAlias(collection)) {
+      DocCollection docCollection = clusterStateProvider.getCollection(resolved);
+      if (docCollection == null) {
+        throw new IOException("Collection not found: " + resolved);
+      }
+      for (Slice slice : docCollection.getActiveSlices()) {
+        ModifiableSolrParams shardParams = new ModifiableSolrParams();
+        shardParams.add(CommonParams.Q, query);
+        shardParams.set(ShardParams.SHARDS, slice.getName());
+        // -1 returns all groups of the shard
+        shardStreams.add(
+            new FacetStream(zkHost, resolved, shardParams, buckets, metrics, indexSorts, -1));
+      }
+    }
+
+    TupleStream tupleStream = mergePartialAggregates(shardStreams, buckets, metrics);
+
+    StreamFactory factory =
+        new StreamFactory()
+            .withFunctionName("and", AndEvaluator.class)
+            .withFunctionName("or", OrEvaluator.class)
+            .withFunctionName("not", NotEvaluator.class)
+            .withFunctionName("eq", EqualToEvaluator.class)
+            .withFunctionName("val", RawValueEvaluator.class)
+            .withFunctionName("gt", GreaterThanEvaluator.class)
+            .withFunctionName("lt", LessThanEvaluator.class)
+            .withFunctionName("lteq", LessThanEqualToEvaluator.class)
+            .withFunctionName("gteq", GreaterThanEqualToEvaluator.class);
+
+    if (havingPredicate != null) {
+      RecursiveBooleanEvaluator booleanOperation =
+          (RecursiveBooleanEvaluator)
+              factory.constructEvaluator(StreamExpressionParser.parse(havingPredicate));
+      tupleStream = new HavingStream(tupleStream, booleanOperation);
+    }
+
+    if (orders != null && orders.size() > 0) {
+      StreamComparator comp = getComp(orders);
+      if (lim != null) {
+        tupleStream = new RankStream(tupleStream, Integer.parseInt(lim), comp);
+      } else {
+        tupleStream = new SortStream(tupleStream, comp);
+      }
+    } else if (lim != null) {
+      tupleStream = new LimitStream(tupleStream, Integer.parseInt(lim));
+    }
+
+    return tupleStream;
+  }
+
+  /**
+   * Merges the partial aggregates computed by each shard into the final groups. Without any shard,
+   * e.g. when the collections have no active slice, the groups are empty.
+   */
+  static TupleStream mergePartialAggregates(
+      List<? extends TupleStream> shardStreams, Bucket[] buckets, Metric[] metrics)
+      throws IOException {
+    Optional<Metric[]> maybeRollupMetrics = ParallelMetricsRollup.rollupMetricsOf(metrics);
+    if (maybeRollupMetrics.isEmpty()) {
+      throw new IOException(
+          "Unable to merge the partial aggregates of "
+              + Arrays.stream(metrics).map(Metric::getIdentifier).toList());
+    }
+    Metric[] rollupMetrics = maybeRollupMetrics.get();
+
+    TupleStream tupleStream =
+        new HashRollupStream(
+            new ParallelListStream(shardStreams.toArray(new TupleStream[0])),
+            buckets,
+            rollupMetrics);
+
+    // rename the merged metrics back to the names of the partial ones
+    Map<String, String> selectFields = new HashMap<>();
+    for (Bucket bucket : buckets) {
+      selectFields.put(bucket.toString(), bucket.toString());
+    }
+    for (int i = 0; i < metrics.length; i++) {
+      selectFields.put(rollupMetrics[i].getIdentifier(), metrics[i].getIdentifier());
+    }
+    return new SelectStream(tupleStream, selectFields);
+  }
+
   private TupleStream handleSelectDistinctMapReduce(
       final String zkHost,
       final String collection,
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.handler.sql;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
+import org.apache.solr.client.solrj.io.comp.StreamComparator;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+import org.apache.solr.client.solrj.io.stream.expr.Explanation;
+import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.junit.Test;
+
+public class SolrEnumeratorTest extends SolrTestCase {
+
+  private static final List<Map.Entry<String, Class<?>>> FIELDS =
+      List.of(
+          new AbstractMap.SimpleEntry<>("l", Long.class),
+          new AbstractMap.SimpleEntry<>("d", Double.class),
+          new AbstractMap.SimpleEntry<>("date", Date.class),
+          new AbstractMap.SimpleEntry<>("s", String.class));
+
+  @Test
+  public void testRowsFromColumnarAndTupleBatches() {
+    List<Map<String, Object>> records = new ArrayList<>();
+    int numRecords = TupleBatch.DEFAULT_CAPACITY * 2 + 7;
+    for (int i = 0; i < numRecords; i++) {
+      if (i % 100 == 0) {
+        // sparse row, with a long stored as a double
+        records.add(Map.of("l", (double) i));
+      } else {
+        records.add(Map.of("l", i, "d", i / 2d, "date", "2024-01-01T00:00:00Z", "s", "v" + i));
+      }
+    }
+
+    for (boolean columnar : new boolean[] {false, true}) {
+      List<Object[]> rows = new ArrayList<>();
+      try (SolrEnumerator enumerator =
+          new SolrEnumerator(new RecordStream(records, columnar), FIELDS)) {
+        while (enumerator.moveNext()) {
+          rows.add((Object[]) enumerator.current());
+        }
+        assertFalse(enumerator.moveNext());
+      }
+
+      assertEquals(numRecords, rows.size());
+      assertArrayEquals(new Object[] {0L, null, null, null}, rows.get(0));
+      Object[] row = rows.get(101);
+      assertEquals(101L, row[0]);
+      assertEquals(50.5d, row[1]);
+      assertEquals(new Date(Instant.parse("2024-01-01T00:00:00Z").toEpochMilli()), row[2]);
+      assertEquals("v101", row[3]);
+    }
+  }
+
+  /** Streams records either one tuple at a time or as columnar batch rows. */
+  private static class RecordStream extends TupleStream {
+    private final List<Map<String, Object>> records;
+    private final boolean columnar;
+    private int next;
+
+    RecordStream(List<Map<String, Object>> records, boolean columnar) {
+      this.records = records;
+      this.columnar = columnar;
+    }
+
+    @Override
+    public Tuple read() {
+      return next < records.size() ? new Tuple(records.get(next++)) : Tuple.EOF();
+    }
+
+    @Override
+    public void readBatch(TupleBatch batch) throws IOException {
+      if (!columnar) {
+        super.readBatch(batch);
+        return;
+      }
+      while (!batch.isFull()) {
+        if (next == records.size()) {
+          batch.setEOF(Tuple.EOF());
+          return;
+        }
+        batch.add(records.get(next++));
+      }
+    }
+
+    @Override
+    public void setStreamContext(StreamContext context) {}
+
+    @Override
+    public List<TupleStream> children() {
+      return List.of();
+    }
+
+    @Override
+    public void open() {
+      next = 0;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public StreamComparator getStreamSort() {
+      return null;
+    }
+
+    @Override
+    public Explanation toExplanation(StreamFactory factory) {
+      return null;
+    }
+  }
+}
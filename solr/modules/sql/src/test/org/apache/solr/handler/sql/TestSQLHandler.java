@@ -33,7 +33,13 @@ import org.apache.solr.SolrTestCaseJ4;
 import org.apache.solr.client.solrj.io.Tuple;
 import org.apache.solr.client.solrj.io.stream.ExceptionStream;
 import org.apache.solr.client.solrj.io.stream.SolrStream;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
 import org.apache.solr.client.solrj.io.stream.TupleStream;
+import org.apache.solr.client.solrj.io.stream.metrics.Bucket;
+import org.apache.solr.client.solrj.io.stream.metrics.CountMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.MeanMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.Metric;
+import org.apache.solr.client.solrj.io.stream.metrics.SumMetric;
 import org.apache.solr.client.solrj.request.CollectionAdminRequest;
 import org.apache.solr.client.solrj.request.UpdateRequest;
 import org.apache.solr.cloud.SolrCloudTestCase;
@@ -1674,6 +1680,71 @@ public class TestSQLHandler extends SolrCloudTestCase {
     assertEquals(0, tuples.size());
   }
 
+  @Test
+  public void testBasicGroupingPartial() throws Exception {
+
+    UpdateRequest update = new UpdateRequest();
+    for (int i = 0; i < 200; i++) {
+      // more groups than shards, spread over both shards
+      update.add(
+          "id", Integer.toString(i), "str_s", "g" + (i % 50), "field_i", Integer.toString(i));
+    }
+    update.commit(cluster.getSolrClient(), COLLECTIONORALIAS);
+
+    SolrParams sParams =
+        params(
+            CommonParams.QT,
+            "/sql",
+            "aggregationMode",
+            "partial",
+            "stmt",
+            "select str_s, count(*), sum(field_i), min(field_i), max(field_i), "
+                + "cast(avg(1.0 * field_i) as float) from collection1 group by str_s "
+                + "order by sum(field_i) desc limit 3");
+
+    List<Tuple> tuples = getTuples(sParams, sqlUrl());
+    assertEquals(3, tuples.size());
+
+    // g49 holds 49, 99, 149 and 199
+    Tuple tuple = tuples.get(0);
+    assertEquals("g49", tuple.get("str_s"));
+    assertEquals(4, tuple.getDouble("EXPR$1"), 0.0); // count(*)
+    assertEquals(496, tuple.getDouble("EXPR$2"), 0.0); // sum(field_i)
+    assertEquals(49, tuple.getDouble("EXPR$3"), 0.0); // min(field_i)
+    assertEquals(199, tuple.getDouble("EXPR$4"), 0.0); // max(field_i)
+    assertEquals(124D, tuple.getDouble("EXPR$5"), 0.0); // avg(field_i)
+    assertEquals("g48", tuples.get(1).get("str_s"));
+    assertEquals("g47", tuples.get(2).get("str_s"));
+
+    // having is applied to the merged groups, and all groups are returned without a limit
+    sParams =
+        params(
+            CommonParams.QT,
+            "/sql",
+            "aggregationMode",
+            "partial",
+            "stmt",
+            "select str_s, count(*), sum(field_i) from collection1 group by str_s "
+                + "having sum(field_i) > 100");
+
+    tuples = getTuples(sParams, sqlUrl());
+    // every group sums to 4 * n + 300 for g<n>
+    assertEquals(50, tuples.size());
+    for (Tuple t : tuples) {
+      assertEquals(4, t.getDouble("EXPR$1"), 0.0);
+    }
+  }
+
+  @Test
+  public void testPartialAggregatesOfNoShards() throws Exception {
+    // the collections of a query may have no active slice
+    Bucket[] buckets = {new Bucket("str_s")};
+    Metric[] metrics = {new SumMetric("field_i"), new MeanMetric("field_i"), new CountMetric()};
+    TupleStream tupleStream = SolrTable.mergePartialAggregates(List.of(), buckets, metrics);
+    tupleStream.setStreamContext(new StreamContext());
+    assertTrue(getTuple(tupleStream).EOF);
+  }
+
   @Test
   public void testAggregatesWithoutGrouping() throws Exception {
 
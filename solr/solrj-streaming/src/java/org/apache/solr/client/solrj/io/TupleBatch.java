@@ -0,0 +1,354 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.client.solrj.io;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+
+/**
+ * A batch of records read from a {@link TupleStream} by {@link TupleStream#readBatch(TupleBatch)}.
+ *
+ * <p>Rows are either backed by a {@link Tuple}, when added by a stream that only produces tuples
+ * one at a time, or stored directly in {@link Column}s, when added by a stream that can produce
+ * columnar data without allocating a map per record. Consumers access both kinds of rows through
+ * {@link #getColumn(String)}; columns of tuple backed rows are filled in lazily, once per batch.
+ *
+ * <p>Long and double values are stored in primitive arrays. As with the convenience getters of
+ * {@link Tuple}, ints and floats are widened to longs and doubles respectively. A column holding
+ * values of mixed types falls back to storing objects.
+ */
+public class TupleBatch {
+
+  public static final int DEFAULT_CAPACITY = 1024;
+
+  private final int capacity;
+  private final Tuple[] tuples;
+  private final Map<String, Column> columns = new LinkedHashMap<>();
+  private final Set<String> filledColumns = new HashSet<>();
+  private int size;
+  private int tupleRows;
+  private Tuple eof;
+
+  public TupleBatch() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public TupleBatch(int capacity) {
+    this.capacity = capacity;
+    this.tuples = new Tuple[capacity];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public boolean isFull() {
+    return size == capacity;
+  }
+
+  /** Returns true if the stream this batch was read from is exhausted. */
+  public boolean isEOF() {
+    return eof != null;
+  }
+
+  /** Returns the EOF tuple of the stream, or null if the stream is not exhausted yet. */
+  public Tuple getEOF() {
+    return eof;
+  }
+
+  public void setEOF(Tuple eof) {
+    assert eof.EOF;
+    this.eof = eof;
+  }
+
+  /** Empties the batch so it can be reused, keeping the allocated column arrays. */
+  public void clear() {
+    Arrays.fill(tuples, 0, size, null);
+    for (Column column : columns.values()) {
+      column.clear();
+    }
+    filledColumns.clear();
+    size = 0;
+    tupleRows = 0;
+    eof = null;
+  }
+
+  /** Adds a row backed by {@code tuple}. */
+  public void add(Tuple tuple) {
+    assert !tuple.EOF;
+    tuples[size++] = tuple;
+    tupleRows++;
+    filledColumns.clear();
+  }
+
+  /** Adds a row stored in columns, without keeping a reference to {@code fields}. */
+  public void add(Map<String, ?> fields) {
+    int row = newRow();
+    for (Map.Entry<String, ?> entry : fields.entrySet()) {
+      column(entry.getKey()).set(row, entry.getValue());
+    }
+  }
+
+  /**
+   * Adds an empty columnar row and returns its index. Values are set through {@link
+   * #column(String)}.
+   */
+  public int newRow() {
+    assert size < capacity;
+    return size++;
+  }
+
+  /** Returns the column for {@code name}, creating it if needed. Used by producers of batches. */
+  public Column column(String name) {
+    return columns.computeIfAbsent(name, k -> new Column(capacity));
+  }
+
+  /**
+   * Returns the column holding the values of {@code name} for all rows of this batch. Rows without
+   * a value for the field are absent from the column.
+   */
+  public Column getColumn(String name) {
+    Column column = column(name);
+    if (tupleRows > 0 && filledColumns.add(name)) {
+      for (int row = 0; row < size; row++) {
+        if (tuples[row] != null) {
+          column.set(row, tuples[row].get(name));
+        }
+      }
+    }
+    return column;
+  }
+
+  /** Returns the names of all columns holding columnar rows, in insertion order. */
+  public Set<String> getColumnNames() {
+    return Collections.unmodifiableSet(columns.keySet());
+  }
+
+  /**
+   * Returns the record at {@code row} as a {@link Tuple}. Tuple backed rows return the original
+   * tuple, columnar rows are materialized into a new one.
+   */
+  public Tuple getTuple(int row) {
+    if (tuples[row] != null) {
+      return tuples[row];
+    }
+    Tuple tuple = new Tuple();
+    for (Map.Entry<String, Column> entry : columns.entrySet()) {
+      Column column = entry.getValue();
+      if (column.isPresent(row)) {
+        tuple.put(entry.getKey(), column.get(row));
+      }
+    }
+    return tuple;
+  }
+
+  /**
+   * Restricts and renames the fields of all rows, turning every row into a columnar one. Fields not
+   * in {@code fieldMappings} are dropped.
+   *
+   * @param fieldMappings maps the current field names to the new ones
+   */
+  public void project(Map<String, String> fieldMappings) {
+    Map<String, Column> projected = new LinkedHashMap<>();
+    for (Map.Entry<String, String> mapping : fieldMappings.entrySet()) {
+      projected.put(mapping.getValue(), getColumn(mapping.getKey()));
+    }
+    columns.clear();
+    columns.putAll(projected);
+    Arrays.fill(tuples, 0, size, null);
+    tupleRows = 0;
+    filledColumns.clear();
+  }
+
+  /** The values of a single field across all rows of a {@link TupleBatch}. */
+  public static class Column {
+    private static final byte EMPTY = 0;
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte OBJECT = 3;
+
+    private final int capacity;
+    private final BitSet present;
+    private byte type = EMPTY;
+    private long[] longs;
+    private double[] doubles;
+    private Object[] objects;
+
+    Column(int capacity) {
+      this.capacity = capacity;
+      this.present = new BitSet(capacity);
+    }
+
+    void clear() {
+      present.clear();
+      if (type == OBJECT) {
+        Arrays.fill(objects, null);
+      }
+      // the arrays are kept, the next batch most likely holds the same kind of values
+      type = EMPTY;
+    }
+
+    public boolean isPresent(int row) {
+      return present.get(row);
+    }
+
+    /** Returns true if all values of this column are stored as longs. */
+    public boolean isLong() {
+      return type == LONG;
+    }
+
+    /** Returns true if all values of this column are stored as doubles. */
+    public boolean isDouble() {
+      return type == DOUBLE;
+    }
+
+    /** Returns the backing array of a {@link #isLong()} column. */
+    public long[] longs() {
+      assert type == LONG;
+      return longs;
+    }
+
+    /** Returns the backing array of a {@link #isDouble()} column. */
+    public double[] doubles() {
+      assert type == DOUBLE;
+      return doubles;
+    }
+
+    public long getLong(int row) {
+      return type == LONG ? longs[row] : ((Number) get(row)).longValue();
+    }
+
+    public double getDouble(int row) {
+      return type == DOUBLE ? doubles[row] : ((Number) get(row)).doubleValue();
+    }
+
+    /** Returns the value at {@code row}, boxing primitives, or null if absent. */
+    public Object get(int row) {
+      if (!present.get(row)) {
+        return null;
+      }
+      switch (type) {
+        case LONG:
+          return longs[row];
+        case DOUBLE:
+          return doubles[row];
+        default:
+          return objects[row];
+      }
+    }
+
+    /** Returns true if the value at {@code row} equals {@code value}, without boxing it. */
+    public boolean valueEquals(int row, Object value) {
+      if (!present.get(row)) {
+        return value == null;
+      }
+      switch (type) {
+        case LONG:
+          return value instanceof Long l && l == longs[row];
+        case DOUBLE:
+          return value instanceof Double d && Double.compare(d, doubles[row]) == 0;
+        default:
+          return objects[row].equals(value);
+      }
+    }
+
+    public void setLong(int row, long value) {
+      if (type == EMPTY) {
+        initType(LONG);
+      }
+      if (type == LONG) {
+        longs[row] = value;
+        present.set(row);
+      } else {
+        set(row, value);
+      }
+    }
+
+    public void setDouble(int row, double value) {
+      if (type == EMPTY) {
+        initType(DOUBLE);
+      }
+      if (type == DOUBLE) {
+        doubles[row] = value;
+        present.set(row);
+      } else {
+        set(row, value);
+      }
+    }
+
+    public void set(int row, Object value) {
+      if (value == null) {
+        present.clear(row);
+        if (type == OBJECT) {
+          objects[row] = null;
+        }
+      } else if (value instanceof Long || value instanceof Integer) {
+        if (type == LONG || type == EMPTY) {
+          setLong(row, ((Number) value).longValue());
+        } else {
+          setObject(row, ((Number) value).longValue());
+        }
+      } else if (value instanceof Double || value instanceof Float) {
+        if (type == DOUBLE || type == EMPTY) {
+          setDouble(row, ((Number) value).doubleValue());
+        } else {
+          setObject(row, ((Number) value).doubleValue());
+        }
+      } else {
+        setObject(row, value);
+      }
+    }
+
+    private void setObject(int row, Object value) {
+      if (type != OBJECT) {
+        toObjects();
+      }
+      objects[row] = value;
+      present.set(row);
+    }
+
+    private void initType(byte type) {
+      this.type = type;
+      if (type == LONG && longs == null) {
+        longs = new long[capacity];
+      } else if (type == DOUBLE && doubles == null) {
+        doubles = new double[capacity];
+      } else if (type == OBJECT && objects == null) {
+        objects = new Object[capacity];
+      }
+    }
+
+    private void toObjects() {
+      byte previous = type;
+      initType(OBJECT);
+      for (int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+        objects[row] = previous == LONG ? (Object) longs[row] : (Object) doubles[row];
+      }
+    }
+  }
+}
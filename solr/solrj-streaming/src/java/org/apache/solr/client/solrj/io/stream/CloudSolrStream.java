@@ -37,6 +37,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.ComparatorOrder;
 import org.apache.solr.client.solrj.io.comp.FieldComparator;
 import org.apache.solr.client.solrj.io.comp.MultipleFieldComparator;
@@ -470,6 +471,27 @@ public class CloudSolrStream extends TupleStream implements Expressible {
     }
   }
 
+  /**
+   * Once a single shard stream is left there is nothing to merge, so its records are read as a
+   * batch straight from the underlying {@link SolrStream}.
+   */
+  @Override
+  public void readBatch(TupleBatch batch) throws IOException {
+    // subclasses such as ParallelStream post-process each tuple in read()
+    if (getClass() != CloudSolrStream.class || trace || tuples.size() != 1 || batch.isFull()) {
+      super.readBatch(batch);
+      return;
+    }
+    TupleWrapper tw = tuples.pollFirst();
+    batch.add(tw.getTuple());
+    tw.stream.readBatch(batch);
+    if (batch.isEOF()) {
+      eofTuples.put(tw.stream.getBaseUrl(), batch.getEOF());
+    } else if (tw.next()) {
+      tuples.add(tw);
+    }
+  }
+
   protected class TupleWrapper implements Comparable<TupleWrapper> {
     private Tuple tuple;
     private final SolrStream stream;
@@ -17,7 +17,9 @@
 package org.apache.solr.client.solrj.io.stream;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -31,6 +33,9 @@ import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionNamedParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionValue;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.apache.solr.common.util.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Takes two streams (fullStream and hashStream) and joins them similar to an InnerJoinStream. The
@@ -41,12 +46,23 @@ import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
  * being computed on then that tuple will not be considered a match to anything. Ie, all fields
  * which are part of the hash must have a non-null value.
  *
+ * <p>If the optional {@code spillThreshold} parameter is set and the hashStream holds more tuples
+ * than that, the join falls back to a grace hash join: both streams are partitioned by hash into
+ * temporary files and the partitions are joined one at a time, so only about {@code
+ * spillThreshold} hashed tuples are held in memory. The joined tuples are then no longer returned
+ * in the order of the fullStream, which is why such a stream does not report a sort.
+ *
  * @since 6.0.0
  */
 public class HashJoinStream extends TupleStream implements Expressible {
 
   private static final long serialVersionUID = 1L;
 
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /** Caps the number of partitions, and so of open files, of a spilled join. */
+  private static final int MAX_SPILL_PARTITIONS = 256;
+
   protected TupleStream hashStream;
   protected TupleStream fullStream;
   protected List<String> leftHashOn;
@@ -57,9 +73,23 @@ public class HashJoinStream extends TupleStream implements Expressible {
   protected String workingFullHash = null;
   protected int workingHashSetIdx = 0;
 
+  protected int spillThreshold;
+  protected final TupleSpillFile.SpillStats spillStats = new TupleSpillFile.SpillStats();
+  private SpilledJoin spilledJoin;
+
   public HashJoinStream(TupleStream fullStream, TupleStream hashStream, List<String> hashOn)
       throws IOException {
-    init(fullStream, hashStream, hashOn);
+    this(fullStream, hashStream, hashOn, 0);
+  }
+
+  /**
+   * @param spillThreshold the maximum number of hashed tuples to hold in memory before spilling
+   *     both streams to disk, or 0 to always join in memory
+   */
+  public HashJoinStream(
+      TupleStream fullStream, TupleStream hashStream, List<String> hashOn, int spillThreshold)
+      throws IOException {
+    init(fullStream, hashStream, hashOn, spillThreshold);
   }
 
   public HashJoinStream(StreamExpression expression, StreamFactory factory) throws IOException {
@@ -70,9 +100,12 @@ public class HashJoinStream extends TupleStream implements Expressible {
     StreamExpressionNamedParameter hashStreamExpression =
         factory.getNamedOperand(expression, "hashed");
     StreamExpressionNamedParameter onExpression = factory.getNamedOperand(expression, "on");
+    StreamExpressionNamedParameter spillThresholdExpression =
+        factory.getNamedOperand(expression, "spillThreshold");
 
     // validate expression contains only what we want.
-    if (expression.getParameters().size() != streamExpressions.size() + 2) {
+    if (expression.getParameters().size()
+        != streamExpressions.size() + 2 + (null == spillThresholdExpression ? 0 : 1)) {
       throw new IOException(
           String.format(Locale.ROOT, "Invalid expression %s - unknown operands found", expression));
     }
@@ -110,16 +143,35 @@ public class HashJoinStream extends TupleStream implements Expressible {
       hashOn.add(part.trim());
     }
 
+    int spillThreshold = 0;
+    if (null != spillThresholdExpression) {
+      try {
+        spillThreshold =
+            Integer.parseInt(
+                ((StreamExpressionValue) spillThresholdExpression.getParameter()).getValue());
+      } catch (NumberFormatException e) {
+        throw new IOException(
+            String.format(
+                Locale.ROOT,
+                "Invalid expression %s - 'spillThreshold' must be a number of tuples",
+                expression),
+            e);
+      }
+    }
+
     init(
         factory.constructStream(streamExpressions.get(0)),
         factory.constructStream((StreamExpression) hashStreamExpression.getParameter()),
-        hashOn);
+        hashOn,
+        spillThreshold);
   }
 
-  private void init(TupleStream fullStream, TupleStream hashStream, List<String> hashOn)
+  private void init(
+      TupleStream fullStream, TupleStream hashStream, List<String> hashOn, int spillThreshold)
       throws IOException {
     this.fullStream = fullStream;
     this.hashStream = hashStream;
+    this.spillThreshold = spillThreshold;
     this.hashedTuples = new HashMap<>();
     this.leftHashOn = new ArrayList<>();
     this.rightHashOn = new ArrayList<>();
@@ -190,6 +242,10 @@ public class HashJoinStream extends TupleStream implements Expressible {
     }
 
     expression.addParameter(new StreamExpressionNamedParameter("on", sb.toString()));
+    if (spillThreshold > 0) {
+      expression.addParameter(
+          new StreamExpressionNamedParameter("spillThreshold", Integer.toString(spillThreshold)));
+    }
     return expression;
   }
 
@@ -226,20 +282,36 @@ public class HashJoinStream extends TupleStream implements Expressible {
     hashStream.open();
     fullStream.open();
 
+    int numHashed = 0;
     Tuple tuple = hashStream.read();
     while (!tuple.EOF) {
       String hash = computeHash(tuple, rightHashOn);
-      if (null != hash) {
-        if (hashedTuples.containsKey(hash)) {
-          hashedTuples.get(hash).add(tuple);
-        } else {
-          ArrayList<Tuple> set = new ArrayList<>();
-          set.add(tuple);
-          hashedTuples.put(hash, set);
+      if (null != spilledJoin) {
+        if (null != hash) {
+          spilledJoin.spillHashed(tuple);
+        }
+      } else if (null != hash) {
+        addHashed(hash, tuple);
+        if (spillThreshold > 0 && ++numHashed > spillThreshold) {
+          spilledJoin = new SpilledJoin();
         }
       }
       tuple = hashStream.read();
     }
+
+    if (null != spilledJoin) {
+      spilledJoin.partitionHashed();
+    }
+  }
+
+  private void addHashed(String hash, Tuple tuple) {
+    if (hashedTuples.containsKey(hash)) {
+      hashedTuples.get(hash).add(tuple);
+    } else {
+      ArrayList<Tuple> set = new ArrayList<>();
+      set.add(tuple);
+      hashedTuples.put(hash, set);
+    }
   }
 
   protected String computeHash(Tuple tuple, List<String> hashOn) {
@@ -258,8 +330,19 @@ public class HashJoinStream extends TupleStream implements Expressible {
 
   @Override
   public void close() throws IOException {
-    hashStream.close();
-    fullStream.close();
+    try {
+      if (null != spilledJoin) {
+        spilledJoin.close();
+        spilledJoin = null;
+        hashedTuples.clear();
+        if (log.isInfoEnabled()) {
+          log.info("{} spilled to disk: {}", getClass().getSimpleName(), spillStats);
+        }
+      }
+    } finally {
+      hashStream.close();
+      fullStream.close();
+    }
   }
 
   @Override
@@ -267,7 +350,7 @@ public class HashJoinStream extends TupleStream implements Expressible {
 
     findNextWorkingFullTuple:
     while (null == workingFullTuple) {
-      Tuple fullTuple = fullStream.read();
+      Tuple fullTuple = null == spilledJoin ? fullStream.read() : spilledJoin.nextFullTuple();
 
       // We're at the end of the line
       if (fullTuple.EOF) {
@@ -278,6 +361,10 @@ public class HashJoinStream extends TupleStream implements Expressible {
       // join with then retry loop - keep going until we find one
       String fullHash = computeHash(fullTuple, leftHashOn);
       if (null == fullHash || !hashedTuples.containsKey(fullHash)) {
+        Tuple unmatched = unmatched(fullTuple);
+        if (null != unmatched) {
+          return unmatched;
+        }
         continue findNextWorkingFullTuple;
       }
 
@@ -305,13 +392,153 @@ public class HashJoinStream extends TupleStream implements Expressible {
     return returnTuple;
   }
 
+  /**
+   * Returns the tuple to emit for a tuple of the fullStream without any matching hashed tuple, or
+   * null to skip it as an inner join does.
+   */
+  protected Tuple unmatched(Tuple fullTuple) {
+    return null;
+  }
+
   @Override
   public StreamComparator getStreamSort() {
-    return fullStream.getStreamSort();
+    // a spilled join returns the tuples partition by partition
+    return spillThreshold > 0 ? null : fullStream.getStreamSort();
+  }
+
+  /** Returns how much this stream spilled to disk so far. */
+  public TupleSpillFile.SpillStats getSpillStats() {
+    return spillStats;
   }
 
   @Override
   public int getCost() {
     return 0;
   }
+
+  /**
+   * Grace hash join state, set up once the hashStream turns out to hold more than {@code
+   * spillThreshold} tuples. The hashed tuples are spilled, then partitioned by hash into as many
+   * files as needed for a partition to fit in memory. The fullStream is partitioned the same way
+   * while it is read, except for tuples that cannot match any hashed tuple, which are passed on
+   * right away. Each partition of hashed tuples is then loaded into {@link #hashedTuples} in turn
+   * and joined with the matching partition of the fullStream.
+   */
+  private class SpilledJoin {
+
+    private TupleSpillFile spilledHashed;
+    private TupleSpillFile[] hashedPartitions;
+    private TupleSpillFile[] fullPartitions;
+    // the partition being joined, or -1 while the fullStream is being partitioned
+    private int partition = -1;
+    private Tuple eofTuple;
+
+    SpilledJoin() throws IOException {
+      spilledHashed = new TupleSpillFile();
+      for (List<Tuple> tuples : hashedTuples.values()) {
+        for (Tuple tuple : tuples) {
+          spilledHashed.write(tuple);
+        }
+      }
+      hashedTuples.clear();
+    }
+
+    void spillHashed(Tuple tuple) throws IOException {
+      spilledHashed.write(tuple);
+    }
+
+    void partitionHashed() throws IOException {
+      spilledHashed.finishWriting();
+      spillStats.add(spilledHashed);
+      int numPartitions =
+          (int) Math.min(MAX_SPILL_PARTITIONS, spilledHashed.size() / spillThreshold + 1);
+      hashedPartitions = new TupleSpillFile[numPartitions];
+      fullPartitions = new TupleSpillFile[numPartitions];
+      for (Tuple tuple = spilledHashed.read(); null != tuple; tuple = spilledHashed.read()) {
+        write(hashedPartitions, partitionOf(computeHash(tuple, rightHashOn)), tuple);
+      }
+      spilledHashed.close();
+      spilledHashed = null;
+      finishWriting(hashedPartitions);
+    }
+
+    /**
+     * Returns the next tuple of the fullStream to join with {@link #hashedTuples}, or the EOF tuple
+     * once all partitions have been joined.
+     */
+    Tuple nextFullTuple() throws IOException {
+      while (partition < 0) {
+        Tuple fullTuple = fullStream.read();
+        if (fullTuple.EOF) {
+          eofTuple = fullTuple;
+          finishWriting(fullPartitions);
+          loadPartition(0);
+          break;
+        }
+        String fullHash = computeHash(fullTuple, leftHashOn);
+        if (null == fullHash || null == hashedPartitions[partitionOf(fullHash)]) {
+          // no hashed tuples are loaded yet, so read() treats this one as unmatched
+          return fullTuple;
+        }
+        write(fullPartitions, partitionOf(fullHash), fullTuple);
+      }
+
+      while (partition < fullPartitions.length) {
+        TupleSpillFile fullPartition = fullPartitions[partition];
+        Tuple fullTuple = null == fullPartition ? null : fullPartition.read();
+        if (null != fullTuple) {
+          return fullTuple;
+        }
+        loadPartition(partition + 1);
+      }
+      hashedTuples.clear();
+      return eofTuple;
+    }
+
+    private void loadPartition(int next) throws IOException {
+      if (partition >= 0) {
+        IOUtils.closeQuietly(hashedPartitions[partition]);
+        IOUtils.closeQuietly(fullPartitions[partition]);
+        hashedPartitions[partition] = null;
+        fullPartitions[partition] = null;
+      }
+      partition = next;
+      hashedTuples.clear();
+      if (partition < hashedPartitions.length && null != hashedPartitions[partition]) {
+        TupleSpillFile hashedPartition = hashedPartitions[partition];
+        for (Tuple tuple = hashedPartition.read(); null != tuple; tuple = hashedPartition.read()) {
+          addHashed(computeHash(tuple, rightHashOn), tuple);
+        }
+      }
+    }
+
+    private int partitionOf(String hash) {
+      return Math.floorMod(hash.hashCode(), hashedPartitions.length);
+    }
+
+    private void write(TupleSpillFile[] partitions, int partition, Tuple tuple)
+        throws IOException {
+      if (null == partitions[partition]) {
+        partitions[partition] = new TupleSpillFile();
+      }
+      partitions[partition].write(tuple);
+    }
+
+    private void finishWriting(TupleSpillFile[] partitions) throws IOException {
+      for (TupleSpillFile file : partitions) {
+        if (null != file) {
+          file.finishWriting();
+          spillStats.add(file);
+        }
+      }
+    }
+
+    void close() {
+      IOUtils.closeQuietly(spilledHashed);
+      if (null != hashedPartitions) {
+        IOUtils.closeQuietly(Arrays.asList(hashedPartitions));
+        IOUtils.closeQuietly(Arrays.asList(fullPartitions));
+      }
+    }
+  }
 }
@@ -47,6 +47,12 @@ public class OuterHashJoinStream extends HashJoinStream implements Expressible {
     super(fullStream, hashStream, hashOn);
   }
 
+  public OuterHashJoinStream(
+      TupleStream fullStream, TupleStream hashStream, List<String> hashOn, int spillThreshold)
+      throws IOException {
+    super(fullStream, hashStream, hashOn, spillThreshold);
+  }
+
   public OuterHashJoinStream(StreamExpression expression, StreamFactory factory)
       throws IOException {
     super(expression, factory);
@@ -88,50 +94,18 @@ public class OuterHashJoinStream extends HashJoinStream implements Expressible {
       }
     }
     expression.addParameter(new StreamExpressionNamedParameter("on", sb.toString()));
+    if (spillThreshold > 0) {
+      expression.addParameter(
+          new StreamExpressionNamedParameter("spillThreshold", Integer.toString(spillThreshold)));
+    }
 
     return expression;
   }
 
   @Override
-  public Tuple read() throws IOException {
-
-    if (null == workingFullTuple) {
-      Tuple fullTuple = fullStream.read();
-
-      // We're at the end of the line
-      if (fullTuple.EOF) {
-        return fullTuple;
-      }
-
-      // If fullTuple doesn't have a valid hash or the hash cannot be found in the hashedTuples then
-      // return the tuple from fullStream. This is an outer join so there is no requirement there be
-      // a matching value in the hashed stream
-      String fullHash = computeHash(fullTuple, leftHashOn);
-      if (null == fullHash || !hashedTuples.containsKey(fullHash)) {
-        return fullTuple.clone();
-      }
-
-      workingFullTuple = fullTuple;
-      workingFullHash = fullHash;
-      workingHashSetIdx = 0;
-    }
-
-    // At this point we know we have at least one doc to match on due to the check at the end,
-    // before returning, we know we have at least one to match with left
-    List<Tuple> matches = hashedTuples.get(workingFullHash);
-    Tuple returnTuple = workingFullTuple.clone();
-    returnTuple.merge(matches.get(workingHashSetIdx));
-
-    // Increment this so the next time we hit the next matching tuple
-    workingHashSetIdx++;
-
-    if (workingHashSetIdx >= matches.size()) {
-      // well, now we've reached all the matches, clear it all out
-      workingFullTuple = null;
-      workingFullHash = null;
-      workingHashSetIdx = 0;
-    }
-
-    return returnTuple;
+  protected Tuple unmatched(Tuple fullTuple) {
+    // This is an outer join so there is no requirement there be a matching value in the hashed
+    // stream
+    return fullTuple.clone();
   }
 }
@@ -93,6 +93,17 @@ public interface ParallelMetricsRollup {
    * @return Either an array of metrics that can be parallelized and rolled up or empty.
    */
   default Optional<Metric[]> getRollupMetrics(Metric[] metrics) {
+    return rollupMetricsOf(metrics);
+  }
+
+  /**
+   * Either an array of metrics that roll up the given metrics computed over partitions, or empty if
+   * some metric cannot be rolled up.
+   *
+   * @param metrics The metrics computed over each partition.
+   * @return Either an array of metrics that roll up the given metrics or empty.
+   */
+  static Optional<Metric[]> rollupMetricsOf(Metric[] metrics) {
     Metric[] rollup = new Metric[metrics.length];
     CountMetric count = null;
     for (int m = 0; m < rollup.length; m++) {
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.HashKey;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.eq.FieldEqualitor;
@@ -52,6 +53,10 @@ public class RollupStream extends TupleStream implements Expressible {
   private Metric[] currentMetrics;
   private boolean finished = false;
 
+  private transient TupleBatch batch;
+  private transient TupleBatch.Column[] bucketColumns;
+  private transient int row;
+
   public RollupStream(TupleStream tupleStream, Bucket[] buckets, Metric[] metrics) {
     init(tupleStream, buckets, metrics);
   }
@@ -201,6 +206,9 @@ public class RollupStream extends TupleStream implements Expressible {
 
   @Override
   public void open() throws IOException {
+    batch = new TupleBatch();
+    bucketColumns = new TupleBatch.Column[buckets.length];
+    row = 0;
     tupleStream.open();
   }
 
@@ -210,68 +218,58 @@ public class RollupStream extends TupleStream implements Expressible {
     this.currentMetrics = null;
     this.currentKey = new HashKey("-");
     this.finished = false;
+    this.batch = null;
+    this.bucketColumns = null;
   }
 
+  /**
+   * Reads the underlying stream in {@link TupleBatch}es, so that each run of rows falling into the
+   * same bucket is aggregated by a single {@link Metric#update(TupleBatch, int, int)} call.
+   */
   @Override
   public Tuple read() throws IOException {
 
     while (true) {
-      Tuple tuple = tupleStream.read();
-      if (tuple.EOF) {
-        if (!finished) {
-
-          if (currentMetrics == null) {
-            return tuple;
-          }
-
-          Tuple t = new Tuple();
-          for (Metric metric : currentMetrics) {
-            t.put(metric.getIdentifier(), metric.getValue());
+      if (row == batch.size()) {
+        if (batch.isEOF()) {
+          if (!finished && currentMetrics != null) {
+            finished = true;
+            return currentTuple();
           }
-
-          for (int i = 0; i < buckets.length; i++) {
-            t.put(buckets[i].toString(), currentKey.getParts()[i]);
-          }
-          tupleStream.pushBack(tuple);
-          finished = true;
-          return t;
-        } else {
-          return tuple;
+          return batch.getEOF();
         }
+        batch.clear();
+        tupleStream.readBatch(batch);
+        row = 0;
+        for (int i = 0; i < buckets.length; i++) {
+          bucketColumns[i] = batch.getColumn(buckets[i].toString());
+        }
+        continue;
       }
 
-      Object[] bucketValues = new Object[buckets.length];
-      for (int i = 0; i < buckets.length; i++) {
-        bucketValues[i] = buckets[i].getBucketValue(tuple);
-      }
-
-      HashKey hashKey = new HashKey(bucketValues);
-
-      if (hashKey.equals(currentKey)) {
+      if (currentMetrics != null && inCurrentBucket(row)) {
+        int end = row + 1;
+        while (end < batch.size() && inCurrentBucket(end)) {
+          end++;
+        }
         for (Metric bucketMetric : currentMetrics) {
-          bucketMetric.update(tuple);
+          bucketMetric.update(batch, row, end);
         }
+        row = end;
       } else {
         Tuple t = null;
         if (currentMetrics != null) {
-          t = new Tuple();
-          for (Metric metric : currentMetrics) {
-            t.put(metric.getIdentifier(), metric.getValue());
-          }
-
-          for (int i = 0; i < buckets.length; i++) {
-            t.put(buckets[i].toString(), currentKey.getParts()[i]);
-          }
+          t = currentTuple();
         }
 
-        currentKey = hashKey;
-        if (metrics != null) {
-          currentMetrics = new Metric[metrics.length];
-          for (int i = 0; i < metrics.length; i++) {
-            Metric bucketMetric = metrics[i].newInstance();
-            bucketMetric.update(tuple);
-            currentMetrics[i] = bucketMetric;
-          }
+        Object[] bucketValues = new Object[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+          bucketValues[i] = buckets[i].getBucketValue(bucketColumns[i], row);
+        }
+        currentKey = new HashKey(bucketValues);
+        currentMetrics = new Metric[metrics == null ? 0 : metrics.length];
+        for (int i = 0; i < currentMetrics.length; i++) {
+          currentMetrics[i] = metrics[i].newInstance();
         }
 
         if (t != null) {
@@ -281,6 +279,28 @@ public class RollupStream extends TupleStream implements Expressible {
     }
   }
 
+  private boolean inCurrentBucket(int row) {
+    Object[] parts = currentKey.getParts();
+    for (int i = 0; i < buckets.length; i++) {
+      if (!buckets[i].hasBucketValue(bucketColumns[i], row, parts[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private Tuple currentTuple() {
+    Tuple t = new Tuple();
+    for (Metric metric : currentMetrics) {
+      t.put(metric.getIdentifier(), metric.getValue());
+    }
+
+    for (int i = 0; i < buckets.length; i++) {
+      t.put(buckets[i].toString(), currentKey.getParts()[i]);
+    }
+    return t;
+  }
+
   @Override
   public int getCost() {
     return 0;
@@ -25,6 +25,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.eval.EvaluatorException;
 import org.apache.solr.client.solrj.io.eval.StreamEvaluator;
@@ -355,6 +356,24 @@ public class SelectStream extends TupleStream implements Expressible {
     return workingToReturn;
   }
 
+  /**
+   * A select that only picks and renames fields is applied to the whole batch at once, by renaming
+   * its columns instead of copying each tuple. Selects with glob patterns, operations or evaluators
+   * need the per-tuple path.
+   */
+  @Override
+  public void readBatch(TupleBatch batch) throws IOException {
+    if (batch.size() > 0
+        || !selectedFieldGlobPatterns.isEmpty()
+        || !operations.isEmpty()
+        || !selectedEvaluators.isEmpty()) {
+      super.readBatch(batch);
+      return;
+    }
+    stream.readBatch(batch);
+    batch.project(selectedFields);
+  }
+
   /** Return the stream sort - ie, the order in which records are returned */
   @Override
   public StreamComparator getStreamSort() {
@@ -29,6 +29,7 @@ import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.InputStreamResponseParser;
 import org.apache.solr.client.solrj.io.SolrClientCache;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation.ExpressionType;
@@ -131,6 +132,11 @@ public class SolrStream extends TupleStream {
     }
   }
 
+  // For test use only.
+  void setTupleStreamParser(TupleStreamParser tupleStreamParser) {
+    this.tupleStreamParser = tupleStreamParser;
+  }
+
   /** Setting trace to true will include the "_CORE_" field in each Tuple emitted by the stream. */
   public void setTrace(boolean trace) {
     this.trace = trace;
@@ -233,6 +239,46 @@ public class SolrStream extends TupleStream {
     }
   }
 
+  /**
+   * Adds the parsed records directly as columnar rows, saving the {@link Tuple} copy that {@link
+   * #read()} makes of each record.
+   */
+  @Override
+  public void readBatch(TupleBatch batch) throws IOException {
+    if (trace || fieldMappings != null) {
+      super.readBatch(batch);
+      return;
+    }
+    try {
+      while (!batch.isFull()) {
+        Map<String, Object> fields = tupleStreamParser.next();
+        if (fields == null) {
+          batch.setEOF(Tuple.EOF());
+          return;
+        }
+
+        String msg = (String) fields.get(StreamParams.EXCEPTION);
+        if (msg != null) {
+          throw new HandledException(msg);
+        }
+        if (fields.containsKey(StreamParams.EOF)) {
+          // the EOF tuple of a /stream response carries metadata, e.g. its RESPONSE_TIME
+          batch.setEOF(new Tuple(fields));
+          return;
+        }
+        batch.add(fields);
+      }
+    } catch (HandledException e) {
+      throw new IOException("--> " + this.baseUrl + ":" + e.getMessage());
+    } catch (Exception e) {
+      throw new IOException(
+          "--> "
+              + this.baseUrl
+              + ": An exception has occurred on the server, refer to server log for details.",
+          e);
+    }
+  }
+
   public void setDistrib(boolean distrib) {
     this.distrib = distrib;
   }
@@ -17,10 +17,13 @@
 package org.apache.solr.client.solrj.io.stream;
 
 import java.io.IOException;
+import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
+import java.util.PriorityQueue;
 import org.apache.solr.client.solrj.io.Tuple;
 import org.apache.solr.client.solrj.io.comp.FieldComparator;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
@@ -32,22 +35,44 @@ import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionNamedParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionValue;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * The SortStream emits a stream of Tuples sorted by a Comparator.
  *
+ * <p>By default all tuples of the underlying stream are sorted in memory. If the optional {@code
+ * spillThreshold} parameter is set, at most that many tuples are held in memory: each full run of
+ * tuples is sorted and spilled to a temporary file, and the sorted runs are merged while reading.
+ *
  * @since 6.1.0
  */
 public class SortStream extends TupleStream implements Expressible {
 
   private static final long serialVersionUID = 1;
 
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /** Caps the number of runs, and so of open files, merged at once by a spilled sort. */
+  private static final int MAX_MERGE_RUNS = 128;
+
   private TupleStream stream;
   private StreamComparator comparator;
+  private int spillThreshold;
   private Worker worker;
+  private final TupleSpillFile.SpillStats spillStats = new TupleSpillFile.SpillStats();
 
   public SortStream(TupleStream stream, StreamComparator comp) throws IOException {
-    init(stream, comp);
+    this(stream, comp, 0);
+  }
+
+  /**
+   * @param spillThreshold the maximum number of tuples to sort in memory before spilling to disk,
+   *     or 0 to always sort in memory
+   */
+  public SortStream(TupleStream stream, StreamComparator comp, int spillThreshold)
+      throws IOException {
+    init(stream, comp, spillThreshold);
   }
 
   public SortStream(StreamExpression expression, StreamFactory factory) throws IOException {
@@ -56,9 +81,12 @@ public class SortStream extends TupleStream implements Expressible {
         factory.getExpressionOperandsRepresentingTypes(
             expression, Expressible.class, TupleStream.class);
     StreamExpressionNamedParameter byExpression = factory.getNamedOperand(expression, "by");
+    StreamExpressionNamedParameter spillThresholdExpression =
+        factory.getNamedOperand(expression, "spillThreshold");
 
     // validate expression contains only what we want.
-    if (expression.getParameters().size() != streamExpressions.size() + 1) {
+    if (expression.getParameters().size()
+        != streamExpressions.size() + 1 + (null == spillThresholdExpression ? 0 : 1)) {
       throw new IOException(
           String.format(Locale.ROOT, "Invalid expression %s - unknown operands found", expression));
     }
@@ -80,16 +108,40 @@ public class SortStream extends TupleStream implements Expressible {
               expression));
     }
 
+    int spillThreshold = 0;
+    if (null != spillThresholdExpression) {
+      try {
+        spillThreshold =
+            Integer.parseInt(
+                ((StreamExpressionValue) spillThresholdExpression.getParameter()).getValue());
+      } catch (NumberFormatException e) {
+        throw new IOException(
+            String.format(
+                Locale.ROOT,
+                "Invalid expression %s - 'spillThreshold' must be a number of tuples",
+                expression),
+            e);
+      }
+    }
+
     init(
         factory.constructStream(streamExpressions.get(0)),
         factory.constructComparator(
             ((StreamExpressionValue) byExpression.getParameter()).getValue(),
-            FieldComparator.class));
+            FieldComparator.class),
+        spillThreshold);
   }
 
-  private void init(TupleStream stream, StreamComparator comp) throws IOException {
+  private void init(TupleStream stream, StreamComparator comp, int spillThreshold)
+      throws IOException {
     this.stream = stream;
     this.comparator = comp;
+    this.spillThreshold = spillThreshold;
+
+    if (spillThreshold > 0) {
+      worker = new ExternalMergeWorker();
+      return;
+    }
 
     // standard java modified merge sort
     worker =
@@ -122,6 +174,11 @@ public class SortStream extends TupleStream implements Expressible {
             }
             return tuples.removeFirst();
           }
+
+          @Override
+          public void close() {
+            tuples.clear();
+          }
         };
   }
 
@@ -156,6 +213,11 @@ public class SortStream extends TupleStream implements Expressible {
           "This SortStream contains a non-expressible equalitor - it cannot be converted to an expression");
     }
 
+    if (spillThreshold > 0) {
+      expression.addParameter(
+          new StreamExpressionNamedParameter("spillThreshold", Integer.toString(spillThreshold)));
+    }
+
     return expression;
   }
 
@@ -193,7 +255,14 @@ public class SortStream extends TupleStream implements Expressible {
 
   @Override
   public void close() throws IOException {
-    stream.close();
+    try {
+      worker.close();
+      if (spillStats.getSpillFiles() > 0) {
+        log.info("Sort spilled to disk: {}", spillStats);
+      }
+    } finally {
+      stream.close();
+    }
   }
 
   @Override
@@ -208,6 +277,11 @@ public class SortStream extends TupleStream implements Expressible {
     return comparator;
   }
 
+  /** Returns how much this stream spilled to disk so far. */
+  public TupleSpillFile.SpillStats getSpillStats() {
+    return spillStats;
+  }
+
   @Override
   public int getCost() {
     return 0;
@@ -216,8 +290,169 @@ public class SortStream extends TupleStream implements Expressible {
   private interface Worker {
     public void readStream(TupleStream stream) throws IOException;
 
-    public void sort();
+    public void sort() throws IOException;
+
+    public Tuple read() throws IOException;
 
-    public Tuple read();
+    public void close() throws IOException;
+  }
+
+  /**
+   * External merge sort: runs of {@code spillThreshold} tuples are sorted in memory and spilled to
+   * disk, the last run is kept in memory. Reading merges the sorted runs, breaking ties by run so
+   * the sort stays stable like the in memory one. When there are too many runs to read them all at
+   * once, consecutive runs are first merged into longer ones, in as many passes as needed.
+   */
+  private class ExternalMergeWorker implements Worker {
+
+    private final List<TupleSpillFile> runs = new ArrayList<>();
+    private final List<Tuple> tuples = new ArrayList<>();
+    private final Comparator<RunHead> headComparator =
+        (a, b) -> {
+          int comp = comparator.compare(a.tuple, b.tuple);
+          return comp != 0 ? comp : Integer.compare(a.run, b.run);
+        };
+    private PriorityQueue<RunHead> heads;
+    private int nextInMemory;
+    private Tuple eofTuple;
+
+    @Override
+    public void readStream(TupleStream stream) throws IOException {
+      close();
+      Tuple tuple = stream.read();
+      while (!tuple.EOF) {
+        if (tuples.size() >= spillThreshold) {
+          spill();
+        }
+        tuples.add(tuple);
+        tuple = stream.read();
+      }
+      eofTuple = tuple;
+    }
+
+    private void spill() throws IOException {
+      tuples.sort(comparator);
+      TupleSpillFile run = new TupleSpillFile();
+      runs.add(run);
+      for (Tuple tuple : tuples) {
+        run.write(tuple);
+      }
+      run.finishWriting();
+      spillStats.add(run);
+      tuples.clear();
+    }
+
+    @Override
+    public void sort() throws IOException {
+      // the spilled runs and the in memory one are read at once, so at most MAX_MERGE_RUNS of them
+      while (runs.size() >= MAX_MERGE_RUNS) {
+        mergePass();
+      }
+      tuples.sort(comparator);
+      nextInMemory = 0;
+      heads = new PriorityQueue<>(runs.size() + 1, headComparator);
+      // the in memory run holds the last tuples read, so it gets the highest run number
+      for (int run = 0; run <= runs.size(); run++) {
+        Tuple tuple = nextOfRun(run);
+        if (null != tuple) {
+          heads.add(new RunHead(tuple, run));
+        }
+      }
+    }
+
+    /** Merges each group of MAX_MERGE_RUNS consecutive runs into one run, keeping their order. */
+    private void mergePass() throws IOException {
+      List<TupleSpillFile> merged = new ArrayList<>();
+      try {
+        for (int from = 0; from < runs.size(); from += MAX_MERGE_RUNS) {
+          List<TupleSpillFile> group =
+              runs.subList(from, Math.min(runs.size(), from + MAX_MERGE_RUNS));
+          merged.add(group.size() == 1 ? group.get(0) : mergeRuns(group));
+        }
+      } catch (IOException | RuntimeException e) {
+        for (TupleSpillFile run : merged) {
+          if (!runs.contains(run)) {
+            run.close();
+          }
+        }
+        throw e;
+      }
+      runs.clear();
+      runs.addAll(merged);
+    }
+
+    private TupleSpillFile mergeRuns(List<TupleSpillFile> group) throws IOException {
+      PriorityQueue<RunHead> queue = new PriorityQueue<>(group.size(), headComparator);
+      for (int run = 0; run < group.size(); run++) {
+        Tuple tuple = group.get(run).read();
+        if (null != tuple) {
+          queue.add(new RunHead(tuple, run));
+        }
+      }
+      TupleSpillFile merged = new TupleSpillFile();
+      try {
+        for (RunHead head = queue.poll(); null != head; head = queue.poll()) {
+          merged.write(head.tuple);
+          head.tuple = group.get(head.run).read();
+          if (null != head.tuple) {
+            queue.add(head);
+          }
+        }
+        merged.finishWriting();
+      } catch (IOException | RuntimeException e) {
+        merged.close();
+        throw e;
+      }
+      spillStats.add(merged);
+      for (TupleSpillFile run : group) {
+        run.close();
+      }
+      return merged;
+    }
+
+    private Tuple nextOfRun(int run) throws IOException {
+      if (run < runs.size()) {
+        return runs.get(run).read();
+      }
+      if (nextInMemory == tuples.size()) {
+        return null;
+      }
+      // release tuples as they are read, like the in memory worker does
+      return tuples.set(nextInMemory++, null);
+    }
+
+    @Override
+    public Tuple read() throws IOException {
+      RunHead head = heads.poll();
+      if (null == head) {
+        return eofTuple;
+      }
+      Tuple tuple = head.tuple;
+      head.tuple = nextOfRun(head.run);
+      if (null != head.tuple) {
+        heads.add(head);
+      }
+      return tuple;
+    }
+
+    @Override
+    public void close() throws IOException {
+      for (TupleSpillFile run : runs) {
+        run.close();
+      }
+      runs.clear();
+      tuples.clear();
+      heads = null;
+    }
+  }
+
+  private static class RunHead {
+    private Tuple tuple;
+    private final int run;
+
+    private RunHead(Tuple tuple, int run) {
+      this.tuple = tuple;
+      this.run = run;
+    }
   }
 }
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.common.util.FastInputStream;
+import org.apache.solr.common.util.FastOutputStream;
+import org.apache.solr.common.util.IOUtils;
+import org.apache.solr.common.util.JavaBinCodec;
+
+/**
+ * A temporary file holding tuples spilled to disk by streams that would otherwise have to keep an
+ * unbounded number of tuples in memory, such as {@link SortStream} and {@link HashJoinStream}.
+ *
+ * <p>Tuples are appended in javabin format until {@link #finishWriting()} is called, and are then
+ * read back in the order they were written. Only the fields of a tuple are spilled. The file is
+ * deleted when closed.
+ */
+public class TupleSpillFile implements Closeable {
+
+  private final Path path;
+  private final JavaBinCodec writeCodec = new JavaBinCodec();
+  private FastOutputStream out;
+  private FastInputStream in;
+  private JavaBinCodec readCodec;
+  private long size;
+  private long bytes;
+  private long read;
+
+  public TupleSpillFile() throws IOException {
+    this.path = Files.createTempFile("solr-stream-spill", ".javabin");
+    this.out = FastOutputStream.wrap(Files.newOutputStream(path));
+    writeCodec.init(out);
+  }
+
+  public void write(Tuple tuple) throws IOException {
+    assert !tuple.EOF;
+    writeCodec.writeMap(tuple.getFields());
+    size++;
+  }
+
+  /** Flushes and closes the file for writing, after which it can be read. */
+  public void finishWriting() throws IOException {
+    if (out != null) {
+      out.close();
+      bytes = out.size();
+      out = null;
+    }
+  }
+
+  /**
+   * Returns the next tuple of the file, or null once all tuples have been read. Must only be
+   * called after {@link #finishWriting()}.
+   */
+  @SuppressWarnings("unchecked")
+  public Tuple read() throws IOException {
+    assert out == null : "spill file has not been finished";
+    if (read == size) {
+      return null;
+    }
+    if (in == null) {
+      in = FastInputStream.wrap(Files.newInputStream(path));
+      readCodec = new JavaBinCodec();
+      readCodec.readMapAsNamedList(false);
+    }
+    read++;
+    return new Tuple((Map<String, ?>) readCodec.readVal(in));
+  }
+
+  /** Returns the number of tuples written to this file. */
+  public long size() {
+    return size;
+  }
+
+  /** Returns the size of this file in bytes, once finished. */
+  public long getBytes() {
+    return bytes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    IOUtils.closeQuietly(out);
+    IOUtils.closeQuietly(in);
+    out = null;
+    in = null;
+    Files.deleteIfExists(path);
+  }
+
+  /** Tracks how much a stream has spilled to disk, for logging and monitoring. */
+  public static class SpillStats {
+    private long spilledTuples;
+    private long spillFiles;
+    private long spilledBytes;
+
+    /** Records a finished spill file. */
+    public void add(TupleSpillFile file) {
+      spilledTuples += file.size();
+      spillFiles++;
+      spilledBytes += file.getBytes();
+    }
+
+    public long getSpilledTuples() {
+      return spilledTuples;
+    }
+
+    public long getSpillFiles() {
+      return spillFiles;
+    }
+
+    public long getSpilledBytes() {
+      return spilledBytes;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          Locale.ROOT,
+          "spilledTuples=%d spillFiles=%d spilledBytes=%d",
+          spilledTuples,
+          spillFiles,
+          spilledBytes);
+    }
+  }
+}
@@ -30,6 +30,7 @@ import java.util.stream.Collectors;
 import org.apache.solr.client.solrj.impl.CloudSolrClient;
 import org.apache.solr.client.solrj.io.SolrClientCache;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.comp.StreamComparator;
 import org.apache.solr.client.solrj.io.stream.expr.Explanation;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
@@ -66,6 +67,25 @@ public abstract class TupleStream implements Closeable, Serializable, MapWriter
 
   public abstract Tuple read() throws IOException;
 
+  /**
+   * Reads records into {@code batch} until it is full or this stream is exhausted, in which case
+   * the EOF tuple is set on the batch. Records are appended to those already in the batch.
+   *
+   * <p>The default implementation adapts {@link #read()}, adding each tuple as a tuple backed row.
+   * Streams able to produce records without allocating a {@link Tuple} per record should override
+   * this to fill the batch's columns directly.
+   */
+  public void readBatch(TupleBatch batch) throws IOException {
+    while (!batch.isFull()) {
+      Tuple tuple = read();
+      if (tuple.EOF) {
+        batch.setEOF(tuple);
+        return;
+      }
+      batch.add(tuple);
+    }
+  }
+
   public abstract StreamComparator getStreamSort();
 
   public abstract Explanation toExplanation(StreamFactory factory) throws IOException;
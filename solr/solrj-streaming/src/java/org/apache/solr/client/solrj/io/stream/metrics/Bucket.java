@@ -17,6 +17,7 @@
 package org.apache.solr.client.solrj.io.stream.metrics;
 
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 
 public class Bucket {
 
@@ -37,6 +38,25 @@ public class Bucket {
     }
   }
 
+  /** Returns the bucket value of row {@code row} of a batch column holding this bucket's field. */
+  public Object getBucketValue(TupleBatch.Column column, int row) {
+    Object o = column.get(row);
+    if (o == null) {
+      return NULL_VALUE;
+    } else {
+      return o;
+    }
+  }
+
+  /** Returns true if row {@code row} of {@code column} falls into the bucket {@code value}. */
+  public boolean hasBucketValue(TupleBatch.Column column, int row, Object value) {
+    if (column.isPresent(row)) {
+      return column.valueEquals(row, value);
+    } else {
+      return NULL_VALUE.equals(value);
+    }
+  }
+
   @Override
   public String toString() {
     return bucketKey;
@@ -19,6 +19,7 @@ package org.apache.solr.client.solrj.io.stream.metrics;
 import java.io.IOException;
 import java.util.Locale;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
@@ -76,6 +77,20 @@ public class CountMetric extends Metric {
     }
   }
 
+  @Override
+  public void update(TupleBatch batch, int from, int to) {
+    if (isAllColumns()) {
+      count += to - from;
+      return;
+    }
+    TupleBatch.Column column = batch.getColumn(columnName);
+    for (int row = from; row < to; row++) {
+      if (column.isPresent(row)) {
+        ++count;
+      }
+    }
+  }
+
   @Override
   public Long getValue() {
     return count;
@@ -19,6 +19,7 @@ package org.apache.solr.client.solrj.io.stream.metrics;
 import java.io.IOException;
 import java.util.Locale;
 import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpression;
 import org.apache.solr.client.solrj.io.stream.expr.StreamExpressionParameter;
 import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
@@ -67,7 +68,34 @@ public class SumMetric extends Metric {
 
   @Override
   public void update(Tuple tuple) {
-    Object o = tuple.get(columnName);
+    updateValue(tuple.get(columnName));
+  }
+
+  @Override
+  public void update(TupleBatch batch, int from, int to) {
+    TupleBatch.Column column = batch.getColumn(columnName);
+    if (column.isLong()) {
+      long[] values = column.longs();
+      for (int row = from; row < to; row++) {
+        if (column.isPresent(row)) {
+          longSum += values[row];
+        }
+      }
+    } else if (column.isDouble()) {
+      double[] values = column.doubles();
+      for (int row = from; row < to; row++) {
+        if (column.isPresent(row)) {
+          doubleSum += values[row];
+        }
+      }
+    } else {
+      for (int row = from; row < to; row++) {
+        updateValue(column.get(row));
+      }
+    }
+  }
+
+  private void updateValue(Object o) {
     if (o instanceof Double d) {
       doubleSum += d;
     } else if (o instanceof Float f) {
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.client.solrj.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.io.comp.StreamComparator;
+import org.apache.solr.client.solrj.io.stream.RollupStream;
+import org.apache.solr.client.solrj.io.stream.SelectStream;
+import org.apache.solr.client.solrj.io.stream.StreamContext;
+import org.apache.solr.client.solrj.io.stream.TupleStream;
+import org.apache.solr.client.solrj.io.stream.expr.Explanation;
+import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.apache.solr.client.solrj.io.stream.metrics.Bucket;
+import org.apache.solr.client.solrj.io.stream.metrics.CountMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.MaxMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.MeanMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.Metric;
+import org.apache.solr.client.solrj.io.stream.metrics.MinMetric;
+import org.apache.solr.client.solrj.io.stream.metrics.SumMetric;
+import org.junit.Test;
+
+public class TupleBatchTest extends SolrTestCase {
+
+  @Test
+  public void testColumnTypes() {
+    TupleBatch batch = new TupleBatch(8);
+    batch.add(Map.of("l", 1L, "i", 2, "d", 1.5d, "s", "a", "mixed", 1L));
+    batch.add(Map.of("l", 3L, "f", 2.5f, "s", "b", "mixed", "x"));
+
+    assertTrue(batch.getColumn("l").isLong());
+    assertTrue(batch.getColumn("i").isLong());
+    assertTrue(batch.getColumn("d").isDouble());
+    assertTrue(batch.getColumn("f").isDouble());
+    assertFalse(batch.getColumn("s").isLong());
+    assertFalse(batch.getColumn("mixed").isLong());
+    assertEquals(1L, batch.getColumn("mixed").get(0));
+    assertEquals("x", batch.getColumn("mixed").get(1));
+
+    // absent values stay absent
+    assertTrue(batch.getColumn("i").isPresent(0));
+    assertFalse(batch.getColumn("i").isPresent(1));
+    assertNull(batch.getTuple(1).get("i"));
+    assertEquals(2L, (long) batch.getTuple(0).getLong("i"));
+    assertEquals(2.5d, batch.getTuple(1).getDouble("f"), 0d);
+
+    batch.clear();
+    assertEquals(0, batch.size());
+    batch.add(Map.of("l", 7L));
+    assertFalse(batch.getColumn("l").isPresent(1));
+    assertEquals(7L, batch.getColumn("l").getLong(0));
+  }
+
+  @Test
+  public void testTupleBackedRows() {
+    TupleBatch batch = new TupleBatch(4);
+    Tuple tuple = new Tuple("a", 1L, "b", "x");
+    batch.add(tuple);
+    batch.add(Map.of("a", 2L));
+
+    assertSame(tuple, batch.getTuple(0));
+    TupleBatch.Column a = batch.getColumn("a");
+    assertTrue(a.isLong());
+    assertEquals(1L, a.getLong(0));
+    assertEquals(2L, a.getLong(1));
+
+    batch.project(Map.of("a", "renamed"));
+    assertEquals(1L, batch.getTuple(0).get("renamed"));
+    assertNull(batch.getTuple(0).get("b"));
+    assertEquals(2L, batch.getTuple(1).get("renamed"));
+  }
+
+  @Test
+  public void testRollupOverColumnarAndTupleRows() throws IOException {
+    List<Map<String, Object>> records = new ArrayList<>();
+    int numRecords = atLeast(3000);
+    for (int i = 0; i < numRecords; i++) {
+      // sorted by bucket, with runs crossing batch boundaries
+      records.add(Map.of("bucket", (long) i / 700, "l", (long) i, "d", i / 2d));
+    }
+
+    List<Tuple> perTuple = rollup(new ListStream(records, false));
+    List<Tuple> columnar = rollup(new ListStream(records, true));
+    assertEquals(perTuple.size(), columnar.size());
+    assertEquals((numRecords + 699) / 700, columnar.size());
+    for (int i = 0; i < perTuple.size(); i++) {
+      assertEquals(perTuple.get(i).getFields(), columnar.get(i).getFields());
+    }
+    Tuple first = columnar.get(0);
+    assertEquals(0L, first.get("bucket"));
+    assertEquals(700L, first.get("count(*)"));
+    assertEquals(699L * 700 / 2, first.get("sum(l)"));
+    assertEquals(699L, first.get("max(l)"));
+    assertEquals(0L, first.get("min(l)"));
+    assertEquals(349.5d, (double) first.get("avg(l)"), 0d);
+  }
+
+  private static List<Tuple> rollup(TupleStream source) throws IOException {
+    Metric[] metrics = {
+      new CountMetric(),
+      new SumMetric("l"),
+      new MinMetric("l"),
+      new MaxMetric("l"),
+      new MeanMetric("l"),
+      new SumMetric("d")
+    };
+    TupleStream select = new SelectStream(source, Map.of("bucket", "bucket", "l", "l", "d", "d"));
+    RollupStream rollup = new RollupStream(select, new Bucket[] {new Bucket("bucket")}, metrics);
+    rollup.setStreamContext(new StreamContext());
+    List<Tuple> tuples = new ArrayList<>();
+    rollup.open();
+    try {
+      for (Tuple tuple = rollup.read(); !tuple.EOF; tuple = rollup.read()) {
+        tuples.add(tuple);
+      }
+    } finally {
+      rollup.close();
+    }
+    return tuples;
+  }
+
+  /** Streams records either one tuple at a time or as columnar batch rows. */
+  private static class ListStream extends TupleStream {
+    private final List<Map<String, Object>> records;
+    private final boolean columnar;
+    private int next;
+
+    ListStream(List<Map<String, Object>> records, boolean columnar) {
+      this.records = records;
+      this.columnar = columnar;
+    }
+
+    @Override
+    public Tuple read() {
+      return next < records.size() ? new Tuple(records.get(next++)) : Tuple.EOF();
+    }
+
+    @Override
+    public void readBatch(TupleBatch batch) throws IOException {
+      if (!columnar) {
+        super.readBatch(batch);
+        return;
+      }
+      while (!batch.isFull()) {
+        if (next == records.size()) {
+          batch.setEOF(Tuple.EOF());
+          return;
+        }
+        batch.add(records.get(next++));
+      }
+    }
+
+    @Override
+    public void setStreamContext(StreamContext context) {}
+
+    @Override
+    public List<TupleStream> children() {
+      return List.of();
+    }
+
+    @Override
+    public void open() {
+      next = 0;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public StreamComparator getStreamSort() {
+      return null;
+    }
+
+    @Override
+    public Explanation toExplanation(StreamFactory factory) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.TupleBatch;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.StreamParams;
+import org.junit.Test;
+
+public class SolrStreamTest extends SolrTestCase {
+
+  // a /stream response, which ends with an EOF tuple carrying the response time
+  private static final String RESPONSE =
+      "{\"result-set\":{\"docs\":["
+          + "{\"id\":\"1\",\"a_i\":1},"
+          + "{\"id\":\"2\",\"a_i\":2},"
+          + "{\"id\":\"3\",\"a_i\":3},"
+          + "{\"EOF\":true,\"RESPONSE_TIME\":5}]}}";
+
+  @Test
+  public void testReadBatchEndsWithEOFTuple() throws IOException {
+    SolrStream stream = newStream();
+    TupleBatch batch = new TupleBatch(8);
+    stream.readBatch(batch);
+    assertEquals(3, batch.size());
+    assertEquals(3L, batch.getColumn("a_i").getLong(2));
+    assertTrue(batch.isEOF());
+    assertEquals(5L, (long) batch.getEOF().getLong(StreamParams.RESPONSE_TIME));
+    stream.close();
+  }
+
+  @Test
+  public void testReadBatchesKeepEOFMetadataOfRead() throws IOException {
+    SolrStream stream = newStream();
+    TupleBatch batch = new TupleBatch(3);
+    stream.readBatch(batch);
+    assertEquals(3, batch.size());
+    assertFalse(batch.isEOF());
+
+    batch.clear();
+    stream.readBatch(batch);
+    assertEquals(0, batch.size());
+    assertTrue(batch.isEOF());
+
+    SolrStream tupleStream = newStream();
+    Tuple tuple;
+    int rows = 0;
+    while (!(tuple = tupleStream.read()).EOF) {
+      rows++;
+    }
+    assertEquals(3, rows);
+    assertEquals(
+        tuple.getLong(StreamParams.RESPONSE_TIME),
+        batch.getEOF().getLong(StreamParams.RESPONSE_TIME));
+    tupleStream.close();
+    stream.close();
+  }
+
+  private static SolrStream newStream() {
+    SolrStream stream = new SolrStream("http://localhost:8983/solr", new ModifiableSolrParams());
+    stream.setTupleStreamParser(new JSONTupleStream(new StringReader(RESPONSE)));
+    return stream;
+  }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.client.solrj.io.stream;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.solr.SolrTestCase;
+import org.apache.solr.client.solrj.io.Tuple;
+import org.apache.solr.client.solrj.io.comp.ComparatorOrder;
+import org.apache.solr.client.solrj.io.comp.FieldComparator;
+import org.apache.solr.client.solrj.io.comp.StreamComparator;
+import org.apache.solr.client.solrj.io.stream.expr.Explanation;
+import org.apache.solr.client.solrj.io.stream.expr.StreamFactory;
+import org.junit.Test;
+
+public class SpillingStreamsTest extends SolrTestCase {
+
+  @Test
+  public void testSortSpillsAndStaysStable() throws IOException {
+    List<Map<String, Object>> records = new ArrayList<>();
+    int numRecords = atLeast(1000);
+    for (int i = 0; i < numRecords; i++) {
+      records.add(Map.of("id", (long) i, "a", (long) random().nextInt(50), "s", "v" + i));
+    }
+    StreamComparator comp = new FieldComparator("a", ComparatorOrder.ASCENDING);
+
+    List<Tuple> inMemory = readAll(new SortStream(new RecordStream(records), comp));
+    SortStream spilling = new SortStream(new RecordStream(records), comp, 100);
+    List<Tuple> spilled = readAll(spilling);
+
+    assertEquals(numRecords, spilled.size());
+    for (int i = 0; i < numRecords; i++) {
+      assertEquals(inMemory.get(i).getFields(), spilled.get(i).getFields());
+    }
+    assertTrue(spilling.getSpillStats().getSpillFiles() >= numRecords / 100 - 1);
+    assertTrue(spilling.getSpillStats().getSpilledBytes() > 0);
+  }
+
+  @Test
+  public void testSortMergesManyRunsInPasses() throws IOException {
+    List<Map<String, Object>> records = new ArrayList<>();
+    int numRecords = 1000;
+    for (int i = 0; i < numRecords; i++) {
+      records.add(Map.of("id", (long) i, "a", (long) random().nextInt(20)));
+    }
+    StreamComparator comp = new FieldComparator("a", ComparatorOrder.ASCENDING);
+
+    List<Tuple> inMemory = readAll(new SortStream(new RecordStream(records), comp));
+    // about 330 runs, more than can be merged at once
+    SortStream spilling = new SortStream(new RecordStream(records), comp, 3);
+    List<Tuple> spilled = readAll(spilling);
+
+    assertEquals(numRecords, spilled.size());
+    for (int i = 0; i < numRecords; i++) {
+      assertEquals(inMemory.get(i).getFields(), spilled.get(i).getFields());
+    }
+    // the runs merged in a first pass are spilled again
+    assertTrue(spilling.getSpillStats().getSpilledTuples() > numRecords);
+  }
+
+  @Test
+  public void testHashJoinSpills() throws IOException {
+    int numFull = atLeast(1000);
+    List<Map<String, Object>> full = new ArrayList<>();
+    for (int i = 0; i < numFull; i++) {
+      // every tenth tuple has no join key
+      full.add(i % 10 == 0 ? Map.of("id", (long) i) : Map.of("id", (long) i, "k", (long) i % 300));
+    }
+    List<Map<String, Object>> hashed = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      // keys 200 and up only exist on the hashed side, some keys have two matches
+      hashed.add(Map.of("key", (long) i % 400, "h", "h" + i));
+    }
+    List<String> on = List.of("k=key");
+
+    HashJoinStream spilling =
+        new HashJoinStream(new RecordStream(full), new RecordStream(hashed), on, 50);
+    assertNull(spilling.getStreamSort());
+    assertJoinsEqual(
+        readAll(new HashJoinStream(new RecordStream(full), new RecordStream(hashed), on)),
+        readAll(spilling));
+    assertTrue(spilling.getSpillStats().getSpillFiles() > 2);
+
+    OuterHashJoinStream spillingOuter =
+        new OuterHashJoinStream(new RecordStream(full), new RecordStream(hashed), on, 50);
+    List<Tuple> outer = readAll(spillingOuter);
+    assertJoinsEqual(
+        readAll(new OuterHashJoinStream(new RecordStream(full), new RecordStream(hashed), on)),
+        outer);
+    assertTrue(outer.size() > numFull);
+    assertTrue(spillingOuter.getSpillStats().getSpilledTuples() >= hashed.size());
+  }
+
+  @Test
+  public void testHashJoinBelowThresholdStaysInMemory() throws IOException {
+    List<Map<String, Object>> full = List.of(Map.of("k", 1L), Map.of("k", 2L));
+    List<Map<String, Object>> hashed = List.of(Map.of("k", 1L, "h", "x"));
+    HashJoinStream join =
+        new HashJoinStream(new RecordStream(full), new RecordStream(hashed), List.of("k"), 10);
+    List<Tuple> joined = readAll(join);
+    assertEquals(1, joined.size());
+    assertEquals("x", joined.get(0).getString("h"));
+    assertEquals(0, join.getSpillStats().getSpillFiles());
+  }
+
+  private static void assertJoinsEqual(List<Tuple> expected, List<Tuple> actual) {
+    // a spilled join does not keep the order of the full stream
+    assertEquals(sortedFields(expected), sortedFields(actual));
+  }
+
+  private static List<String> sortedFields(List<Tuple> tuples) {
+    List<String> fields = new ArrayList<>();
+    for (Tuple tuple : tuples) {
+      fields.add(new TreeMap<>(tuple.getFields()).toString());
+    }
+    fields.sort(null);
+    return fields;
+  }
+
+  private static List<Tuple> readAll(TupleStream stream) throws IOException {
+    stream.setStreamContext(new StreamContext());
+    List<Tuple> tuples = new ArrayList<>();
+    stream.open();
+    try {
+      for (Tuple tuple = stream.read(); !tuple.EOF; tuple = stream.read()) {
+        tuples.add(tuple);
+      }
+    } finally {
+      stream.close();
+    }
+    return tuples;
+  }
+
+  private static class RecordStream extends TupleStream {
+    private final List<Map<String, Object>> records;
+    private int next;
+
+    RecordStream(List<Map<String, Object>> records) {
+      this.records = records;
+    }
+
+    @Override
+    public Tuple read() {
+      return next < records.size() ? new Tuple(records.get(next++)) : Tuple.EOF();
+    }
+
+    @Override
+    public void setStreamContext(StreamContext context) {}
+
+    @Override
+    public List<TupleStream> children() {
+      return List.of();
+    }
+
+    @Override
+    public void open() {
+      next = 0;
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public StreamComparator getStreamSort() {
+      return null;
+    }
+
+    @Override
+    public Explanation toExplanation(StreamFactory factory) {
+      return null;
+    }
+  }
+}
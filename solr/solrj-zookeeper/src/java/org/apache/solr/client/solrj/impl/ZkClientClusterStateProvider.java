@@ -30,6 +30,7 @@ import org.apache.solr.common.AlreadyClosedException;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.cloud.ClusterState;
 import org.apache.solr.common.cloud.DocCollection;
+import org.apache.solr.common.cloud.DocCollectionDiff;
 import org.apache.solr.common.cloud.PerReplicaStatesOps;
 import org.apache.solr.common.cloud.SolrZkClient;
 import org.apache.solr.common.cloud.ZkNodeProps;
@@ -37,6 +38,7 @@ import org.apache.solr.common.cloud.ZkStateReader;
 import org.apache.solr.common.cloud.ZooKeeperException;
 import org.apache.solr.common.util.Utils;
 import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.data.Stat;
 import org.noggit.JSONWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -97,7 +99,6 @@ public class ZkClientClusterStateProvider
    * @param createTime creation time of the data/bytes
    * @return the ClusterState
    */
-  @SuppressWarnings({"unchecked"})
   @Deprecated
   public static ClusterState createFromJsonSupportingLegacyConfigName(
       int version,
@@ -106,11 +107,53 @@ public class ZkClientClusterStateProvider
       String coll,
       SolrZkClient zkClient,
       Instant createTime) {
+    return createFromJsonSupportingLegacyConfigName(
+        version, bytes, liveNodes, coll, zkClient, createTime, null);
+  }
+
+  /**
+   * Create a ClusterState from Json. This method supports legacy configName location, and the
+   * state.json written as a {@link DocCollectionDiff}.
+   *
+   * <p>If the snapshot a diff applies to was deleted, because the state.json was written again
+   * more than once since it was read, the current state.json is read again instead.
+   *
+   * @param snapshots the snapshots of the collections that the diffs apply to, by collection name,
+   *     which are read from ZK if they are not there, and kept there if not null
+   * @see #createFromJsonSupportingLegacyConfigName(int, byte[], Set, String, SolrZkClient, Instant)
+   */
+  @SuppressWarnings({"unchecked"})
+  @Deprecated
+  public static ClusterState createFromJsonSupportingLegacyConfigName(
+      int version,
+      byte[] bytes,
+      Set<String> liveNodes,
+      String coll,
+      SolrZkClient zkClient,
+      Instant createTime,
+      Map<String, DocCollection> snapshots) {
     if (bytes == null || bytes.length == 0) {
       return new ClusterState(liveNodes, Collections.emptyMap());
     }
     Map<String, Object> stateMap = (Map<String, Object>) Utils.fromJSON(bytes);
     Map<String, Object> props = (Map<String, Object>) stateMap.get(coll);
+    if (DocCollectionDiff.isDiff(props)) {
+      DocCollection snapshot =
+          getSnapshot(coll, DocCollectionDiff.getSnapshotVersion(props), zkClient, snapshots);
+      if (snapshot == null) {
+        return readCurrentState(version, liveNodes, coll, zkClient, snapshots);
+      }
+      DocCollection collection =
+          DocCollectionDiff.apply(
+              snapshot,
+              props,
+              version,
+              createTime,
+              PerReplicaStatesOps.getZkClientPrsSupplier(
+                  zkClient, DocCollection.getCollectionPath(coll)));
+      return new ClusterState(
+          Collections.singletonMap(coll, new ClusterState.CollectionRef(collection)), liveNodes);
+    }
     if (props != null) {
       if (!props.containsKey(ZkStateReader.CONFIGNAME_PROP)) {
         try {
@@ -141,6 +184,85 @@ public class ZkClientClusterStateProvider
             zkClient, DocCollection.getCollectionPath(coll)));
   }
 
+  /**
+   * Reads the current state.json of a collection, which may be a diff again, when the snapshot of
+   * the version that was read is gone.
+   */
+  private static ClusterState readCurrentState(
+      int version,
+      Set<String> liveNodes,
+      String coll,
+      SolrZkClient zkClient,
+      Map<String, DocCollection> snapshots) {
+    try {
+      Stat stat = new Stat();
+      byte[] data = zkClient.getData(DocCollection.getCollectionPath(coll), null, stat, true);
+      if (stat.getVersion() == version) {
+        throw new ZooKeeperException(
+            SolrException.ErrorCode.SERVER_ERROR,
+            "The snapshot of the state of " + coll + " version " + version + " is missing");
+      }
+      return createFromJsonSupportingLegacyConfigName(
+          stat.getVersion(),
+          data,
+          liveNodes,
+          coll,
+          zkClient,
+          Instant.ofEpochMilli(stat.getCtime()),
+          snapshots);
+    } catch (KeeperException.NoNodeException e) {
+      return new ClusterState(liveNodes, Collections.emptyMap());
+    } catch (KeeperException e) {
+      throw new ZooKeeperException(SolrException.ErrorCode.SERVER_ERROR, "", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ZooKeeperException(SolrException.ErrorCode.SERVER_ERROR, "", e);
+    }
+  }
+
+  /**
+   * Returns the snapshot of a collection that a diff of its state.json applies to, or null if it
+   * was deleted.
+   */
+  private static DocCollection getSnapshot(
+      String coll, int snapshotVersion, SolrZkClient zkClient, Map<String, DocCollection> cache) {
+    DocCollection snapshot = cache == null ? null : cache.get(coll);
+    if (snapshot != null && snapshot.getZNodeVersion() == snapshotVersion) {
+      return snapshot;
+    }
+    String path = DocCollectionDiff.getSnapshotPath(coll, snapshotVersion);
+    try {
+      Stat stat = new Stat();
+      byte[] data = zkClient.getData(path, null, stat, true);
+      snapshot =
+          createFromJsonSupportingLegacyConfigName(
+                  snapshotVersion,
+                  data,
+                  Collections.emptySet(),
+                  coll,
+                  zkClient,
+                  Instant.ofEpochMilli(stat.getCtime()))
+              .getCollectionOrNull(coll);
+    } catch (KeeperException.NoNodeException e) {
+      // the snapshots are kept a while after a new one is written, so the state.json that was read
+      // must have been overwritten more than once since
+      return null;
+    } catch (KeeperException e) {
+      throw new ZooKeeperException(SolrException.ErrorCode.SERVER_ERROR, "", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ZooKeeperException(SolrException.ErrorCode.SERVER_ERROR, "", e);
+    }
+    if (snapshot == null) {
+      throw new ZooKeeperException(
+          SolrException.ErrorCode.SERVER_ERROR, "Empty snapshot of the state of " + coll);
+    }
+    if (cache != null) {
+      cache.put(coll, snapshot);
+    }
+    return snapshot;
+  }
+
   @Override
   public ClusterState.CollectionRef getState(String collection) {
     ClusterState clusterState = getZkStateReader().getClusterState();
@@ -151,6 +273,11 @@ public class ZkClientClusterStateProvider
     }
   }
 
+  @Override
+  public Map<String, DocCollection> getCollectionStates(Collection<String> collections) {
+    return getZkStateReader().getCollectionsLive(collections);
+  }
+
   @Override
   public Set<String> getLiveNodes() {
     ClusterState clusterState = getZkStateReader().getClusterState();
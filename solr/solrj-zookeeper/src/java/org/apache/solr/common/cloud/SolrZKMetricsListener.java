@@ -16,6 +16,7 @@
  */
 package org.apache.solr.common.cloud;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.LongAdder;
 import org.apache.curator.drivers.AdvancedTracerDriver;
 import org.apache.curator.drivers.EventTrace;
@@ -37,6 +38,8 @@ public class SolrZKMetricsListener extends AdvancedTracerDriver implements Curat
   final LongAdder cumulativeChildrenFetched = new LongAdder();
   final LongAdder existsChecks = new LongAdder();
   final LongAdder deletes = new LongAdder();
+  final LongAdder stateFetches = new LongAdder();
+  final LongAdder stateFetchTimeNanos = new LongAdder();
 
   /*
   This is used by curator for all operations, but we will only use it for Foreground operations.
@@ -115,6 +118,15 @@ public class SolrZKMetricsListener extends AdvancedTracerDriver implements Curat
     }
   }
 
+  /**
+   * Records the fetch of the state of a collection, from the request of its state.json to its
+   * parsing, see {@link ZkStateReader}.
+   */
+  void recordStateFetch(long elapsedNanos) {
+    stateFetches.increment();
+    stateFetchTimeNanos.add(elapsedNanos);
+  }
+
   public long getWatchesFired() {
     return watchesFired.longValue();
   }
@@ -158,4 +170,13 @@ public class SolrZKMetricsListener extends AdvancedTracerDriver implements Curat
   public long getDeletes() {
     return deletes.longValue();
   }
+
+  public long getStateFetches() {
+    return stateFetches.longValue();
+  }
+
+  /** The cumulative latency of the collection state fetches, in milliseconds */
+  public long getStateFetchTime() {
+    return TimeUnit.NANOSECONDS.toMillis(stateFetchTimeNanos.longValue());
+  }
 }
@@ -54,6 +54,7 @@ import org.apache.solr.common.util.IOUtils;
 import org.apache.solr.common.util.ObjectReleaseTracker;
 import org.apache.solr.common.util.SolrNamedThreadFactory;
 import org.apache.solr.common.util.StrUtils;
+import org.apache.zookeeper.AsyncCallback;
 import org.apache.zookeeper.CreateMode;
 import org.apache.zookeeper.KeeperException;
 import org.apache.zookeeper.KeeperException.NoNodeException;
@@ -408,6 +409,64 @@ public class SolrZkClient implements Closeable {
     return result;
   }
 
+  /**
+   * Reads the data of the node at the given path without waiting for the response, so that many
+   * reads may be pipelined on the ZooKeeper session. The result code, the data and the stat of the
+   * node are passed to the callback, which is called on the executor of the ZooKeeper callbacks. As
+   * with {@link #getData(String, Watcher, Stat, boolean)}, the watcher is left on the node if the
+   * read succeeds.
+   */
+  public void getDataAsync(
+      final String path, final Watcher watcher, final AsyncCallback.DataCallback callback)
+      throws KeeperException, InterruptedException {
+    runWithCorrectThrows(
+        "getting data asynchronously",
+        () ->
+            client
+                .getData()
+                .usingWatcher(wrapWatcher(watcher))
+                .inBackground(
+                    (c, event) -> {
+                      // listeners only get the background events that have no callback
+                      metricsListener.eventReceived(c, event);
+                      callback.processResult(
+                          event.getResultCode(),
+                          path,
+                          event.getContext(),
+                          event.getData(),
+                          event.getStat());
+                    },
+                    zkCallbackExecutor)
+                .forPath(path));
+  }
+
+  /**
+   * Lists the children of the node at the given path without waiting for the response, see {@link
+   * #getDataAsync(String, Watcher, AsyncCallback.DataCallback)}.
+   */
+  public void getChildrenAsync(
+      final String path, final Watcher watcher, final AsyncCallback.Children2Callback callback)
+      throws KeeperException, InterruptedException {
+    runWithCorrectThrows(
+        "getting children asynchronously",
+        () ->
+            client
+                .getChildren()
+                .usingWatcher(wrapWatcher(watcher))
+                .inBackground(
+                    (c, event) -> {
+                      metricsListener.eventReceived(c, event);
+                      callback.processResult(
+                          event.getResultCode(),
+                          path,
+                          event.getContext(),
+                          event.getChildren(),
+                          event.getStat());
+                    },
+                    zkCallbackExecutor)
+                .forPath(path));
+  }
+
   public NodeData getNode(final String path, Watcher watcher, boolean retryOnConnLoss)
       throws KeeperException, InterruptedException {
     Stat stat = new Stat();
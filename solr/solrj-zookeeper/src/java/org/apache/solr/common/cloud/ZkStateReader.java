@@ -23,8 +23,10 @@ import java.lang.invoke.MethodHandles;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -39,11 +41,14 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
@@ -175,6 +180,12 @@ public class ZkStateReader implements SolrCloseable {
   public static final String LIVE_NODE_NODE_NAME = "nodeName";
   public static final String LIVE_NODE_ROLES = "roles";
 
+  /**
+   * The snapshots that the state.json diffs of the collections apply to, see {@link
+   * DocCollectionDiff}. Only the collections whose state.json was seen as a diff have one.
+   */
+  private final Map<String, DocCollection> stateSnapshots = new ConcurrentHashMap<>();
+
   /** "Interesting" but not actively watched Collections. */
   private final ConcurrentHashMap<String, LazyCollectionRef> lazyCollectionStates =
       new ConcurrentHashMap<>();
@@ -200,6 +211,10 @@ public class ZkStateReader implements SolrCloseable {
   private static final long LAZY_CACHE_TIME =
       TimeUnit.NANOSECONDS.convert(STATE_UPDATE_DELAY, TimeUnit.MILLISECONDS);
 
+  /** The maximum number of collection states read from ZK at the same time, on one session. */
+  private static final int MAX_STATE_FETCHES_IN_FLIGHT =
+      Integer.getInteger("solr.zookeeper.stateFetchesInFlight", 64);
+
   /**
    * Gets the ZkStateReader inside a ZK based SolrClient.
    *
@@ -468,13 +483,12 @@ public class ZkStateReader implements SolrCloseable {
 
       Set<String> updatedCollections = new HashSet<>();
 
-      // Iterate through the actively watched collections. Take note that the returned watched
-      // collections might change during the iteration, but it should not throw exception as
-      // it's thread-safe.
-      // If such set is modified elsewhere during the iteration, the code logic should still
-      // handle such missing/extra collection w/o issues.
-      for (String coll : collectionWatches.watchedCollections()) {
-        DocCollection newState = fetchCollectionState(coll, null);
+      // Fetch the actively watched collections. Take note that the watched collections might
+      // change meanwhile, the code logic should handle such missing/extra collection w/o issues.
+      Set<String> watchedCollections = new HashSet<>(collectionWatches.watchedCollections());
+      Map<String, DocCollection> newStates = fetchCollectionStates(watchedCollections, c -> null);
+      for (String coll : watchedCollections) {
+        DocCollection newState = newStates.get(coll);
         if (collectionWatches.updateDocCollection(coll, newState)) {
           updatedCollections.add(coll);
         }
@@ -655,10 +669,35 @@ public class ZkStateReader implements SolrCloseable {
 
   /** Refresh collections. */
   private void refreshCollections() {
+    final Map<String, StateWatcher> stateWatchers = new HashMap<>();
     for (Entry<String, StatefulCollectionWatch> e : collectionWatches.watchedCollectionEntries()) {
       StateWatcher newStateWatcher = new StateWatcher(e.getKey());
       e.getValue().associatedWatcher = newStateWatcher;
-      newStateWatcher.refreshAndWatch();
+      stateWatchers.put(e.getKey(), newStateWatcher);
+    }
+    final Set<String> colls = stateWatchers.keySet();
+    if (colls.isEmpty()) {
+      return;
+    }
+
+    try {
+      // fetched all at once rather than by StateWatcher.refreshAndWatch() one after the other
+      Map<String, DocCollection> newStates = fetchCollectionStates(colls, stateWatchers::get);
+      for (String coll : colls) {
+        collectionWatches.updateDocCollection(coll, newStates.get(coll));
+      }
+      synchronized (getUpdateLock()) {
+        constructState(colls);
+      }
+    } catch (KeeperException.SessionExpiredException
+        | KeeperException.ConnectionLossException e) {
+      log.warn("Cannot refresh the watched collections, Solr cannot talk to ZK: ", e);
+    } catch (KeeperException e) {
+      log.error("Unwatched collections: {}", colls, e);
+      throw new ZooKeeperException(ErrorCode.SERVER_ERROR, "A ZK error has occurred", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.error("Unwatched collections: {}", colls, e);
     }
   }
 
@@ -782,6 +821,12 @@ public class ZkStateReader implements SolrCloseable {
       return cachedDocCollection;
     }
 
+    /** Caches a state of the collection that was just fetched from ZK. */
+    private synchronized void setCachedDocCollection(DocCollection docCollection) {
+      cachedDocCollection = docCollection;
+      lastUpdateTime = System.nanoTime();
+    }
+
     @Override
     public boolean isLazilyLoaded() {
       return true;
@@ -1440,28 +1485,207 @@ public class ZkStateReader implements SolrCloseable {
     }
   }
 
+  /**
+   * Returns the current state of the given collections. The lazily loaded collections are fetched
+   * from ZK all at once, with many reads in flight on the ZK session, and their cached state is
+   * refreshed along the way. The unknown collections are ignored.
+   *
+   * @return the states of the collections that exist, by name
+   */
+  public Map<String, DocCollection> getCollectionsLive(Collection<String> collections) {
+    final Map<String, DocCollection> states = new HashMap<>();
+    final List<String> lazyCollections = new ArrayList<>();
+    final ClusterState clusterState = this.clusterState;
+    if (clusterState == null) {
+      return states;
+    }
+    for (String coll : collections) {
+      ClusterState.CollectionRef ref = clusterState.getCollectionRef(coll);
+      if (ref == null) {
+        continue;
+      }
+      if (ref.isLazilyLoaded()) {
+        lazyCollections.add(coll);
+      } else {
+        DocCollection state = ref.get();
+        if (state != null) {
+          states.put(coll, state);
+        }
+      }
+    }
+    if (lazyCollections.isEmpty()) {
+      return states;
+    }
+
+    try {
+      Map<String, DocCollection> fetchedStates = fetchCollectionStates(lazyCollections, c -> null);
+      for (String coll : lazyCollections) {
+        LazyCollectionRef ref = lazyCollectionStates.get(coll);
+        if (ref != null) {
+          ref.setCachedDocCollection(fetchedStates.get(coll));
+        }
+      }
+      states.putAll(fetchedStates);
+      return states;
+    } catch (KeeperException e) {
+      throw new SolrException(
+          ErrorCode.BAD_REQUEST, "Could not load collections from ZK: " + lazyCollections, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SolrException(
+          ErrorCode.BAD_REQUEST, "Could not load collections from ZK: " + lazyCollections, e);
+    }
+  }
+
+  /**
+   * Fetches the state of the given collections like {@link #fetchCollectionState(String, Watcher)}
+   * does for each of them, but with up to {@link #MAX_STATE_FETCHES_IN_FLIGHT} asynchronous reads
+   * pipelined on the ZK session rather than one round trip after the other. The collections whose
+   * state could not be read that way, e.g. because their state.json does not exist, or whose
+   * children could not be watched, are fetched again with {@link #fetchCollectionState(String,
+   * Watcher)} once all the reads completed, after watching their children again if needed.
+   *
+   * @param watchers the watcher to leave on the state.json of each collection and on its children,
+   *     i.e. its per-replica states, or null to leave no watch
+   * @return the states of the collections that exist, by name
+   */
+  private Map<String, DocCollection> fetchCollectionStates(
+      Collection<String> colls, Function<String, Watcher> watchers)
+      throws KeeperException, InterruptedException {
+    final Map<String, DocCollection> fetchedStates = new ConcurrentHashMap<>();
+    final Set<String> pending = ConcurrentHashMap.newKeySet();
+    final Set<String> failed = ConcurrentHashMap.newKeySet();
+    final Set<String> unwatchedChildren = ConcurrentHashMap.newKeySet();
+    final Semaphore inFlight = new Semaphore(MAX_STATE_FETCHES_IN_FLIGHT);
+    final long timeoutMs = zkClient.getZkClientTimeout();
+    boolean timedOut = false;
+    for (String coll : colls) {
+      if (timedOut || !inFlight.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+        // no response for a while, leave it to the synchronous fetches to fail or retry
+        timedOut = true;
+        unwatchedChildren.add(coll);
+        failed.add(coll);
+        continue;
+      }
+      final String collectionPath = DocCollection.getCollectionPath(coll);
+      final Watcher watcher = watchers.apply(coll);
+      final long startTime = System.nanoTime();
+      // the permit of the collection is released once all its reads completed
+      final AtomicInteger reads = new AtomicInteger(watcher != null ? 2 : 1);
+      final Runnable readDone =
+          () -> {
+            if (reads.decrementAndGet() == 0) {
+              pending.remove(coll);
+              inFlight.release();
+            }
+          };
+      int unsentReads = reads.get();
+      pending.add(coll);
+      try {
+        if (watcher != null) {
+          // ZK handles the requests of a session in order, so the children are watched before the
+          // per-replica states are read along with the state.json
+          zkClient.getChildrenAsync(
+              collectionPath,
+              watcher,
+              (rc, path, ctx, children, stat) -> {
+                try {
+                  if (rc != KeeperException.Code.OK.intValue()) {
+                    // the children are watched again, before the state is read again
+                    unwatchedChildren.add(coll);
+                    failed.add(coll);
+                  }
+                } finally {
+                  readDone.run();
+                }
+              });
+          unsentReads--;
+        }
+        zkClient.getDataAsync(
+            collectionPath,
+            watcher,
+            (rc, path, ctx, data, stat) -> {
+              try {
+                if (rc == KeeperException.Code.OK.intValue()) {
+                  DocCollection state = readCollectionState(coll, data, stat);
+                  zkClient.getMetrics().recordStateFetch(System.nanoTime() - startTime);
+                  if (state != null) {
+                    fetchedStates.put(coll, state);
+                  }
+                } else {
+                  failed.add(coll);
+                }
+              } catch (RuntimeException e) {
+                failed.add(coll);
+              } finally {
+                readDone.run();
+              }
+            });
+      } catch (KeeperException | RuntimeException e) {
+        unwatchedChildren.add(coll);
+        failed.add(coll);
+        for (; unsentReads > 0; unsentReads--) {
+          readDone.run();
+        }
+      }
+    }
+    if (!inFlight.tryAcquire(MAX_STATE_FETCHES_IN_FLIGHT, timeoutMs, TimeUnit.MILLISECONDS)) {
+      unwatchedChildren.addAll(pending);
+      failed.addAll(pending);
+    }
+
+    // a copy, that the callbacks of the reads that timed out may not modify anymore
+    final Map<String, DocCollection> states = new HashMap<>(fetchedStates);
+    for (String coll : failed) {
+      final Watcher watcher = watchers.apply(coll);
+      if (watcher != null && unwatchedChildren.contains(coll)) {
+        try {
+          zkClient.getChildren(DocCollection.getCollectionPath(coll), watcher, true);
+        } catch (KeeperException.NoNodeException e) {
+          // deleted, the state read below leaves an exists watch instead
+        }
+      }
+      DocCollection state = fetchCollectionState(coll, watcher);
+      if (state != null) {
+        states.put(coll, state);
+      } else {
+        states.remove(coll);
+      }
+    }
+    return states;
+  }
+
+  /** Reads the state of a collection from the data and the stat of its state.json. */
+  private DocCollection readCollectionState(String coll, byte[] data, Stat stat) {
+    // This factory method can detect a missing configName and supply it by reading it from the
+    // old ZK location.
+    // TODO in Solr 10 remove that factory method
+    ClusterState state =
+        ZkClientClusterStateProvider.createFromJsonSupportingLegacyConfigName(
+            stat.getVersion(),
+            data,
+            Collections.emptySet(),
+            coll,
+            zkClient,
+            Instant.ofEpochMilli(stat.getCtime()),
+            stateSnapshots);
+
+    return state.getCollectionOrNull(coll);
+  }
+
   private DocCollection fetchCollectionState(String coll, Watcher watcher)
       throws KeeperException, InterruptedException {
     String collectionPath = DocCollection.getCollectionPath(coll);
     while (true) {
       try {
+        final long startTime = System.nanoTime();
         Stat stat = new Stat();
         byte[] data = zkClient.getData(collectionPath, watcher, stat, true);
-
-        // This factory method can detect a missing configName and supply it by reading it from the
-        // old ZK location.
-        // TODO in Solr 10 remove that factory method
-        ClusterState state =
-            ZkClientClusterStateProvider.createFromJsonSupportingLegacyConfigName(
-                stat.getVersion(),
-                data,
-                Collections.emptySet(),
-                coll,
-                zkClient,
-                Instant.ofEpochMilli(stat.getCtime()));
-
-        return state.getCollectionOrNull(coll);
+        DocCollection state = readCollectionState(coll, data, stat);
+        zkClient.getMetrics().recordStateFetch(System.nanoTime() - startTime);
+        return state;
       } catch (KeeperException.NoNodeException e) {
+        stateSnapshots.remove(coll);
         if (watcher != null) {
           // Leave an exists watch in place in case a state.json is created later.
           Stat exists = zkClient.exists(collectionPath, watcher, true);
@@ -27,6 +27,7 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -405,6 +406,69 @@ public abstract class BaseHttpClusterStateProvider implements ClusterStateProvid
             + " solrUrl(s).");
   }
 
+  /**
+   * Waits for the state of one of the given collections to change on the Solr side, or for the
+   * given time to elapse, and returns the current versions of the state of the collections. This
+   * is a long poll through which callers can keep their copy of the state of the collections up to
+   * date without polling it.
+   *
+   * @param knownVersions the {@link DocCollection#getZNodeVersion()} and {@link
+   *     DocCollection#getChildNodesVersion()} of the state of each collection known to the caller
+   * @param waitMillis the longest time to wait for a change, which Solr caps to one minute
+   * @return the versions of the state of each collection, or {@code null} for the collections that
+   *     do not exist anymore; or {@code null} if the Solr nodes do not support waiting for changes
+   */
+  @SuppressWarnings("unchecked")
+  public Map<String, List<Integer>> waitForStateChange(
+      Map<String, List<Integer>> knownVersions, long waitMillis) {
+    StringBuilder stateVersions = new StringBuilder();
+    knownVersions.forEach(
+        (collection, versions) -> {
+          if (stateVersions.length() > 0) stateVersions.append('|');
+          stateVersions
+              .append(collection)
+              .append(':')
+              .append(versions.get(0))
+              .append(':')
+              .append(versions.get(1));
+        });
+    ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set("action", "CLUSTERSTATUS");
+    params.set("includeAll", false);
+    params.set("stateVersions", stateVersions.toString());
+    params.set("waitForStateChange", Long.toString(waitMillis));
+
+    for (String nodeName : getLiveNodes()) {
+      String baseUrl = URLUtil.getBaseUrlForNodeName(nodeName, urlScheme);
+      try (SolrClient client = getSolrClient(baseUrl)) {
+        var request = new GenericSolrRequest(METHOD.GET, "/admin/collections", params);
+        SimpleOrderedMap<?> cluster = (SimpleOrderedMap<?>) client.request(request).get("cluster");
+        Object versions = cluster == null ? null : cluster.get("stateVersions");
+        if (versions == null) {
+          return null; // a Solr version that ignores the parameters
+        }
+        Map<String, List<Integer>> result = new HashMap<>();
+        ((Map<String, List<Number>>) versions)
+            .forEach(
+                (collection, v) ->
+                    result.put(
+                        collection,
+                        v == null ? null : List.of(v.get(0).intValue(), v.get(1).intValue())));
+        return result;
+      } catch (SolrServerException | RemoteSolrException | IOException e) {
+        log.warn("Attempt to wait for a cluster state change on {} failed.", baseUrl, e);
+      }
+    }
+    throw new RuntimeException(
+        "Tried waiting for a cluster state change using the node names we knew of, i.e. "
+            + liveNodes
+            + ". However, "
+            + "succeeded in none of them."
+            + "If you think your Solr cluster is up and is accessible,"
+            + " you could try re-creating a new CloudSolrClient using working"
+            + " solrUrl(s).");
+  }
+
   @Override
   public String getPolicyNameByCollection(String coll) {
     throw new UnsupportedOperationException(
@@ -47,6 +47,7 @@ public class CloudHttp2SolrClient extends CloudSolrClient {
   private final LBHttp2SolrClient<HttpSolrClientBase> lbClient;
   private final HttpSolrClientBase myClient;
   private final boolean clientIsInternal;
+  private final CollectionStateSubscription stateSubscription;
 
   private static final boolean JETTY_CLIENT_AVAILABLE;
 
@@ -91,6 +92,15 @@ public class CloudHttp2SolrClient extends CloudSolrClient {
     this.locks = objectList(builder.parallelCacheRefreshesLocks);
 
     this.lbClient = new LBHttp2SolrClient.Builder<>(myClient).build();
+
+    if (builder.stateChangeWaitMillis > 0
+        && stateProvider instanceof BaseHttpClusterStateProvider httpStateProvider) {
+      this.stateSubscription =
+          new CollectionStateSubscription(this, httpStateProvider, builder.stateChangeWaitMillis);
+      this.stateSubscription.start();
+    } else {
+      this.stateSubscription = null;
+    }
   }
 
   private HttpSolrClientBase createOrGetHttpClientFromBuilder(Builder builder) {
@@ -160,6 +170,9 @@ public class CloudHttp2SolrClient extends CloudSolrClient {
 
   @Override
   public void close() throws IOException {
+    if (stateSubscription != null) {
+      stateSubscription.close();
+    }
     stateProvider.close();
     lbClient.close();
 
@@ -204,6 +217,7 @@ public class CloudHttp2SolrClient extends CloudSolrClient {
     private int zkConnectTimeout = SolrZkClientTimeout.DEFAULT_ZK_CONNECT_TIMEOUT;
     private int zkClientTimeout = SolrZkClientTimeout.DEFAULT_ZK_CLIENT_TIMEOUT;
     private boolean canUseZkACLs = true;
+    private long stateChangeWaitMillis = 0;
 
     /**
      * Provide a series of Solr URLs to be used when configuring {@link CloudHttp2SolrClient}
@@ -383,6 +397,23 @@ public class CloudHttp2SolrClient extends CloudSolrClient {
       return this;
     }
 
+    /**
+     * Keeps the cached states of the collections up to date by subscribing to their changes on the
+     * Solr nodes, rather than refreshing them once a request finds out that they are stale. Only
+     * applies when the client gets the cluster state from Solr URLs rather than from ZooKeeper,
+     * which notifies of the changes on its own.
+     *
+     * <p>Each subscription request waits on a Solr node for up to the given time (capped to one
+     * minute by Solr), which should be shorter than the idle timeout of the HTTP client. Disabled
+     * by default.
+     *
+     * @param maxWait the longest time a subscription request waits for a change, 0 to disable
+     */
+    public Builder withStateChangeSubscription(long maxWait, TimeUnit unit) {
+      this.stateChangeWaitMillis = unit.toMillis(maxWait);
+      return this;
+    }
+
     /**
      * Set the internal Solr HTTP client.
      *
@@ -1015,6 +1015,9 @@ public abstract class CloudSolrClient extends SolrClient {
       // of slices.
       Map<String, Slice> slices = new HashMap<>();
       String shardKeys = reqParams.get(ShardParams._ROUTE_);
+      if (collectionNames.size() > 1) {
+        prefetchDocCollections(collectionNames);
+      }
       for (String collectionName : collectionNames) {
         DocCollection col = getDocCollection(collectionName, null);
         if (col == null) {
@@ -1183,6 +1186,80 @@ public abstract class CloudSolrClient extends SolrClient {
     }
   }
 
+  /**
+   * Fetches the state of the collections that are not cached yet all at once, rather than one
+   * after the other in {@link #getDocCollection(String, Integer)}.
+   */
+  private void prefetchDocCollections(Collection<String> collections) {
+    List<String> uncached = new ArrayList<>();
+    for (String collection : collections) {
+      ExpiringCachedDocCollection cacheEntry = collectionStateCache.get(collection);
+      if (cacheEntry == null || cacheEntry.shouldRetry()) {
+        uncached.add(collection);
+      }
+    }
+    if (uncached.size() > 1) {
+      getClusterStateProvider()
+          .getCollectionStates(uncached)
+          .forEach(
+              (collection, state) ->
+                  collectionStateCache.put(collection, new ExpiringCachedDocCollection(state)));
+    }
+  }
+
+  /**
+   * Returns the {@link DocCollection#getZNodeVersion()} and {@link
+   * DocCollection#getChildNodesVersion()} of the state of each cached collection.
+   */
+  Map<String, List<Integer>> getCachedStateVersions() {
+    Map<String, List<Integer>> versions = new HashMap<>();
+    collectionStateCache.forEach(
+        (collection, cacheEntry) -> {
+          if (!cacheEntry.isExpired(collectionStateCache.timeToLiveMs)) {
+            DocCollection col = cacheEntry.cached;
+            versions.put(collection, List.of(col.getZNodeVersion(), col.getChildNodesVersion()));
+          }
+        });
+    return versions;
+  }
+
+  /**
+   * Updates the cached state of the collections whose state changed on the Solr side, rather than
+   * waiting for a request to find out that it is stale.
+   *
+   * @param knownVersions the versions of the cached states, as returned by {@link
+   *     #getCachedStateVersions()}
+   * @param currentVersions the current versions of the states, {@code null} for the collections
+   *     that do not exist anymore
+   */
+  void refreshChangedDocCollections(
+      Map<String, List<Integer>> knownVersions, Map<String, List<Integer>> currentVersions) {
+    List<String> changed = new ArrayList<>();
+    knownVersions.forEach(
+        (collection, known) -> {
+          if (!currentVersions.containsKey(collection)) return;
+          List<Integer> current = currentVersions.get(collection);
+          if (current == null) {
+            collectionStateCache.remove(collection);
+          } else if (!current.equals(known)) {
+            changed.add(collection);
+          }
+        });
+    if (changed.isEmpty()) return;
+    getClusterStateProvider()
+        .getCollectionStates(changed)
+        .forEach(
+            (collection, state) -> {
+              // a request may have fetched an even newer state in the meantime
+              ExpiringCachedDocCollection cacheEntry = collectionStateCache.get(collection);
+              if (cacheEntry == null
+                  || cacheEntry.cached.isModified(
+                      state.getZNodeVersion(), state.getChildNodesVersion())) {
+                collectionStateCache.put(collection, new ExpiringCachedDocCollection(state));
+              }
+            });
+  }
+
   ClusterState.CollectionRef getCollectionRef(String collection) {
     return getClusterStateProvider().getState(collection);
   }
@@ -19,6 +19,7 @@ package org.apache.solr.client.solrj.impl;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -57,6 +58,24 @@ public interface ClusterStateProvider extends SolrCloseable {
    */
   ClusterState.CollectionRef getState(String collection);
 
+  /**
+   * Obtain the state of several collections, like {@link #getState(String)} for each of them but
+   * possibly fetched all at once.
+   *
+   * @return the states of the collections that exist, by name
+   */
+  default Map<String, DocCollection> getCollectionStates(Collection<String> collections) {
+    Map<String, DocCollection> states = new HashMap<>();
+    for (String collection : collections) {
+      ClusterState.CollectionRef ref = getState(collection);
+      DocCollection state = ref == null ? null : ref.get();
+      if (state != null) {
+        states.put(collection, state);
+      }
+    }
+    return states;
+  }
+
   /** Obtain set of live_nodes for the cluster. */
   Set<String> getLiveNodes();
 
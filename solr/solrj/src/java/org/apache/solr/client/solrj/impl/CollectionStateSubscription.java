@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.solr.client.solrj.impl;
+
+import java.io.Closeable;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.common.util.ExecutorUtil;
+import org.apache.solr.common.util.SolrNamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the states of collections cached by a {@link CloudSolrClient} up to date without access to
+ * ZooKeeper, by subscribing to their changes with a long poll of the Solr nodes (see {@link
+ * BaseHttpClusterStateProvider#waitForStateChange}). A request then rarely finds out that the state
+ * it was routed with is stale, and does not have to be retried after a leader change.
+ */
+class CollectionStateSubscription implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /** The time to wait before checking again for cached collections, when there are none. */
+  private static final long IDLE_WAIT_MS = 1000;
+
+  /** The longest time to wait before subscribing again after a failure. */
+  private static final long MAX_FAILURE_WAIT_MS = TimeUnit.SECONDS.toMillis(30);
+
+  private final CloudSolrClient client;
+  private final BaseHttpClusterStateProvider stateProvider;
+  private final long waitMillis;
+  private final ExecutorService executor =
+      ExecutorUtil.newMDCAwareSingleThreadExecutor(
+          new SolrNamedThreadFactory("collectionStateSubscription"));
+  private volatile boolean closed = false;
+
+  CollectionStateSubscription(
+      CloudSolrClient client, BaseHttpClusterStateProvider stateProvider, long waitMillis) {
+    this.client = client;
+    this.stateProvider = stateProvider;
+    this.waitMillis = waitMillis;
+  }
+
+  void start() {
+    executor.execute(this::run);
+  }
+
+  private void run() {
+    int failures = 0;
+    while (!closed) {
+      try {
+        Map<String, List<Integer>> knownVersions = client.getCachedStateVersions();
+        if (knownVersions.isEmpty()) {
+          Thread.sleep(IDLE_WAIT_MS);
+          continue;
+        }
+        Map<String, List<Integer>> currentVersions =
+            stateProvider.waitForStateChange(knownVersions, waitMillis);
+        if (currentVersions == null) {
+          log.warn(
+              "The Solr nodes do not support waiting for cluster state changes, "
+                  + "the states of the collections will only be refreshed on demand");
+          return;
+        }
+        client.refreshChangedDocCollections(knownVersions, currentVersions);
+        failures = 0;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (Exception e) {
+        if (closed) return;
+        log.warn("Failed to wait for cluster state changes, retrying", e);
+        try {
+          Thread.sleep(Math.min(IDLE_WAIT_MS << Math.min(failures++, 5), MAX_FAILURE_WAIT_MS));
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    ExecutorUtil.shutdownNowAndAwaitTermination(executor);
+  }
+}
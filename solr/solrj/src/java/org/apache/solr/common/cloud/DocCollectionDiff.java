@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.solr.common.cloud;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.solr.common.cloud.DocCollection.CollectionStateProps;
+import org.apache.solr.common.util.Utils;
+
+/**
+ * The diff-based format of the state.json of a collection. Rather than the whole state of the
+ * collection, a diff holds the changes of the collection since a full snapshot of its state: the
+ * properties of the collection if they changed, and the shards that changed or were removed. The
+ * snapshot is identified by the version of the state.json when it was written in full, and a copy
+ * of it is kept at {@link #getSnapshotPath(String, int)}, so that readers that did not see that
+ * version can apply the diff all the same.
+ *
+ * <p>As the diffs are relative to a snapshot rather than to the previous version of the
+ * state.json, a reader never needs the versions that it missed. It only parses the diff, and the
+ * snapshot once, rather than the whole state of the collection on every change.
+ *
+ * @lucene.internal
+ */
+public class DocCollectionDiff {
+  /** The key of the version of the snapshot that a diff applies to, which marks a diff. */
+  public static final String SNAPSHOT = "_snapshot_";
+
+  /** The key of the properties of the collection in a diff, present only if they changed. */
+  public static final String PROPS = "_props_";
+
+  public static final String SNAPSHOTS_ZKNODE = "state_snapshots";
+
+  private DocCollectionDiff() {}
+
+  public static String getSnapshotsPath(String coll) {
+    return DocCollection.getCollectionPathRoot(coll) + "/" + SNAPSHOTS_ZKNODE;
+  }
+
+  public static String getSnapshotPath(String coll, int snapshotVersion) {
+    return getSnapshotsPath(coll) + "/" + snapshotVersion;
+  }
+
+  /** Returns whether the object of a collection in its state.json is a diff. */
+  public static boolean isDiff(Map<String, Object> collectionObjs) {
+    return collectionObjs != null && collectionObjs.containsKey(SNAPSHOT);
+  }
+
+  /** Returns the version of the snapshot that the given diff applies to. */
+  public static int getSnapshotVersion(Map<String, Object> diff) {
+    return ((Number) diff.get(SNAPSHOT)).intValue();
+  }
+
+  /**
+   * Creates the diff of a collection with a snapshot of it, to be written in its state.json.
+   *
+   * @param snapshot the collection as written in full in its state.json, the version of which is
+   *     the version of the snapshot
+   * @param collection the current state of the collection
+   */
+  public static Map<String, Object> create(DocCollection snapshot, DocCollection collection) {
+    final Map<String, Object> diff = new LinkedHashMap<>();
+    diff.put(SNAPSHOT, snapshot.getZNodeVersion());
+    if (!sameJson(snapshot.getProperties(), collection.getProperties())) {
+      diff.put(PROPS, collection.getProperties());
+    }
+    final Map<String, Object> shards = new LinkedHashMap<>();
+    for (Slice slice : collection.getSlices()) {
+      if (!sameJson(snapshot.getSlice(slice.getName()), slice)) {
+        shards.put(slice.getName(), slice);
+      }
+    }
+    for (String shard : snapshot.getSlicesMap().keySet()) {
+      if (collection.getSlice(shard) == null) {
+        shards.put(shard, null);
+      }
+    }
+    diff.put(CollectionStateProps.SHARDS, shards);
+    return diff;
+  }
+
+  /**
+   * Applies a diff read from the state.json of a collection to the snapshot it was created from.
+   *
+   * @param snapshot the collection as written in full in its state.json, at the version of the
+   *     snapshot of the diff
+   * @param diff the object of the collection in its state.json
+   * @param version the version of the state.json
+   * @param creationTime the creation time of the state.json
+   * @param prsSupplier the supplier of the per-replica states of the collection
+   */
+  @SuppressWarnings("unchecked")
+  public static DocCollection apply(
+      DocCollection snapshot,
+      Map<String, Object> diff,
+      int version,
+      Instant creationTime,
+      DocCollection.PrsSupplier prsSupplier) {
+    if (snapshot.getZNodeVersion() != getSnapshotVersion(diff)) {
+      throw new IllegalArgumentException(
+          "Diff of snapshot " + getSnapshotVersion(diff) + " applied to " + snapshot);
+    }
+    final Map<String, Object> props = (Map<String, Object>) diff.get(PROPS);
+    final Map<String, Object> objs =
+        new LinkedHashMap<>(props == null ? snapshot.getProperties() : props);
+    // the slices of the snapshot are kept as is, only the changed ones are parsed
+    final Map<String, Object> shards = new LinkedHashMap<>(snapshot.getSlicesMap());
+    final Map<String, Object> changedShards =
+        (Map<String, Object>) diff.get(CollectionStateProps.SHARDS);
+    if (changedShards != null) {
+      changedShards.forEach(
+          (shard, slice) -> {
+            if (slice == null) {
+              shards.remove(shard);
+            } else {
+              shards.put(shard, slice);
+            }
+          });
+    }
+    objs.put(CollectionStateProps.SHARDS, shards);
+    return ClusterState.collectionFromObjects(
+        snapshot.getName(), objs, version, creationTime, prsSupplier);
+  }
+
+  private static boolean sameJson(Object a, Object b) {
+    if (a == b) return true;
+    if (a == null || b == null) return false;
+    return Arrays.equals(Utils.toJSON(a), Utils.toJSON(b));
+  }
+}
@@ -34,6 +34,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.lucene.tests.util.TestUtil;
@@ -70,6 +71,7 @@ import org.apache.solr.common.params.ShardParams;
 import org.apache.solr.common.params.UpdateParams;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
+import org.apache.solr.common.util.TimeSource;
 import org.apache.solr.common.util.URLUtil;
 import org.apache.solr.embedded.JettySolrRunner;
 import org.apache.solr.handler.admin.CollectionsHandler;
@@ -78,6 +80,7 @@ import org.apache.solr.handler.admin.CoreAdminHandler;
 import org.apache.solr.servlet.HttpSolrCall;
 import org.apache.solr.util.LogLevel;
 import org.apache.solr.util.LogListener;
+import org.apache.solr.util.TimeOut;
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -1026,6 +1029,58 @@ public class CloudHttp2SolrClientTest extends SolrCloudTestCase {
     }
   }
 
+  @Test
+  public void testStateChangeSubscription() throws Exception {
+    String COLLECTION = getSaferTestName();
+    CollectionAdminRequest.createCollection(COLLECTION, "conf", 1, 1)
+        .process(cluster.getSolrClient());
+    cluster.waitForActiveCollection(COLLECTION, 1, 1);
+
+    var stateProvider =
+        (BaseHttpClusterStateProvider) httpJettyBasedCloudSolrClient.getClusterStateProvider();
+    DocCollection state = stateProvider.getCollection(COLLECTION);
+    List<Integer> versions = List.of(state.getZNodeVersion(), state.getChildNodesVersion());
+    // returns at once when the known version is stale, after the wait otherwise
+    assertEquals(
+        Map.of(COLLECTION, versions),
+        stateProvider.waitForStateChange(Map.of(COLLECTION, List.of(-1, 0)), 30000));
+    assertEquals(
+        Map.of(COLLECTION, versions),
+        stateProvider.waitForStateChange(Map.of(COLLECTION, versions), 100));
+    Map<String, List<Integer>> deleted = new HashMap<>();
+    deleted.put("missing", null);
+    assertEquals(
+        deleted, stateProvider.waitForStateChange(Map.of("missing", List.of(0, 0)), 30000));
+
+    final List<String> solrUrls = List.of(cluster.getJettySolrRunner(0).getBaseUrl().toString());
+    try (CloudHttp2SolrClient client =
+        new CloudHttp2SolrClient.Builder(solrUrls)
+            .withStateChangeSubscription(5, TimeUnit.SECONDS)
+            .withCollectionCacheTtl(1, TimeUnit.HOURS)
+            .build()) {
+      // populates the cache of the client
+      assertEquals(0, client.query(COLLECTION, params("q", "*:*")).getResults().getNumFound());
+      assertEquals(1, client.getDocCollection(COLLECTION, null).getReplicas().size());
+
+      // not through the client, which is not told of the change
+      CollectionAdminRequest.addReplicaToShard(COLLECTION, "shard1")
+          .process(cluster.getSolrClient());
+      cluster.waitForActiveCollection(COLLECTION, 1, 2);
+
+      new TimeOut(30, TimeUnit.SECONDS, TimeSource.NANO_TIME)
+          .waitFor(
+              "the cached state was not updated",
+              () -> {
+                var cacheEntry = client.collectionStateCache.get(COLLECTION);
+                return cacheEntry != null
+                    && cacheEntry.cached.getReplicas().stream()
+                            .filter(r -> r.getState() == Replica.State.ACTIVE)
+                            .count()
+                        == 2;
+              });
+    }
+  }
+
   public void testRetryUpdatesWhenClusterStateIsStale() throws Exception {
     final String COL = "stale_state_test_col";
     assertTrue(cluster.getJettySolrRunners().size() >= 2);